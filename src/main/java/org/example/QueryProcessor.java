@@ -73,14 +73,21 @@ public class QueryProcessor {
                 case CREATE_TABLE -> new CreateTableQueryHandler();
                 case USE_DATABASE -> new UseDatabaseQueryHandler();
                 case INSERT_INTO_TABLE -> new InsertIntoTableQueryHandler();
+                case LOAD_DATA -> new LoadDataQueryHandler();
                 case SELECT_FROM_TABLE -> new SelectFromTableQueryHandler();
                 case UPDATE_TABLE -> new UpdateTableQueryHandler();
                 case DELETE_FROM_TABLE -> new DeleteFromTableQueryHandler();
                 case DROP_TABLE -> new DropTableQueryHandler();
+                case CREATE_INDEX, CREATE_BITMAP_INDEX -> new CreateIndexQueryHandler();
+                case DROP_INDEX -> new DropIndexQueryHandler();
+                case ADVISE_INDEXES -> new AdviseIndexesQueryHandler();
                 case SET_AUTO_COMMIT -> new SetAutoCommitQueryHandler();
                 case START_TRANSACTION -> new StartTransactionQueryHandler();
                 case ROLLBACK -> new RollbackQueryHandler();
                 case COMMIT -> new CommitQueryHandler();
+                case SHOW_STATUS -> new ShowStatusQueryHandler();
+                case SHOW_STATS -> new ShowStatsQueryHandler();
+                case RESTORE_DATABASE -> new RestoreDatabaseQueryHandler();
             };
             queryHandlers.put(queryType, handler);
         }
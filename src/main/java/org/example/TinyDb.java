@@ -10,6 +10,7 @@ import org.example.service.UserAuthService;
 import org.example.util.hashing.BCryptStringHashing;
 import org.example.util.hashing.StringHashing;
 
+import java.io.File;
 import java.util.LinkedHashMap;
 import java.util.Scanner;
 
@@ -237,12 +238,14 @@ public class TinyDb {
             System.out.println("Database not found! Please try again.\n");
             return;
         }
+        System.out.print("Compress with gzip? (y/N): ");
+        boolean isCompressed = scanner.nextLine().trim().equalsIgnoreCase("y");
         try {
-            FileManager.generateSQLDump(databaseName);
+            File dumpFile = FileManager.generateSQLDump(databaseName, isCompressed);
+            System.out.println("Database exported to " + dumpFile);
         } catch (RuntimeException e) {
             System.out.println("Error: " + e.getMessage());
         }
-        System.out.println("Database exported.");
     }
 
     /**
@@ -0,0 +1,88 @@
+package org.example.benchmark;
+
+import org.example.database.Column;
+import org.example.database.Row;
+import org.example.database.RowSchema;
+import org.example.enums.Compression;
+import org.example.enums.StorageEngine;
+import org.example.storage.TableFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares full scan throughput of the same table stored with every {@link Compression}.
+ * Rows are read through {@link TableFile} directly, so the row cache and column stores are not involved.
+ * <pre>{@code java -cp target/classes org.example.benchmark.TableScanBenchmark [rows] [iterations]}</pre>
+ */
+public class TableScanBenchmark {
+    private static final int BATCH_SIZE = 10_000;
+    private static final String[] CITIES = {"Halifax", "Toronto", "Montreal", "Vancouver", "Calgary", "Ottawa",
+            "Winnipeg", "Quebec", "Regina", "Victoria"};
+
+    public static void main(String[] args) throws IOException {
+        int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        List<Column> columns = List.of(
+                new Column("id", "int", List.of(), null, null),
+                new Column("city", "string", List.of(), null, null),
+                new Column("note", "string", List.of(), null, null),
+                new Column("score", "double", List.of(), null, null));
+        RowSchema schema = RowSchema.of(columns);
+        String schemaLine = "id: int [] | city: string [] | note: string [] | score: double [] | ";
+
+        File directory = Files.createTempDirectory("tinydb-benchmark").toFile();
+        System.out.printf("%-12s %12s %12s %14s %12s%n", "Compression", "File bytes", "Write ms", "Scan rows/s", "Read MB/s");
+        for (Compression compression : Compression.values()) {
+            TableFile tableFile = new TableFile(new File(directory, compression.name().toLowerCase() + TableFile.EXTENSION));
+            tableFile.create(schemaLine, StorageEngine.ROW, compression);
+
+            long start = System.nanoTime();
+            for (int offset = 0; offset < rowCount; offset += BATCH_SIZE)
+                tableFile.appendRows(createRows(schema, offset, Math.min(BATCH_SIZE, rowCount - offset)));
+            long writeNanos = System.nanoTime() - start;
+            long fileBytes = tableFile.getFile().length();
+
+            // First scan warms up the JIT and the page cache
+            scan(tableFile, schema);
+            long bestNanos = Long.MAX_VALUE;
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                start = System.nanoTime();
+                long scannedRows = scan(tableFile, schema);
+                bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+                if (scannedRows != rowCount)
+                    throw new IllegalStateException("Scanned " + scannedRows + " rows instead of " + rowCount);
+            }
+
+            double seconds = bestNanos / 1e9;
+            System.out.printf("%-12s %12d %12d %14.0f %12.1f%n", compression, fileBytes, writeNanos / 1_000_000,
+                    rowCount / seconds, fileBytes / seconds / (1 << 20));
+            tableFile.delete();
+        }
+        directory.delete();
+    }
+
+    // Region: private methods
+    private static List<Row> createRows(RowSchema schema, int firstId, int count) {
+        List<Row> rows = new ArrayList<>(count);
+        for (int id = firstId; id < firstId + count; id++) {
+            rows.add(Row.builder(schema)
+                    .setInt(0, id)
+                    .setString(1, CITIES[id % CITIES.length])
+                    .setString(2, "order " + id + " shipped from warehouse " + (id % 37) + " on schedule")
+                    .setDouble(3, (id % 1000) / 10.0)
+                    .build());
+        }
+        return rows;
+    }
+
+    private static long scan(TableFile tableFile, RowSchema schema) {
+        long[] rows = new long[1];
+        tableFile.forEachRow(schema, row -> rows[0]++);
+        return rows[0];
+    }
+    // End region
+}
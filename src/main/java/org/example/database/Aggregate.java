@@ -0,0 +1,187 @@
+package org.example.database;
+
+import org.example.enums.AggregateFunction;
+import org.example.util.StringUtils;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Data holder class for an aggregate function selected by a query, e.g. {@code COUNT(*)} or {@code AVG(score)}
+ * @param function Aggregate function to apply
+ * @param column Name of the column, null for {@code COUNT(*)}
+ */
+public record Aggregate(AggregateFunction function, String column) {
+    private static final Pattern AGGREGATE_PATTERN =
+            Pattern.compile("^(COUNT|SUM|AVG|MIN|MAX)\\s*\\(\\s*(\\*|\\w+)\\s*\\)$", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Provides the Aggregate for an expression of the select list
+     * @param expression Expression such as {@code SUM(score)}
+     * @return Aggregate instance, null if expression is not an aggregate function
+     */
+    public static Aggregate parse(String expression) {
+        Matcher matcher = AGGREGATE_PATTERN.matcher(expression.trim());
+        if (!matcher.matches())
+            return null;
+        AggregateFunction function = AggregateFunction.valueOf(matcher.group(1).toUpperCase());
+        String column = matcher.group(2).equals("*") ? null : matcher.group(2);
+        if (column == null && function != AggregateFunction.COUNT)
+            throw new RuntimeException("Only COUNT can be applied to *");
+        return new Aggregate(function, column);
+    }
+
+    /**
+     * Provides the name of the result column
+     * @return String such as {@code SUM(score)}
+     */
+    public String getLabel() {
+        return function.name() + "(" + (column == null ? "*" : column) + ")";
+    }
+
+    /**
+     * Provides a new accumulator computing this aggregate over rows of the schema
+     * @param schema Schema of the table
+     * @return Accumulator instance
+     */
+    public Accumulator newAccumulator(RowSchema schema) {
+        int columnIndex = column == null ? -1 : schema.indexOf(column);
+        if (column != null && columnIndex < 0)
+            throw new RuntimeException("Invalid column in aggregate: " + column);
+        return new Accumulator(function, columnIndex, columnIndex < 0 ? null : schema.getType(columnIndex));
+    }
+
+    /**
+     * Computes an aggregate value by value. Null values are skipped, SUM and AVG skip values that are not numbers.
+     */
+    public static class Accumulator {
+        private final AggregateFunction function;
+        private final int columnIndex;
+        private final Column.Type columnType;
+        private long count = 0;
+        private long numericCount = 0;
+        private long longSum = 0;
+        private double doubleSum = 0;
+        private boolean isIntegral = true;
+        private double minNumber;
+        private double maxNumber;
+        private String minNumberText;
+        private String maxNumberText;
+        private String minString;
+        private String maxString;
+
+        private Accumulator(AggregateFunction function, int columnIndex, Column.Type columnType) {
+            this.function = function;
+            this.columnIndex = columnIndex;
+            this.columnType = columnType;
+        }
+
+        public int getColumnIndex() {
+            return columnIndex;
+        }
+
+        /**
+         * Add rows without looking at their values, used by {@code COUNT(*)}
+         * @param rows Number of rows
+         */
+        public void addRows(long rows) {
+            count += rows;
+        }
+
+        /**
+         * Add the value of the aggregated column of the row
+         * @param row Row to add
+         */
+        public void add(Row row) {
+            if (columnIndex < 0)
+                addRows(1);
+            else if (!row.isNumeric(columnIndex))
+                addString(row.getString(columnIndex));
+            else if (columnType == Column.Type.INT)
+                addInt(row.getInt(columnIndex));
+            else
+                addDouble(row.getDouble(columnIndex));
+        }
+
+        public void addInt(int value) {
+            count++;
+            numericCount++;
+            longSum += value;
+            addNumber(value, null);
+        }
+
+        public void addDouble(double value) {
+            count++;
+            numericCount++;
+            doubleSum += value;
+            isIntegral = false;
+            addNumber(value, null);
+        }
+
+        public void addString(String value) {
+            if (Row.NULL_VALUE.equals(value))
+                return;
+            count++;
+            if (function == AggregateFunction.COUNT)
+                return;
+            Double number = StringUtils.parseDouble(value);
+            if (number == null) {
+                if (minString == null || value.compareTo(minString) < 0)
+                    minString = value;
+                if (maxString == null || value.compareTo(maxString) > 0)
+                    maxString = value;
+                return;
+            }
+            numericCount++;
+            if (number == Math.rint(number) && Math.abs(number) < Long.MAX_VALUE) {
+                longSum += number.longValue();
+            } else {
+                doubleSum += number;
+                isIntegral = false;
+            }
+            addNumber(number, value);
+        }
+
+        /**
+         * Provides the text of the aggregated value
+         * @return String representing the result, "null" if no value was aggregated
+         */
+        public String getResult() {
+            return switch (function) {
+                case COUNT -> Long.toString(count);
+                case SUM -> numericCount == 0 ? Row.NULL_VALUE
+                        : isIntegral ? Long.toString(longSum) : Double.toString(longSum + doubleSum);
+                case AVG -> numericCount == 0 ? Row.NULL_VALUE : Double.toString((longSum + doubleSum) / numericCount);
+                case MIN -> numericCount > 0 ? getNumberText(minNumber, minNumberText)
+                        : minString != null ? minString : Row.NULL_VALUE;
+                case MAX -> numericCount > 0 ? getNumberText(maxNumber, maxNumberText)
+                        : maxString != null ? maxString : Row.NULL_VALUE;
+            };
+        }
+
+        // Region: private methods
+
+        /**
+         * Track minimum and maximum of numeric values
+         * @param value Value to track
+         * @param text Text the value was stored as, null if value was stored as number
+         */
+        private void addNumber(double value, String text) {
+            if (numericCount == 1 || value < minNumber) {
+                minNumber = value;
+                minNumberText = text;
+            }
+            if (numericCount == 1 || value > maxNumber) {
+                maxNumber = value;
+                maxNumberText = text;
+            }
+        }
+
+        private String getNumberText(double value, String text) {
+            if (text != null)
+                return text;
+            return columnType == Column.Type.INT ? Integer.toString((int) value) : Double.toString(value);
+        }
+        // End region
+    }
+}
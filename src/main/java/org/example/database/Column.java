@@ -37,6 +37,18 @@ public record Column(
         static List<String> getValues() {
             return Arrays.stream(values()).map(Type::getName).toList();
         }
+
+        /**
+         * Provides the Type for the provided type name
+         * @param name Name of the type (case-insensitive)
+         * @return Type instance, STRING if name is not a known type
+         */
+        public static Type fromName(String name) {
+            return Arrays.stream(values())
+                    .filter(type -> type.getName().equalsIgnoreCase(name))
+                    .findFirst()
+                    .orElse(STRING);
+        }
     }
 
     public enum Constraint {
@@ -60,6 +72,22 @@ public record Column(
         }
     }
 
+    /**
+     * Provides the data type of the column
+     * @return Type instance for this column
+     */
+    public Type dataType() {
+        return Type.fromName(type);
+    }
+
+    /**
+     * Checks if every row must hold a different value in the column, i.e. it is primary_key or unique
+     * @return True if values must be unique, False otherwise
+     */
+    public boolean isUnique() {
+        return constraints.contains(Constraint.PRIMARY_KEY.getName()) || constraints.contains(Constraint.UNIQUE.getName());
+    }
+
     /**
      * Checks if the column type is valid or not
      * @param type Type of the data stored in column
@@ -0,0 +1,205 @@
+package org.example.database;
+
+import org.example.util.StringUtils;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * WHERE condition of a query, parsed once and then tested against every row.
+ * Supported operators are {@code <=, >=, !=, =, <, >} and {@code IN (value1, value2, ...)}.
+ * <p>
+ * The literal is converted to the types of the column up front, so testing a row compares primitives
+ * for int and double values instead of parsing text.
+ */
+public class Condition implements Predicate<Row> {
+    private static final List<String> OPERATORS = List.of("<=", ">=", "!=", "=", "<", ">", " IN ");
+
+    /**
+     * Operator of the condition, in the order of {@link #OPERATORS}
+     */
+    public enum Operator {
+        LESS_OR_EQUAL, GREATER_OR_EQUAL, NOT_EQUAL, EQUAL, LESS, GREATER, IN
+    }
+
+    private final int columnIndex;
+    private final Column.Type columnType;
+    private final Operator operator;
+    private final String value;
+    private final Integer intValue;
+    private final Double doubleValue;
+    private final Double numericValue;
+    private final Set<String> inValues = new HashSet<>();
+    private final Set<Long> inIntValues = new HashSet<>();
+    private final Set<Double> inDoubleValues = new HashSet<>();
+
+    private Condition(RowSchema schema, String column, String operator, String value) {
+        this.columnIndex = schema.indexOf(column);
+        if (columnIndex < 0)
+            throw new IllegalArgumentException("Invalid column in condition: " + column);
+        this.columnType = schema.getType(columnIndex);
+        this.operator = Operator.values()[OPERATORS.indexOf(operator)];
+        this.value = value;
+        this.intValue = StringUtils.parseCanonicalInt(value);
+        this.doubleValue = StringUtils.parseCanonicalDouble(value);
+        this.numericValue = StringUtils.parseDouble(value);
+        if (this.operator == Operator.IN)
+            parseInValues(value);
+    }
+
+    /**
+     * Provides the Condition for a condition string such as {@code age >= 18}
+     * @param schema Schema of the table the condition is applied to
+     * @param condition Condition part of the query
+     * @return Condition instance
+     */
+    public static Condition parse(RowSchema schema, String condition) {
+        String selectedOperator = OPERATORS.stream()
+                .filter(condition.toUpperCase()::contains)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Invalid condition operator."));
+
+        String[] parts;
+        if (selectedOperator.equals(" IN ")) {
+            parts = condition.contains(" IN ") ? condition.split(" IN ") : condition.split(" in ");
+        } else {
+            parts = condition.split(Pattern.quote(selectedOperator), 2);
+        }
+
+        String column = parts[0].trim();
+        String value = StringUtils.getStringWithoutSurroundingQuotes(parts[1].trim());
+        return new Condition(schema, column, selectedOperator, value);
+    }
+
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    /**
+     * Provides the values of an IN list without their quotes
+     * @return Set of the values, empty if operator is not IN
+     */
+    public Set<String> getInValues() {
+        return Collections.unmodifiableSet(inValues);
+    }
+
+    /**
+     * Checks if the condition is an equality, which matches exactly the rows whose value has the text of the literal
+     * @return True if operator is {@code =}, False otherwise
+     */
+    public boolean isEquality() {
+        return operator == Operator.EQUAL;
+    }
+
+    /**
+     * Provides if the provided row satisfies the condition or not
+     * @param row Row to check condition for
+     * @return True if row satisfies the condition, otherwise false
+     */
+    @Override
+    public boolean test(Row row) {
+        if (!row.isNumeric(columnIndex))
+            return testString(row.getString(columnIndex));
+        return columnType == Column.Type.INT
+                ? testInt(row.getInt(columnIndex))
+                : testDouble(row.getDouble(columnIndex));
+    }
+
+    /**
+     * Checks the condition against a value held as int
+     * @param rowValue Value of the column
+     * @return True if value satisfies the condition, otherwise false
+     */
+    public boolean testInt(int rowValue) {
+        return switch (operator) {
+            case EQUAL -> intValue != null && rowValue == intValue;
+            case NOT_EQUAL -> intValue == null || rowValue != intValue;
+            case IN -> inIntValues.contains((long) rowValue);
+            default -> matchesComparison(numericValue != null
+                    ? Double.compare(rowValue, numericValue)
+                    : Integer.toString(rowValue).compareTo(value));
+        };
+    }
+
+    /**
+     * Checks the condition against a value held as double
+     * @param rowValue Value of the column
+     * @return True if value satisfies the condition, otherwise false
+     */
+    public boolean testDouble(double rowValue) {
+        return switch (operator) {
+            case EQUAL -> doubleValue != null && Double.compare(rowValue, doubleValue) == 0;
+            case NOT_EQUAL -> doubleValue == null || Double.compare(rowValue, doubleValue) != 0;
+            case IN -> inDoubleValues.contains(rowValue);
+            default -> matchesComparison(numericValue != null
+                    ? Double.compare(rowValue, numericValue)
+                    : Double.toString(rowValue).compareTo(value));
+        };
+    }
+
+    /**
+     * Checks the condition against a value held as string
+     * @param rowValue Value of the column
+     * @return True if value satisfies the condition, otherwise false
+     */
+    public boolean testString(String rowValue) {
+        return switch (operator) {
+            case EQUAL -> value.equals(rowValue);
+            case NOT_EQUAL -> !value.equals(rowValue);
+            case IN -> inValues.contains(rowValue);
+            default -> {
+                Double rowNumber = numericValue != null ? StringUtils.parseDouble(rowValue) : null;
+                yield matchesComparison(rowNumber != null
+                        ? Double.compare(rowNumber, numericValue)
+                        : rowValue.compareTo(value));
+            }
+        };
+    }
+
+    // Region: private methods
+
+    /**
+     * Checks the result of comparing the row value with the literal against a range operator
+     * @param comparison Integer representing the comparison, negative when row value is smaller
+     * @return True if the comparison satisfies the operator, otherwise false
+     */
+    private boolean matchesComparison(int comparison) {
+        return switch (operator) {
+            case LESS_OR_EQUAL -> comparison <= 0;
+            case GREATER_OR_EQUAL -> comparison >= 0;
+            case LESS -> comparison < 0;
+            case GREATER -> comparison > 0;
+            default -> throw new IllegalArgumentException("Unsupported condition operator.");
+        };
+    }
+
+    /**
+     * Parses the values of an IN list such as {@code (a, 'b', 3)}
+     * @param list Text of the list including brackets
+     */
+    private void parseInValues(String list) {
+        String trimmedList = list.trim();
+        if (trimmedList.startsWith("(") && trimmedList.endsWith(")"))
+            trimmedList = trimmedList.substring(1, trimmedList.length() - 1);
+        for (String inValue : trimmedList.split(",")) {
+            String text = StringUtils.getStringWithoutSurroundingQuotes(inValue.trim());
+            inValues.add(text);
+            Integer inIntValue = StringUtils.parseCanonicalInt(text);
+            if (inIntValue != null)
+                inIntValues.add((long) inIntValue);
+            Double inDoubleValue = StringUtils.parseCanonicalDouble(text);
+            if (inDoubleValue != null)
+                inDoubleValues.add(inDoubleValue);
+        }
+    }
+    // End region
+}
@@ -2,27 +2,51 @@ package org.example.database;
 
 import org.example.database.Column.Constraint;
 import org.example.database.Column.Type;
+import org.example.enums.IndexType;
 import org.example.enums.QueryType;
 import org.example.manager.FileManager;
-import org.example.util.StringUtils;
-
-import java.io.File;
+import org.example.storage.IndexDefinition;
+import org.example.util.CsvReader;
+import org.example.util.SqlValueParser;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.IntStream;
-
-import static org.example.manager.FileManager.DATABASES_DIRECTORY;
 
 /**
  * Represents a database that stores all tables
  */
 public class Database {
+    private static final Pattern LOAD_DATA_PATTERN = Pattern.compile(
+            "^LOAD\\s+DATA\\s+INFILE\\s+(['\"])(.+?)\\1\\s+INTO\\s+TABLE\\s+(\\w+)" +
+                    "(?:\\s+IGNORE\\s+(\\d+)\\s+LINES)?(?:\\s*\\(([^)]*)\\))?\\s*$",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern CREATE_INDEX_PATTERN = Pattern.compile(
+            "^CREATE\\s+(BITMAP\\s+)?INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)\\s*\\(\\s*(\\w+)\\s*\\)" +
+                    "(?:\\s+INCLUDE\\s*\\(([^)]*)\\))?\\s*$",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern DROP_INDEX_PATTERN = Pattern.compile(
+            "^DROP\\s+INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)\\s*$", Pattern.CASE_INSENSITIVE);
+
     private final String name;
     private final List<Table> tables = new ArrayList<>();
+    private boolean isLoaded;
 
     public Database(String name) {
+        this(name, true);
+    }
+
+    /**
+     * @param name Name of the database
+     * @param isLoaded False if the tables of the database are stored on disk and must be loaded on first access
+     */
+    public Database(String name, boolean isLoaded) {
         this.name = name;
+        this.isLoaded = isLoaded;
     }
 
     // Region: public methods
@@ -37,12 +61,34 @@ public class Database {
     }
 
     /**
-     * Provide all the tables of database
+     * Provide all the tables of database. The tables are guarded by the lock of the database, as they may be loaded
+     * in the background while tables are created or dropped.
      *
-     * @return List of all tables added to the database
+     * @return Copy of the list of all tables added to the database
+     */
+    public synchronized List<Table> getTables() {
+        load();
+        return List.copyOf(tables);
+    }
+
+    /**
+     * Provide the tables of database without loading them
+     *
+     * @return Copy of the list of all tables added to the database, empty if tables are not loaded yet
+     */
+    public synchronized List<Table> getLoadedTables() {
+        return isLoaded ? List.copyOf(tables) : List.of();
+    }
+
+    /**
+     * Load the tables of the database from its catalog, does nothing if they are already loaded
      */
-    public List<Table> getTables() {
-        return tables;
+    public synchronized void load() {
+        if (isLoaded)
+            return;
+        tables.clear();
+        FileManager.loadTables(this);
+        isLoaded = true;
     }
 
     /**
@@ -55,16 +101,20 @@ public class Database {
             throw new RuntimeException("Invalid query");
 
         String tableName = query.split("\\s+")[2];
-        if (!validateTableName(tableName))
-            throw new RuntimeException("Either the table exists or table name is invalid.");
-
-        String columnsData = getStringInsideBrackets(query);
-        List<Column> columns = getColumns(columnsData);
-        if (columns == null || columns.isEmpty())
-            throw new RuntimeException("Invalid column definition: " + columnsData);
-
-        tables.add(new Table(name, tableName, columns));
-        FileManager.createNecessaryTableFiles(name, tableName, columns);
+        List<Column> columns;
+        TableOptions options;
+        synchronized (this) {
+            if (!validateTableName(tableName))
+                throw new RuntimeException("Either the table exists or table name is invalid.");
+
+            String columnsData = getStringInsideBrackets(query);
+            columns = getColumns(columnsData);
+            if (columns == null || columns.isEmpty())
+                throw new RuntimeException("Invalid column definition: " + columnsData);
+            options = TableOptions.parse(query.substring(query.lastIndexOf(")") + 1));
+            tables.add(new Table(name, tableName, columns, options));
+        }
+        FileManager.createNecessaryTableFiles(name, tableName, columns, options);
         System.out.println("Table created: " + tableName);
     }
 
@@ -84,9 +134,10 @@ public class Database {
     }
 
     /**
-     * Insert a row in a table
+     * Insert rows in a table, the query might hold several tuples: {@code VALUES (1, 'a'), (2, 'b')}.
+     * All rows are validated before any of them is written.
      *
-     * @param query MySQL query to write a row in a table
+     * @param query MySQL query to write rows in a table
      */
     public void insertIntoTable(String query) {
         if (!isInsertQueryValid(query))
@@ -101,11 +152,56 @@ public class Database {
         if (columnsData.isBlank())
             columnsData = table.getColumnsString();
 
-        String valuesData = getStringInsideBrackets(query.substring(query.toUpperCase().indexOf("VALUES") + 6).trim());
-        if (valuesData.isBlank())
+        List<List<String>> tuples = SqlValueParser.parseTuples(
+                query.substring(query.toUpperCase().indexOf("VALUES") + 6));
+        if (tuples.isEmpty() || tuples.stream().anyMatch(List::isEmpty))
             throw new RuntimeException("Invalid values provided");
 
-        table.insertRow(getRow(table, columnsData, valuesData));
+        Table.InsertBatch batch = table.newInsertBatch(tuples.size());
+        List<Map<String, String>> rows = new ArrayList<>(tuples.size());
+        try {
+            for (List<String> values : tuples)
+                rows.add(getRow(table, batch, columnsData, values));
+        } catch (RuntimeException e) {
+            batch.releaseAutoIncrementValues(false);
+            throw e;
+        }
+        table.insertRows(rows);
+    }
+
+    /**
+     * Load the rows of a CSV file into a table:
+     * {@code LOAD DATA INFILE 'path' INTO TABLE t [IGNORE n LINES] [(column1, column2)]}.
+     * Without column list the fields of every record are stored in the columns of the table in order.
+     *
+     * @param query MySQL query to load a file into a table
+     */
+    public void loadDataIntoTable(String query) {
+        Matcher matcher = LOAD_DATA_PATTERN.matcher(query.trim());
+        if (!matcher.matches())
+            throw new RuntimeException("Invalid query");
+
+        String tableName = matcher.group(3);
+        Table table = getTable(tableName);
+        if (table == null)
+            throw new RuntimeException("Table not found: " + tableName);
+        String columnsData = matcher.group(5) != null ? matcher.group(5) : table.getColumnsString();
+        List<String> columns = Arrays.stream(columnsData.split(",")).map(String::trim).toList();
+        int ignoredLines = matcher.group(4) != null ? Integer.parseInt(matcher.group(4)) : 0;
+
+        long startTime = System.nanoTime();
+        long loadedRows;
+        try (CsvReader reader = new CsvReader(new BufferedReader(new FileReader(matcher.group(2), StandardCharsets.UTF_8),
+                1 << 16))) {
+            for (int line = 0; line < ignoredLines; line++)
+                reader.readRecord();
+            loadedRows = table.loadRows(reader, columns);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read file: " + matcher.group(2) + " " + e.getMessage());
+        }
+        double seconds = Math.max(System.nanoTime() - startTime, 1) / 1e9;
+        System.out.printf("Loaded %d row(s) into %s in %.3f s (%.0f rows/s)%n", loadedRows, tableName, seconds,
+                loadedRows / seconds);
     }
 
     /**
@@ -127,6 +223,11 @@ public class Database {
             throw new RuntimeException("Table not found: " + tableName);
 
         List<String> columnsToSelect = columns.equals("*") ? null : Arrays.asList(columns.split("\\s*,\\s*"));
+        List<Aggregate> aggregates = columnsToSelect == null ? List.of() : getAggregates(columnsToSelect);
+        if (!aggregates.isEmpty()) {
+            table.selectAggregates(query, aggregates);
+            return;
+        }
         table.selectRows(query, columnsToSelect);
     }
 
@@ -179,28 +280,85 @@ public class Database {
             throw new RuntimeException("Invalid query");
 
         String tableName = query.split("\\s+")[2];
-        Table table = getTable(tableName);
-        if (table == null)
-            throw new RuntimeException("Table not found: " + tableName);
-
-        tables.remove(table);
-        File tableFile = new File(DATABASES_DIRECTORY + File.separator + name + File.separator + tableName + ".txt");
-        File tableMetadataFile = new File(DATABASES_DIRECTORY + File.separator + name + File.separator + tableName + "_metadata.txt");
-        boolean tableFileDeleted = tableFile.delete();
-        boolean tableMetadataFileDeleted = tableMetadataFile.delete();
-        if (tableFileDeleted && tableMetadataFileDeleted) {
+        synchronized (this) {
+            Table table = getTable(tableName);
+            if (table == null)
+                throw new RuntimeException("Table not found: " + tableName);
+            tables.remove(table);
+        }
+        if (FileManager.deleteTableFiles(name, tableName)) {
             System.out.println("Table dropped: " + tableName);
         } else {
             System.out.println("Failed to drop table: " + tableName);
         }
     }
 
+    /**
+     * Create an index on a column of a table:
+     * {@code CREATE [BITMAP] INDEX name ON tablename (column) [INCLUDE (column1, column2, ...)]}.
+     * The index is built from the rows of the table file and maintained by every later write. A bitmap index suits
+     * columns having few distinct values. A B+tree index with included columns also caches the values of the indexed
+     * and included columns in memory, so selects of only those columns with a condition on the indexed column never
+     * read the table file while the cache fits in {@code tinydb.index.coveringMaxBytes}. A larger cache is dropped
+     * and reported by {@code SHOW STATUS}.
+     *
+     * @param query MySQL query to create an index
+     */
+    public void createIndex(String query) {
+        Matcher matcher = CREATE_INDEX_PATTERN.matcher(query.trim());
+        if (!matcher.matches())
+            throw new RuntimeException("Invalid query");
+
+        String tableName = matcher.group(3);
+        Table table = getTable(tableName);
+        if (table == null)
+            throw new RuntimeException("Table not found: " + tableName);
+        String columnName = matcher.group(4).toLowerCase();
+        if (!table.hasColumn(columnName))
+            throw new RuntimeException("Invalid column: " + columnName);
+
+        IndexType type = matcher.group(1) != null ? IndexType.BITMAP : IndexType.BTREE;
+        List<String> includedColumns = new ArrayList<>();
+        if (matcher.group(5) != null) {
+            if (type == IndexType.BITMAP)
+                throw new RuntimeException("INCLUDE is only supported by B+tree indexes");
+            for (String includedColumn : matcher.group(5).split(",")) {
+                includedColumn = includedColumn.trim().toLowerCase();
+                if (!table.hasColumn(includedColumn))
+                    throw new RuntimeException("Invalid column: " + includedColumn);
+                if (!includedColumn.equals(columnName) && !includedColumns.contains(includedColumn))
+                    includedColumns.add(includedColumn);
+            }
+        }
+        FileManager.createIndex(name, tableName,
+                new IndexDefinition(matcher.group(2), columnName, type, includedColumns));
+        System.out.println("Index created: " + matcher.group(2));
+    }
+
+    /**
+     * Drop an index of a table: {@code DROP INDEX name ON tablename}
+     *
+     * @param query MySQL query to drop an index
+     */
+    public void dropIndex(String query) {
+        Matcher matcher = DROP_INDEX_PATTERN.matcher(query.trim());
+        if (!matcher.matches())
+            throw new RuntimeException("Invalid query");
+
+        String tableName = matcher.group(2);
+        if (getTable(tableName) == null)
+            throw new RuntimeException("Table not found: " + tableName);
+
+        FileManager.dropIndex(name, tableName, matcher.group(1));
+        System.out.println("Index dropped: " + matcher.group(1));
+    }
+
     /**
      * Add a predefined table to database
      *
      * @param table Table instance to add
      */
-    public void addTable(Table table) {
+    public synchronized void addTable(Table table) {
         tables.add(table);
     }
 
@@ -211,7 +369,7 @@ public class Database {
      * @return Table instance having name as tableName
      */
     public Table getTable(String tableName) {
-        return tables.stream()
+        return getTables().stream()
                 .filter((table) -> Objects.equals(table.getName(), tableName))
                 .findFirst()
                 .orElse(null);
@@ -323,15 +481,15 @@ public class Database {
     /**
      * Provides a row from provided columns and their values
      * @param table Table instance to get row
+     * @param batch Validation state of the rows of the query
      * @param columnsData String representing columns names, extracted from query
-     * @param valuesData  String representing values, extracted from query
+     * @param values Values of a tuple of the query, see {@link SqlValueParser#parseTuples(String)}
      * @return Map of ColumnName to ColumnData, indicating a row
      */
-    private Map<String, String> getRow(Table table, String columnsData, String valuesData) {
+    private Map<String, String> getRow(Table table, Table.InsertBatch batch, String columnsData, List<String> values) {
         Map<String, String> row = new LinkedHashMap<>();
         List<Column> tableColumns = table.getColumns();
         List<String> columns = Arrays.stream(columnsData.split(",")).map(String::trim).toList();
-        List<String> values = getValues(valuesData);
         if (columns.size() != values.size())
             throw new IllegalArgumentException("Number of columns and values do not match");
 
@@ -340,11 +498,11 @@ public class Database {
             List<String> constraints = column.constraints();
 
             if (constraints.contains(Constraint.AUTO_INCREMENT.getName())) {
-                row.put(name, table.getAutoIncrementValueFor(name));
+                row.put(name, batch.getAutoIncrementValueFor(name));
             } else {
                 if (columns.contains(name)) {
-                    String value = values.get(columns.indexOf(name)).trim();
-                    if (table.isValidColumnValue(name, value)) {
+                    String value = values.get(columns.indexOf(name));
+                    if (batch.isValidColumnValue(name, value)) {
                         row.put(name, value);
                     } else {
                         throw new RuntimeException("Invalid value: " + value + " for column: " + column);
@@ -364,26 +522,21 @@ public class Database {
     }
 
     /**
-     * Provides list of values extracted from the value's part from query
+     * Provides the aggregate functions of the select list
      *
-     * @param valuesPart String representing values to be added to specific column
-     * @return List of String representing values extracted from the input
+     * @param columnsToSelect Expressions of the select list
+     * @return List of Aggregates, empty if select list has no aggregate function
      */
-    private List<String> getValues(String valuesPart) {
-        List<String> values = new ArrayList<>();
-        Matcher matcher = Pattern.compile("\"([^\"]*)\"|'([^']*)'|([^,]+)").matcher(valuesPart);
-        while (matcher.find()) {
-            // First group ("([^\"]*)") captures double-quoted string without the quotes.
-            // Second group ('([^']*)') captures single-quoted string without the quotes.
-            // Third group (([^,]+)) captures unquoted value.
-            IntStream.range(1, 4).forEach((index) -> {
-                if (matcher.group(index) != null) {
-                    String value = StringUtils.getStringWithoutSurroundingQuotes(matcher.group(index).trim());
-                    values.add(value);
-                }
-            });
+    private List<Aggregate> getAggregates(List<String> columnsToSelect) {
+        List<Aggregate> aggregates = new ArrayList<>();
+        for (String column : columnsToSelect) {
+            Aggregate aggregate = Aggregate.parse(column);
+            if (aggregate != null)
+                aggregates.add(aggregate);
         }
-        return values;
+        if (!aggregates.isEmpty() && aggregates.size() != columnsToSelect.size())
+            throw new RuntimeException("Aggregate functions can not be selected together with columns");
+        return aggregates;
     }
 
     /**
@@ -0,0 +1,229 @@
+package org.example.database;
+
+import org.example.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Immutable row of a table. Values are kept by column position, the column names live in the shared
+ * {@link RowSchema}.
+ * <p>
+ * Values of int and double columns are parsed once and kept as primitives ({@code double} values as their raw
+ * bits), every other value is kept as a string. Values that do not convert back to the exact same text (e.g.
+ * "007" in an int column) are kept as strings so a row always renders the value that was stored.
+ * A missing value is represented by {@link #NULL_VALUE}.
+ */
+public final class Row {
+    public static final String NULL_VALUE = "null";
+
+    private static final int ROW_OVERHEAD_BYTES = 48;
+    private static final int STRING_OVERHEAD_BYTES = 48;
+
+    private final RowSchema schema;
+    private final long[] numbers;
+    private final String[] strings;
+
+    private Row(RowSchema schema, long[] numbers, String[] strings) {
+        this.schema = schema;
+        this.numbers = numbers;
+        this.strings = strings;
+    }
+
+    /**
+     * Mutable builder used to create a row value by value
+     */
+    public static final class Builder {
+        private final RowSchema schema;
+        private final long[] numbers;
+        private final String[] strings;
+
+        private Builder(RowSchema schema) {
+            this.schema = schema;
+            this.numbers = schema.hasNumericColumns() ? new long[schema.size()] : null;
+            this.strings = new String[schema.size()];
+            Arrays.fill(strings, NULL_VALUE);
+        }
+
+        public Builder setInt(int index, int value) {
+            numbers[index] = value;
+            strings[index] = null;
+            return this;
+        }
+
+        public Builder setDouble(int index, double value) {
+            numbers[index] = Double.doubleToRawLongBits(value);
+            strings[index] = null;
+            return this;
+        }
+
+        public Builder setString(int index, String value) {
+            strings[index] = value == null ? NULL_VALUE : value;
+            return this;
+        }
+
+        /**
+         * Set the value after parsing it according to the type of the column
+         * @param index Index of the column
+         * @param value Text of the value, null for a missing value
+         * @return Builder instance
+         */
+        public Builder setValue(int index, String value) {
+            if (value == null || value.equals(NULL_VALUE))
+                return setString(index, NULL_VALUE);
+            switch (schema.getType(index)) {
+                case INT -> {
+                    Integer intValue = StringUtils.parseCanonicalInt(value);
+                    return intValue != null ? setInt(index, intValue) : setString(index, value);
+                }
+                case DOUBLE -> {
+                    Double doubleValue = StringUtils.parseCanonicalDouble(value);
+                    return doubleValue != null ? setDouble(index, doubleValue) : setString(index, value);
+                }
+                default -> {
+                    return setString(index, value);
+                }
+            }
+        }
+
+        public Row build() {
+            return new Row(schema, numbers, strings);
+        }
+    }
+
+    /**
+     * Provides a builder for a row of the schema, every value starts as {@link #NULL_VALUE}
+     * @param schema Schema of the table
+     * @return Builder instance
+     */
+    public static Builder builder(RowSchema schema) {
+        return new Builder(schema);
+    }
+
+    /**
+     * Provides a row from the textual values of its columns
+     * @param schema Schema of the table
+     * @param values Map of column name to its value, columns not present in the schema are ignored
+     * @return Row instance
+     */
+    public static Row fromValues(RowSchema schema, Map<String, String> values) {
+        Builder builder = builder(schema);
+        for (int index = 0; index < schema.size(); index++)
+            builder.setValue(index, values.get(schema.getColumn(index).name()));
+        return builder.build();
+    }
+
+    public RowSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Checks if the value is held as a primitive number
+     * @param index Index of the column
+     * @return True if value is an int or double, False if it is held as a string
+     */
+    public boolean isNumeric(int index) {
+        return strings[index] == null;
+    }
+
+    /**
+     * Checks if the value is missing
+     * @param index Index of the column
+     * @return True if value is null, False otherwise
+     */
+    public boolean isNull(int index) {
+        return NULL_VALUE.equals(strings[index]);
+    }
+
+    /**
+     * Provides the value of an int column, only valid when {@link #isNumeric(int)} is true
+     * @param index Index of the column
+     * @return int value
+     */
+    public int getInt(int index) {
+        return (int) numbers[index];
+    }
+
+    /**
+     * Provides the numeric value of an int or double column, only valid when {@link #isNumeric(int)} is true
+     * @param index Index of the column
+     * @return double value
+     */
+    public double getDouble(int index) {
+        return schema.getType(index) == Column.Type.INT
+                ? (int) numbers[index]
+                : Double.longBitsToDouble(numbers[index]);
+    }
+
+    /**
+     * Provides the string value, only valid when {@link #isNumeric(int)} is false
+     * @param index Index of the column
+     * @return String value
+     */
+    public String getString(int index) {
+        return strings[index];
+    }
+
+    /**
+     * Provides the text of the value
+     * @param index Index of the column
+     * @return String representing the value
+     */
+    public String getValue(int index) {
+        if (strings[index] != null)
+            return strings[index];
+        return schema.getType(index) == Column.Type.INT
+                ? Integer.toString((int) numbers[index])
+                : Double.toString(Double.longBitsToDouble(numbers[index]));
+    }
+
+    /**
+     * Provides the text of the value
+     * @param columnName Name of the column
+     * @return String representing the value, null if column is not present
+     */
+    public String getValue(String columnName) {
+        int index = schema.indexOf(columnName);
+        return index < 0 ? null : getValue(index);
+    }
+
+    /**
+     * Provides a copy of this row with one value changed
+     * @param index Index of the column
+     * @param value Text of the new value
+     * @return New Row instance
+     */
+    public Row withValue(int index, String value) {
+        Builder builder = new Builder(schema);
+        if (numbers != null)
+            System.arraycopy(numbers, 0, builder.numbers, 0, numbers.length);
+        System.arraycopy(strings, 0, builder.strings, 0, strings.length);
+        return builder.setValue(index, value).build();
+    }
+
+    /**
+     * Provides a rough estimate of heap used by this row
+     * @return Estimated size in bytes
+     */
+    public long estimateBytes() {
+        long bytes = ROW_OVERHEAD_BYTES + 4L * strings.length;
+        if (numbers != null)
+            bytes += 8L * numbers.length;
+        for (String value : strings) {
+            if (value != null && value != NULL_VALUE)
+                bytes += STRING_OVERHEAD_BYTES + value.length();
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("Row{");
+        for (int index = 0; index < strings.length; index++) {
+            if (index > 0)
+                text.append(", ");
+            text.append(schema.getColumn(index).name()).append("=").append(getValue(index));
+        }
+        return text.append("}").toString();
+    }
+}
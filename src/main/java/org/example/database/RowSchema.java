@@ -0,0 +1,73 @@
+package org.example.database;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Column layout shared by all rows of a table. Rows only hold values by position,
+ * names and types of the columns are kept once in the schema.
+ */
+public class RowSchema {
+    private static final Map<List<Column>, RowSchema> SCHEMAS = new ConcurrentHashMap<>();
+
+    private final List<Column> columns;
+    private final Column.Type[] types;
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final boolean hasNumericColumns;
+
+    private RowSchema(List<Column> columns) {
+        this.columns = List.copyOf(columns);
+        this.types = new Column.Type[columns.size()];
+        boolean hasNumericColumns = false;
+        for (int index = 0; index < columns.size(); index++) {
+            types[index] = columns.get(index).dataType();
+            indexes.put(columns.get(index).name(), index);
+            hasNumericColumns |= types[index] != Column.Type.STRING;
+        }
+        this.hasNumericColumns = hasNumericColumns;
+    }
+
+    /**
+     * Provides the schema for the columns, tables having the same columns share a single instance
+     * @param columns Columns of the table
+     * @return RowSchema instance
+     */
+    public static RowSchema of(List<Column> columns) {
+        return SCHEMAS.computeIfAbsent(List.copyOf(columns), RowSchema::new);
+    }
+
+    /**
+     * Provides the position of the column inside rows
+     * @param columnName Name of the column
+     * @return Index of the column, -1 if column is not present
+     */
+    public int indexOf(String columnName) {
+        return indexes.getOrDefault(columnName, -1);
+    }
+
+    public int size() {
+        return columns.size();
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public Column getColumn(int index) {
+        return columns.get(index);
+    }
+
+    public Column.Type getType(int index) {
+        return types[index];
+    }
+
+    /**
+     * Checks if any column holds int or double values
+     * @return True if at least one column is numeric, False otherwise
+     */
+    public boolean hasNumericColumns() {
+        return hasNumericColumns;
+    }
+}
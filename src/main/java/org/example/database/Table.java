@@ -1,87 +1,239 @@
 package org.example.database;
 
+import org.example.enums.StorageEngine;
 import org.example.manager.FileManager;
 import org.example.manager.TransactionManager;
+import org.example.storage.ColumnStore;
+import org.example.storage.RowCursor;
+import org.example.storage.TableStatistics;
+import org.example.util.Config;
+import org.example.util.CsvReader;
 import org.example.util.StringUtils;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 public class Table {
     private static final int MAX_COLUMN_WIDTH = 50;
+    private static final int PRINT_PAGE_ROWS = 1000;
+    private static final Pattern LINE_BREAK_PATTERN = Pattern.compile("\\r\\n|\\r|\\n");
+    private static final int LOAD_BATCH_ROWS = Math.max(Config.getInt("tinydb.load.batchRows", 10_000), 1);
     private final String databaseName;
     private final String name;
     private final List<Column> columns;
-    private final List<Map<String, String>> bufferData = new ArrayList<>();
-    private final List<String> operators = List.of("<=", ">=", "!=", "=", "<", ">", " IN ");
+    private final RowSchema schema;
+    private final TableOptions options;
+    private final List<Row> bufferData = new ArrayList<>();
     private boolean isBufferDataPopulated = false;
 
     public Table(String databaseName, String name, List<Column> columns) {
+        this(databaseName, name, columns, TableOptions.DEFAULT);
+    }
+
+    public Table(String databaseName, String name, List<Column> columns, TableOptions options) {
         this.databaseName = databaseName;
         this.name = name;
         this.columns = new ArrayList<>(columns);
+        this.schema = RowSchema.of(columns);
+        this.options = options;
     }
 
     public String getName() {
         return name;
     }
 
+    public TableOptions getOptions() {
+        return options;
+    }
+
     /**
-     * Insert a row in a table
-     * @param columnValueMap Map of column name to its value
+     * Insert rows in a table, all rows are appended with a single write
+     * @param columnValueMaps Rows to insert as map of column name to its value, validated by an {@link InsertBatch}
      */
-    public void insertRow(Map<String, String> columnValueMap) {
-        Map<String, String> row = new HashMap<>();
-        columns.forEach((column) -> {
-            String columnName = column.name();
-            row.put(columnName, columnValueMap.getOrDefault(columnName, null));
-        });
+    public void insertRows(List<Map<String, String>> columnValueMaps) {
+        List<Row> rows = columnValueMaps.stream().map(values -> Row.fromValues(schema, values)).toList();
         if (isBufferDataPopulated) {
-            bufferData.add(row);
+            bufferData.addAll(rows);
         } else {
             if (TransactionManager.getShouldAutoCommit()) {
-                FileManager.writeRowToFile(databaseName, name, row);
+                FileManager.appendRowsToFile(databaseName, name, rows);
             } else {
                 bufferData.clear();
                 bufferData.addAll(FileManager.getRows(databaseName, name));
-                bufferData.add(row);
+                bufferData.addAll(rows);
                 isBufferDataPopulated = true;
             }
         }
-        System.out.println("Row added successfully.");
+        System.out.println(rows.size() == 1 ? "Row added successfully." : rows.size() + " rows added successfully.");
+    }
+
+    /**
+     * Load the records streamed by the reader as rows. Values are converted to the type of their column,
+     * constraints are checked by an {@link InsertBatch} and rows are written {@code tinydb.load.batchRows} at a time.
+     * Batches written before an invalid record stay in the table.
+     * @param reader Reader of the CSV records
+     * @param columnNames Columns receiving the fields of every record, in order
+     * @return Number of rows loaded
+     */
+    public long loadRows(CsvReader reader, List<String> columnNames) throws IOException {
+        if (!shouldWriteThrough())
+            throw new RuntimeException("LOAD DATA can not be used inside a transaction");
+        RowLoader loader = newRowLoader(true);
+        int[] fieldIndexes = getFieldIndexes(columnNames);
+        List<String> fields;
+        while ((fields = reader.readRecord()) != null) {
+            try {
+                if (fields.size() != columnNames.size())
+                    throw new RuntimeException("Expected " + columnNames.size() + " values but found " + fields.size());
+                loader.add(fieldIndexes, fields);
+            } catch (RuntimeException e) {
+                throw new RuntimeException(e.getMessage() + " at line " + reader.getLineNumber() + ", " +
+                        loader.getLoadedRowCount() + " row(s) loaded before");
+            }
+        }
+        return loader.finish();
+    }
+
+    /**
+     * Provides a loader writing rows to the table in batches, bypassing the write-ahead log
+     * @param isAutoIncrementGenerated True to generate the values of auto increment columns, False to keep the
+     *                                 loaded values, e.g. when restoring a dump
+     * @return RowLoader instance
+     */
+    public RowLoader newRowLoader(boolean isAutoIncrementGenerated) {
+        if (!shouldWriteThrough())
+            throw new RuntimeException("Rows can not be loaded inside a transaction");
+        return new RowLoader(isAutoIncrementGenerated);
+    }
+
+    /**
+     * Provides the index of the field holding the value of every column
+     * @param columnNames Columns receiving the fields of every record, in order
+     * @return Array indexed by column, -1 if no field holds the column
+     */
+    public int[] getFieldIndexes(List<String> columnNames) {
+        int[] fieldIndexes = new int[columns.size()];
+        Arrays.fill(fieldIndexes, -1);
+        for (int field = 0; field < columnNames.size(); field++) {
+            int columnIndex = schema.indexOf(columnNames.get(field));
+            if (columnIndex < 0)
+                throw new RuntimeException("Invalid column: " + columnNames.get(field));
+            fieldIndexes[columnIndex] = field;
+        }
+        return fieldIndexes;
+    }
+
+    /**
+     * Provides the validation state for the rows of a single INSERT query
+     * @param rowCount Number of rows of the query, the auto increment values of all rows are allocated at once
+     * @return InsertBatch instance
+     */
+    public InsertBatch newInsertBatch(int rowCount) {
+        return new InsertBatch(Math.max(rowCount, 1));
     }
 
     /**
-     * Read values from a table
+     * Read values from a table. When an index on the column of the condition caches the values of every selected
+     * column, rows are read from that cache without reading the table file.
      * @param query Original query to read data from table
      * @param columnsToSelect Columns to select (null to select columns)
      */
     public void selectRows(String query, List<String> columnsToSelect) {
-        String upperCaseQuery = query.toUpperCase();
-        String condition = upperCaseQuery.contains("WHERE")
-                ? query.substring(upperCaseQuery.indexOf("WHERE") + 5).trim()
-                : null;
-        List<Map<String, String>> currentRows = isBufferDataPopulated
-                ? bufferData
-                : FileManager.getRows(databaseName, name);
-        List<Map<String, String>> filteredRows = currentRows.stream()
-                .filter(row -> condition == null || evaluateCondition(row, condition))
+        Condition condition = getWhereCondition(query);
+        boolean mayBeCovered = condition != null && columnsToSelect != null && !isBufferDataPopulated;
+        RowCursor coveringRows = mayBeCovered
+                ? FileManager.openCoveringCursor(databaseName, name, condition, columnsToSelect) : null;
+        try (RowCursor rows = coveringRows != null ? coveringRows : openCursor(condition)) {
+            printTable(rows, columnsToSelect);
+        }
+    }
+
+    /**
+     * Compute aggregate functions over the rows of the table. {@code COUNT(*)} alone with a condition answered by a
+     * bitmap index is counted from the index without reading the rows.
+     * @param query Original query to read data from table
+     * @param aggregates Aggregates to compute
+     */
+    public void selectAggregates(String query, List<Aggregate> aggregates) {
+        Condition condition = getWhereCondition(query);
+        List<Aggregate.Accumulator> accumulators = aggregates.stream()
+                .map(aggregate -> aggregate.newAccumulator(schema))
                 .toList();
-        printTable(filteredRows, columnsToSelect);
+        long rowCount = condition != null && !isBufferDataPopulated
+                && aggregates.stream().allMatch(aggregate -> aggregate.column() == null)
+                ? FileManager.countMatchingRows(databaseName, name, condition) : -1;
+        if (rowCount >= 0) {
+            accumulators.forEach(accumulator -> accumulator.addRows(rowCount));
+        } else if (isReadFromColumnStore()) {
+            ColumnStore columnStore = FileManager.getColumnStore(databaseName, name);
+            BitSet rows = columnStore.filter(condition);
+            accumulators.forEach(accumulator -> columnStore.aggregate(accumulator, rows));
+        } else {
+            try (RowCursor rows = openCursor(condition)) {
+                while (rows.hasNext()) {
+                    Row row = rows.next();
+                    accumulators.forEach(accumulator -> accumulator.add(row));
+                }
+            }
+        }
+        printAggregates(aggregates, accumulators.stream().map(Aggregate.Accumulator::getResult).toList());
     }
 
     /**
-     * returns the number of rows present in the table
+     * returns the number of rows present in the table, read from the table statistics instead of the rows
      *
      * @return a long representing the number of rows
      */
     public long getNumberOfRows() {
-        List<Map<String, String>> rows = isBufferDataPopulated
-                ? bufferData
-                : FileManager.getRows(databaseName, name);
-        long numRows = rows.size();
-        return numRows;
+        return isBufferDataPopulated ? bufferData.size() : FileManager.getRowCount(databaseName, name);
+    }
+
+    /**
+     * Print the statistics maintained for the table file: row count, size and per column null count, bounds and
+     * estimated distinct values. Changes of an open transaction are not included.
+     */
+    public void printStatistics() {
+        TableStatistics statistics = FileManager.getTableStatistics(databaseName, name);
+        if (statistics == null)
+            throw new RuntimeException("Table file not found: " + name);
+        System.out.println("Rows: " + statistics.getRowCount() + ", Size: " +
+                FileManager.getTableSizeBytes(databaseName, name) + " bytes");
+
+        List<String> labels = List.of("Column", "Nulls", "Min", "Max", "Distinct");
+        List<List<String>> lines = new ArrayList<>();
+        for (int index = 0; index < columns.size(); index++) {
+            lines.add(List.of(
+                    columns.get(index).name(),
+                    Long.toString(statistics.getNullCount(index)),
+                    Objects.toString(statistics.getMinValue(schema, index), ""),
+                    Objects.toString(statistics.getMaxValue(schema, index), ""),
+                    Long.toString(statistics.getDistinctCount(index))
+            ));
+        }
+        List<Integer> widths = new ArrayList<>();
+        for (int label = 0; label < labels.size(); label++) {
+            int width = labels.get(label).length();
+            for (List<String> line : lines)
+                width = Math.max(width, Math.min(MAX_COLUMN_WIDTH, line.get(label).length()));
+            widths.add(width);
+        }
+
+        for (int label = 0; label < labels.size(); label++)
+            System.out.printf("%-" + widths.get(label) + "s | ", labels.get(label));
+        System.out.println();
+        for (int width : widths)
+            System.out.print("-".repeat(width) + "-+-");
+        System.out.println();
+        for (List<String> line : lines) {
+            for (int label = 0; label < labels.size(); label++) {
+                String value = line.get(label);
+                System.out.printf("%-" + widths.get(label) + "s | ",
+                        value.length() > MAX_COLUMN_WIDTH ? value.substring(0, MAX_COLUMN_WIDTH) : value);
+            }
+            System.out.println();
+        }
     }
 
     /**
@@ -99,16 +251,34 @@ public class Table {
         // Update rows
         String columnToUpdate = setParts[0].trim();
         String newValue = StringUtils.getStringWithoutSurroundingQuotes(setParts[1].trim());
+        int columnIndex = schema.indexOf(columnToUpdate);
+        if (columnIndex < 0) {
+            System.out.println("Invalid column in SET clause: " + columnToUpdate);
+            return;
+        }
+        Condition condition = Condition.parse(schema, conditionPart);
+        if (isAutoIncrementColumn(columnIndex)) {
+            Integer value = StringUtils.parseCanonicalInt(newValue);
+            if (value != null)
+                FileManager.advanceAutoIncrementValue(databaseName, name, columnIndex, value);
+        }
+        if (shouldWriteThrough()) {
+            int rowsAffected = FileManager.updateRows(databaseName, name, condition,
+                    row -> row.withValue(columnIndex, newValue));
+            System.out.println(rowsAffected + " row(s) affected.");
+            return;
+        }
+
         AtomicInteger rowsAffected = new AtomicInteger();
-        List<Map<String, String>> currentRows = isBufferDataPopulated
+        List<Row> currentRows = isBufferDataPopulated
                 ? bufferData
                 : FileManager.getRows(databaseName, name);
-        List<Map<String, String>> updatedRows = currentRows.stream()
-                .peek(row -> {
-                    if (evaluateCondition(row, conditionPart)) {
-                        row.put(columnToUpdate, newValue);
-                        rowsAffected.getAndIncrement();
-                    }
+        List<Row> updatedRows = currentRows.stream()
+                .map(row -> {
+                    if (!condition.test(row))
+                        return row;
+                    rowsAffected.getAndIncrement();
+                    return row.withValue(columnIndex, newValue);
                 })
                 .toList();
 
@@ -122,12 +292,19 @@ public class Table {
      * @param conditionPart Substring after "WHERE" of original query
      */
     public void deleteRows(String conditionPart) {
+        Condition condition = Condition.parse(schema, conditionPart);
+        if (shouldWriteThrough()) {
+            int rowsDeleted = FileManager.deleteRows(databaseName, name, condition);
+            System.out.println(rowsDeleted + " row(s) deleted successfully.");
+            return;
+        }
+
         // Delete rows
-        List<Map<String, String>> currentRows = isBufferDataPopulated
+        List<Row> currentRows = isBufferDataPopulated
                 ? bufferData
                 : FileManager.getRows(databaseName, name);
-        List<Map<String, String>> updatedRows = currentRows.stream()
-                .filter(row -> !evaluateCondition(row, conditionPart))
+        List<Row> updatedRows = currentRows.stream()
+                .filter(condition.negate())
                 .toList();
 
         // Save rows
@@ -176,46 +353,224 @@ public class Table {
     }
 
     /**
-     * Validates the value provided for the column
-     * @param columnName Name of the column
-     * @param value Value provided to column
-     * @return True if value is valid, False otherwise
+     * Validation state shared by the rows of a single INSERT query. Values of primary key and unique columns are
+     * checked against the values of the table, read on first use and extended with every accepted value, so
+     * duplicates inside the query are found as well. Auto increment values are allocated from the sequence of their
+     * column, a range of values at a time.
      */
-    public boolean isValidColumnValue(String columnName, String value) {
-        Optional<Column> column = columns.stream().filter(col -> Objects.equals(col.name(), columnName)).findFirst();
-        if (column.isEmpty())
-            return false;
+    public class InsertBatch {
+        private final Map<Integer, Set<String>> uniqueValues = new HashMap<>();
+        // First, next and last value of the range allocated for every auto increment column
+        private final Map<Integer, long[]> autoIncrementRanges = new HashMap<>();
+        private final int autoIncrementRangeSize;
+
+        private InsertBatch(int autoIncrementRangeSize) {
+            this.autoIncrementRangeSize = autoIncrementRangeSize;
+        }
+
+        /**
+         * Validates the value provided for the column, accepted unique values are reserved for the batch
+         * @param columnName Name of the column
+         * @param value Value provided to column
+         * @return True if value is valid, False otherwise
+         */
+        public boolean isValidColumnValue(String columnName, String value) {
+            int columnIndex = schema.indexOf(columnName);
+            if (columnIndex < 0)
+                return false;
+
+            List<String> constraints = columns.get(columnIndex).constraints();
+            boolean hasPrimaryKeyConstraint = constraints.contains(Column.Constraint.PRIMARY_KEY.getName());
+            boolean hasUniqueConstraint = constraints.contains(Column.Constraint.UNIQUE.getName());
+            boolean hasNonNullConstraint = constraints.contains(Column.Constraint.NON_NULL.getName());
+            boolean isValid = true;
+
+            if (hasNonNullConstraint) {
+                isValid = value != null && !Objects.equals(value, "null");
+                if (!isValid)
+                    System.out.println(columnName + " has non_null constraint so it must not be null.");
+            }
+            if (hasPrimaryKeyConstraint || hasUniqueConstraint) {
+                String uniqueValue = value == null ? Row.NULL_VALUE : value;
+                isValid = isValid && !isStoredValue(columnIndex, uniqueValue)
+                        && getUniqueValues(columnIndex).add(uniqueValue);
+                if (!isValid)
+                    System.out.println(columnName + " has primary_key/unique constraint so it must have unique value.");
+            }
+            return isValid;
+        }
+
+        /**
+         * Provides the next value of the sequence of the column, a new range of values is allocated once the range
+         * of the batch is used up
+         * @param column Name of the column
+         * @return String representing incremented value
+         */
+        public String getAutoIncrementValueFor(String column) {
+            int columnIndex = schema.indexOf(column);
+            long[] range = autoIncrementRanges.get(columnIndex);
+            if (range == null || range[1] > range[2]) {
+                long firstValue = FileManager.allocateAutoIncrementValues(databaseName, name, columnIndex,
+                        autoIncrementRangeSize);
+                range = new long[] { firstValue, firstValue, firstValue + autoIncrementRangeSize - 1 };
+                autoIncrementRanges.put(columnIndex, range);
+            }
+            if (range[1] > Integer.MAX_VALUE)
+                throw new RuntimeException("No auto increment value left for column: " + column);
+            return Long.toString(range[1]++);
+        }
 
-        List<String> constraints = column.get().constraints();
-        boolean hasPrimaryKeyConstraint = constraints.contains(Column.Constraint.PRIMARY_KEY.getName());
-        boolean hasUniqueConstraint = constraints.contains(Column.Constraint.UNIQUE.getName());
-        boolean hasNonNullConstraint = constraints.contains(Column.Constraint.NON_NULL.getName());
-        boolean isValid = true;
+        /**
+         * Give back the auto increment values allocated by the batch and not written, so the sequence continues
+         * without a gap unless values were allocated by another batch meanwhile
+         * @param isWritten True if the rows created so far are written, False if they are discarded
+         */
+        public void releaseAutoIncrementValues(boolean isWritten) {
+            autoIncrementRanges.forEach((columnIndex, range) -> FileManager.releaseAutoIncrementValues(databaseName,
+                    name, columnIndex, isWritten ? range[1] : range[0], range[2]));
+            autoIncrementRanges.clear();
+        }
+
+        /**
+         * Provides a row from the fields of a loaded record, values are converted to the type of their column
+         * @param fieldIndexes Index of the field holding the value of every column, -1 if no field holds it
+         * @param fields Fields of the record, null for a missing value
+         * @return Row instance
+         */
+        public Row createRow(int[] fieldIndexes, List<String> fields) {
+            return createRow(fieldIndexes, fields, true);
+        }
+
+        /**
+         * Provides a row from the fields of a loaded record, values are converted to the type of their column
+         * @param fieldIndexes Index of the field holding the value of every column, -1 if no field holds it
+         * @param fields Fields of the record, null for a missing value
+         * @param isAutoIncrementGenerated True to generate the values of auto increment columns, False to keep
+         *                                 the loaded values
+         * @return Row instance
+         */
+        public Row createRow(int[] fieldIndexes, List<String> fields, boolean isAutoIncrementGenerated) {
+            Row.Builder row = Row.builder(schema);
+            for (int index = 0; index < columns.size(); index++) {
+                Column column = columns.get(index);
+                if (isAutoIncrementGenerated &&
+                        column.constraints().contains(Column.Constraint.AUTO_INCREMENT.getName())) {
+                    row.setInt(index, Integer.parseInt(getAutoIncrementValueFor(column.name())));
+                    continue;
+                }
+                String value = fieldIndexes[index] < 0 ? null : fields.get(fieldIndexes[index]);
+                if (value != null) {
+                    try {
+                        switch (column.dataType()) {
+                            case INT -> {
+                                int intValue = Integer.parseInt(value.trim());
+                                row.setInt(index, intValue);
+                                value = Integer.toString(intValue);
+                            }
+                            case DOUBLE -> {
+                                double doubleValue = Double.parseDouble(value.trim());
+                                row.setDouble(index, doubleValue);
+                                value = Double.toString(doubleValue);
+                            }
+                            case STRING -> row.setString(index, value);
+                        }
+                    } catch (NumberFormatException e) {
+                        throw new RuntimeException("Invalid " + column.type() + " value: " + value + " for column: " +
+                                column.name());
+                    }
+                }
+                if (!isValidColumnValue(column.name(), value))
+                    throw new RuntimeException("Invalid value: " + value + " for column: " + column.name());
+            }
+            return row.build();
+        }
 
-        if (hasNonNullConstraint) {
-            isValid = value != null && !Objects.equals(value, "null");
-            if (!isValid)
-                System.out.println(columnName + " has non_null constraint so it must not be null.");
+        // Region: private methods
+        /**
+         * Provides the values of the column reserved by the batch, along with the values of the rows buffered by a
+         * transaction, as compared by an equality condition
+         * @param columnIndex Index of the column
+         * @return Set of values
+         */
+        private Set<String> getUniqueValues(int columnIndex) {
+            return uniqueValues.computeIfAbsent(columnIndex, key -> {
+                Set<String> values = new HashSet<>();
+                if (isBufferDataPopulated) {
+                    for (Row row : bufferData)
+                        values.add(row.getValue(columnIndex));
+                }
+                return values;
+            });
         }
-        if (hasPrimaryKeyConstraint || hasUniqueConstraint) {
-            isValid = isValid && !isValueAlreadyAdded(columnName, value);
-            if (!isValid)
-                System.out.println(columnName + " has primary_key/unique constraint so it must have unique value.");
+
+        /**
+         * Checks if a row stored in the table holds the value, through the hash index of the column instead of
+         * a scan of the table. Rows buffered by a transaction are checked by {@link #getUniqueValues(int)}.
+         * @param columnIndex Index of the column
+         * @param value Text of the value
+         * @return True if a stored row holds the value, False otherwise
+         */
+        private boolean isStoredValue(int columnIndex, String value) {
+            return !isBufferDataPopulated && FileManager.containsValue(databaseName, name, schema, columnIndex, value);
         }
-        return isValid;
+        // End region
     }
 
     /**
-     * Provides the incremented value from last value added
-     * @param column Name of the column
-     * @return String representing incremented value
+     * Loads rows into the table, every row is validated by a single {@link InsertBatch} so unique values are checked
+     * against one in-memory set. Rows are written {@code tinydb.load.batchRows} at a time with
+     * {@link FileManager#loadRowsToFile(String, String, List)}, auto increment values are allocated as many at a time.
+     * Not thread safe, a loader is used by one thread at a time.
      */
-    public String getAutoIncrementValueFor(String column) {
-        List<Map<String, String>> rows = FileManager.getRows(databaseName, name);
-        List<Integer> values = rows.stream().map(row -> row.get(column)).map(Integer::parseInt).toList();
-        if (values.isEmpty())
-            return "1";
-        return Integer.toString((Collections.max(values) + 1));
+    public class RowLoader {
+        private final InsertBatch batch = new InsertBatch(LOAD_BATCH_ROWS);
+        private final boolean isAutoIncrementGenerated;
+        private List<Row> rows = new ArrayList<>();
+        private long loadedRowCount = 0;
+
+        private RowLoader(boolean isAutoIncrementGenerated) {
+            this.isAutoIncrementGenerated = isAutoIncrementGenerated;
+        }
+
+        /**
+         * Validate a record and add it to the rows to write, the rows are written once a batch is complete
+         * @param fieldIndexes Index of the field holding the value of every column, see {@link #getFieldIndexes(List)}
+         * @param fields Fields of the record, null for a missing value
+         */
+        public void add(int[] fieldIndexes, List<String> fields) {
+            rows.add(batch.createRow(fieldIndexes, fields, isAutoIncrementGenerated));
+            if (rows.size() == LOAD_BATCH_ROWS)
+                flush();
+        }
+
+        /**
+         * Write the remaining rows
+         * @return Number of rows loaded by the loader
+         */
+        public long finish() {
+            if (!rows.isEmpty())
+                flush();
+            batch.releaseAutoIncrementValues(true);
+            return loadedRowCount;
+        }
+
+        /**
+         * Provides the number of rows written so far
+         * @return Number of rows
+         */
+        public long getLoadedRowCount() {
+            return loadedRowCount;
+        }
+
+        // Region: private methods
+        private void flush() {
+            if (!isAutoIncrementGenerated)
+                advanceAutoIncrementValues(rows);
+            FileManager.loadRowsToFile(databaseName, name, rows);
+            loadedRowCount += rows.size();
+            rows = new ArrayList<>();
+        }
+        // End region
     }
 
     /**
@@ -238,95 +593,54 @@ public class Table {
     // Region: Private methods
 
     /**
-     * Provides if the provided row satisfies the condition or not
-     * @param row Row to check condition for
-     * @param condition the condition to check in the provided row
-     * @return True if row satisfies the condition, otherwise false
+     * Provides the condition after "WHERE" of the query
+     * @param query Original query
+     * @return Condition instance, null if query has no WHERE clause
      */
-    private boolean evaluateCondition(Map<String, String> row, String condition) {
-        String selectedOperator = operators.stream()
-                .filter(condition.toUpperCase()::contains)
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Invalid condition operator."));
-
-        String[] parts;
-        if (selectedOperator.equals(" IN ")) {
-            parts = condition.contains(" IN ") ? condition.split(" IN ") : condition.split(" in ");
-        } else {
-            parts = condition.split(Pattern.quote(selectedOperator), 2);
-        }
-
-        String column = parts[0].trim();
-        String value = StringUtils.getStringWithoutSurroundingQuotes(parts[1].trim());
-
-        return switch (selectedOperator) {
-            case "=" -> Objects.equals(value, row.get(column));
-            case "!=" -> !Objects.equals(value, row.get(column));
-            case "<=" -> compareValues(row.get(column), value) <= 0;
-            case ">=" -> compareValues(row.get(column), value) >= 0;
-            case "<" -> compareValues(row.get(column), value) < 0;
-            case ">" -> compareValues(row.get(column), value) > 0;
-            case " IN " -> {
-                List<String> values = Arrays.asList(value.substring(1, value.length() - 1).split(","));
-                values = values.stream().map(String::trim).toList();
-                yield values.contains(row.get(column));
-            }
-            default -> throw new IllegalArgumentException("Unsupported condition operator.");
-        };
+    private Condition getWhereCondition(String query) {
+        String upperCaseQuery = query.toUpperCase();
+        if (!upperCaseQuery.contains("WHERE"))
+            return null;
+        return Condition.parse(schema, query.substring(upperCaseQuery.indexOf("WHERE") + 5).trim());
     }
 
     /**
-     * Compares two values and provides integer representing comparison
-     * @param value1 First value
-     * @param value2 Second value
-     * @return Integer representing the comparison.
-     *         {@code 0} if {@code value1} is numerically equal to {@code value2};
-     *         a value less than {@code 0} if {@code value1} is numerically less than {@code d2};
-     *         and a value greater than {@code 0} if {@code value1} is numerically greater than {@code d2}.
+     * Checks if reads should be served by the column store of the table
+     * @return True if table uses the COLUMNAR engine and no transaction data is buffered, False otherwise
      */
-    private int compareValues(String value1, String value2) {
-        try {
-            double double1 = Double.parseDouble(value1);
-            double double2 = Double.parseDouble(value2);
-            return Double.compare(double1, double2);
-        } catch (NumberFormatException e1) {
-            try {
-                int int1 = Integer.parseInt(value1);
-                int int2 = Integer.parseInt(value2);
-                return Integer.compare(int1, int2);
-            } catch (NumberFormatException e2) {
-                return value1.compareTo(value2);
-            }
-        }
+    private boolean isReadFromColumnStore() {
+        return options.engine() == StorageEngine.COLUMNAR && !isBufferDataPopulated;
     }
 
     /**
-     * Prints the table with some predefined format
-     * @param rows List of all rows to print
+     * Prints the table with some predefined format. Rows are read once and printed by pages of
+     * {@code PRINT_PAGE_ROWS} rows, so they are never held in memory all at once. Columns are sized from the rows of
+     * the first page, longer values of the following pages are wrapped.
+     * @param rows Cursor over the rows to print
      * @param columnsToSelect List of columns to print
      */
-    private void printTable(List<Map<String, String>> rows, List<String> columnsToSelect) {
-        if (rows.isEmpty()) {
-            System.out.println("No rows found.");
-            return;
-        }
-
+    private void printTable(RowCursor rows, List<String> columnsToSelect) {
         // If columnsToSelect is null, select all columns
         if (columnsToSelect == null) {
-            columnsToSelect = new ArrayList<>(rows.get(0).keySet());
+            columnsToSelect = columns.stream().map(Column::name).toList();
+        }
+
+        List<Row> page = readPage(rows);
+        if (page.isEmpty()) {
+            System.out.println("No rows found.");
+            return;
         }
 
         // Calculate the maximum width of each column
         Map<String, Integer> columnWidths = new HashMap<>();
-        for (String column : columnsToSelect) {
-            int maxWidth = Math.min(MAX_COLUMN_WIDTH, column.length());
-            for (Map<String, String> row : rows) {
-                String value = row.get(column);
-                if (value != null) {
-                    maxWidth = Math.min(MAX_COLUMN_WIDTH, Math.max(maxWidth, value.length()));
-                }
+        for (String column : columnsToSelect)
+            columnWidths.put(column, Math.min(MAX_COLUMN_WIDTH, column.length()));
+        for (Row row : page) {
+            for (String column : columnsToSelect) {
+                String value = row.getValue(column);
+                if (value != null)
+                    columnWidths.merge(column, Math.min(MAX_COLUMN_WIDTH, getLongestLineLength(value)), Math::max);
             }
-            columnWidths.put(column, maxWidth);
         }
 
         // Print the header row
@@ -342,75 +656,162 @@ public class Table {
         System.out.println();
 
         // Print the data rows
-        for (Map<String, String> row : rows) {
-            Map<String, List<String>> wrappedRow = wrapRow(row, columnsToSelect, columnWidths);
-            int maxLines = wrappedRow.values().stream().mapToInt(List::size).max().orElse(1);
-            for (int line = 0; line < maxLines; line++) {
-                for (String column : columnsToSelect) {
-                    List<String> wrappedLines = wrappedRow.get(column);
-                    String value = line < wrappedLines.size() ? wrappedLines.get(line) : "";
-                    System.out.printf("%-" + columnWidths.get(column) + "s | ", value);
+        while (!page.isEmpty()) {
+            for (Row row : page) {
+                Map<String, List<String>> wrappedRow = wrapRow(row, columnsToSelect, columnWidths);
+                int maxLines = wrappedRow.values().stream().mapToInt(List::size).max().orElse(1);
+                for (int line = 0; line < maxLines; line++) {
+                    for (String column : columnsToSelect) {
+                        List<String> wrappedLines = wrappedRow.get(column);
+                        String value = line < wrappedLines.size() ? wrappedLines.get(line) : "";
+                        System.out.printf("%-" + columnWidths.get(column) + "s | ", value);
+                    }
+                    System.out.println();
                 }
-                System.out.println();
             }
+            page = readPage(rows);
         }
     }
 
     /**
-     * Wraps the row data if it exceeds the width limit
+     * Reads the next page of rows to print
+     * @param rows Cursor over the rows to print
+     * @return List of at most {@code PRINT_PAGE_ROWS} rows, empty once the cursor is exhausted
+     */
+    private static List<Row> readPage(RowCursor rows) {
+        List<Row> page = new ArrayList<>();
+        while (page.size() < PRINT_PAGE_ROWS && rows.hasNext())
+            page.add(rows.next());
+        return page;
+    }
+
+    /**
+     * Prints the results of aggregate functions as a single row table
+     * @param aggregates Aggregates that were computed
+     * @param results Result of every aggregate
+     */
+    private void printAggregates(List<Aggregate> aggregates, List<String> results) {
+        List<Integer> widths = new ArrayList<>();
+        for (int index = 0; index < aggregates.size(); index++)
+            widths.add(Math.max(aggregates.get(index).getLabel().length(), results.get(index).length()));
+
+        for (int index = 0; index < aggregates.size(); index++)
+            System.out.printf("%-" + widths.get(index) + "s | ", aggregates.get(index).getLabel());
+        System.out.println();
+        for (int width : widths)
+            System.out.print("-".repeat(width) + "-+-");
+        System.out.println();
+        for (int index = 0; index < results.size(); index++)
+            System.out.printf("%-" + widths.get(index) + "s | ", results.get(index));
+        System.out.println();
+    }
+
+    /**
+     * Wraps the row data if it exceeds the width limit, line breaks held by a value start a new line of its cell
      * @param row All the rows that are to be print
      * @param columnsToSelect All columns that are to be print
      * @param columnWidths Map of column to its max width
      * @return Map of ColumnName to List of values that are wrapped
      */
-    private Map<String, List<String>> wrapRow(Map<String, String> row,
+    private Map<String, List<String>> wrapRow(Row row,
                                               List<String> columnsToSelect,
                                               Map<String, Integer> columnWidths) {
         Map<String, List<String>> wrappedRow = new HashMap<>();
         for (String column : columnsToSelect) {
-            String value = row.get(column);
+            String value = row.getValue(column);
             if (value == null)
                 value = "";
             int width = columnWidths.get(column);
             List<String> wrappedLines = new ArrayList<>();
-            while (value.length() > width) {
-                wrappedLines.add(value.substring(0, width));
-                value = value.substring(width);
+            for (String line : splitLines(value)) {
+                while (line.length() > width) {
+                    wrappedLines.add(line.substring(0, width));
+                    line = line.substring(width);
+                }
+                wrappedLines.add(line);
             }
-            wrappedLines.add(value);
             wrappedRow.put(column, wrappedLines);
         }
         return wrappedRow;
     }
 
     /**
-     * Saves the data. Save to buffer data if buffer data is populated otherwise save to file
-     * @param rows Rows data to save
+     * Provides the length of the longest line of a value, the width the value takes once printed
+     * @param value Value to print
+     * @return Number of characters
      */
-    private void saveRowData(List<Map<String, String>> rows) {
-        if (isBufferDataPopulated) {
-            bufferData.clear();
-            bufferData.addAll(rows);
-            return;
-        }
-        if (TransactionManager.getShouldAutoCommit()) {
-            FileManager.writeRowsToFile(databaseName, name, rows);
-            return;
+    private static int getLongestLineLength(String value) {
+        int longestLength = 0;
+        for (String line : splitLines(value))
+            longestLength = Math.max(longestLength, line.length());
+        return longestLength;
+    }
+
+    /**
+     * Split a value at its line breaks, e.g. a quoted CSV field loaded by LOAD DATA spanning several lines
+     * @param value Value to split
+     * @return Lines of the value, the value itself if it holds no line break
+     */
+    private static String[] splitLines(String value) {
+        if (value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+            return new String[] { value };
+        return LINE_BREAK_PATTERN.split(value, -1);
+    }
+
+    /**
+     * Checks if the column has the auto_increment constraint
+     * @param columnIndex Index of the column
+     * @return True if the column is auto increment, False otherwise
+     */
+    private boolean isAutoIncrementColumn(int columnIndex) {
+        return columns.get(columnIndex).constraints().contains(Column.Constraint.AUTO_INCREMENT.getName());
+    }
+
+    /**
+     * Make sure the sequences of the auto increment columns continue after the values of loaded rows
+     * @param rows Rows about to be written
+     */
+    private void advanceAutoIncrementValues(List<Row> rows) {
+        for (int index = 0; index < columns.size(); index++) {
+            if (!isAutoIncrementColumn(index))
+                continue;
+            long largestValue = Long.MIN_VALUE;
+            for (Row row : rows) {
+                if (row.isNumeric(index))
+                    largestValue = Math.max(largestValue, row.getInt(index));
+            }
+            if (largestValue != Long.MIN_VALUE)
+                FileManager.advanceAutoIncrementValue(databaseName, name, index, largestValue);
         }
-        bufferData.clear();
-        bufferData.addAll(rows);
-        isBufferDataPopulated = true;
     }
 
     /**
-     * Check if value is already added to table
-     * @param column Name of the column
-     * @param value Value added to check
-     * @return True if value is added, False otherwise
+     * Open a cursor over the rows of the table, buffered transaction data is read when present
+     * @param condition Condition rows must satisfy, null to read all rows
+     * @return RowCursor instance
      */
-    private boolean isValueAlreadyAdded(String column, String value) {
-        List<Map<String, String>> rows = FileManager.getRows(databaseName, name);
-        return rows.stream().anyMatch(row -> Objects.equals(row.get(column), value));
+    private RowCursor openCursor(Condition condition) {
+        return isBufferDataPopulated
+                ? RowCursor.of(bufferData.iterator(), condition)
+                : FileManager.openRowCursor(databaseName, name, condition);
+    }
+
+    /**
+     * Checks if changes should be written directly to the table file instead of the buffer
+     * @return True if auto commit is on and no transaction data is buffered, False otherwise
+     */
+    private boolean shouldWriteThrough() {
+        return !isBufferDataPopulated && TransactionManager.getShouldAutoCommit();
+    }
+
+    /**
+     * Saves the data to buffer data, changes are written to the file on commit
+     * @param rows Rows data to save
+     */
+    private void saveRowData(List<Row> rows) {
+        bufferData.clear();
+        bufferData.addAll(rows);
+        isBufferDataPopulated = true;
     }
     // End region
 }
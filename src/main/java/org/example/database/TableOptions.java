@@ -0,0 +1,61 @@
+package org.example.database;
+
+import org.example.enums.Compression;
+import org.example.enums.StorageEngine;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Data holder class for options given after the column definitions of CREATE TABLE
+ * <pre>{@code CREATE TABLE events (id int, name string) ENGINE = LOG}</pre>
+ * @param engine Storage engine of the table
+ * @param compression Compression of the data pages of the table
+ */
+public record TableOptions(StorageEngine engine, Compression compression) {
+    public static final TableOptions DEFAULT = new TableOptions(StorageEngine.ROW, Compression.NONE);
+
+    private static final Pattern OPTION_PATTERN = Pattern.compile("(\\w+)\\s*=\\s*['\"]?(\\w+)['\"]?");
+
+    /**
+     * Provides TableOptions from the part of the query after column definitions
+     * @param optionsPart String containing {@code KEY = value} pairs, might be blank
+     * @return TableOptions instance
+     */
+    public static TableOptions parse(String optionsPart) {
+        StorageEngine engine = DEFAULT.engine();
+        Compression compression = DEFAULT.compression();
+        String remaining = optionsPart.trim();
+        Matcher matcher = OPTION_PATTERN.matcher(remaining);
+        while (matcher.find()) {
+            String key = matcher.group(1);
+            String value = matcher.group(2);
+            if (key.equalsIgnoreCase("ENGINE"))
+                engine = StorageEngine.fromName(value);
+            else if (key.equalsIgnoreCase("COMPRESSION"))
+                compression = Compression.fromName(value);
+            else
+                throw new RuntimeException("Invalid table option: " + key);
+            remaining = remaining.replace(matcher.group(), "");
+        }
+        if (!remaining.replace(",", "").isBlank())
+            throw new RuntimeException("Invalid table options: " + optionsPart.trim());
+        // LOG tables locate row versions by page number, which compressed pages do not have
+        if (engine.isAppendOnly() && compression != Compression.NONE)
+            throw new RuntimeException("Compression is not supported by storage engine: " + engine);
+        return new TableOptions(engine, compression);
+    }
+
+    /**
+     * Provides the options in the form they are written in a CREATE TABLE query
+     * @return String representing options, empty if all options are default
+     */
+    public String toSQL() {
+        StringBuilder sql = new StringBuilder();
+        if (engine != DEFAULT.engine())
+            sql.append(" ENGINE=").append(engine.name());
+        if (compression != DEFAULT.compression())
+            sql.append(" COMPRESSION=").append(compression.name());
+        return sql.toString();
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.enums;
+
+/**
+ * Aggregate functions that can be selected instead of columns, e.g. {@code SELECT SUM(score) FROM users}
+ */
+public enum AggregateFunction {
+    COUNT,
+    SUM,
+    AVG,
+    MIN,
+    MAX
+}
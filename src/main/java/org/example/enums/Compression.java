@@ -0,0 +1,37 @@
+package org.example.enums;
+
+import java.util.Arrays;
+
+/**
+ * Compression of the data pages of a table, chosen using {@code COMPRESSION = <name>}
+ * <li>NONE: pages are stored as they are and read through the memory mapped file</li>
+ * <li>DEFLATE: full pages are deflated at a fast level, the page being filled stays uncompressed</li>
+ */
+public enum Compression {
+    NONE,
+    DEFLATE;
+
+    /**
+     * Provides the Compression for the provided name
+     * @param name Name of the compression (case-insensitive)
+     * @return Compression instance
+     */
+    public static Compression fromName(String name) {
+        return Arrays.stream(values())
+                .filter(compression -> compression.name().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Invalid compression: " + name +
+                        ". Allowed compressions: " + Arrays.toString(values())));
+    }
+
+    /**
+     * Provides the Compression stored at the provided ordinal
+     * @param ordinal Ordinal stored in the table file
+     * @return Compression instance
+     */
+    public static Compression fromOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= values().length)
+            throw new RuntimeException("Unknown compression: " + ordinal);
+        return values()[ordinal];
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.enums;
+
+/**
+ * Type of an index created by {@code CREATE [BITMAP] INDEX}
+ * <li>BTREE: {@link org.example.storage.BTreeIndex} locating the rows of every key, for equality, IN and range
+ * conditions</li>
+ * <li>BITMAP: {@link org.example.storage.BitmapIndex} holding the row ids of every distinct value, for columns having
+ * few distinct values</li>
+ */
+public enum IndexType {
+    BTREE,
+    BITMAP;
+
+    /**
+     * Provides the IndexType stored at the provided ordinal
+     * @param ordinal Ordinal stored in the catalog
+     * @return IndexType instance
+     */
+    public static IndexType fromOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= values().length)
+            throw new RuntimeException("Unknown index type: " + ordinal);
+        return values()[ordinal];
+    }
+}
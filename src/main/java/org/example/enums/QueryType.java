@@ -9,14 +9,22 @@ public enum QueryType {
     CREATE_TABLE("CREATE TABLE"),
     USE_DATABASE("USE"),
     INSERT_INTO_TABLE("INSERT INTO"),
+    LOAD_DATA("LOAD DATA INFILE"),
     SELECT_FROM_TABLE("SELECT"),
     UPDATE_TABLE("UPDATE"),
     DELETE_FROM_TABLE("DELETE FROM"),
     DROP_TABLE("DROP TABLE"),
+    CREATE_INDEX("CREATE INDEX"),
+    CREATE_BITMAP_INDEX("CREATE BITMAP INDEX"),
+    DROP_INDEX("DROP INDEX"),
+    ADVISE_INDEXES("ADVISE INDEXES"),
     SET_AUTO_COMMIT("SET AUTOCOMMIT"),
     START_TRANSACTION("START TRANSACTION"),
     ROLLBACK("ROLLBACK"),
-    COMMIT("COMMIT");
+    COMMIT("COMMIT"),
+    SHOW_STATUS("SHOW STATUS"),
+    SHOW_STATS("SHOW STATS"),
+    RESTORE_DATABASE("RESTORE DATABASE");
 
     private final String prefix;
 
@@ -0,0 +1,47 @@
+package org.example.enums;
+
+import java.util.Arrays;
+
+/**
+ * Storage engines a table can be created with using {@code ENGINE = <name>}
+ * <li>ROW: rows are stored in slotted pages, updates and deletes rewrite the table file</li>
+ * <li>LOG: append-only, updates append new row versions and deletes append tombstones</li>
+ * <li>COLUMNAR: stored like ROW, read through an off-heap column store built on first access</li>
+ */
+public enum StorageEngine {
+    ROW,
+    LOG,
+    COLUMNAR;
+
+    /**
+     * Checks if the engine never modifies a stored record in place
+     * @return True if updates and deletes are appended to the table file, False otherwise
+     */
+    public boolean isAppendOnly() {
+        return this == LOG;
+    }
+
+    /**
+     * Provides the StorageEngine for the provided name
+     * @param name Name of the engine (case-insensitive)
+     * @return StorageEngine instance
+     */
+    public static StorageEngine fromName(String name) {
+        return Arrays.stream(values())
+                .filter(engine -> engine.name().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Invalid storage engine: " + name +
+                        ". Allowed engines: " + Arrays.toString(values())));
+    }
+
+    /**
+     * Provides the StorageEngine stored at the provided ordinal
+     * @param ordinal Ordinal stored in the table file
+     * @return StorageEngine instance
+     */
+    public static StorageEngine fromOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= values().length)
+            throw new RuntimeException("Unknown storage engine: " + ordinal);
+        return values()[ordinal];
+    }
+}
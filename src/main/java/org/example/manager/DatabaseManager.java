@@ -1,10 +1,12 @@
 package org.example.manager;
 
 import org.example.database.Database;
+import org.example.util.Config;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This class will be responsible for all management related tasks of Databases
@@ -13,9 +15,13 @@ import java.util.Map;
 public class DatabaseManager {
     private static final Map<String, Database> databases = new HashMap<>();
     private static Database currentDatabase = null;
+    // Completes once the tables of every database are loaded in the background, see preloadDatabases()
+    private static CompletableFuture<Void> preload = CompletableFuture.completedFuture(null);
 
     static {
         FileManager.loadDatabases().forEach(db -> databases.put(db.getName(), db));
+        if (Config.getBoolean("tinydb.catalog.preload", false))
+            preloadDatabases();
     }
 
     /**
@@ -25,6 +31,7 @@ public class DatabaseManager {
      * @param databaseName the name of database to be added.
      */
     public static void createDatabase(String databaseName) {
+        awaitPreload();
         if (databases.containsKey(databaseName)) {
             throw new RuntimeException("Database already exists: " + databaseName);
         }
@@ -34,16 +41,36 @@ public class DatabaseManager {
         System.out.println("Database created: " + databaseName);
     }
 
+    /**
+     * removes the Database with name `databaseName` from the stored `databases`
+     * and deletes all its files. If it does not exist, throws an Exception.
+     * @param databaseName the name of database to be removed.
+     */
+    public static void dropDatabase(String databaseName) {
+        awaitPreload();
+        Database database = databases.remove(databaseName);
+        if (database == null) {
+            throw new RuntimeException("Database does not exist: " + databaseName);
+        }
+        if (currentDatabase == database)
+            currentDatabase = null;
+        FileManager.deleteDatabaseFiles(database);
+        FileManager.saveDatabases(databases.keySet().stream().toList());
+        System.out.println("Database dropped: " + databaseName);
+    }
+
     /**
      * changes the `currentDatabase` to the Database with name `databaseName`
-     * if it exists in `databases`. If it does not, throws an Exception.
+     * if it exists in `databases`, loading its tables if required. If it does not, throws an Exception.
      * @param databaseName the name of Database to be used.
      */
     public static void useDatabase(String databaseName) {
+        awaitPreload();
         if (!databases.containsKey(databaseName)) {
             throw new RuntimeException("Database does not exist: " + databaseName);
         }
         currentDatabase = databases.get(databaseName);
+        currentDatabase.load();
         System.out.println("Using database: " + databaseName);
     }
 
@@ -67,6 +94,28 @@ public class DatabaseManager {
         return databases.values().stream().toList();
     }
 
+    /**
+     * Load the tables of all databases in the background when {@code tinydb.catalog.preload} is set, otherwise a
+     * database is loaded by its first USE. Loading recovers the write-ahead log of the database, so statements
+     * creating, using or dropping a database wait for the preload to complete. A failure is reported once.
+     */
+    private static void preloadDatabases() {
+        List<Database> databasesToLoad = getDatabases();
+        preload = CompletableFuture.runAsync(() -> databasesToLoad.forEach(Database::load))
+                .exceptionally(e -> {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    System.out.println("Failed to preload databases: " + cause.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Wait for the tables loaded in the background, see {@link #preloadDatabases()}
+     */
+    private static void awaitPreload() {
+        preload.join();
+    }
+
     /**
      * Should be called to know if any Database is in use or not.
      * @return True if `currentDatabase` is not null, else false
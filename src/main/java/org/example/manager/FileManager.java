@@ -1,15 +1,56 @@
 package org.example.manager;
 
 import org.example.database.Column;
+import org.example.database.Condition;
 import org.example.database.Database;
+import org.example.database.Row;
+import org.example.database.RowSchema;
 import org.example.database.Table;
+import org.example.database.TableOptions;
+import org.example.enums.Compression;
+import org.example.enums.IndexType;
+import org.example.enums.StorageEngine;
+import org.example.storage.Catalog;
+import org.example.storage.ColumnStore;
+import org.example.storage.ColumnStoreRegistry;
+import org.example.storage.IndexDefinition;
+import org.example.storage.RowCache;
+import org.example.storage.RowCursor;
+import org.example.storage.TableFile;
+import org.example.storage.TableFileRegistry;
+import org.example.storage.TableStatistics;
+import org.example.storage.WriteAheadLog;
+import org.example.util.Config;
+import org.example.util.SqlValueParser;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 public class FileManager {
     public static final String DATABASES_DIRECTORY = "Databases";
     private static final String DATABASES_FILE = DATABASES_DIRECTORY + "/databases.txt";
+    private static final String LEGACY_TABLE_EXTENSION = ".txt";
+    private static final String METADATA_SUFFIX = "_metadata";
+    private static final String SQL_DUMP_EXTENSION = ".sql";
+    private static final String SQL_DUMP_GZIP_EXTENSION = ".sql.gz";
+    private static final int DUMP_BUFFER_SIZE = 1 << 16;
+    private static final int DUMP_ROWS_PER_INSERT = Math.max(1, Config.getInt("tinydb.dump.rowsPerInsert", 500));
+    private static final boolean IS_DUMP_COMPRESSED = Config.getBoolean("tinydb.dump.gzip", false);
+    private static final boolean IS_DUMP_PRINTED = Config.getBoolean("tinydb.dump.print", false);
 
     /**
      * Create database directory if it does not exist
@@ -37,33 +78,74 @@ public class FileManager {
     }
 
     /**
-     * Create txt file for the database
+     * Create table and metadata files for the table
      *
      * @param dbName    Name of the database
      * @param tableName Name of the table
      * @param columns   List of all columns of table
+     * @param options   Options provided while creating the table
      */
-    public static void createNecessaryTableFiles(String dbName, String tableName, List<Column> columns) {
-        createTableFile(dbName, tableName, columns);
-        createTableMetadataFile(dbName, tableName, columns);
+    public static void createNecessaryTableFiles(String dbName, String tableName, List<Column> columns,
+                                                 TableOptions options) {
+        // Directory is created along with the database, only a directory removed since then is created again
+        createDatabaseDirectory(dbName);
+        TableFileRegistry.remove(getDatabaseDirectory(dbName), tableName);
+        createTableFile(dbName, tableName, columns, options);
+        new TableFile(getTableFile(dbName, tableName)).setIndexDefinitions(List.of());
+        createTableMetadataFile(dbName, tableName, columns, options);
+        updateCatalog(dbName, entries -> {
+            entries.removeIf(entry -> entry.tableName().equals(tableName));
+            entries.add(new Catalog.Entry(tableName, formatColumns(columns), options.engine(), options.compression(),
+                    List.of()));
+        });
     }
 
     /**
-     * Write row data to file
+     * Append rows to the table file with a single write. When the {@link WriteAheadLog} is enabled the rows are
+     * only logged, they are written to the table file at the next checkpoint of the database.
      *
      * @param dbName    Name of the database
      * @param tableName Name of the table
-     * @param row       Row data to add
+     * @param rows      Rows to add
      */
-    public static void writeRowToFile(String dbName, String tableName, Map<String, String> row) {
-        File tableFile = getTableFile(dbName, tableName);
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(tableFile, true))) {
-            for (Map.Entry<String, String> entry : row.entrySet()) {
-                writer.write(entry.getKey() + ": " + entry.getValue() + " | ");
+    public static void appendRowsToFile(String dbName, String tableName, List<Row> rows) {
+        try {
+            if (WriteAheadLog.ENABLED) {
+                WriteAheadLog writeAheadLog = getWriteAheadLog(dbName);
+                writeAheadLog.logInserts(tableName, rows, getTableResolver(dbName));
+                if (writeAheadLog.isCheckpointRequired())
+                    checkpoint(dbName);
+            } else {
+                openTableFile(dbName, tableName).appendRows(rows);
             }
-            writer.newLine();
-        } catch (IOException e) {
-            System.out.println("Failed to write row to file for path: " + tableFile);
+            RowCache.append(dbName, tableName, rows);
+            ColumnStoreRegistry.append(dbName, tableName, rows);
+        } catch (RuntimeException e) {
+            invalidateCachedRows(dbName, tableName);
+            System.out.println("Failed to write rows to file for path: " + getTableFile(dbName, tableName) + " " +
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Append a batch of a bulk load to the table file. Rows are written with a single append that bypasses the
+     * write-ahead log, the table file is synced before returning so the batch is durable.
+     *
+     * @param dbName    Name of the database
+     * @param tableName Name of the table
+     * @param rows      Rows to add
+     */
+    public static void loadRowsToFile(String dbName, String tableName, List<Row> rows) {
+        TableFile tableFile = openTableFile(dbName, tableName);
+        try {
+            tableFile.appendRows(rows);
+            tableFile.sync();
+            RowCache.append(dbName, tableName, rows);
+            ColumnStoreRegistry.append(dbName, tableName, rows);
+        } catch (RuntimeException e) {
+            invalidateCachedRows(dbName, tableName);
+            throw new RuntimeException("Failed to load rows to file for path: " + tableFile.getFile() + " " +
+                    e.getMessage());
         }
     }
 
@@ -84,7 +166,8 @@ public class FileManager {
     }
 
     /**
-     * Load all databases from the file into program
+     * Load all databases from the file into program. Tables are not loaded, every database loads its tables
+     * on first access through {@link #loadTables(Database)}.
      *
      * @return List of all databases added
      */
@@ -94,11 +177,8 @@ public class FileManager {
         if (file.exists()) {
             try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
                 String line;
-                while ((line = reader.readLine()) != null) {
-                    Database db = new Database(line);
-                    loadTables(db);
-                    databases.add(db);
-                }
+                while ((line = reader.readLine()) != null)
+                    databases.add(new Database(line, false));
             } catch (IOException e) {
                 System.out.println("Failed to load databases from file: " + DATABASES_FILE);
             }
@@ -107,40 +187,323 @@ public class FileManager {
     }
 
     /**
-     * Get row data for provided database and table
+     * Load the tables of the database from its catalog, rows held by its write-ahead log are recovered first.
+     * The indexes stored in the catalog are set on the table files before any row is written.
+     *
+     * @param database Database to load the tables of
+     */
+    public static void loadTables(Database database) {
+        List<Catalog.Entry> entries = getCatalog(database.getName());
+        for (Catalog.Entry entry : entries)
+            new TableFile(getTableFile(database.getName(), entry.tableName())).setIndexDefinitions(entry.indexes());
+        if (WriteAheadLog.ENABLED)
+            getWriteAheadLog(database.getName()).recover(getTableResolver(database.getName()));
+        for (Catalog.Entry entry : entries) {
+            try {
+                List<Column> columns = parseColumns(entry.schema());
+                database.addTable(new Table(database.getName(), entry.tableName(), columns,
+                        new TableOptions(entry.engine(), entry.compression())));
+            } catch (RuntimeException e) {
+                System.out.println("Failed to load table: " + entry.tableName() + " " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Get row data for provided database and table. Rows are served from {@link RowCache} when possible,
+     * rows of COLUMNAR tables are materialized from their {@link ColumnStore}. Rows held by the write-ahead log
+     * follow the rows of the table file.
      *
      * @param databaseName Name of the database
      * @param tableName    Name of the table
-     * @return List of Map of ColumnName to ColumnValue
+     * @return List of Rows
      */
-    public static List<Map<String, String>> getRows(String databaseName, String tableName) {
-        List<Map<String, String>> rows = new ArrayList<>();
-        File dbDirectory = new File(DATABASES_DIRECTORY + File.separator + databaseName);
-        File[] tableFiles = dbDirectory.listFiles((dir, name) -> name.endsWith(".txt"));
-        if (tableFiles != null) {
-            File tableFile = Arrays.stream(tableFiles)
-                    .filter(file -> Objects.equals(file.getName().replace(".txt", ""), tableName))
-                    .findFirst()
-                    .orElse(null);
-            if (tableFile == null)
+    public static List<Row> getRows(String databaseName, String tableName) {
+        ColumnStore columnStore = ColumnStoreRegistry.get(databaseName, tableName);
+        if (columnStore != null)
+            return columnStore.getRows();
+        List<Row> cachedRows = RowCache.get(databaseName, tableName);
+        if (cachedRows != null)
+            return cachedRows;
+        TableFile tableFile = prepareTableFile(databaseName, tableName);
+        if (!tableFile.exists())
+            return new ArrayList<>();
+        try {
+            if (tableFile.readHeader().engine() == StorageEngine.COLUMNAR)
+                return getColumnStore(databaseName, tableName).getRows();
+            List<Row> rows = readWithUnappliedRows(databaseName, tableName, loggedRows -> {
+                List<Row> tableRows = tableFile.readRows(readRowSchema(tableFile));
+                tableRows.addAll(loggedRows);
+                return tableRows;
+            });
+            return RowCache.put(databaseName, tableName, rows);
+        } catch (RuntimeException e) {
+            System.out.println("Failed to load table file for path: " + tableFile.getFile() + " " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Open a cursor over the rows of the table satisfying the condition. Column stores are read from memory.
+     * Conditions answered by an index created with {@code CREATE [BITMAP] INDEX} read the table file through the
+     * index, otherwise cached rows are read from memory or rows are decoded from the table file one page at a time.
+     * A scan of all rows caches them in {@link RowCache} once it completes, provided they fit its byte budget.
+     * Rows held by the write-ahead log follow the rows of the table file, reads never checkpoint the log.
+     *
+     * @param databaseName Name of the database
+     * @param tableName    Name of the table
+     * @param condition    Condition rows must satisfy, null to get all rows
+     * @return RowCursor over the matching rows, must be closed if not read until the end
+     */
+    public static RowCursor openRowCursor(String databaseName, String tableName, Condition condition) {
+        ColumnStore columnStore = ColumnStoreRegistry.get(databaseName, tableName);
+        if (columnStore != null)
+            return columnStore.openCursor(condition);
+        TableFile tableFile = prepareTableFile(databaseName, tableName);
+        if (condition != null && !tableFile.getIndexDefinitions().isEmpty()) {
+            RowCursor rows = openWithUnappliedRows(databaseName, tableName, condition,
+                    () -> tableFile.openIndexCursor(readRowSchema(tableFile), condition));
+            if (rows != null)
                 return rows;
-            try (BufferedReader reader = new BufferedReader(new FileReader(tableFile))) {
-                reader.readLine(); // Extra header line for column definition
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    String[] rowValues = line.split(" \\| ");
-                    Map<String, String> row = new HashMap<>();
-                    for (String rowValue : rowValues) {
-                        String[] parts = rowValue.split(": ");
-                        row.put(parts[0], parts[1]);
-                    }
-                    rows.add(row);
-                }
-            } catch (IOException e) {
-                System.out.println("Failed to load table file for path: " + tableFile);
-            }
         }
-        return rows;
+        List<Row> cachedRows = RowCache.get(databaseName, tableName);
+        if (cachedRows != null)
+            return RowCursor.of(cachedRows.iterator(), condition);
+        if (!tableFile.exists())
+            return RowCursor.empty();
+        try {
+            if (tableFile.readHeader().engine() == StorageEngine.COLUMNAR)
+                return getColumnStore(databaseName, tableName).openCursor(condition);
+            RowCursor rows = openWithUnappliedRows(databaseName, tableName, condition,
+                    () -> tableFile.openCursor(readRowSchema(tableFile), condition));
+            return condition == null ? RowCache.putWhileReading(databaseName, tableName, rows) : rows;
+        } catch (RuntimeException e) {
+            System.out.println("Failed to load table file for path: " + tableFile.getFile() + " " + e.getMessage());
+            return RowCursor.empty();
+        }
+    }
+
+    /**
+     * Open a cursor over the rows of the table satisfying the condition through the values an index created with
+     * {@code CREATE INDEX ... INCLUDE (columns)} caches in memory, without reading the table file. Only the
+     * requested columns of the rows provided hold their values.
+     *
+     * @param databaseName Name of the database
+     * @param tableName    Name of the table
+     * @param condition    Condition rows must satisfy
+     * @param columnNames  Names of the columns to read
+     * @return RowCursor over the matching rows, null if no index on the column of the condition caches every
+     *         requested column or its cache was dropped for exceeding {@code tinydb.index.coveringMaxBytes}
+     */
+    public static RowCursor openCoveringCursor(String databaseName, String tableName, Condition condition,
+                                               List<String> columnNames) {
+        if (ColumnStoreRegistry.get(databaseName, tableName) != null)
+            return null;
+        TableFile tableFile = prepareTableFile(databaseName, tableName);
+        if (tableFile.getIndexDefinitions().stream().noneMatch(IndexDefinition::isCovering))
+            return null;
+        return openWithUnappliedRows(databaseName, tableName, condition,
+                () -> tableFile.openCoveringCursor(readRowSchema(tableFile), condition, columnNames));
+    }
+
+    /**
+     * Count the rows of the table satisfying the condition through a bitmap index of the table file, without
+     * reading the rows
+     *
+     * @param databaseName Name of the database
+     * @param tableName    Name of the table
+     * @param condition    Condition rows must satisfy
+     * @return Number of matching rows, -1 if no bitmap index answers the condition
+     */
+    public static long countMatchingRows(String databaseName, String tableName, Condition condition) {
+        if (ColumnStoreRegistry.get(databaseName, tableName) != null)
+            return -1;
+        TableFile tableFile = prepareTableFile(databaseName, tableName);
+        if (tableFile.getIndexDefinitions().isEmpty())
+            return -1;
+        return readWithUnappliedRows(databaseName, tableName, loggedRows -> {
+            long rowCount = tableFile.countRows(readRowSchema(tableFile), condition);
+            return rowCount < 0 ? rowCount : rowCount + loggedRows.stream().filter(condition).count();
+        });
+    }
+
+    /**
+     * Checks if a row of the table holds the value in a primary_key or unique column. The table file is searched
+     * through the hash index of the column without checkpointing, rows held by the write-ahead log are checked
+     * in memory.
+     *
+     * @param databaseName Name of the database
+     * @param tableName    Name of the table
+     * @param schema       Schema of the table
+     * @param column       Index of the column
+     * @param value        Text of the value
+     * @return True if a row holds the value, False otherwise
+     */
+    public static boolean containsValue(String databaseName, String tableName, RowSchema schema, int column,
+                                        String value) {
+        if (WriteAheadLog.ENABLED && getWriteAheadLog(databaseName).containsValue(tableName, column, value))
+            return true;
+        TableFile tableFile = prepareTableFile(databaseName, tableName);
+        return tableFile.exists() && tableFile.containsValue(schema, column, value);
+    }
+
+    /**
+     * Provides the indexes created on the table by {@code CREATE [BITMAP] INDEX}
+     *
+     * @param databaseName Name of the database
+     * @param tableName    Name of the table
+     * @return List of index definitions
+     */
+    public static List<IndexDefinition> getIndexDefinitions(String databaseName, String tableName) {
+        return prepareTableFile(databaseName, tableName).getIndexDefinitions();
+    }
+
+    /**
+     * Create an index on a column of the table and add it to the catalog
+     *
+     * @param databaseName Name of the database
+     * @param tableName    Name of the table
+     * @param definition   Definition of the index
+     */
+    public static void createIndex(String databaseName, String tableName, IndexDefinition definition) {
+        TableFile tableFile = openTableFile(databaseName, tableName);
+        if (!tableFile.exists())
+            throw new RuntimeException("Table file not found: " + tableName);
+        if (tableFile.getIndexDefinitions().stream().anyMatch(index -> index.name().equals(definition.name())))
+            throw new RuntimeException("Index already exists: " + definition.name());
+        tableFile.createIndex(readRowSchema(tableFile), definition);
+        updateCatalogIndexes(databaseName, tableName, tableFile.getIndexDefinitions());
+    }
+
+    /**
+     * Drop an index of the table and remove it from the catalog
+     *
+     * @param databaseName Name of the database
+     * @param tableName    Name of the table
+     * @param indexName    Name of the index
+     */
+    public static void dropIndex(String databaseName, String tableName, String indexName) {
+        TableFile tableFile = openTableFile(databaseName, tableName);
+        if (tableFile.getIndexDefinitions().stream().noneMatch(index -> index.name().equals(indexName)))
+            throw new RuntimeException("Index not found: " + indexName);
+        tableFile.dropIndex(indexName);
+        updateCatalogIndexes(databaseName, tableName, tableFile.getIndexDefinitions());
+    }
+
+    /**
+     * Get the statistics of the rows of the table, rows held by the write-ahead log are added to a copy of the
+     * statistics of the table file
+     *
+     * @param databaseName Name of the database
+     * @param tableName    Name of the table
+     * @return TableStatistics instance, null if table file does not exist
+     */
+    public static TableStatistics getTableStatistics(String databaseName, String tableName) {
+        TableFile tableFile = prepareTableFile(databaseName, tableName);
+        if (!tableFile.exists())
+            return null;
+        return readWithUnappliedRows(databaseName, tableName, loggedRows -> {
+            TableStatistics statistics = tableFile.getStatistics(readRowSchema(tableFile));
+            return loggedRows.isEmpty() ? statistics : statistics.withRows(loggedRows);
+        });
+    }
+
+    /**
+     * Allocate consecutive values of the sequence of an auto increment column. Only the first use of the sequence
+     * reads the table, through its statistics, to continue from the largest value of the column.
+     *
+     * @param databaseName Name of the database
+     * @param tableName    Name of the table
+     * @param column       Index of the column
+     * @param count        Number of values to allocate
+     * @return First value allocated
+     */
+    public static long allocateAutoIncrementValues(String databaseName, String tableName, int column, int count) {
+        return prepareTableFile(databaseName, tableName).getSequences().allocate(column, count, () -> {
+            TableStatistics statistics = getTableStatistics(databaseName, tableName);
+            double largestValue = statistics == null ? Double.NEGATIVE_INFINITY : statistics.getMaxNumber(column);
+            return Double.isInfinite(largestValue) ? 0 : (long) largestValue;
+        });
+    }
+
+    /**
+     * Give back values of an auto increment column allocated but not used, see
+     * {@link org.example.storage.TableSequences#release(int, long, long)}
+     *
+     * @param databaseName     Name of the database
+     * @param tableName        Name of the table
+     * @param column           Index of the column
+     * @param firstUnusedValue First value of the range not used
+     * @param lastValue        Last value of the range
+     */
+    public static void releaseAutoIncrementValues(String databaseName, String tableName, int column,
+                                                  long firstUnusedValue, long lastValue) {
+        prepareTableFile(databaseName, tableName).getSequences().release(column, firstUnusedValue, lastValue);
+    }
+
+    /**
+     * Make sure the sequence of an auto increment column continues after a value written to the column by an UPDATE
+     * or a load keeping the values of the column
+     *
+     * @param databaseName Name of the database
+     * @param tableName    Name of the table
+     * @param column       Index of the column
+     * @param value        Value written to the column
+     */
+    public static void advanceAutoIncrementValue(String databaseName, String tableName, int column, long value) {
+        prepareTableFile(databaseName, tableName).getSequences().advanceTo(column, value);
+    }
+
+    /**
+     * Get the size of the table file and its dictionary
+     *
+     * @param databaseName Name of the database
+     * @param tableName    Name of the table
+     * @return Size in bytes
+     */
+    public static long getTableSizeBytes(String databaseName, String tableName) {
+        return prepareTableFile(databaseName, tableName).getSizeBytes();
+    }
+
+    /**
+     * Get the number of rows of the table from its statistics, without reading the rows. Rows held by the
+     * write-ahead log are counted without writing them to the table file.
+     *
+     * @param databaseName Name of the database
+     * @param tableName    Name of the table
+     * @return Number of rows
+     */
+    public static long getRowCount(String databaseName, String tableName) {
+        TableFile tableFile = prepareTableFile(databaseName, tableName);
+        if (!tableFile.exists())
+            return 0;
+        long rowCount = tableFile.getStatistics(readRowSchema(tableFile)).getRowCount();
+        if (WriteAheadLog.ENABLED)
+            rowCount += getWriteAheadLog(databaseName).getUnappliedRowCount(tableName);
+        return rowCount;
+    }
+
+    /**
+     * Get the column store of a COLUMNAR table, building it from the table file on first access
+     *
+     * @param databaseName Name of the database
+     * @param tableName    Name of the table
+     * @return ColumnStore holding all rows of the table
+     */
+    public static ColumnStore getColumnStore(String databaseName, String tableName) {
+        ColumnStore columnStore = ColumnStoreRegistry.get(databaseName, tableName);
+        if (columnStore != null)
+            return columnStore;
+        TableFile tableFile = prepareTableFile(databaseName, tableName);
+        ColumnStore newColumnStore = new ColumnStore(readRowSchema(tableFile));
+        readWithUnappliedRows(databaseName, tableName, loggedRows -> {
+            tableFile.forEachRow(newColumnStore.getSchema(), newColumnStore::append);
+            loggedRows.forEach(newColumnStore::append);
+            return null;
+        });
+        columnStore = newColumnStore;
+        ColumnStoreRegistry.put(databaseName, tableName, columnStore);
+        return columnStore;
     }
 
     /**
@@ -150,35 +513,111 @@ public class FileManager {
      * @param tableName Name of the table
      * @param rows      List of rows to be written
      */
-    public static void writeRowsToFile(String dbName, String tableName, List<Map<String, String>> rows) {
-        File tableFile = getTableFile(dbName, tableName);
-        List<Column> columns = getTableColumns(dbName, tableName);
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(tableFile))) {
-            // Add header line
-            for (Column column : columns)
-                writer.write(column.name() + ": " + column.type() + " " + column.constraints().toString() + " | ");
-            writer.newLine();
+    public static void writeRowsToFile(String dbName, String tableName, List<Row> rows) {
+        TableFile tableFile = openTableFile(dbName, tableName);
+        try {
+            TableFile.Header header = tableFile.readHeader();
+            tableFile.rewrite(header.schema(), header.engine(), header.compression(), rows);
+            if (header.engine() == StorageEngine.COLUMNAR)
+                ColumnStoreRegistry.invalidate(dbName, tableName);
+            else
+                RowCache.put(dbName, tableName, rows);
+        } catch (RuntimeException e) {
+            invalidateCachedRows(dbName, tableName);
+            System.out.println("Failed to write rows to file for path: " + tableFile.getFile() + " " + e.getMessage());
+        }
+    }
 
-            // Add row data
-            for (Map<String, String> row : rows) {
-                for (Map.Entry<String, String> entry : row.entrySet())
-                    writer.write(entry.getKey() + ": " + entry.getValue() + " | ");
-                writer.newLine();
-            }
+    /**
+     * Update rows of the table file matching the predicate
+     *
+     * @param dbName    Name of the database
+     * @param tableName Name of the table
+     * @param predicate Condition rows must satisfy to be updated
+     * @param updater   Function providing the updated row
+     * @return Number of rows updated
+     */
+    public static int updateRows(String dbName, String tableName, Predicate<Row> predicate,
+                                 UnaryOperator<Row> updater) {
+        TableFile tableFile = openTableFile(dbName, tableName);
+        try {
+            return tableFile.updateRows(readRowSchema(tableFile), predicate, updater);
+        } finally {
+            invalidateCachedRows(dbName, tableName);
+        }
+    }
+
+    /**
+     * Delete rows of the table file matching the predicate
+     *
+     * @param dbName    Name of the database
+     * @param tableName Name of the table
+     * @param predicate Condition rows must satisfy to be deleted
+     * @return Number of rows deleted
+     */
+    public static int deleteRows(String dbName, String tableName, Predicate<Row> predicate) {
+        TableFile tableFile = openTableFile(dbName, tableName);
+        try {
+            return tableFile.deleteRows(readRowSchema(tableFile), predicate);
+        } finally {
+            invalidateCachedRows(dbName, tableName);
+        }
+    }
+
+    /**
+     * Delete table and metadata files of the table
+     *
+     * @param dbName    Name of the database
+     * @param tableName Name of the table
+     * @return True if all files are deleted, False otherwise
+     */
+    public static boolean deleteTableFiles(String dbName, String tableName) {
+        checkpoint(dbName);
+        invalidateCachedRows(dbName, tableName);
+        updateCatalog(dbName, entries -> entries.removeIf(entry -> entry.tableName().equals(tableName)));
+        TableFileRegistry.remove(getDatabaseDirectory(dbName), tableName);
+        boolean tableFileDeleted = new TableFile(getTableFile(dbName, tableName)).delete();
+        boolean tableMetadataFileDeleted = getMetadataFile(dbName, tableName).delete();
+        return tableFileDeleted && tableMetadataFileDeleted;
+    }
+
+    /**
+     * Delete the files of all tables of the database and its directory
+     *
+     * @param database Database to delete
+     */
+    public static void deleteDatabaseFiles(Database database) {
+        for (Table table : List.copyOf(database.getTables()))
+            deleteTableFiles(database.getName(), table.getName());
+        File databaseDirectory = getDatabaseDirectory(database.getName());
+        WriteAheadLog.remove(databaseDirectory);
+        try (Stream<Path> paths = Files.walk(databaseDirectory.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
         } catch (IOException e) {
-            System.out.println("Failed to write rows to file for path: " + tableFile);
+            System.out.println("Failed to delete database directory for path: " + databaseDirectory);
         }
     }
 
     /**
-     * Generate the sql dump file for requesting database
+     * Generate the sql dump file for requesting database, gzip compressed if {@code tinydb.dump.gzip} is set
      * @param dbName Name of the database
+     * @return File the dump is written to
      */
-    public static void generateSQLDump(String dbName) {
-        List<String> sqlDump = new ArrayList<>();
-        sqlDump.add("CREATE DATABASE " + dbName + ";");
-        sqlDump.add("USE " + dbName + ";");
+    public static File generateSQLDump(String dbName) {
+        return generateSQLDump(dbName, IS_DUMP_COMPRESSED);
+    }
 
+    /**
+     * Generate the sql dump file for requesting database. Every table is dumped in parallel into a segment file of
+     * its own, the segments are then concatenated in table order. Rows are written as they are read, grouped into
+     * multi-row INSERT statements, so the dump never holds a whole table in memory. Compressed segments are gzip
+     * members, which concatenated form a valid gzip file. The dump is printed to the console once written only if
+     * {@code tinydb.dump.print} is set.
+     * @param dbName Name of the database
+     * @param isCompressed True to write a gzip compressed dump
+     * @return File the dump is written to
+     */
+    public static File generateSQLDump(String dbName, boolean isCompressed) {
         Database database = DatabaseManager.getDatabases().stream()
                 .filter(db -> Objects.equals(dbName, db.getName()))
                 .findFirst()
@@ -186,73 +625,74 @@ public class FileManager {
         if (database == null)
             throw new RuntimeException("Database not present for name: " + dbName);
 
-        File dbDirectory = new File(DATABASES_DIRECTORY + File.separator + dbName);
-        File[] tableFiles = dbDirectory.listFiles((dir, name) -> name.endsWith(".txt"));
-        if (tableFiles != null) {
-            for (File tableFile : tableFiles) {
-                if (tableFile.getName().contains("_metadata"))
-                    continue;
-                String tableName = tableFile.getName().replace(".txt", "");
-                String createTableSQL = getCreateTableSQLQuery(dbName, tableName);
-                sqlDump.add(createTableSQL);
-
-                Table table = database.getTable(tableName);
-                if (table == null)
-                    throw new RuntimeException("Table not present for name: " + tableName);
-                List<Column> tableColumns = table.getColumns();
-
-                List<Map<String, String>> rows = getRows(dbName, tableName);
-                for (Map<String, String> row : rows) {
-                    String insertRowSQL = getInsertRowSQLQuery(tableName, tableColumns, row);
-                    sqlDump.add(insertRowSQL);
-                }
+        File dumpFile = new File(DATABASES_DIRECTORY, dbName + "_dump" + (isCompressed ? SQL_DUMP_GZIP_EXTENSION
+                : SQL_DUMP_EXTENSION));
+        List<Table> tables = database.getTables();
+        List<File> segments = new ArrayList<>(tables.size() + 1);
+        for (int index = 0; index <= tables.size(); index++)
+            segments.add(new File(dumpFile.getPath() + ".part" + index));
+        try {
+            try (BufferedWriter writer = openDumpWriter(segments.get(0), isCompressed)) {
+                writeDumpLine(writer, "CREATE DATABASE " + dbName + ";");
+                writeDumpLine(writer, "USE " + dbName + ";");
             }
+            IntStream.range(0, tables.size()).parallel()
+                    .forEach(index -> writeTableDump(dbName, tables.get(index), segments.get(index + 1), isCompressed));
+            concatenateFiles(segments, dumpFile);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write to file: " + dumpFile + " - " + e.getMessage());
+        } finally {
+            segments.forEach(File::delete);
         }
-
-        StringBuilder dumpContent = new StringBuilder();
-        for (String sql : sqlDump) {
-            dumpContent.append(sql).append(System.lineSeparator());
-        }
-        String sqlDumpFilePath = "Databases/" + dbName + "_dump.sql";
-        writeToFile(sqlDumpFilePath, dumpContent.toString());
-
-        System.out.println(dumpContent);
+        if (IS_DUMP_PRINTED)
+            printDump(dumpFile, isCompressed);
+        return dumpFile;
     }
     // End region
 
     // Region: private methods
     /**
-     * Create txt file for the database table
+     * Create binary file for the database table
      *
      * @param dbName    Name of the database
      * @param tableName Name of the table
      * @param columns   List of all columns of table
+     * @param options   Options provided while creating the table
      */
-    private static void createTableFile(String dbName, String tableName, List<Column> columns) {
-        File tableFile = getTableFile(dbName, tableName);
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(tableFile))) {
-            for (Column column : columns) {
-                StringBuilder header = new StringBuilder();
-                // Name, type and constraints
-                header.append(column.name()).append(": ")
-                        .append(column.type()).append(" ")
-                        .append(column.constraints().toString()).append(" ");
-                // Foreign key
-                if (column.foreignKeyTable() != null && column.foreignKeyColumn() != null) {
-                    header.append("(")
-                            .append(column.foreignKeyTable())
-                            .append(": ")
-                            .append(column.foreignKeyColumn())
-                            .append(")");
-                }
-                // Column separator
-                header.append(" | ");
-                writer.write(header.toString());
+    private static void createTableFile(String dbName, String tableName, List<Column> columns, TableOptions options) {
+        TableFile tableFile = new TableFile(getTableFile(dbName, tableName));
+        try {
+            tableFile.create(formatColumns(columns), options.engine(), options.compression());
+        } catch (RuntimeException e) {
+            System.out.println("Failed to create table file for path: " + tableFile.getFile() + e.getMessage());
+        }
+    }
+
+    /**
+     * Provides the column definition line stored as schema of the table
+     *
+     * @param columns List of all columns of table
+     * @return String representing all column definitions
+     */
+    private static String formatColumns(List<Column> columns) {
+        StringBuilder header = new StringBuilder();
+        for (Column column : columns) {
+            // Name, type and constraints
+            header.append(column.name()).append(": ")
+                    .append(column.type()).append(" ")
+                    .append(column.constraints().toString()).append(" ");
+            // Foreign key
+            if (column.foreignKeyTable() != null && column.foreignKeyColumn() != null) {
+                header.append("(")
+                        .append(column.foreignKeyTable())
+                        .append(": ")
+                        .append(column.foreignKeyColumn())
+                        .append(")");
             }
-            writer.newLine();
-        } catch (IOException e) {
-            System.out.println("Failed to create table file for path: " + tableFile + e.getMessage());
+            // Column separator
+            header.append(" | ");
         }
+        return header.toString();
     }
 
     /**
@@ -261,12 +701,16 @@ public class FileManager {
      * @param dbName    Name of the database
      * @param tableName Name of the table
      * @param columns   List of all columns of table
+     * @param options   Options provided while creating the table
      */
-    private static void createTableMetadataFile(String dbName, String tableName, List<Column> columns) {
+    private static void createTableMetadataFile(String dbName, String tableName, List<Column> columns,
+                                                TableOptions options) {
         File tableFile = getMetadataFile(dbName, tableName);
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(tableFile))) {
             StringBuilder metadata = new StringBuilder();
             metadata.append("Metadata file for table: ").append(tableName).append("\n\n");
+            metadata.append("Storage engine: ").append(options.engine()).append("\n");
+            metadata.append("Compression: ").append(options.compression()).append("\n\n");
             metadata.append("Columns:\n");
 
             for (Column column : columns) {
@@ -297,10 +741,95 @@ public class FileManager {
      * @return File object referencing table file
      */
     private static File getTableFile(String databaseName, String tableName) {
-        String path = DATABASES_DIRECTORY + File.separator + databaseName;
-        File file = new File(path);
-        file.mkdirs();
-        return new File(file, File.separator + tableName + ".txt");
+        return new File(getDatabaseDirectory(databaseName), tableName + TableFile.EXTENSION);
+    }
+
+    /**
+     * Provides the binary table file holding all rows of the table, checkpointing the write-ahead log first.
+     * Used before the table file is written, reads use {@link #prepareTableFile(String, String)} along with the rows
+     * of the log instead.
+     *
+     * @param databaseName Name of the database
+     * @param tableName    Name of the table
+     * @return TableFile instance for the table
+     */
+    private static TableFile openTableFile(String databaseName, String tableName) {
+        checkpoint(databaseName);
+        return prepareTableFile(databaseName, tableName);
+    }
+
+    /**
+     * Provides the binary table file, migrating the legacy text table file on first access.
+     * Once the table file exists in the current format it is registered in {@link TableFileRegistry},
+     * so later accesses neither resolve its path nor check the file system again.
+     *
+     * @param databaseName Name of the database
+     * @param tableName    Name of the table
+     * @return TableFile instance for the table
+     */
+    private static TableFile prepareTableFile(String databaseName, String tableName) {
+        File databaseDirectory = getDatabaseDirectory(databaseName);
+        TableFile tableFile = TableFileRegistry.get(databaseDirectory, tableName);
+        if (tableFile != null)
+            return tableFile;
+
+        tableFile = new TableFile(getTableFile(databaseName, tableName));
+        File legacyTableFile = getLegacyTableFile(databaseName, tableName);
+        if (!tableFile.exists() && legacyTableFile.exists())
+            migrateLegacyTableFile(legacyTableFile, tableFile);
+        if (tableFile.exists()) {
+            TableFile.Header header = tableFile.readHeader();
+            if (header.version() < TableFile.FORMAT_VERSION)
+                tableFile.upgrade(RowSchema.of(parseColumns(header.schema())));
+            TableFileRegistry.register(databaseDirectory, tableName, tableFile);
+        }
+        return tableFile;
+    }
+
+    /**
+     * Provides File object for the text table file used before the binary format
+     *
+     * @param databaseName Name of the database
+     * @param tableName    Name of the table
+     * @return File object referencing legacy table file
+     */
+    private static File getLegacyTableFile(String databaseName, String tableName) {
+        return new File(getDatabaseDirectory(databaseName), tableName + LEGACY_TABLE_EXTENSION);
+    }
+
+    /**
+     * Converts a " | " delimited text table file into the binary format.
+     * Legacy file is kept with ".bak" extension once the migration is done.
+     *
+     * @param legacyTableFile Text table file
+     * @param tableFile       Binary table file to create
+     */
+    private static void migrateLegacyTableFile(File legacyTableFile, TableFile tableFile) {
+        try (BufferedReader reader = new BufferedReader(new FileReader(legacyTableFile))) {
+            String schema = reader.readLine();
+            if (schema == null)
+                return;
+            RowSchema rowSchema = RowSchema.of(parseColumns(schema));
+            List<Row> rows = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] rowValues = line.split(" \\| ");
+                Map<String, String> row = new HashMap<>();
+                for (String rowValue : rowValues) {
+                    String[] parts = rowValue.split(": ", 2);
+                    row.put(parts[0], parts.length > 1 ? parts[1].trim() : "");
+                }
+                rows.add(Row.fromValues(rowSchema, row));
+            }
+            tableFile.rewrite(schema, StorageEngine.ROW, Compression.NONE, rows);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Failed to migrate table file for path: " + legacyTableFile + " " + e.getMessage());
+            return;
+        }
+        File backupFile = new File(legacyTableFile.getPath() + ".bak");
+        if (!legacyTableFile.renameTo(backupFile))
+            System.out.println("Failed to rename migrated table file for path: " + legacyTableFile);
+        System.out.println("Migrated table file to binary format: " + tableFile.getFile());
     }
 
     /**
@@ -311,30 +840,79 @@ public class FileManager {
      * @return File object referencing table file
      */
     private static File getMetadataFile(String databaseName, String tableName) {
-        String path = DATABASES_DIRECTORY + File.separator + databaseName;
-        File file = new File(path);
-        file.mkdirs();
-        return new File(file, File.separator + tableName + "_metadata.txt");
+        return new File(getDatabaseDirectory(databaseName), tableName + METADATA_SUFFIX + ".txt");
     }
 
     /**
-     * Loads all the table information into provided database
+     * Provides File object for the directory of the database
      *
-     * @param database Database object to load tables
+     * @param databaseName Name of the database
+     * @return File object referencing database directory
      */
-    private static void loadTables(Database database) {
-        File dbDirectory = new File(DATABASES_DIRECTORY + File.separator + database.getName());
-        File[] tableFiles = dbDirectory.listFiles((dir, name) -> name.endsWith(".txt"));
+    private static File getDatabaseDirectory(String databaseName) {
+        return new File(DATABASES_DIRECTORY, databaseName);
+    }
+
+    /**
+     * Read the catalog of the database, building it from the headers of the table files when it is missing
+     *
+     * @param dbName Name of the database
+     * @return List of catalog entries in table name order
+     */
+    private static List<Catalog.Entry> getCatalog(String dbName) {
+        File dbDirectory = getDatabaseDirectory(dbName);
+        List<Catalog.Entry> entries = Catalog.load(dbDirectory);
+        if (entries != null)
+            return entries;
+
+        entries = new ArrayList<>();
+        File[] tableFiles = dbDirectory.listFiles((dir, name) -> name.endsWith(TableFile.EXTENSION) ||
+                (name.endsWith(LEGACY_TABLE_EXTENSION) && !name.contains(METADATA_SUFFIX)));
         if (tableFiles != null) {
+            Set<String> tableNames = new TreeSet<>();
             for (File tableFile : tableFiles) {
-                if (tableFile.getName().contains("_metadata"))
-                    continue;
-                String tableName = tableFile.getName().replace(".txt", "");
-                List<Column> columns = getTableColumns(database.getName(), tableName);
-                Table table = new Table(database.getName(), tableName, columns);
-                database.addTable(table);
+                String fileName = tableFile.getName();
+                tableNames.add(fileName.substring(0, fileName.lastIndexOf('.')));
+            }
+            for (String tableName : tableNames) {
+                try {
+                    TableFile.Header header = prepareTableFile(dbName, tableName).readHeader();
+                    entries.add(new Catalog.Entry(tableName, header.schema(), header.engine(), header.compression(),
+                            List.of()));
+                } catch (RuntimeException e) {
+                    System.out.println("Failed to load table: " + tableName + " " + e.getMessage());
+                }
             }
         }
+        if (dbDirectory.isDirectory())
+            Catalog.save(dbDirectory, entries);
+        return entries;
+    }
+
+    /**
+     * Change the catalog of the database
+     *
+     * @param dbName  Name of the database
+     * @param updater Consumer changing the list of catalog entries
+     */
+    private static synchronized void updateCatalog(String dbName, Consumer<List<Catalog.Entry>> updater) {
+        List<Catalog.Entry> entries = new ArrayList<>(getCatalog(dbName));
+        updater.accept(entries);
+        entries.sort(Comparator.comparing(Catalog.Entry::tableName));
+        Catalog.save(getDatabaseDirectory(dbName), entries);
+    }
+
+    /**
+     * Replace the indexes of a table in the catalog of the database
+     *
+     * @param dbName    Name of the database
+     * @param tableName Name of the table
+     * @param indexes   Indexes created on the table
+     */
+    private static void updateCatalogIndexes(String dbName, String tableName, List<IndexDefinition> indexes) {
+        updateCatalog(dbName, entries -> entries.replaceAll(entry -> entry.tableName().equals(tableName)
+                ? new Catalog.Entry(entry.tableName(), entry.schema(), entry.engine(), entry.compression(), indexes)
+                : entry));
     }
 
     /**
@@ -345,37 +923,250 @@ public class FileManager {
      * @return List of columns
      */
     private static List<Column> getTableColumns(String databaseName, String tableName) {
-        File tableFile = getTableFile(databaseName, tableName);
-        try (BufferedReader reader = new BufferedReader(new FileReader(tableFile))) {
-            List<Column> columns = new ArrayList<>();
-            String headerLine = reader.readLine();
-            if (headerLine != null) {
-                String[] columnDefs = headerLine.split(" \\| ");
-                for (String columnDef : columnDefs) {
-                    String[] parts = columnDef.split(": ", 2);
-                    String name = parts[0];
-                    String[] typeAndConstraints = parts[1].split(" ", 2);
-                    String type = typeAndConstraints[0];
-                    Column column = getProcessedColumn(typeAndConstraints[1], name, type);
-                    columns.add(column);
+        TableFile tableFile = prepareTableFile(databaseName, tableName);
+        try {
+            return parseColumns(tableFile.readSchema());
+        } catch (RuntimeException e) {
+            System.out.println("Failed to read columns from table file for path: " + tableFile.getFile());
+            return List.of();
+        }
+    }
+
+    /**
+     * Get columns from the column definition line of a table
+     *
+     * @param headerLine String representing all column definitions
+     * @return List of columns
+     */
+    private static List<Column> parseColumns(String headerLine) {
+        List<Column> columns = new ArrayList<>();
+        if (headerLine == null || headerLine.isBlank())
+            return columns;
+        String[] columnDefs = headerLine.split(" \\| ");
+        for (String columnDef : columnDefs) {
+            String[] parts = columnDef.split(": ", 2);
+            String name = parts[0];
+            String[] typeAndConstraints = parts[1].split(" ", 2);
+            String type = typeAndConstraints[0];
+            Column column = getProcessedColumn(typeAndConstraints[1], name, type);
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    /**
+     * Provides the write-ahead log of the database
+     *
+     * @param dbName Name of the database
+     * @return WriteAheadLog instance
+     */
+    private static WriteAheadLog getWriteAheadLog(String dbName) {
+        return WriteAheadLog.get(getDatabaseDirectory(dbName));
+    }
+
+    /**
+     * Write the rows held by the write-ahead log of the database to their table files
+     *
+     * @param dbName Name of the database
+     */
+    private static void checkpoint(String dbName) {
+        if (WriteAheadLog.ENABLED)
+            getWriteAheadLog(dbName).checkpoint(getTableResolver(dbName));
+    }
+
+    /**
+     * Read the table file along with the rows of the table held by the write-ahead log, see
+     * {@link WriteAheadLog#readWithUnappliedRows(String, Function)}
+     *
+     * @param dbName    Name of the database
+     * @param tableName Name of the table
+     * @param reader    Function reading the table file, receiving the rows held by the log
+     * @return Result of the reader
+     */
+    private static <T> T readWithUnappliedRows(String dbName, String tableName, Function<List<Row>, T> reader) {
+        if (!WriteAheadLog.ENABLED)
+            return reader.apply(List.of());
+        return getWriteAheadLog(dbName).readWithUnappliedRows(tableName, reader);
+    }
+
+    /**
+     * Open a cursor over the rows of the table file followed by the rows of the table held by the write-ahead log
+     *
+     * @param dbName    Name of the database
+     * @param tableName Name of the table
+     * @param condition Condition the rows held by the log must satisfy, null to provide all of them
+     * @param tableRows Opens the cursor over the rows of the table file, may provide null
+     * @return RowCursor instance, null if the cursor over the table file is null
+     */
+    private static RowCursor openWithUnappliedRows(String dbName, String tableName, Condition condition,
+                                                   Supplier<RowCursor> tableRows) {
+        return readWithUnappliedRows(dbName, tableName, loggedRows -> {
+            RowCursor rows = tableRows.get();
+            if (rows == null || loggedRows.isEmpty())
+                return rows;
+            return RowCursor.concat(rows, RowCursor.of(loggedRows.iterator(), condition));
+        });
+    }
+
+    /**
+     * Provides access to the table files of the database for the write-ahead log
+     *
+     * @param dbName Name of the database
+     * @return TableResolver instance
+     */
+    private static WriteAheadLog.TableResolver getTableResolver(String dbName) {
+        return new WriteAheadLog.TableResolver() {
+            @Override
+            public TableFile getTableFile(String tableName) {
+                TableFile tableFile = prepareTableFile(dbName, tableName);
+                return tableFile.exists() ? tableFile : null;
+            }
+
+            @Override
+            public RowSchema getSchema(TableFile tableFile) {
+                return readRowSchema(tableFile);
+            }
+        };
+    }
+
+    /**
+     * Drop rows of the table held in memory, they are read again from the table file on next access
+     *
+     * @param dbName    Name of the database
+     * @param tableName Name of the table
+     */
+    private static void invalidateCachedRows(String dbName, String tableName) {
+        RowCache.invalidate(dbName, tableName);
+        ColumnStoreRegistry.invalidate(dbName, tableName);
+    }
+
+    /**
+     * Provides the schema of rows stored in the table file, parsed once per column definition of its header
+     *
+     * @param tableFile Table file to read the schema from
+     * @return RowSchema instance
+     */
+    private static RowSchema readRowSchema(TableFile tableFile) {
+        return tableFile.readRowSchema(schema -> RowSchema.of(parseColumns(schema)));
+    }
+
+    /**
+     * Write a line of the SQL dump
+     * @param writer Writer of the dump file
+     * @param sql SQL statement to write
+     */
+    private static void writeDumpLine(BufferedWriter writer, String sql) throws IOException {
+        writer.write(sql);
+        writer.newLine();
+    }
+
+    /**
+     * Open a writer of a dump segment
+     * @param file Segment file
+     * @param isCompressed True to gzip the written content
+     * @return BufferedWriter instance
+     */
+    private static BufferedWriter openDumpWriter(File file, boolean isCompressed) throws IOException {
+        OutputStream output = new FileOutputStream(file);
+        if (isCompressed)
+            output = new GZIPOutputStream(output, DUMP_BUFFER_SIZE);
+        return new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), DUMP_BUFFER_SIZE);
+    }
+
+    /**
+     * Write the CREATE TABLE statement of the table followed by its rows and its CREATE INDEX statements to a
+     * dump segment, at most {@code tinydb.dump.rowsPerInsert} rows per INSERT statement
+     * @param dbName Name of the database
+     * @param table Table to dump
+     * @param segment Segment file of the table
+     * @param isCompressed True to gzip the segment
+     */
+    private static void writeTableDump(String dbName, Table table, File segment, boolean isCompressed) {
+        try (BufferedWriter writer = openDumpWriter(segment, isCompressed);
+             RowCursor rows = openRowCursor(dbName, table.getName(), null)) {
+            writeDumpLine(writer, getCreateTableSQLQuery(dbName, table));
+            int rowCount = 0;
+            while (rows.hasNext()) {
+                Row row = rows.next();
+                if (rowCount == 0)
+                    writer.write(getInsertSQLPrefix(table.getName(), row.getSchema()));
+                else
+                    writer.write(", ");
+                writeRowValues(writer, row);
+                if (++rowCount == DUMP_ROWS_PER_INSERT) {
+                    writeDumpLine(writer, ";");
+                    rowCount = 0;
                 }
             }
-            return columns;
+            if (rowCount > 0)
+                writeDumpLine(writer, ";");
+            for (IndexDefinition index : prepareTableFile(dbName, table.getName()).getIndexDefinitions())
+                writeDumpLine(writer, (index.type() == IndexType.BITMAP ? "CREATE BITMAP INDEX " : "CREATE INDEX ") +
+                        index.name() + " ON " + table.getName() + " (" + index.columnName() + ")" +
+                        (index.isCovering() ? " INCLUDE (" + String.join(", ", index.includedColumns()) + ")" : "") +
+                        ";");
         } catch (IOException e) {
-            System.out.println("Failed to read columns from table file for path: " + tableFile);
-            return List.of();
+            throw new RuntimeException("Failed to dump table: " + table.getName() + " - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replace the content of the target file with the content of the files one after the other
+     * @param files Files to concatenate
+     * @param target File receiving the content
+     */
+    private static void concatenateFiles(List<File> files, File target) throws IOException {
+        try (FileChannel output = FileChannel.open(target.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (File file : files) {
+                try (FileChannel input = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    long position = 0;
+                    long size = input.size();
+                    while (position < size)
+                        position += input.transferTo(position, size - position, output);
+                }
+            }
         }
     }
 
+    /**
+     * Print the dump file to the console
+     * @param dumpFile Dump file
+     * @param isCompressed True if the dump is gzip compressed
+     */
+    private static void printDump(File dumpFile, boolean isCompressed) {
+        try (BufferedReader reader = openDumpReader(dumpFile, isCompressed)) {
+            String line;
+            while ((line = reader.readLine()) != null)
+                System.out.println(line);
+        } catch (IOException e) {
+            System.out.println("Failed to read file: " + dumpFile + " - " + e.getMessage());
+        }
+        System.out.println();
+    }
+
+    /**
+     * Open a reader of a dump file
+     * @param dumpFile Dump file
+     * @param isCompressed True if the dump is gzip compressed
+     * @return BufferedReader instance
+     */
+    private static BufferedReader openDumpReader(File dumpFile, boolean isCompressed) throws IOException {
+        InputStream input = new FileInputStream(dumpFile);
+        if (isCompressed)
+            input = new GZIPInputStream(input, DUMP_BUFFER_SIZE);
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), DUMP_BUFFER_SIZE);
+    }
+
     /**
      * Provides the SQL query for creating table
      * @param dbName Name of the database
-     * @param tableName Name of the table
+     * @param table Table to create
      * @return String representing SQL query for creating a table
      */
-    private static String getCreateTableSQLQuery(String dbName, String tableName) {
-        List<Column> columns = getTableColumns(dbName, tableName);
-        StringBuilder sql = new StringBuilder("\nCREATE TABLE ").append(tableName).append(" (");
+    private static String getCreateTableSQLQuery(String dbName, Table table) {
+        List<Column> columns = getTableColumns(dbName, table.getName());
+        StringBuilder sql = new StringBuilder("\nCREATE TABLE ").append(table.getName()).append(" (");
         for (int i = 0; i < columns.size(); i++) {
             Column column = columns.get(i);
             sql.append(column.name()).append(" ").append(column.type());
@@ -390,47 +1181,46 @@ public class FileManager {
                 sql.append(", ");
             }
         }
-        sql.append(");");
+        sql.append(")").append(table.getOptions().toSQL()).append(";");
         return sql.toString();
     }
 
     /**
-     * Provides the SQL query for inserting row
+     * Provides the start of an INSERT statement, up to the values of the rows
      * @param tableName Name of the table
-     * @param tableColumns List of all columns in table
-     * @param row Row data map of Column to its value
-     * @return String representing SQL query for inserting a row
+     * @param schema Schema of the rows to insert
+     * @return String representing the INSERT statement without values
      */
-    private static String getInsertRowSQLQuery(String tableName, List<Column> tableColumns, Map<String, String> row) {
+    private static String getInsertSQLPrefix(String tableName, RowSchema schema) {
         StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
-        StringBuilder values = new StringBuilder(" VALUES (");
-
-        int index = 0;
-        for (Map.Entry<String, String> entry : row.entrySet()) {
-            sql.append(entry.getKey());
-            Column tableColumn = tableColumns.stream()
-                    .filter(column -> Objects.equals(column.name(), entry.getKey()))
-                    .findFirst()
-                    .orElse(null);
-            if (tableColumn == null)
-                throw new RuntimeException("Column not present for name: " + entry.getKey());
-
-            if (entry.getValue().equals("null")) {
-                values.append("null");
-            } else if (tableColumn.type().equalsIgnoreCase("string")) {
-                values.append("'").append(entry.getValue()).append("'");
-            } else {
-                values.append(entry.getValue());
-            }
-
-            if (index < row.size() - 1) {
+        for (int index = 0; index < schema.size(); index++) {
+            if (index > 0)
                 sql.append(", ");
-                values.append(", ");
+            sql.append(schema.getColumn(index).name());
+        }
+        return sql.append(") VALUES ").toString();
+    }
+
+    /**
+     * Write the values of the row as a tuple of an INSERT statement
+     * @param writer Writer of the dump file
+     * @param row Row to insert
+     */
+    private static void writeRowValues(Writer writer, Row row) throws IOException {
+        RowSchema schema = row.getSchema();
+        writer.write('(');
+        for (int index = 0; index < schema.size(); index++) {
+            if (index > 0)
+                writer.write(", ");
+            if (row.isNull(index)) {
+                writer.write("null");
+            } else if (schema.getColumn(index).type().equalsIgnoreCase("string")) {
+                SqlValueParser.writeQuotedValue(writer, row.getValue(index));
+            } else {
+                writer.write(row.getValue(index));
             }
-            index++;
         }
-        sql.append(")").append(values).append(");");
-        return sql.toString();
+        writer.write(')');
     }
 
     /**
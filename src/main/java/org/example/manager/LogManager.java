@@ -1,9 +1,12 @@
 package org.example.manager;
 
 import org.json.JSONObject;
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -14,7 +17,13 @@ import java.util.Map;
 public class LogManager {
     private static final String GENERAL_LOGS_FILE = "Databases/general_logs.json";
     private static final String EVENT_LOGS_FILE = "Databases/event_logs.json";
-    private static final String QUERY_LOGS_FILE = "Databases/query_logs.json";
+    public static final String QUERY_LOGS_FILE = "Databases/query_logs.json";
+    // Log files stay open until exit, every entry is flushed so it can be read as soon as it is logged
+    private static final Map<String, Writer> WRITERS = new HashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(LogManager::closeAll, "tinydb-log-shutdown"));
+    }
 
     /**
      * Logs general information such as query execution times and database state.
@@ -67,11 +76,37 @@ public class LogManager {
      * @param filePath The path of the log file.
      * @param logEntry The JSON object representing the log entry.
      */
-    private static void appendToFile(String filePath, JSONObject logEntry) {
-        try (FileWriter file = new FileWriter(filePath, true)) {
-            file.write(logEntry.toString() + "\n");
+    private static synchronized void appendToFile(String filePath, JSONObject logEntry) {
+        Writer writer = WRITERS.get(filePath);
+        try {
+            if (writer == null) {
+                writer = new BufferedWriter(new FileWriter(filePath, true));
+                WRITERS.put(filePath, writer);
+            }
+            writer.write(logEntry.toString() + "\n");
+            writer.flush();
+        } catch (IOException e) {
+            // Writer is opened again for the next entry
+            close(WRITERS.remove(filePath));
+            System.out.println("Failed to write log entry to file: " + filePath + " - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Close every log file kept open
+     */
+    private static synchronized void closeAll() {
+        WRITERS.values().forEach(LogManager::close);
+        WRITERS.clear();
+    }
+
+    private static void close(Writer writer) {
+        if (writer == null)
+            return;
+        try {
+            writer.close();
         } catch (IOException e) {
-            e.printStackTrace();
+            System.out.println("Failed to close log file - " + e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -39,7 +39,7 @@ public class TransactionManager {
      */
     public static void startTransaction() {
         DatabaseManager.getDatabases().forEach(database ->
-                database.getTables().forEach(table -> {
+                database.getLoadedTables().forEach(table -> {
                     table.addBufferDataToFile();
                     table.clearBufferData();
                 })
@@ -50,22 +50,24 @@ public class TransactionManager {
     }
 
     /**
-     * Commits transaction by adding/updating all data from buffer to file
+     * Commits transaction by adding/updating all data from buffer to file, the indexes of a table are built again
+     * along with its file
      */
     public static void commitTransaction() {
         DatabaseManager.getDatabases().forEach(database ->
-                database.getTables().forEach(Table::addBufferDataToFile)
+                database.getLoadedTables().forEach(Table::addBufferDataToFile)
         );
         isTransactionInProgress = false;
         setShouldAutoCommit(autoCommitStatusBeforeTransaction);
     }
 
     /**
-     * Rolls back transaction by removing all data from buffer
+     * Rolls back transaction by removing all data from buffer, table files and their indexes were not changed by
+     * the transaction
      */
     public static void rollbackTransaction() {
         DatabaseManager.getDatabases().forEach(database ->
-                database.getTables().forEach(Table::clearBufferData)
+                database.getLoadedTables().forEach(Table::clearBufferData)
         );
         isTransactionInProgress = false;
         setShouldAutoCommit(autoCommitStatusBeforeTransaction);
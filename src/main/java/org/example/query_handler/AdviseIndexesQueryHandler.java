@@ -0,0 +1,92 @@
+package org.example.query_handler;
+
+import org.example.database.Database;
+import org.example.manager.DatabaseManager;
+import org.example.manager.LogManager;
+import org.example.service.IndexAdvisor;
+import org.example.util.Config;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Handles {@code ADVISE INDEXES [APPLY [min_rows_skipped]]}: prints the indexes {@link IndexAdvisor} proposes for the
+ * current database, and with APPLY creates those whose queries would skip at least {@code min_rows_skipped} rows
+ * ({@code tinydb.indexAdvisor.minRowsSkipped} by default, 10000).
+ */
+public class AdviseIndexesQueryHandler implements QueryHandler {
+    private static final long MIN_ROWS_SKIPPED = Config.getLong("tinydb.indexAdvisor.minRowsSkipped", 10_000);
+    private static final Pattern ADVISE_PATTERN = Pattern.compile(
+            "^ADVISE\\s+INDEXES(?:\\s+(APPLY)(?:\\s+(\\d+))?)?\\s*$", Pattern.CASE_INSENSITIVE);
+
+    @Override
+    public void handle(String query) {
+        Matcher matcher = ADVISE_PATTERN.matcher(query.trim());
+        if (!matcher.matches())
+            throw new RuntimeException("Invalid ADVISE INDEXES query");
+        Database currentDatabase = DatabaseManager.getCurrentDatabase();
+        IndexAdvisor advisor = new IndexAdvisor(currentDatabase);
+        List<IndexAdvisor.Advice> advices = advisor.advise();
+        if (advices.isEmpty()) {
+            System.out.println("No index to advise.");
+            return;
+        }
+
+        List<String> indexNames = new ArrayList<>();
+        advices.forEach(advice -> indexNames.add(advisor.getIndexName(advice)));
+        printAdvices(advices, indexNames);
+        if (matcher.group(1) == null)
+            return;
+        long minRowsSkipped = matcher.group(2) != null ? Long.parseLong(matcher.group(2)) : MIN_ROWS_SKIPPED;
+        for (int index = 0; index < advices.size(); index++) {
+            if (advices.get(index).rowsSkipped() < minRowsSkipped)
+                break;
+            currentDatabase.createIndex(advices.get(index).getStatement(indexNames.get(index)));
+            LogManager.logEvent("index created", "index advised from the query log was created",
+                    LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Prints the proposals as a table, most beneficial first
+     * @param advices Proposals of the advisor
+     * @param indexNames Name of the index of every proposal
+     */
+    private void printAdvices(List<IndexAdvisor.Advice> advices, List<String> indexNames) {
+        List<String> labels = List.of("Table", "Column", "Operators", "Queries", "Logged ms", "Rows skipped",
+                "Ms saved", "Statement");
+        List<List<String>> lines = new ArrayList<>();
+        for (int index = 0; index < advices.size(); index++) {
+            IndexAdvisor.Advice advice = advices.get(index);
+            lines.add(List.of(
+                    advice.tableName(),
+                    advice.columnName(),
+                    String.join(" ", advice.operators()),
+                    Long.toString(advice.queryCount()),
+                    Long.toString(advice.executionTime()),
+                    Long.toString(advice.rowsSkipped()),
+                    Long.toString(advice.timeSaved()),
+                    advice.getStatement(indexNames.get(index)) + ";"));
+        }
+        int[] widths = new int[labels.size()];
+        for (int column = 0; column < labels.size(); column++) {
+            widths[column] = labels.get(column).length();
+            for (List<String> line : lines)
+                widths[column] = Math.max(widths[column], line.get(column).length());
+        }
+        printLine(labels, widths);
+        for (int width : widths)
+            System.out.print("-".repeat(width) + "-+-");
+        System.out.println();
+        lines.forEach(line -> printLine(line, widths));
+    }
+
+    private void printLine(List<String> values, int[] widths) {
+        for (int column = 0; column < values.size(); column++)
+            System.out.printf("%-" + widths[column] + "s | ", values.get(column));
+        System.out.println();
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.query_handler;
+
+import org.example.database.Database;
+import org.example.manager.DatabaseManager;
+import org.example.manager.LogManager;
+
+import java.time.LocalDateTime;
+
+public class CreateIndexQueryHandler implements QueryHandler {
+
+    @Override
+    public void handle(String query) {
+        Database currentDatabase = DatabaseManager.getCurrentDatabase();
+        currentDatabase.createIndex(query);
+        LogManager.logEvent("index created", "new index was created", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.query_handler;
+
+import org.example.database.Database;
+import org.example.manager.DatabaseManager;
+import org.example.manager.LogManager;
+
+import java.time.LocalDateTime;
+
+public class DropIndexQueryHandler implements QueryHandler {
+
+    @Override
+    public void handle(String query) {
+        Database currentDatabase = DatabaseManager.getCurrentDatabase();
+        currentDatabase.dropIndex(query);
+        LogManager.logEvent("index deleted", "an index was deleted", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.query_handler;
+
+import org.example.database.Database;
+import org.example.manager.DatabaseManager;
+import org.example.manager.LogManager;
+
+import java.time.LocalDateTime;
+
+public class LoadDataQueryHandler implements QueryHandler {
+
+    @Override
+    public void handle(String query) {
+        Database currentDatabase = DatabaseManager.getCurrentDatabase();
+        currentDatabase.loadDataIntoTable(query);
+        LogManager.logEvent("data loaded", "rows were loaded from a file into a table", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.query_handler;
+
+import org.example.manager.LogManager;
+import org.example.service.SQLDumpRestorer;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class RestoreDatabaseQueryHandler implements QueryHandler {
+    private static final Pattern RESTORE_PATTERN = Pattern.compile(
+            "^RESTORE\\s+DATABASE\\s+(?:(\\w+)\\s+)?FROM\\s+(['\"])(.+?)\\2\\s*$", Pattern.CASE_INSENSITIVE);
+
+    @Override
+    public void handle(String query) {
+        Matcher matcher = RESTORE_PATTERN.matcher(query.trim());
+        if (!matcher.matches())
+            throw new RuntimeException("Invalid RESTORE DATABASE query");
+        File dumpFile = new File(matcher.group(3));
+        if (!dumpFile.isFile())
+            throw new RuntimeException("Dump file not found: " + dumpFile);
+
+        long startTime = System.nanoTime();
+        long rowCount = new SQLDumpRestorer(dumpFile, matcher.group(1)).restore();
+        double seconds = Math.max(System.nanoTime() - startTime, 1) / 1e9;
+        System.out.printf("Restored %d row(s) from %s in %.3f s (%.0f rows/s)%n", rowCount, dumpFile, seconds,
+                rowCount / seconds);
+        LogManager.logEvent("database restored", "database was restored from dump file: " + dumpFile,
+                LocalDateTime.now());
+    }
+}
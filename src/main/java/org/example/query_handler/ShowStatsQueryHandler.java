@@ -0,0 +1,18 @@
+package org.example.query_handler;
+
+import org.example.database.Table;
+import org.example.manager.DatabaseManager;
+
+public class ShowStatsQueryHandler implements QueryHandler {
+
+    @Override
+    public void handle(String query) {
+        String[] queryParts = query.trim().split("\\s+");
+        if (queryParts.length != 3)
+            throw new RuntimeException("Invalid SHOW STATS query");
+        Table table = DatabaseManager.getCurrentDatabase().getTable(queryParts[2]);
+        if (table == null)
+            throw new RuntimeException("Table not found: " + queryParts[2]);
+        table.printStatistics();
+    }
+}
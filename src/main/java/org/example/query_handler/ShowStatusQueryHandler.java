@@ -0,0 +1,48 @@
+package org.example.query_handler;
+
+import org.example.manager.LogManager;
+import org.example.storage.ColumnStoreRegistry;
+import org.example.storage.RowCache;
+import org.example.storage.TableFile;
+import org.example.storage.WriteAheadLog;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ShowStatusQueryHandler implements QueryHandler {
+
+    @Override
+    public void handle(String query) {
+        if (!isQueryValid(query))
+            throw new RuntimeException("Invalid SHOW STATUS query");
+        Map<String, Object> status = new LinkedHashMap<>(RowCache.getStatus());
+        status.putAll(ColumnStoreRegistry.getStatus());
+        status.putAll(WriteAheadLog.getStatus());
+        status.putAll(TableFile.getStatus());
+        printStatus(status);
+        LogManager.logEvent("status shown", "server status counters were shown", LocalDateTime.now());
+    }
+
+    /**
+     * Checks if the provided query is valid or not
+     * @param query Query to check for
+     * @return True if query is valid, otherwise false
+     */
+    private boolean isQueryValid(String query) {
+        return query.split("\\s+").length == 2;
+    }
+
+    /**
+     * Prints the counters as a two column table
+     * @param status Map of counter name to its value
+     */
+    private void printStatus(Map<String, Object> status) {
+        int nameWidth = status.keySet().stream().mapToInt(String::length).max().orElse(0);
+        nameWidth = Math.max(nameWidth, "Variable_name".length());
+        System.out.printf("%-" + nameWidth + "s | %s%n", "Variable_name", "Value");
+        System.out.println("-".repeat(nameWidth) + "-+-" + "-".repeat(5));
+        for (Map.Entry<String, Object> entry : status.entrySet())
+            System.out.printf("%-" + nameWidth + "s | %s%n", entry.getKey(), entry.getValue());
+    }
+}
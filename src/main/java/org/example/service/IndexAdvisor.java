@@ -0,0 +1,261 @@
+package org.example.service;
+
+import org.example.database.Column;
+import org.example.database.Condition;
+import org.example.database.Database;
+import org.example.database.RowSchema;
+import org.example.database.Table;
+import org.example.enums.StorageEngine;
+import org.example.manager.FileManager;
+import org.example.manager.LogManager;
+import org.example.storage.TableStatistics;
+import org.example.util.Config;
+import org.example.util.StringUtils;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Proposes B+tree indexes for the current database from the queries recorded in the query log by
+ * {@link LogManager#logQuery}.
+ * <p>
+ * The log is replayed in order, {@code USE} statements telling which database the following queries ran against.
+ * The WHERE condition of every SELECT, UPDATE and DELETE on a table of the database is normalized to its column and
+ * operator, equalities ({@code =}, {@code IN}) and ranges ({@code <}, {@code <=}, {@code >}, {@code >=}) on a
+ * column being summed into a single proposal as one B+tree index answers all of them. Conditions already answered by an index, i.e. equalities on a primary_key or unique column and any
+ * condition on a column having a B+tree or bitmap index, are left out, as are tables of the COLUMNAR engine.
+ * <p>
+ * The share of the rows a condition matches is estimated from the {@link TableStatistics} of the table: one value in
+ * the estimated number of distinct values for equalities, the position of the value between the smallest and largest
+ * number of the column for ranges, a third of the rows otherwise. Queries matching more than
+ * {@code tinydb.index.maxFraction} of the rows would still scan the table and save nothing. The benefit of an index
+ * is the number of rows its queries would no longer read, summed over the logged queries, along with their logged
+ * execution time scaled by the same share. Proposals are ranked by rows skipped.
+ */
+public class IndexAdvisor {
+    private static final double MAX_INDEX_FRACTION = Config.getDouble("tinydb.index.maxFraction", 0.2);
+    // Share of the rows a range condition is assumed to match when the bounds of the column are unknown
+    private static final double DEFAULT_RANGE_FRACTION = 1.0 / 3;
+    private static final Pattern USE_PATTERN = Pattern.compile("^USE\\s+(\\w+)\\s*$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern WHERE_QUERY_PATTERN = Pattern.compile(
+            "^(?:SELECT\\s+.+?\\s+FROM|DELETE\\s+FROM|UPDATE)\\s+(\\w+)\\s.*?\\bWHERE\\s+(.+)$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final Database database;
+
+    /**
+     * Index proposed for a column, along with the logged queries it would speed up
+     * @param tableName Name of the table
+     * @param columnName Name of the column
+     * @param operators Operators of the conditions on the column, in the order first logged
+     * @param queryCount Number of logged queries having such a condition
+     * @param executionTime Logged execution time of those queries in milliseconds
+     * @param rowsSkipped Estimated number of rows those queries would no longer read
+     * @param timeSaved Estimated execution time those queries would save in milliseconds
+     */
+    public record Advice(String tableName, String columnName, Set<String> operators, long queryCount,
+                         long executionTime, long rowsSkipped, long timeSaved) {
+        /**
+         * Provides the statement creating the proposed index
+         * @param indexName Name of the index
+         * @return CREATE INDEX statement
+         */
+        public String getStatement(String indexName) {
+            return "CREATE INDEX " + indexName + " ON " + tableName + " (" + columnName + ")";
+        }
+    }
+
+    /**
+     * Sums of the logged queries having a condition on a column
+     */
+    private static class Candidate {
+        private final Set<String> operators = new LinkedHashSet<>();
+        private long queryCount;
+        private long executionTime;
+        private double rowsSkipped;
+        private double timeSaved;
+    }
+
+    /**
+     * @param database Database to propose indexes for
+     */
+    public IndexAdvisor(Database database) {
+        this.database = database;
+    }
+
+    /**
+     * Read the query log and propose indexes for the columns its conditions would use
+     * @return Proposals ranked by rows skipped, most beneficial first, without proposals skipping no row
+     */
+    public List<Advice> advise() {
+        File logFile = new File(LogManager.QUERY_LOGS_FILE);
+        Map<String, Candidate> candidates = new LinkedHashMap<>();
+        Map<String, TableStatistics> statistics = new HashMap<>();
+        if (!logFile.exists())
+            return List.of();
+        try (BufferedReader reader = new BufferedReader(new FileReader(logFile))) {
+            String databaseName = database.getName();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JSONObject logEntry;
+                try {
+                    logEntry = new JSONObject(line);
+                } catch (JSONException e) {
+                    // Entry cut short by a crash
+                    continue;
+                }
+                String query = logEntry.optString("query").trim();
+                if (query.endsWith(";"))
+                    query = query.substring(0, query.length() - 1).trim();
+                Matcher useMatcher = USE_PATTERN.matcher(query);
+                if (useMatcher.matches()) {
+                    databaseName = useMatcher.group(1);
+                    continue;
+                }
+                if (databaseName.equals(database.getName()))
+                    addQuery(query, logEntry.optLong("execution_time"), candidates, statistics);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read query log: " + logFile + " " + e.getMessage());
+        }
+
+        List<Advice> advices = new ArrayList<>();
+        candidates.forEach((key, candidate) -> {
+            String[] names = key.split("\\.", 2);
+            if (Math.round(candidate.rowsSkipped) > 0)
+                advices.add(new Advice(names[0], names[1], candidate.operators, candidate.queryCount,
+                        candidate.executionTime, Math.round(candidate.rowsSkipped), Math.round(candidate.timeSaved)));
+        });
+        advices.sort(Comparator.comparingLong(Advice::rowsSkipped).reversed()
+                .thenComparing(Comparator.comparingLong(Advice::timeSaved).reversed()));
+        return advices;
+    }
+
+    /**
+     * Provides an index name not used by the table, named after the table and the column
+     * @param advice Proposal to name the index of
+     * @return Name of the index
+     */
+    public String getIndexName(Advice advice) {
+        Set<String> indexNames = new HashSet<>();
+        FileManager.getIndexDefinitions(database.getName(), advice.tableName())
+                .forEach(definition -> indexNames.add(definition.name()));
+        String indexName = "idx_" + advice.tableName() + "_" + advice.columnName();
+        for (int suffix = 2; indexNames.contains(indexName); suffix++)
+            indexName = "idx_" + advice.tableName() + "_" + advice.columnName() + "_" + suffix;
+        return indexName;
+    }
+
+    // Region: private methods
+
+    /**
+     * Add a logged query to the candidate of the column of its condition, if an index on the column would be used
+     * @param query Logged query without its semicolon
+     * @param executionTime Logged execution time in milliseconds
+     * @param candidates Candidates by table and column name
+     * @param statistics Statistics of the tables read so far, by table name
+     */
+    private void addQuery(String query, long executionTime, Map<String, Candidate> candidates,
+                          Map<String, TableStatistics> statistics) {
+        Matcher matcher = WHERE_QUERY_PATTERN.matcher(query);
+        if (!matcher.matches())
+            return;
+        Table table = database.getTable(matcher.group(1));
+        if (table == null || table.getOptions().engine() == StorageEngine.COLUMNAR)
+            return;
+        RowSchema schema = RowSchema.of(table.getColumns());
+        Condition condition;
+        try {
+            condition = Condition.parse(schema, matcher.group(2));
+        } catch (RuntimeException e) {
+            // Conditions the query could not have run with either
+            return;
+        }
+        Column column = table.getColumns().get(condition.getColumnIndex());
+        if (condition.getOperator() == Condition.Operator.NOT_EQUAL
+                || isIndexed(table, column, condition.getOperator()))
+            return;
+
+        TableStatistics tableStatistics = statistics.computeIfAbsent(table.getName(),
+                tableName -> FileManager.getTableStatistics(database.getName(), tableName));
+        if (tableStatistics == null)
+            return;
+        double fraction = getMatchingFraction(schema, tableStatistics, condition);
+        if (fraction > MAX_INDEX_FRACTION)
+            return;
+        Candidate candidate = candidates.computeIfAbsent(table.getName() + "." + column.name(),
+                key -> new Candidate());
+        candidate.operators.add(getOperatorText(condition.getOperator()));
+        candidate.queryCount++;
+        candidate.executionTime += executionTime;
+        candidate.rowsSkipped += tableStatistics.getRowCount() * (1 - fraction);
+        candidate.timeSaved += executionTime * (1 - fraction);
+    }
+
+    /**
+     * Checks if a condition on a column is already answered by an index
+     * @param table Table of the column
+     * @param column Column of the condition
+     * @param operator Operator of the condition
+     * @return True if the column has an index answering the operator, False otherwise
+     */
+    private boolean isIndexed(Table table, Column column, Condition.Operator operator) {
+        if (column.isUnique() && operator == Condition.Operator.EQUAL)
+            return true;
+        // B+tree indexes answer every operator proposed, bitmap indexes any operator
+        return FileManager.getIndexDefinitions(database.getName(), table.getName()).stream()
+                .anyMatch(definition -> definition.columnName().equals(column.name()));
+    }
+
+    /**
+     * Estimate the share of the rows of the table satisfying the condition
+     * @param schema Schema of the table
+     * @param statistics Statistics of the table
+     * @param condition Equality, IN or range condition
+     * @return Share of the rows between 0 and 1
+     */
+    private static double getMatchingFraction(RowSchema schema, TableStatistics statistics, Condition condition) {
+        int column = condition.getColumnIndex();
+        long distinctCount = Math.max(statistics.getDistinctCount(column), 1);
+        switch (condition.getOperator()) {
+            case EQUAL -> {
+                return 1.0 / distinctCount;
+            }
+            case IN -> {
+                return Math.min((double) condition.getInValues().size() / distinctCount, 1);
+            }
+            default -> {
+                Double value = StringUtils.parseDouble(condition.getValue());
+                Double min = StringUtils.parseDouble(statistics.getMinValue(schema, column));
+                Double max = StringUtils.parseDouble(statistics.getMaxValue(schema, column));
+                if (schema.getType(column) == Column.Type.STRING || value == null || min == null || max == null
+                        || max <= min)
+                    return DEFAULT_RANGE_FRACTION;
+                boolean isLowerBound = condition.getOperator() == Condition.Operator.GREATER
+                        || condition.getOperator() == Condition.Operator.GREATER_OR_EQUAL;
+                double fraction = isLowerBound ? (max - value) / (max - min) : (value - min) / (max - min);
+                return Math.min(Math.max(fraction, 0), 1);
+            }
+        }
+    }
+
+    private static String getOperatorText(Condition.Operator operator) {
+        return switch (operator) {
+            case LESS_OR_EQUAL -> "<=";
+            case GREATER_OR_EQUAL -> ">=";
+            case NOT_EQUAL -> "!=";
+            case EQUAL -> "=";
+            case LESS -> "<";
+            case GREATER -> ">";
+            case IN -> "IN";
+        };
+    }
+    // End region
+}
@@ -0,0 +1,247 @@
+package org.example.service;
+
+import org.example.database.Database;
+import org.example.database.Table;
+import org.example.manager.DatabaseManager;
+import org.example.manager.TransactionManager;
+import org.example.util.Config;
+import org.example.util.SqlValueParser;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Restores a database from a dump written by {@link org.example.manager.FileManager#generateSQLDump(String, boolean)},
+ * plain or gzip compressed, holding one statement per line. Values are read by {@link SqlValueParser} like those of
+ * INSERT queries, a line break inside a quoted value continues the statement on the next line.
+ * <p>
+ * The dump is read once. Tables are created as their CREATE TABLE statement is read, while the INSERT statements
+ * are loaded by a pool of {@code tinydb.restore.threads} threads: statements of a table are loaded in dump order by a
+ * single {@link Table.RowLoader}, statements of different tables in parallel. Rows are not inserted query by query,
+ * the constraints of a table are checked against the in-memory key set of its loader and rows are appended in large
+ * batches bypassing the write-ahead log. CREATE [BITMAP] INDEX statements are run once all rows are loaded, so every index
+ * is built by a single scan instead of being updated by every batch.
+ */
+public class SQLDumpRestorer {
+    private static final int THREAD_COUNT = Math.max(1,
+            Config.getInt("tinydb.restore.threads", Runtime.getRuntime().availableProcessors()));
+    // Statements read ahead of the loaders, bounds the memory held by a restore
+    private static final int MAX_PENDING_STATEMENTS = THREAD_COUNT * 4;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final Pattern CREATE_DATABASE_PATTERN = Pattern.compile("^CREATE\\s+DATABASE\\s+(\\w+)\\s*;?$",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern INSERT_PATTERN = Pattern.compile(
+            "^INSERT\\s+INTO\\s+(\\w+)\\s*\\(([^)]*)\\)\\s*VALUES\\s*(.*)$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final File dumpFile;
+    private final String databaseName;
+    private final Map<String, TableLoad> tableLoads = new LinkedHashMap<>();
+    private final List<String> createIndexStatements = new ArrayList<>();
+    private final Semaphore pendingStatements = new Semaphore(MAX_PENDING_STATEMENTS);
+    private ExecutorService executor;
+    private Database database;
+
+    /**
+     * @param dumpFile Dump file to restore
+     * @param databaseName Name of the database to restore into, null to use the name stored in the dump
+     */
+    public SQLDumpRestorer(File dumpFile, String databaseName) {
+        this.dumpFile = dumpFile;
+        this.databaseName = databaseName;
+    }
+
+    /**
+     * Create the database and its tables and load their rows. If a statement is invalid or a row can not be loaded,
+     * the database created by the restore is dropped, so a failed restore never leaves a partial database.
+     * @return Number of rows restored
+     */
+    public long restore() {
+        if (!TransactionManager.getShouldAutoCommit())
+            throw new RuntimeException("RESTORE DATABASE can not be used inside a transaction");
+        executor = Executors.newFixedThreadPool(THREAD_COUNT, runnable -> {
+            Thread thread = new Thread(runnable, "tinydb-restore");
+            thread.setDaemon(true);
+            return thread;
+        });
+        RuntimeException failure = null;
+        try (BufferedReader reader = openReader()) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                int statementLine = ++lineNumber;
+                StringBuilder statement = new StringBuilder(line);
+                while (SqlValueParser.isInsideQuotes(statement)) {
+                    line = reader.readLine();
+                    if (line == null)
+                        throw new RuntimeException("Unterminated quoted value at line " + statementLine);
+                    lineNumber++;
+                    statement.append('\n').append(line);
+                }
+                String trimmedStatement = statement.toString().trim();
+                if (!trimmedStatement.isEmpty())
+                    restoreStatement(trimmedStatement, statementLine);
+            }
+        } catch (IOException e) {
+            failure = new RuntimeException("Failed to read dump file: " + dumpFile + " " + e.getMessage());
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+
+        // Loads already started are completed even if the dump turns out to be invalid
+        long rowCount = 0;
+        for (TableLoad tableLoad : tableLoads.values()) {
+            try {
+                rowCount += tableLoad.finish();
+            } catch (RuntimeException e) {
+                if (failure == null)
+                    failure = e;
+            }
+        }
+        executor.shutdown();
+        if (failure == null) {
+            try {
+                createIndexStatements.forEach(database::createIndex);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            if (database != null) {
+                DatabaseManager.dropDatabase(database.getName());
+                throw new RuntimeException("Restore failed, database " + database.getName() + " was dropped: " +
+                        failure.getMessage());
+            }
+            throw failure;
+        }
+        return rowCount;
+    }
+
+    // Region: private methods
+
+    /**
+     * Loads the INSERT statements of a table, one statement after the other on the threads of the pool
+     */
+    private class TableLoad {
+        private final Table table;
+        private final Table.RowLoader loader;
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+        private long rowCount = 0;
+
+        private TableLoad(Table table) {
+            this.table = table;
+            this.loader = table.newRowLoader(false);
+        }
+
+        /**
+         * Load the statement once the statements read before it are loaded
+         * @param columnsPart Column list of the statement
+         * @param valuesPart Tuples of the statement
+         * @param lineNumber Line of the statement in the dump
+         */
+        private void submit(String columnsPart, String valuesPart, int lineNumber) {
+            pendingStatements.acquireUninterruptibly();
+            tail = tail.thenRunAsync(() -> load(columnsPart, valuesPart, lineNumber), executor)
+                    .whenComplete((result, exception) -> pendingStatements.release());
+        }
+
+        /**
+         * Wait for the statements submitted so far and write the rows left in the loader
+         * @return Number of rows loaded into the table
+         */
+        private long finish() {
+            tail = tail.thenRunAsync(() -> rowCount = loader.finish(), executor);
+            try {
+                tail.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                throw new RuntimeException("Failed to restore table " + table.getName() + ": " + cause.getMessage());
+            }
+            return rowCount;
+        }
+
+        private void load(String columnsPart, String valuesPart, int lineNumber) {
+            try {
+                List<String> columnNames = Arrays.stream(columnsPart.split(",")).map(String::trim).toList();
+                int[] fieldIndexes = table.getFieldIndexes(columnNames);
+                for (List<String> fields : SqlValueParser.parseTuples(valuesPart)) {
+                    if (fields.size() != columnNames.size())
+                        throw new RuntimeException("Expected " + columnNames.size() + " values but found " +
+                                fields.size());
+                    loader.add(fieldIndexes, fields);
+                }
+            } catch (RuntimeException e) {
+                throw new RuntimeException(e.getMessage() + " at line " + lineNumber);
+            }
+        }
+    }
+
+    /**
+     * Restore a statement of the dump, INSERT statements are only submitted to the loader of their table
+     * @param statement Statement to restore
+     * @param lineNumber Line of the statement in the dump
+     */
+    private void restoreStatement(String statement, int lineNumber) {
+        Matcher createDatabaseMatcher = CREATE_DATABASE_PATTERN.matcher(statement);
+        if (createDatabaseMatcher.matches()) {
+            if (database != null)
+                throw new RuntimeException("Dump holds more than one database, at line " + lineNumber);
+            String name = databaseName != null ? databaseName : createDatabaseMatcher.group(1);
+            DatabaseManager.createDatabase(name);
+            database = DatabaseManager.getDatabases().stream()
+                    .filter(db -> db.getName().equals(name))
+                    .findFirst()
+                    .orElseThrow();
+            return;
+        }
+        if (database == null)
+            throw new RuntimeException("Dump must start with CREATE DATABASE, found at line " + lineNumber + ": " +
+                    statement);
+        if (statement.regionMatches(true, 0, "USE ", 0, 4))
+            return;
+        if (statement.regionMatches(true, 0, "CREATE TABLE ", 0, 13)) {
+            database.createTable(statement.endsWith(";") ? statement.substring(0, statement.length() - 1) : statement);
+            String tableName = statement.split("\\s+")[2];
+            tableLoads.put(tableName, new TableLoad(database.getTable(tableName)));
+            return;
+        }
+        if (statement.regionMatches(true, 0, "CREATE INDEX ", 0, 13)
+                || statement.regionMatches(true, 0, "CREATE BITMAP INDEX ", 0, 20)) {
+            createIndexStatements.add(statement.endsWith(";") ? statement.substring(0, statement.length() - 1) : statement);
+            return;
+        }
+        Matcher insertMatcher = INSERT_PATTERN.matcher(statement);
+        if (insertMatcher.matches()) {
+            TableLoad tableLoad = tableLoads.get(insertMatcher.group(1));
+            if (tableLoad == null)
+                throw new RuntimeException("Table not found: " + insertMatcher.group(1) + " at line " + lineNumber);
+            tableLoad.submit(insertMatcher.group(2), insertMatcher.group(3), lineNumber);
+            return;
+        }
+        throw new RuntimeException("Unsupported statement at line " + lineNumber + ": " + statement);
+    }
+
+    /**
+     * Open a reader of the dump file, gzip compressed dumps are recognized by their first bytes
+     * @return BufferedReader instance
+     */
+    private BufferedReader openReader() throws IOException {
+        InputStream input = new BufferedInputStream(new FileInputStream(dumpFile), BUFFER_SIZE);
+        input.mark(2);
+        boolean isCompressed = input.read() == 0x1f && input.read() == 0x8b;
+        input.reset();
+        if (isCompressed)
+            input = new GZIPInputStream(input, BUFFER_SIZE);
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+    // End region
+}
@@ -0,0 +1,562 @@
+package org.example.storage;
+
+import org.example.database.Column;
+import org.example.database.Condition;
+import org.example.database.Row;
+import org.example.util.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Persistent B+tree index of a column created by {@code CREATE INDEX}, kept next to the table file and updated by
+ * every write.
+ * <p>
+ * The file is made of {@value #PAGE_SIZE} byte pages. Page 0 is the header {@code magic (4) | version (2) |
+ * root page (8) | page count (8) | entry count (8) | next row id (8) | record count (8) | live row count (8)},
+ * every other page is {@code type (1) | entry count (2) | next leaf page (8)} followed by sorted entries
+ * {@code key (24) | row id (8) | pointer (8)}. Leaf entries point to the page of the table file holding the row,
+ * inner entries to the child page holding keys from their own up to the key of the next entry. Entries are
+ * ordered by key, then row id, so every entry is unique even if values are not.
+ * <p>
+ * Keys are the value of the column turned into 24 bytes compared as unsigned numbers: numbers keep their order,
+ * strings keep their first {@value #KEY_CHARS} characters. Values of int and double columns held as text, e.g.
+ * nulls, share the largest key. Keys may tie for different values, readers check the rows the index points to
+ * against the condition. Removing an entry never merges pages, the tree is built again with the table file.
+ * <p>
+ * The file is memory mapped. Like {@link HashIndex} the index stores the counters of the table file header it
+ * describes, an index not matching the header (e.g. after a crash) is rebuilt by a scan.
+ */
+public class BTreeIndex implements TableIndex {
+    public static final String EXTENSION = ".bidx";
+
+    private static final int MAGIC = 0x54444242; // "TDBB"
+    private static final short FORMAT_VERSION = 1;
+    private static final int PAGE_SIZE = TableFile.PAGE_SIZE;
+    private static final int ROOT_PAGE_OFFSET = 6;
+    private static final int PAGE_COUNT_OFFSET = 14;
+    private static final int ENTRY_COUNT_OFFSET = 22;
+    private static final int NEXT_ROW_ID_OFFSET = 30;
+    private static final int KEY_LONGS = 3;
+    private static final int KEY_CHARS = KEY_LONGS * Long.BYTES / Character.BYTES;
+    private static final int ENTRY_SIZE = KEY_LONGS * Long.BYTES + Long.BYTES * 2;
+    private static final int PAGE_HEADER_SIZE = 16;
+    private static final int MAX_ENTRIES = (PAGE_SIZE - PAGE_HEADER_SIZE) / ENTRY_SIZE;
+    private static final byte LEAF_PAGE = 1;
+    private static final byte INNER_PAGE = 2;
+    private static final int INITIAL_PAGE_CAPACITY = 16;
+    // Largest number of pages keeping the whole file in a single mapping
+    private static final int MAX_PAGE_CAPACITY = Integer.MAX_VALUE / PAGE_SIZE;
+    private static final int MAX_DEPTH = 32;
+    private static final long[] MIN_KEY = { 0, 0, 0 };
+    private static final long[] MAX_KEY = { -1, -1, -1 };
+
+    /**
+     * Range of keys, both bounds included
+     * @param low Smallest key
+     * @param high Largest key
+     */
+    public record KeyRange(long[] low, long[] high) { }
+
+    /**
+     * Receives the entries found by a lookup
+     */
+    public interface EntryVisitor {
+        /**
+         * @param rowId Row id of the entry
+         * @param pageOffset Offset of the page of the table file holding the row
+         * @return True to continue, False to stop the lookup
+         */
+        boolean visit(long rowId, long pageOffset);
+    }
+
+    private File file;
+    private MappedByteBuffer buffer;
+    private int pageCapacity;
+    private long rootPage;
+    private long pageCount;
+    private long entryCount;
+    private final byte[] scratch = new byte[PAGE_SIZE];
+    private final int column;
+
+    private BTreeIndex(File file, MappedByteBuffer buffer, int column) {
+        this.file = file;
+        this.buffer = buffer;
+        this.column = column;
+        this.pageCapacity = buffer.capacity() / PAGE_SIZE;
+        this.rootPage = buffer.getLong(ROOT_PAGE_OFFSET);
+        this.pageCount = buffer.getLong(PAGE_COUNT_OFFSET);
+        this.entryCount = buffer.getLong(ENTRY_COUNT_OFFSET);
+    }
+
+    /**
+     * Create an empty index, replacing the file if it exists
+     * @param file Index file
+     * @param column Index of the column of the index
+     * @return BTreeIndex instance
+     */
+    public static BTreeIndex create(File file, int column) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    (long) INITIAL_PAGE_CAPACITY * PAGE_SIZE);
+            buffer.putInt(0, MAGIC)
+                    .putShort(4, FORMAT_VERSION)
+                    .putLong(ROOT_PAGE_OFFSET, 1)
+                    .putLong(PAGE_COUNT_OFFSET, 2)
+                    .put(PAGE_SIZE, LEAF_PAGE);
+            return new BTreeIndex(file, buffer, column);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create index file for path: " + file + " " + e.getMessage());
+        }
+    }
+
+    /**
+     * Load an index written by {@link #create(File, int)}
+     * @param file Index file
+     * @param column Index of the column of the index
+     * @return BTreeIndex instance, null if file is missing or can not be read
+     */
+    public static BTreeIndex load(File file, int column) {
+        if (!file.exists())
+            return null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size < PAGE_SIZE * 2L || size % PAGE_SIZE != 0 || size > (long) MAX_PAGE_CAPACITY * PAGE_SIZE)
+                return null;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            long rootPage = buffer.getLong(ROOT_PAGE_OFFSET);
+            long pageCount = buffer.getLong(PAGE_COUNT_OFFSET);
+            if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != FORMAT_VERSION
+                    || pageCount < 2 || pageCount > size / PAGE_SIZE || rootPage < 1 || rootPage >= pageCount)
+                return null;
+            return new BTreeIndex(file, buffer, column);
+        } catch (IOException e) {
+            // Index cut short by a crash is built again
+            return null;
+        }
+    }
+
+    /**
+     * Provides the key of the value of a column
+     * @param row Row holding the value
+     * @param column Index of the column
+     * @return Key of the value
+     */
+    public static long[] getKey(Row row, int column) {
+        if (row.isNumeric(column))
+            return getNumberKey(row.getDouble(column));
+        return row.getSchema().getType(column) == Column.Type.STRING ? getStringKey(row.getString(column)) : MAX_KEY;
+    }
+
+    /**
+     * Provides the ranges of keys holding every row which may satisfy the condition. Ranges are only provided
+     * when the rows satisfying the condition are found among a few ranges of keys, i.e. for equality, IN and range
+     * conditions, except range conditions comparing numbers with text.
+     * @param type Type of the column of the condition
+     * @param condition Condition on the column
+     * @return Sorted ranges not overlapping each other, null if the index can not answer the condition
+     */
+    public static List<KeyRange> getKeyRanges(Column.Type type, Condition condition) {
+        String value = condition.getValue();
+        boolean isNumeric = type != Column.Type.STRING;
+        List<KeyRange> ranges = new ArrayList<>();
+        switch (condition.getOperator()) {
+            case EQUAL -> ranges.add(getEqualityRange(type, value));
+            case IN -> condition.getInValues().forEach(inValue -> ranges.add(getEqualityRange(type, inValue)));
+            case LESS, LESS_OR_EQUAL, GREATER, GREATER_OR_EQUAL -> {
+                boolean isLowerBound = condition.getOperator() == Condition.Operator.GREATER
+                        || condition.getOperator() == Condition.Operator.GREATER_OR_EQUAL;
+                Double number = StringUtils.parseDouble(value);
+                // Numbers held as text compare as text, strings looking like numbers compare as numbers
+                if (isNumeric != (number != null))
+                    return null;
+                long[] key = isNumeric ? getNumberKey(number) : getStringKey(value);
+                ranges.add(isLowerBound ? new KeyRange(key, MAX_KEY) : new KeyRange(MIN_KEY, key));
+                // Values held as text are compared as text, so any of them may satisfy the condition
+                if (isNumeric)
+                    ranges.add(new KeyRange(MAX_KEY, MAX_KEY));
+            }
+            default -> {
+                return null;
+            }
+        }
+        ranges.sort(Comparator.comparing(KeyRange::low, BTreeIndex::compareKeys));
+        List<KeyRange> mergedRanges = new ArrayList<>(ranges.size());
+        for (KeyRange range : ranges) {
+            KeyRange last = mergedRanges.isEmpty() ? null : mergedRanges.get(mergedRanges.size() - 1);
+            if (last != null && compareKeys(range.low(), last.high()) <= 0) {
+                if (compareKeys(range.high(), last.high()) > 0)
+                    mergedRanges.set(mergedRanges.size() - 1, new KeyRange(last.low(), range.high()));
+            } else {
+                mergedRanges.add(range);
+            }
+        }
+        return mergedRanges;
+    }
+
+    /**
+     * Checks if the index was built for the current content of the table file
+     * @param header Header of the table file
+     * @return True if the counters of the header match, False otherwise
+     */
+    @Override
+    public synchronized boolean isValidFor(TableFile.Header header) {
+        return buffer.getLong(NEXT_ROW_ID_OFFSET) == header.nextRowId()
+                && buffer.getLong(NEXT_ROW_ID_OFFSET + Long.BYTES) == header.recordCount()
+                && buffer.getLong(NEXT_ROW_ID_OFFSET + Long.BYTES * 2) == header.liveCount();
+    }
+
+    /**
+     * Record the counters of the table file header the index now describes
+     * @param nextRowId Next row id of the table file
+     * @param recordCount Number of records of the table file
+     * @param liveCount Number of visible rows of the table file
+     */
+    @Override
+    public synchronized void setCounters(long nextRowId, long recordCount, long liveCount) {
+        buffer.putLong(NEXT_ROW_ID_OFFSET, nextRowId)
+                .putLong(NEXT_ROW_ID_OFFSET + Long.BYTES, recordCount)
+                .putLong(NEXT_ROW_ID_OFFSET + Long.BYTES * 2, liveCount);
+    }
+
+    @Override
+    public void addRow(long rowId, Row row, long pageOffset) {
+        add(getKey(row, column), rowId, pageOffset);
+    }
+
+    @Override
+    public void removeRow(long rowId, Row row, PageLookup pages) {
+        remove(getKey(row, column), rowId);
+    }
+
+    /**
+     * Add the entry of a row, full pages are split in two
+     * @param key Key of the value of the row
+     * @param rowId Row id of the row
+     * @param pageOffset Offset of the page of the table file holding the row
+     */
+    public synchronized void add(long[] key, long rowId, long pageOffset) {
+        long[] path = new long[MAX_DEPTH];
+        int[] childPositions = new int[MAX_DEPTH];
+        int depth = findLeaf(key, rowId, path, childPositions);
+        long page = path[depth];
+        int position = findPosition(page, 0, key, rowId);
+        long newPage = insert(page, position, key, rowId, pageOffset);
+        // Split pages add an entry for their new right half to their parent, right after the entry of the split page
+        while (newPage != 0) {
+            long[] separatorKey = getEntryKey(newPage, 0);
+            long separatorRowId = getEntryRowId(newPage, 0);
+            if (depth == 0) {
+                long newRoot = allocatePage(INNER_PAGE);
+                putEntry(newRoot, 0, getEntryKey(page, 0), getEntryRowId(page, 0), page);
+                putEntry(newRoot, 1, separatorKey, separatorRowId, newPage);
+                setEntryCount(newRoot, 2);
+                rootPage = newRoot;
+                buffer.putLong(ROOT_PAGE_OFFSET, rootPage);
+                break;
+            }
+            page = path[--depth];
+            newPage = insert(page, childPositions[depth] + 1, separatorKey, separatorRowId, newPage);
+        }
+        entryCount++;
+        buffer.putLong(ENTRY_COUNT_OFFSET, entryCount);
+    }
+
+    /**
+     * Remove the entry of a row
+     * @param key Key of the value of the row
+     * @param rowId Row id of the row
+     * @return True if the entry is removed, False if there is no such entry
+     */
+    public synchronized boolean remove(long[] key, long rowId) {
+        long[] path = new long[MAX_DEPTH];
+        long page = path[findLeaf(key, rowId, path, new int[MAX_DEPTH])];
+        int position = findPosition(page, 0, key, rowId);
+        int count = getEntryCount(page);
+        if (position == count || compareEntry(page, position, key, rowId) != 0)
+            return false;
+        int entryPosition = getEntryPosition(page, position);
+        int tailLength = (count - position - 1) * ENTRY_SIZE;
+        buffer.get(entryPosition + ENTRY_SIZE, scratch, 0, tailLength);
+        buffer.put(entryPosition, scratch, 0, tailLength);
+        setEntryCount(page, count - 1);
+        entryCount--;
+        buffer.putLong(ENTRY_COUNT_OFFSET, entryCount);
+        return true;
+    }
+
+    /**
+     * Visit the entries of a range of keys in key order
+     * @param range Range of keys
+     * @param visitor Visitor receiving the entries
+     * @return False if the visitor stopped the lookup, True otherwise
+     */
+    public synchronized boolean find(KeyRange range, EntryVisitor visitor) {
+        long[] path = new long[MAX_DEPTH];
+        long page = path[findLeaf(range.low(), Long.MIN_VALUE, path, new int[MAX_DEPTH])];
+        int position = findPosition(page, 0, range.low(), Long.MIN_VALUE);
+        while (page != 0) {
+            int count = getEntryCount(page);
+            for (; position < count; position++) {
+                if (compareKeys(getEntryKey(page, position), range.high()) > 0)
+                    return true;
+                if (!visitor.visit(getEntryRowId(page, position), getEntryPointer(page, position)))
+                    return false;
+            }
+            page = buffer.getLong(getPagePosition(page) + 8);
+            position = 0;
+        }
+        return true;
+    }
+
+    public synchronized long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Force the index to the storage device
+     */
+    @Override
+    public synchronized void save() {
+        buffer.force();
+    }
+
+    /**
+     * Move the index file, e.g. when the table file it belongs to replaces another one
+     * @param target New location of the index file
+     */
+    @Override
+    public synchronized void moveTo(File target) {
+        try {
+            Files.move(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to move index file for path: " + file + " " + e.getMessage());
+        }
+        file = target;
+    }
+
+    // Region: private methods
+    private static KeyRange getEqualityRange(Column.Type type, String value) {
+        long[] key;
+        if (type == Column.Type.STRING) {
+            key = getStringKey(value);
+        } else {
+            // Values of the type of the column are held as numbers, any other value as text
+            Double number = StringUtils.parseCanonicalDouble(value);
+            if (type == Column.Type.INT) {
+                Integer intValue = StringUtils.parseCanonicalInt(value);
+                number = intValue != null ? Double.valueOf(intValue) : null;
+            }
+            key = number != null ? getNumberKey(number) : MAX_KEY;
+        }
+        return new KeyRange(key, key);
+    }
+
+    /**
+     * Provides the key of a number, negative numbers have all bits flipped and positive numbers their sign bit,
+     * so keys compare as unsigned numbers in the order of the numbers
+     * @param number Number to provide the key of
+     * @return Key of the number
+     */
+    private static long[] getNumberKey(double number) {
+        long bits = Double.doubleToLongBits(number);
+        return new long[] { bits < 0 ? ~bits : bits ^ Long.MIN_VALUE, 0, 0 };
+    }
+
+    /**
+     * Provides the key of a string made of its first characters, shorter strings are padded with zeros
+     * @param value String to provide the key of
+     * @return Key of the string
+     */
+    private static long[] getStringKey(String value) {
+        long[] key = new long[KEY_LONGS];
+        for (int index = 0; index < Math.min(value.length(), KEY_CHARS); index++)
+            key[index / 4] |= (long) value.charAt(index) << (48 - (index % 4) * 16);
+        return key;
+    }
+
+    private static int compareKeys(long[] key, long[] otherKey) {
+        for (int index = 0; index < KEY_LONGS; index++) {
+            int comparison = Long.compareUnsigned(key[index], otherKey[index]);
+            if (comparison != 0)
+                return comparison;
+        }
+        return 0;
+    }
+
+    /**
+     * Descend from the root to the leaf where the entry belongs
+     * @param key Key of the entry
+     * @param rowId Row id of the entry
+     * @param path Receives the pages visited from the root
+     * @param childPositions Receives the position of the entry followed in each inner page of the path
+     * @return Depth of the leaf in the path
+     */
+    private int findLeaf(long[] key, long rowId, long[] path, int[] childPositions) {
+        long page = rootPage;
+        int depth = 0;
+        while (buffer.get(getPagePosition(page)) == INNER_PAGE) {
+            path[depth++] = page;
+            // Child whose entry is the last one not greater than the entry. The key of the first entry of an inner
+            // page is not kept when its child is split, the first child takes any entry smaller than the second one.
+            int position = findPosition(page, 1, key, rowId);
+            if (position == getEntryCount(page) || compareEntry(page, position, key, rowId) != 0)
+                position--;
+            childPositions[depth - 1] = position;
+            page = getEntryPointer(page, position);
+        }
+        path[depth] = page;
+        return depth;
+    }
+
+    /**
+     * Binary search of the first entry of the page not smaller than the provided entry
+     * @param page Page to search
+     * @param from Position of the first entry to search
+     * @param key Key of the entry
+     * @param rowId Row id of the entry
+     * @return Position of the entry, entry count of the page if all entries are smaller
+     */
+    private int findPosition(long page, int from, long[] key, long rowId) {
+        int low = from;
+        int high = getEntryCount(page);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareEntry(page, middle, key, rowId) < 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    private int compareEntry(long page, int position, long[] key, long rowId) {
+        int entryPosition = getEntryPosition(page, position);
+        for (int index = 0; index < KEY_LONGS; index++) {
+            int comparison = Long.compareUnsigned(buffer.getLong(entryPosition + index * Long.BYTES), key[index]);
+            if (comparison != 0)
+                return comparison;
+        }
+        return Long.compare(buffer.getLong(entryPosition + KEY_LONGS * Long.BYTES), rowId);
+    }
+
+    /**
+     * Insert an entry in a page, a full page is split first. The last leaf receiving entries at its end, as when
+     * rows are appended in key order, keeps its entries and only the new entry moves to the new page, so do the
+     * inner pages above it.
+     * @param page Page to insert into
+     * @param position Position of the entry in the page
+     * @param key Key of the entry
+     * @param rowId Row id of the entry
+     * @param pointer Page offset in the table file for leaves, child page for inner pages
+     * @return New page holding the right half of the split page, 0 if the page is not split
+     */
+    private long insert(long page, int position, long[] key, long rowId, long pointer) {
+        int count = getEntryCount(page);
+        if (count < MAX_ENTRIES) {
+            insertEntry(page, position, count, key, rowId, pointer);
+            return 0;
+        }
+        byte type = buffer.get(getPagePosition(page));
+        long newPage = allocatePage(type);
+        boolean isAppended = position == count && (type == INNER_PAGE || buffer.getLong(getPagePosition(page) + 8) == 0);
+        int splitPosition = isAppended ? count : count / 2;
+        int movedLength = (count - splitPosition) * ENTRY_SIZE;
+        buffer.get(getEntryPosition(page, splitPosition), scratch, 0, movedLength);
+        buffer.put(getEntryPosition(newPage, 0), scratch, 0, movedLength);
+        setEntryCount(page, splitPosition);
+        setEntryCount(newPage, count - splitPosition);
+        if (type == LEAF_PAGE) {
+            buffer.putLong(getPagePosition(newPage) + 8, buffer.getLong(getPagePosition(page) + 8));
+            buffer.putLong(getPagePosition(page) + 8, newPage);
+        }
+        if (position < splitPosition)
+            insertEntry(page, position, splitPosition, key, rowId, pointer);
+        else
+            insertEntry(newPage, position - splitPosition, count - splitPosition, key, rowId, pointer);
+        return newPage;
+    }
+
+    private void insertEntry(long page, int position, int count, long[] key, long rowId, long pointer) {
+        int entryPosition = getEntryPosition(page, position);
+        int tailLength = (count - position) * ENTRY_SIZE;
+        buffer.get(entryPosition, scratch, 0, tailLength);
+        buffer.put(entryPosition + ENTRY_SIZE, scratch, 0, tailLength);
+        putEntry(page, position, key, rowId, pointer);
+        setEntryCount(page, count + 1);
+    }
+
+    private void putEntry(long page, int position, long[] key, long rowId, long pointer) {
+        int entryPosition = getEntryPosition(page, position);
+        for (int index = 0; index < KEY_LONGS; index++)
+            buffer.putLong(entryPosition + index * Long.BYTES, key[index]);
+        buffer.putLong(entryPosition + KEY_LONGS * Long.BYTES, rowId)
+                .putLong(entryPosition + (KEY_LONGS + 1) * Long.BYTES, pointer);
+    }
+
+    private long[] getEntryKey(long page, int position) {
+        int entryPosition = getEntryPosition(page, position);
+        long[] key = new long[KEY_LONGS];
+        for (int index = 0; index < KEY_LONGS; index++)
+            key[index] = buffer.getLong(entryPosition + index * Long.BYTES);
+        return key;
+    }
+
+    private long getEntryRowId(long page, int position) {
+        return buffer.getLong(getEntryPosition(page, position) + KEY_LONGS * Long.BYTES);
+    }
+
+    private long getEntryPointer(long page, int position) {
+        return buffer.getLong(getEntryPosition(page, position) + (KEY_LONGS + 1) * Long.BYTES);
+    }
+
+    private int getEntryCount(long page) {
+        return Short.toUnsignedInt(buffer.getShort(getPagePosition(page) + 2));
+    }
+
+    private void setEntryCount(long page, int count) {
+        buffer.putShort(getPagePosition(page) + 2, (short) count);
+    }
+
+    /**
+     * Add an empty page at the end of the file, the mapping is doubled in size when it is full
+     * @param type Type of the page
+     * @return Number of the page
+     */
+    private long allocatePage(byte type) {
+        if (pageCount == pageCapacity) {
+            if (pageCapacity == MAX_PAGE_CAPACITY)
+                throw new RuntimeException("Index is full: " + file);
+            int newPageCapacity = (int) Math.min((long) pageCapacity * 2, MAX_PAGE_CAPACITY);
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) newPageCapacity * PAGE_SIZE);
+                pageCapacity = newPageCapacity;
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to extend index file for path: " + file + " " + e.getMessage());
+            }
+        }
+        long page = pageCount++;
+        buffer.putLong(PAGE_COUNT_OFFSET, pageCount);
+        int pagePosition = getPagePosition(page);
+        buffer.put(pagePosition, type).putShort(pagePosition + 2, (short) 0).putLong(pagePosition + 8, 0);
+        return page;
+    }
+
+    private static int getPagePosition(long page) {
+        return (int) (page * PAGE_SIZE);
+    }
+
+    private static int getEntryPosition(long page, int position) {
+        return getPagePosition(page) + PAGE_HEADER_SIZE + position * ENTRY_SIZE;
+    }
+    // End region
+}
@@ -0,0 +1,200 @@
+package org.example.storage;
+
+import org.example.database.Row;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Bitmap index of a low-cardinality column created by {@code CREATE BITMAP INDEX}, holding a {@link RowIdBitmap} of
+ * the row ids of the visible rows for every distinct value of the column.
+ * <p>
+ * The file is {@code magic (4) | version (2) | next row id (8) | record count (8) | live row count (8) |
+ * value count (4)} followed by {@code value (UTF) | bitmap} for every value. The index is held in memory and
+ * updated by every write, the file is written again in full when the table file is synced. Like
+ * {@link TableStatistics} the index stores the counters of the table file header it describes, a file not matching
+ * the header (e.g. written before later writes) is rebuilt by a scan.
+ */
+public class BitmapIndex implements TableIndex {
+    public static final String EXTENSION = ".bmidx";
+
+    private static final int MAGIC = 0x5444424D; // "TDBM"
+    private static final short FORMAT_VERSION = 1;
+
+    private final Map<String, RowIdBitmap> bitmaps = new HashMap<>();
+    private File file;
+    private long nextRowId;
+    private long recordCount;
+    private long liveCount;
+    private boolean isDirty;
+    private final int column;
+
+    private BitmapIndex(File file, int column) {
+        this.file = file;
+        this.column = column;
+    }
+
+    /**
+     * Create an empty index, the file is only written by {@link #save()}
+     * @param file Index file
+     * @param column Index of the column of the index
+     * @return BitmapIndex instance
+     */
+    public static BitmapIndex create(File file, int column) {
+        BitmapIndex index = new BitmapIndex(file, column);
+        index.isDirty = true;
+        return index;
+    }
+
+    /**
+     * Load an index written by {@link #save()}
+     * @param file Index file
+     * @param column Index of the column of the index
+     * @return BitmapIndex instance, null if file is missing or can not be read
+     */
+    public static BitmapIndex load(File file, int column) {
+        if (!file.exists())
+            return null;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readShort() != FORMAT_VERSION)
+                return null;
+            BitmapIndex index = new BitmapIndex(file, column);
+            index.nextRowId = input.readLong();
+            index.recordCount = input.readLong();
+            index.liveCount = input.readLong();
+            int valueCount = input.readInt();
+            for (int valueNumber = 0; valueNumber < valueCount; valueNumber++)
+                index.bitmaps.put(input.readUTF(), RowIdBitmap.read(input));
+            return index;
+        } catch (IOException e) {
+            // Index cut short by a crash is built again
+            return null;
+        }
+    }
+
+    /**
+     * Checks if the index was built for the current content of the table file
+     * @param header Header of the table file
+     * @return True if the counters of the header match, False otherwise
+     */
+    @Override
+    public synchronized boolean isValidFor(TableFile.Header header) {
+        return nextRowId == header.nextRowId() && recordCount == header.recordCount()
+                && liveCount == header.liveCount();
+    }
+
+    /**
+     * Record the counters of the table file header the index now describes
+     * @param nextRowId Next row id of the table file
+     * @param recordCount Number of records of the table file
+     * @param liveCount Number of visible rows of the table file
+     */
+    @Override
+    public synchronized void setCounters(long nextRowId, long recordCount, long liveCount) {
+        this.nextRowId = nextRowId;
+        this.recordCount = recordCount;
+        this.liveCount = liveCount;
+        isDirty = true;
+    }
+
+    @Override
+    public void addRow(long rowId, Row row, long pageOffset) {
+        add(row.getValue(column), rowId);
+    }
+
+    @Override
+    public void removeRow(long rowId, Row row, PageLookup pages) {
+        remove(row.getValue(column), rowId);
+    }
+
+    /**
+     * Add the row id of a row holding a value
+     * @param value Text of the value
+     * @param rowId Row id of the row
+     */
+    public synchronized void add(String value, long rowId) {
+        bitmaps.computeIfAbsent(value, key -> new RowIdBitmap()).add(rowId);
+        isDirty = true;
+    }
+
+    /**
+     * Remove the row id of a row that held a value
+     * @param value Text of the value
+     * @param rowId Row id of the row
+     */
+    public synchronized void remove(String value, long rowId) {
+        RowIdBitmap bitmap = bitmaps.get(value);
+        if (bitmap == null || !bitmap.remove(rowId))
+            return;
+        if (bitmap.isEmpty())
+            bitmaps.remove(value);
+        isDirty = true;
+    }
+
+    /**
+     * Provides the union of the bitmaps of the values accepted by the matcher, every distinct value is tested once
+     * @param valueMatcher Checks if a value is wanted
+     * @return Row ids of the rows holding a wanted value
+     */
+    public synchronized RowIdBitmap find(Predicate<String> valueMatcher) {
+        RowIdBitmap rowIds = new RowIdBitmap();
+        bitmaps.forEach((value, bitmap) -> {
+            if (valueMatcher.test(value))
+                rowIds.or(bitmap);
+        });
+        return rowIds;
+    }
+
+    public synchronized int getValueCount() {
+        return bitmaps.size();
+    }
+
+    /**
+     * Write the index to its file if it changed since it was last written. The index is written to a temporary
+     * file first, so the file is never left incomplete.
+     */
+    @Override
+    public synchronized void save() {
+        if (!isDirty)
+            return;
+        File temporaryFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+            output.writeInt(MAGIC);
+            output.writeShort(FORMAT_VERSION);
+            output.writeLong(nextRowId);
+            output.writeLong(recordCount);
+            output.writeLong(liveCount);
+            output.writeInt(bitmaps.size());
+            for (Map.Entry<String, RowIdBitmap> entry : bitmaps.entrySet()) {
+                output.writeUTF(entry.getKey());
+                entry.getValue().write(output);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write index file for path: " + file + " " + e.getMessage());
+        }
+        try {
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write index file for path: " + file + " " + e.getMessage());
+        }
+        isDirty = false;
+    }
+
+    /**
+     * Move the index, e.g. when the table file it belongs to replaces another one. The file at the new location is
+     * deleted as it describes the replaced table file, the index is written there by the next {@link #save()}.
+     * @param target New location of the index file
+     */
+    @Override
+    public synchronized void moveTo(File target) {
+        file.delete();
+        target.delete();
+        file = target;
+        isDirty = true;
+    }
+}
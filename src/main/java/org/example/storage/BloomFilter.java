@@ -0,0 +1,215 @@
+package org.example.storage;
+
+import org.example.util.Config;
+
+import org.example.database.Row;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Persistent Bloom filter of the values of a primary_key or unique column, kept next to the table file so a value
+ * never stored is rejected without reading the {@link HashIndex} of the column or the table file.
+ * <p>
+ * The file is {@code magic (4) | version (2) | bit count (8) | hash count (4) | entry count (8) | next row id (8) |
+ * record count (8) | live row count (8)} padded to {@value #HEADER_SIZE} bytes, followed by the bits. Values are
+ * added through the hash {@link HashIndex#hash(String)} provides, the bits of a value are found by double hashing
+ * the two halves of that hash. The filter is sized for {@code tinydb.bloom.bitsPerEntry} bits per value (10 by
+ * default, about 1% of false positives), values of deleted rows stay in the filter.
+ * <p>
+ * The file is memory mapped. Like {@link HashIndex} the filter stores the counters of the table file header it
+ * describes, a filter not matching the header is built again from the hash index, as is a filter holding more
+ * values than it was sized for.
+ */
+public class BloomFilter implements TableIndex {
+    public static final String EXTENSION = ".bloom";
+
+    private static final int MAGIC = 0x54444246; // "TDBF"
+    private static final short FORMAT_VERSION = 1;
+    private static final int BIT_COUNT_OFFSET = 6;
+    private static final int HASH_COUNT_OFFSET = 14;
+    private static final int ENTRY_COUNT_OFFSET = 18;
+    private static final int NEXT_ROW_ID_OFFSET = 26;
+    private static final int HEADER_SIZE = 64;
+    private static final int BITS_PER_ENTRY = Math.max(Config.getInt("tinydb.bloom.bitsPerEntry", 10), 1);
+    private static final int MIN_ENTRIES = 1024;
+    // Largest bit count keeping the whole file in a single mapping
+    private static final long MAX_BIT_COUNT = (Integer.MAX_VALUE - HEADER_SIZE) / Long.BYTES * (long) Long.SIZE;
+
+    private File file;
+    private final MappedByteBuffer buffer;
+    private final long bitCount;
+    private final int hashCount;
+    private long entryCount;
+    private final int column;
+
+    private BloomFilter(File file, MappedByteBuffer buffer, int column) {
+        this.file = file;
+        this.buffer = buffer;
+        this.column = column;
+        this.bitCount = buffer.getLong(BIT_COUNT_OFFSET);
+        this.hashCount = buffer.getInt(HASH_COUNT_OFFSET);
+        this.entryCount = buffer.getLong(ENTRY_COUNT_OFFSET);
+    }
+
+    /**
+     * Create an empty filter sized for a number of values, replacing the file if it exists
+     * @param file Filter file
+     * @param expectedEntries Number of values the filter should hold
+     * @param column Index of the column of the filter
+     * @return BloomFilter instance
+     */
+    public static BloomFilter create(File file, long expectedEntries, int column) {
+        long bitCount = Math.max(expectedEntries, MIN_ENTRIES) * BITS_PER_ENTRY;
+        bitCount = Math.min((bitCount + Long.SIZE - 1) / Long.SIZE * Long.SIZE, MAX_BIT_COUNT);
+        int hashCount = (int) Math.max(Math.round(BITS_PER_ENTRY * Math.log(2)), 1);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + bitCount / Byte.SIZE);
+            buffer.putInt(0, MAGIC)
+                    .putShort(4, FORMAT_VERSION)
+                    .putLong(BIT_COUNT_OFFSET, bitCount)
+                    .putInt(HASH_COUNT_OFFSET, hashCount);
+            return new BloomFilter(file, buffer, column);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create bloom filter file for path: " + file + " " + e.getMessage());
+        }
+    }
+
+    /**
+     * Load a filter written by {@link #create(File, long, int)}
+     * @param file Filter file
+     * @param column Index of the column of the filter
+     * @return BloomFilter instance, null if file is missing or can not be read
+     */
+    public static BloomFilter load(File file, int column) {
+        if (!file.exists())
+            return null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > HEADER_SIZE + MAX_BIT_COUNT / Byte.SIZE)
+                return null;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            long bitCount = buffer.getLong(BIT_COUNT_OFFSET);
+            if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != FORMAT_VERSION || bitCount <= 0
+                    || bitCount % Long.SIZE != 0 || size != HEADER_SIZE + bitCount / Byte.SIZE
+                    || buffer.getInt(HASH_COUNT_OFFSET) <= 0)
+                return null;
+            return new BloomFilter(file, buffer, column);
+        } catch (IOException e) {
+            // Filter cut short by a crash is built again
+            return null;
+        }
+    }
+
+    /**
+     * Checks if the filter was built for the current content of the table file
+     * @param header Header of the table file
+     * @return True if the counters of the header match, False otherwise
+     */
+    @Override
+    public synchronized boolean isValidFor(TableFile.Header header) {
+        return buffer.getLong(NEXT_ROW_ID_OFFSET) == header.nextRowId()
+                && buffer.getLong(NEXT_ROW_ID_OFFSET + Long.BYTES) == header.recordCount()
+                && buffer.getLong(NEXT_ROW_ID_OFFSET + Long.BYTES * 2) == header.liveCount();
+    }
+
+    /**
+     * Record the counters of the table file header the filter now describes
+     * @param nextRowId Next row id of the table file
+     * @param recordCount Number of records of the table file
+     * @param liveCount Number of visible rows of the table file
+     */
+    @Override
+    public synchronized void setCounters(long nextRowId, long recordCount, long liveCount) {
+        buffer.putLong(NEXT_ROW_ID_OFFSET, nextRowId)
+                .putLong(NEXT_ROW_ID_OFFSET + Long.BYTES, recordCount)
+                .putLong(NEXT_ROW_ID_OFFSET + Long.BYTES * 2, liveCount);
+    }
+
+    @Override
+    public void addRow(long rowId, Row row, long pageOffset) {
+        add(HashIndex.hash(row.getValue(column)));
+    }
+
+    /**
+     * Values can not be removed from the filter, it is built again from the index of the column once too full
+     * @param rowId Row id of the row
+     * @param row Row
+     * @param pages Lookup of the values held by the pages of the table file
+     */
+    @Override
+    public void removeRow(long rowId, Row row, PageLookup pages) { }
+
+    /**
+     * Add a value to the filter
+     * @param hash Hash of the value, as provided by {@link HashIndex#hash(String)}
+     */
+    public synchronized void add(long hash) {
+        for (int index = 0; index < hashCount; index++) {
+            long bit = getBit(hash, index);
+            int position = HEADER_SIZE + (int) (bit >>> 6) * Long.BYTES;
+            buffer.putLong(position, buffer.getLong(position) | 1L << bit);
+        }
+        buffer.putLong(ENTRY_COUNT_OFFSET, ++entryCount);
+    }
+
+    /**
+     * Checks if a value may have been added to the filter
+     * @param hash Hash of the value, as provided by {@link HashIndex#hash(String)}
+     * @return False if the value was never added, True if it may have been
+     */
+    public synchronized boolean mightContain(long hash) {
+        for (int index = 0; index < hashCount; index++) {
+            long bit = getBit(hash, index);
+            if ((buffer.getLong(HEADER_SIZE + (int) (bit >>> 6) * Long.BYTES) & 1L << bit) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the filter can take more values without exceeding its false positive rate
+     * @param rowCount Number of values to add
+     * @return True if the filter was sized for the values it holds and those to add, False otherwise
+     */
+    @Override
+    public synchronized boolean hasRoomFor(int rowCount) {
+        return (entryCount + rowCount) * BITS_PER_ENTRY <= bitCount || bitCount == MAX_BIT_COUNT;
+    }
+
+    /**
+     * Force the filter to the storage device
+     */
+    @Override
+    public synchronized void save() {
+        buffer.force();
+    }
+
+    /**
+     * Move the filter file, e.g. when the table file it belongs to replaces another one
+     * @param target New location of the filter file
+     */
+    @Override
+    public synchronized void moveTo(File target) {
+        try {
+            Files.move(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to move bloom filter file for path: " + file + " " + e.getMessage());
+        }
+        file = target;
+    }
+
+    // Region: private methods
+    private long getBit(long hash, int index) {
+        int firstHash = (int) hash;
+        int secondHash = (int) (hash >>> 32);
+        return Math.floorMod(firstHash + (long) index * secondHash, bitCount);
+    }
+    // End region
+}
@@ -0,0 +1,128 @@
+package org.example.storage;
+
+import org.example.enums.Compression;
+import org.example.enums.IndexType;
+import org.example.enums.StorageEngine;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Catalog of the tables of a database, a single file in the database directory holding the definition of every
+ * table so a database is loaded with one read instead of reading the header of every table file.
+ * <p>
+ * The file is {@code magic (4) | version (2) | table count (4)} followed by
+ * {@code table name | engine (1) | compression (1) | schema | index count (4)} for every table and
+ * {@code index name | column name | index type (1) | included column count (4)} followed by the included column names
+ * for every index created on the table, names and schemas being written as modified UTF-8. Version 1 catalogs have
+ * no indexes, version 2 catalogs only B+tree indexes without their type, version 3 catalogs no included columns.
+ * It is written to a temporary file which then replaces the catalog, so a crash leaves either the old or the new
+ * catalog.
+ */
+public class Catalog {
+    public static final String FILE_NAME = "catalog.tdc";
+
+    private static final int MAGIC = 0x54444243; // "TDBC"
+    private static final short FORMAT_VERSION = 4;
+    private static final short V1_FORMAT_VERSION = 1;
+    private static final short V2_FORMAT_VERSION = 2;
+    private static final short V3_FORMAT_VERSION = 3;
+
+    /**
+     * Definition of a table as stored in its table file header
+     * @param tableName Name of the table
+     * @param schema Column definition of the table
+     * @param engine Storage engine of the table
+     * @param compression Compression of the data pages
+     * @param indexes Indexes created on the table by {@code CREATE INDEX} and {@code CREATE BITMAP INDEX}
+     */
+    public record Entry(String tableName, String schema, StorageEngine engine, Compression compression,
+                        List<IndexDefinition> indexes) { }
+
+    private Catalog() { }
+
+    /**
+     * Read the catalog of the database
+     * @param databaseDirectory Directory of the database
+     * @return List of entries in table name order, null if catalog is missing or can not be read
+     */
+    public static List<Entry> load(File databaseDirectory) {
+        File file = new File(databaseDirectory, FILE_NAME);
+        if (!file.exists())
+            return null;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != MAGIC)
+                return null;
+            short version = input.readShort();
+            if (version != FORMAT_VERSION && version != V3_FORMAT_VERSION && version != V2_FORMAT_VERSION
+                    && version != V1_FORMAT_VERSION)
+                return null;
+            int tableCount = input.readInt();
+            List<Entry> entries = new ArrayList<>(tableCount);
+            for (int index = 0; index < tableCount; index++) {
+                String tableName = input.readUTF();
+                StorageEngine engine = StorageEngine.fromOrdinal(input.readByte());
+                Compression compression = Compression.fromOrdinal(input.readByte());
+                String schema = input.readUTF();
+                List<IndexDefinition> indexes = new ArrayList<>();
+                int indexCount = version == V1_FORMAT_VERSION ? 0 : input.readInt();
+                for (int indexNumber = 0; indexNumber < indexCount; indexNumber++) {
+                    String indexName = input.readUTF();
+                    String columnName = input.readUTF();
+                    IndexType type = version == V2_FORMAT_VERSION ? IndexType.BTREE : IndexType.fromOrdinal(input.readByte());
+                    List<String> includedColumns = new ArrayList<>();
+                    int includedCount = version < FORMAT_VERSION ? 0 : input.readInt();
+                    for (int columnNumber = 0; columnNumber < includedCount; columnNumber++)
+                        includedColumns.add(input.readUTF());
+                    indexes.add(new IndexDefinition(indexName, columnName, type, includedColumns));
+                }
+                entries.add(new Entry(tableName, schema, engine, compression, indexes));
+            }
+            return entries;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Failed to read catalog for path: " + file + " " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Replace the catalog of the database
+     * @param databaseDirectory Directory of the database
+     * @param entries Entries of all tables of the database
+     */
+    public static void save(File databaseDirectory, List<Entry> entries) {
+        File file = new File(databaseDirectory, FILE_NAME);
+        File temporaryFile = new File(databaseDirectory, FILE_NAME + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+            output.writeInt(MAGIC);
+            output.writeShort(FORMAT_VERSION);
+            output.writeInt(entries.size());
+            for (Entry entry : entries) {
+                output.writeUTF(entry.tableName());
+                output.writeByte(entry.engine().ordinal());
+                output.writeByte(entry.compression().ordinal());
+                output.writeUTF(entry.schema());
+                output.writeInt(entry.indexes().size());
+                for (IndexDefinition index : entry.indexes()) {
+                    output.writeUTF(index.name());
+                    output.writeUTF(index.columnName());
+                    output.writeByte(index.type().ordinal());
+                    output.writeInt(index.includedColumns().size());
+                    for (String includedColumn : index.includedColumns())
+                        output.writeUTF(includedColumn);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write catalog for path: " + file + " " + e.getMessage());
+        }
+        try {
+            Files.move(temporaryFile.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to replace catalog for path: " + file + " " + e.getMessage());
+        }
+    }
+}
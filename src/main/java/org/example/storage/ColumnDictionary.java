@@ -0,0 +1,158 @@
+package org.example.storage;
+
+import org.example.util.Config;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Value dictionary of the string columns of a table, stored next to the table file.
+ * <p>
+ * The file is a sequence of entries {@code column index (2) | value length (2) | value} and is only ever appended
+ * to, so the code of a value (its position among the entries of the column) never changes and records written
+ * before stay valid when the table file is rewritten. Every column holds at most {@code tinydb.dictionary.maxValues}
+ * values (1024 by default, 0 disables dictionary encoding); values added after that are stored inline.
+ */
+public class ColumnDictionary {
+    public static final String EXTENSION = ".dict";
+
+    private static final int MAX_VALUES = Math.min(Config.getInt("tinydb.dictionary.maxValues", 1024), 0xFFFF);
+    private static final int MAX_VALUE_BYTES = 255;
+
+    private final File file;
+    private final Map<Integer, List<String>> values = new HashMap<>();
+    private final Map<Integer, Map<String, Integer>> codes = new HashMap<>();
+    private final ByteArrayOutputStream pendingEntries = new ByteArrayOutputStream();
+
+    private ColumnDictionary(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Load the dictionary file, a missing file provides an empty dictionary
+     * @param file Dictionary file of the table
+     * @return ColumnDictionary instance
+     */
+    public static ColumnDictionary load(File file) {
+        ColumnDictionary dictionary = new ColumnDictionary(file);
+        if (!file.exists())
+            return dictionary;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                int column = input.readUnsignedShort();
+                byte[] bytes = new byte[input.readUnsignedShort()];
+                input.readFully(bytes);
+                dictionary.add(column, new String(bytes, StandardCharsets.UTF_8));
+            }
+        } catch (EOFException e) {
+            // End of file, an entry cut short by a crash is ignored as no record can refer to it
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load dictionary file for path: " + file + " " + e.getMessage());
+        }
+        return dictionary;
+    }
+
+    /**
+     * Provides the code of the value
+     * @param column Index of the column
+     * @param value Value to look for
+     * @return Code of the value, -1 if value is not in the dictionary
+     */
+    public synchronized int getCode(int column, String value) {
+        Map<String, Integer> columnCodes = codes.get(column);
+        return columnCodes == null ? -1 : columnCodes.getOrDefault(value, -1);
+    }
+
+    /**
+     * Provides the code of the value, adding the value to the dictionary if there is still room for it.
+     * Added values are written to the dictionary file by {@link #flush()}.
+     * @param column Index of the column
+     * @param value Value to encode
+     * @return Code of the value, -1 if value is not encoded
+     */
+    public synchronized int getOrAddCode(int column, String value) {
+        int code = getCode(column, value);
+        if (code >= 0 || getValues(column).size() >= MAX_VALUES)
+            return code;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_VALUE_BYTES)
+            return -1;
+        pendingEntries.write(column >>> 8);
+        pendingEntries.write(column);
+        pendingEntries.write(bytes.length >>> 8);
+        pendingEntries.write(bytes.length);
+        pendingEntries.writeBytes(bytes);
+        return add(column, value);
+    }
+
+    /**
+     * Provides the value of the code
+     * @param column Index of the column
+     * @param code Code stored in the record
+     * @return Value of the code
+     */
+    public synchronized String getValue(int column, int code) {
+        List<String> columnValues = values.get(column);
+        if (columnValues == null || code >= columnValues.size())
+            throw new IllegalStateException("Corrupted record, unknown dictionary code " + code + " in " + file);
+        return columnValues.get(code);
+    }
+
+    /**
+     * Write the values added since the last flush to the dictionary file.
+     * Must happen before records using their codes are written.
+     */
+    public synchronized void flush() {
+        if (pendingEntries.size() == 0)
+            return;
+        try (TableFileRegistry.Handle handle = TableFileRegistry.acquire(file, true)) {
+            FileChannel channel = handle.getChannel();
+            ByteBuffer entries = ByteBuffer.wrap(pendingEntries.toByteArray());
+            long position = channel.size();
+            while (entries.hasRemaining())
+                channel.write(entries, position + entries.position());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write dictionary file for path: " + file + " " + e.getMessage());
+        }
+        pendingEntries.reset();
+    }
+
+    /**
+     * Force the dictionary file to the storage device, does nothing if no value was ever written
+     */
+    public synchronized void sync() {
+        if (!file.exists())
+            return;
+        try (TableFileRegistry.Handle handle = TableFileRegistry.acquire(file, false)) {
+            handle.getChannel().force(true);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to sync dictionary file for path: " + file + " " + e.getMessage());
+        }
+    }
+
+    /**
+     * Delete the dictionary file
+     * @return True if file is deleted or never existed, False otherwise
+     */
+    public synchronized boolean delete() {
+        pendingEntries.reset();
+        TableFileRegistry.closeHandle(file);
+        return !file.exists() || file.delete();
+    }
+
+    // Region: private methods
+    private List<String> getValues(int column) {
+        return values.getOrDefault(column, List.of());
+    }
+
+    private int add(int column, String value) {
+        List<String> columnValues = values.computeIfAbsent(column, key -> new ArrayList<>());
+        codes.computeIfAbsent(column, key -> new HashMap<>()).put(value, columnValues.size());
+        columnValues.add(value);
+        return columnValues.size() - 1;
+    }
+    // End region
+}
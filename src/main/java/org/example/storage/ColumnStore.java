@@ -0,0 +1,136 @@
+package org.example.storage;
+
+import org.example.database.Aggregate;
+import org.example.database.Condition;
+import org.example.database.Row;
+import org.example.database.RowSchema;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * In-memory columnar copy of a table using {@link org.example.enums.StorageEngine#COLUMNAR}.
+ * Every column is held in a {@link ColumnVector} outside the Java heap, so conditions and aggregates run as loops
+ * over primitive values and rows are only materialized for the results of a query.
+ */
+public class ColumnStore {
+    private final RowSchema schema;
+    private final ColumnVector[] vectors;
+    private int size = 0;
+
+    public ColumnStore(RowSchema schema) {
+        this.schema = schema;
+        this.vectors = new ColumnVector[schema.size()];
+        for (int column = 0; column < schema.size(); column++)
+            vectors[column] = ColumnVector.create(schema.getType(column));
+    }
+
+    public RowSchema getSchema() {
+        return schema;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Append a row after the rows already held
+     * @param row Row to append
+     */
+    public synchronized void append(Row row) {
+        for (int column = 0; column < vectors.length; column++)
+            vectors[column].append(row, column);
+        size++;
+    }
+
+    /**
+     * Provides the rows satisfying the condition
+     * @param condition Condition to check, null to select all rows
+     * @return BitSet having the index of every matching row set
+     */
+    public synchronized BitSet filter(Condition condition) {
+        BitSet rows = new BitSet(size);
+        if (condition == null)
+            rows.set(0, size);
+        else
+            vectors[condition.getColumnIndex()].filter(condition, rows);
+        return rows;
+    }
+
+    /**
+     * Materialize the selected rows
+     * @param rows Indexes of the rows to provide
+     * @return List of Rows in storage order
+     */
+    public synchronized List<Row> getRows(BitSet rows) {
+        List<Row> result = new ArrayList<>(rows.cardinality());
+        for (int index = rows.nextSetBit(0); index >= 0 && index < size; index = rows.nextSetBit(index + 1))
+            result.add(getRow(index));
+        return result;
+    }
+
+    /**
+     * Open a cursor over the rows satisfying the condition, every row is materialized only when it is read
+     * @param condition Condition to check, null to select all rows
+     * @return RowCursor over the matching rows in storage order
+     */
+    public RowCursor openCursor(Condition condition) {
+        BitSet rows = filter(condition);
+        return new RowCursor() {
+            private int index = rows.nextSetBit(0);
+
+            @Override
+            protected Row fetch() {
+                if (index < 0)
+                    return null;
+                Row row = getRow(index);
+                index = rows.nextSetBit(index + 1);
+                return row;
+            }
+        };
+    }
+
+    /**
+     * Materialize all rows
+     * @return List of Rows in storage order
+     */
+    public synchronized List<Row> getRows() {
+        return getRows(filter(null));
+    }
+
+    /**
+     * Add the selected rows to the aggregate
+     * @param accumulator Accumulator of the aggregate
+     * @param rows Indexes of the rows to aggregate
+     */
+    public synchronized void aggregate(Aggregate.Accumulator accumulator, BitSet rows) {
+        if (accumulator.getColumnIndex() < 0)
+            accumulator.addRows(rows.cardinality());
+        else
+            vectors[accumulator.getColumnIndex()].aggregate(accumulator, rows);
+    }
+
+    /**
+     * Materialize a single row
+     * @param index Index of the row
+     * @return Row instance
+     */
+    public synchronized Row getRow(int index) {
+        Row.Builder row = Row.builder(schema);
+        for (int column = 0; column < vectors.length; column++)
+            vectors[column].copyTo(row, index, column);
+        return row.build();
+    }
+
+    /**
+     * Provides the size of the direct buffers held by all columns
+     * @return Size in bytes
+     */
+    public synchronized long getOffHeapBytes() {
+        long bytes = 0;
+        for (ColumnVector vector : vectors)
+            bytes += vector.getOffHeapBytes();
+        return bytes;
+    }
+}
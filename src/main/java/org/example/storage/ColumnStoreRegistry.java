@@ -0,0 +1,73 @@
+package org.example.storage;
+
+import org.example.database.Row;
+
+import java.util.*;
+
+/**
+ * Process-wide registry of the column stores of COLUMNAR tables keyed by database and table name.
+ * Stores are built on first access and dropped whenever the table file is modified in place.
+ */
+public class ColumnStoreRegistry {
+    private static final Map<String, ColumnStore> STORES = new HashMap<>();
+
+    private ColumnStoreRegistry() { }
+
+    /**
+     * Provides the column store of the table
+     * @param dbName Name of the database
+     * @param tableName Name of the table
+     * @return ColumnStore instance, null if the store is not built
+     */
+    public static synchronized ColumnStore get(String dbName, String tableName) {
+        return STORES.get(getKey(dbName, tableName));
+    }
+
+    /**
+     * Register the column store of the table, replacing the store registered before
+     * @param dbName Name of the database
+     * @param tableName Name of the table
+     * @param columnStore Column store holding all rows of the table
+     */
+    public static synchronized void put(String dbName, String tableName, ColumnStore columnStore) {
+        STORES.put(getKey(dbName, tableName), columnStore);
+    }
+
+    /**
+     * Add appended rows to the column store, does nothing if the store is not built
+     * @param dbName Name of the database
+     * @param tableName Name of the table
+     * @param rows Rows appended to the table
+     */
+    public static synchronized void append(String dbName, String tableName, List<Row> rows) {
+        ColumnStore columnStore = STORES.get(getKey(dbName, tableName));
+        if (columnStore != null)
+            rows.forEach(columnStore::append);
+    }
+
+    /**
+     * Drop the column store of the table, it is built again on next access
+     * @param dbName Name of the database
+     * @param tableName Name of the table
+     */
+    public static synchronized void invalidate(String dbName, String tableName) {
+        STORES.remove(getKey(dbName, tableName));
+    }
+
+    /**
+     * Provides counters of the column stores
+     * @return Map of counter name to its value
+     */
+    public static synchronized Map<String, Long> getStatus() {
+        Map<String, Long> status = new LinkedHashMap<>();
+        status.put("columnar_tables", (long) STORES.size());
+        status.put("columnar_off_heap_bytes", STORES.values().stream().mapToLong(ColumnStore::getOffHeapBytes).sum());
+        return status;
+    }
+
+    // Region: private methods
+    private static String getKey(String dbName, String tableName) {
+        return dbName + "/" + tableName;
+    }
+    // End region
+}
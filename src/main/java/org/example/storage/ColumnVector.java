@@ -0,0 +1,274 @@
+package org.example.storage;
+
+import org.example.database.Aggregate;
+import org.example.database.Column;
+import org.example.database.Condition;
+import org.example.database.Row;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Values of a single column kept in off-heap (direct) buffers, one entry per row in storage order.
+ * <p>
+ * Int and double columns are contiguous vectors of primitives. Values of those columns that are not held as
+ * numbers by {@link Row} (nulls and values such as "007") are kept on heap next to the vector, so the vector
+ * loops only fall back to them for rows flagged in {@code stringRows}.
+ * String columns are an offsets vector pointing into a buffer of UTF-8 data.
+ */
+abstract class ColumnVector {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    protected int size = 0;
+
+    /**
+     * Provides an empty vector for the column type
+     * @param type Type of the column
+     * @return ColumnVector instance
+     */
+    static ColumnVector create(Column.Type type) {
+        return switch (type) {
+            case INT -> new IntVector();
+            case DOUBLE -> new DoubleVector();
+            case STRING -> new StringVector();
+        };
+    }
+
+    /**
+     * Append the value of the column of the row
+     * @param row Row holding the value
+     * @param column Index of the column
+     */
+    abstract void append(Row row, int column);
+
+    /**
+     * Copy the value stored for a row into the row builder
+     * @param row Builder of the row
+     * @param index Index of the row inside the vector
+     * @param column Index of the column
+     */
+    abstract void copyTo(Row.Builder row, int index, int column);
+
+    /**
+     * Set the bits of all rows whose value satisfies the condition
+     * @param condition Condition on this column
+     * @param rows BitSet receiving the matching rows
+     */
+    abstract void filter(Condition condition, BitSet rows);
+
+    /**
+     * Add the values of the selected rows to the accumulator
+     * @param accumulator Accumulator of an aggregate on this column
+     * @param rows Rows to aggregate
+     */
+    abstract void aggregate(Aggregate.Accumulator accumulator, BitSet rows);
+
+    /**
+     * Provides the size of the direct buffers held by the vector
+     * @return Size in bytes
+     */
+    abstract long getOffHeapBytes();
+
+    /**
+     * Provides a buffer with room for at least the required number of bytes, copying the current content
+     * @param buffer Current buffer, null if none is allocated yet
+     * @param requiredBytes Number of bytes the buffer must be able to hold
+     * @return The provided buffer if it is large enough, otherwise a new direct buffer
+     */
+    protected static ByteBuffer ensureCapacity(ByteBuffer buffer, long requiredBytes) {
+        if (buffer != null && buffer.capacity() >= requiredBytes)
+            return buffer;
+        if (requiredBytes > Integer.MAX_VALUE)
+            throw new RuntimeException("Column is too large to hold in memory: " + requiredBytes + " bytes");
+        long capacity = buffer == null ? INITIAL_CAPACITY : buffer.capacity();
+        while (capacity < requiredBytes)
+            capacity *= 2;
+        ByteBuffer newBuffer = ByteBuffer.allocateDirect((int) Math.min(capacity, Integer.MAX_VALUE));
+        if (buffer != null)
+            newBuffer.put(0, buffer, 0, buffer.capacity());
+        return newBuffer;
+    }
+
+    /**
+     * Vector of int or double values with the values that are not numbers kept aside
+     */
+    private abstract static class NumericVector extends ColumnVector {
+        protected final BitSet stringRows = new BitSet();
+        protected final Map<Integer, String> strings = new HashMap<>();
+        protected ByteBuffer data;
+
+        @Override
+        void append(Row row, int column) {
+            data = ensureCapacity(data, (long) (size + 1) * getValueBytes());
+            if (row.isNumeric(column)) {
+                putValue(row, column);
+            } else {
+                stringRows.set(size);
+                strings.put(size, row.getString(column));
+            }
+            size++;
+        }
+
+        @Override
+        long getOffHeapBytes() {
+            return data == null ? 0 : data.capacity();
+        }
+
+        protected abstract int getValueBytes();
+
+        protected abstract void putValue(Row row, int column);
+    }
+
+    private static class IntVector extends NumericVector {
+
+        @Override
+        protected int getValueBytes() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        protected void putValue(Row row, int column) {
+            data.putInt(size * Integer.BYTES, row.getInt(column));
+        }
+
+        @Override
+        void copyTo(Row.Builder row, int index, int column) {
+            if (stringRows.get(index))
+                row.setString(column, strings.get(index));
+            else
+                row.setInt(column, data.getInt(index * Integer.BYTES));
+        }
+
+        @Override
+        void filter(Condition condition, BitSet rows) {
+            if (stringRows.isEmpty()) {
+                for (int index = 0; index < size; index++) {
+                    if (condition.testInt(data.getInt(index * Integer.BYTES)))
+                        rows.set(index);
+                }
+                return;
+            }
+            for (int index = 0; index < size; index++) {
+                boolean matches = stringRows.get(index)
+                        ? condition.testString(strings.get(index))
+                        : condition.testInt(data.getInt(index * Integer.BYTES));
+                if (matches)
+                    rows.set(index);
+            }
+        }
+
+        @Override
+        void aggregate(Aggregate.Accumulator accumulator, BitSet rows) {
+            for (int index = rows.nextSetBit(0); index >= 0; index = rows.nextSetBit(index + 1)) {
+                if (stringRows.get(index))
+                    accumulator.addString(strings.get(index));
+                else
+                    accumulator.addInt(data.getInt(index * Integer.BYTES));
+            }
+        }
+    }
+
+    private static class DoubleVector extends NumericVector {
+
+        @Override
+        protected int getValueBytes() {
+            return Double.BYTES;
+        }
+
+        @Override
+        protected void putValue(Row row, int column) {
+            data.putDouble(size * Double.BYTES, row.getDouble(column));
+        }
+
+        @Override
+        void copyTo(Row.Builder row, int index, int column) {
+            if (stringRows.get(index))
+                row.setString(column, strings.get(index));
+            else
+                row.setDouble(column, data.getDouble(index * Double.BYTES));
+        }
+
+        @Override
+        void filter(Condition condition, BitSet rows) {
+            if (stringRows.isEmpty()) {
+                for (int index = 0; index < size; index++) {
+                    if (condition.testDouble(data.getDouble(index * Double.BYTES)))
+                        rows.set(index);
+                }
+                return;
+            }
+            for (int index = 0; index < size; index++) {
+                boolean matches = stringRows.get(index)
+                        ? condition.testString(strings.get(index))
+                        : condition.testDouble(data.getDouble(index * Double.BYTES));
+                if (matches)
+                    rows.set(index);
+            }
+        }
+
+        @Override
+        void aggregate(Aggregate.Accumulator accumulator, BitSet rows) {
+            for (int index = rows.nextSetBit(0); index >= 0; index = rows.nextSetBit(index + 1)) {
+                if (stringRows.get(index))
+                    accumulator.addString(strings.get(index));
+                else
+                    accumulator.addDouble(data.getDouble(index * Double.BYTES));
+            }
+        }
+    }
+
+    /**
+     * Vector of strings: {@code offsets} holds the end offset of every value inside {@code data}
+     */
+    private static class StringVector extends ColumnVector {
+        private ByteBuffer offsets;
+        private ByteBuffer data;
+        private int dataSize = 0;
+
+        @Override
+        void append(Row row, int column) {
+            byte[] bytes = row.getValue(column).getBytes(StandardCharsets.UTF_8);
+            data = ensureCapacity(data, (long) dataSize + bytes.length);
+            offsets = ensureCapacity(offsets, (long) (size + 1) * Integer.BYTES);
+            data.put(dataSize, bytes);
+            dataSize += bytes.length;
+            offsets.putInt(size * Integer.BYTES, dataSize);
+            size++;
+        }
+
+        @Override
+        void copyTo(Row.Builder row, int index, int column) {
+            row.setString(column, get(index));
+        }
+
+        @Override
+        void filter(Condition condition, BitSet rows) {
+            for (int index = 0; index < size; index++) {
+                if (condition.testString(get(index)))
+                    rows.set(index);
+            }
+        }
+
+        @Override
+        void aggregate(Aggregate.Accumulator accumulator, BitSet rows) {
+            for (int index = rows.nextSetBit(0); index >= 0; index = rows.nextSetBit(index + 1))
+                accumulator.addString(get(index));
+        }
+
+        @Override
+        long getOffHeapBytes() {
+            return (offsets == null ? 0 : offsets.capacity()) + (data == null ? 0 : data.capacity());
+        }
+
+        private String get(int index) {
+            int start = index == 0 ? 0 : offsets.getInt((index - 1) * Integer.BYTES);
+            int end = offsets.getInt(index * Integer.BYTES);
+            byte[] bytes = new byte[end - start];
+            data.get(start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
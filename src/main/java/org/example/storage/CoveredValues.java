@@ -0,0 +1,244 @@
+package org.example.storage;
+
+import org.example.database.Row;
+import org.example.util.Config;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bounded in-memory cache of the values of an index created by {@code CREATE INDEX ... INCLUDE (columns)}: for every
+ * visible row, the value of the indexed column followed by the values of the included columns. The leaf entries of
+ * the {@link BTreeIndex} of the index only hold row ids and page offsets, this cache provides their values, so
+ * queries reading only those columns never read the table file while it is kept.
+ * <p>
+ * The file is {@code magic (4) | version (2) | next row id (8) | record count (8) | live row count (8) |
+ * column count (4) | row count (4)} followed by {@code row id (8) | values (UTF each)} for every row. Like
+ * {@link BitmapIndex} the values are held in memory, updated by every write and written again in full when the table
+ * file is synced or on exit, a file not matching the table file header is rebuilt by a scan. The heap used by the
+ * values is estimated as they change, so {@link TableIndexes} can drop values larger than
+ * {@code tinydb.index.coveringMaxBytes} until the table file is rewritten, report them in {@code SHOW STATUS} and
+ * read the table file instead.
+ */
+public class CoveredValues implements TableIndex {
+    public static final String EXTENSION = ".cval";
+
+    private static final int MAGIC = 0x54444256; // "TDBV"
+    private static final short FORMAT_VERSION = 1;
+    // Estimated heap bytes of a map entry holding a row id and its value array, and of a string besides its text
+    private static final int ROW_OVERHEAD_BYTES = 80;
+    private static final int VALUE_OVERHEAD_BYTES = 48;
+    private static final long MAX_BYTES = Config.getLong("tinydb.index.coveringMaxBytes", 64L << 20);
+
+    private final int[] columns;
+    private final Map<Long, String[]> rows = new HashMap<>();
+    private File file;
+    private long nextRowId;
+    private long recordCount;
+    private long liveCount;
+    private long byteCount;
+    private boolean isDirty;
+
+    private CoveredValues(File file, int[] columns) {
+        this.file = file;
+        this.columns = columns;
+    }
+
+    /**
+     * Create empty values, the file is only written by {@link #save()}
+     * @param file Values file
+     * @param columns Indexes of the columns covered by the index, the indexed column first
+     * @return CoveredValues instance
+     */
+    public static CoveredValues create(File file, int[] columns) {
+        CoveredValues values = new CoveredValues(file, columns);
+        values.isDirty = true;
+        return values;
+    }
+
+    /**
+     * Load values written by {@link #save()}
+     * @param file Values file
+     * @param columns Indexes of the columns covered by the index, the indexed column first
+     * @return CoveredValues instance, null if file is missing, can not be read, covers other columns or holds more
+     *         than {@code tinydb.index.coveringMaxBytes}
+     */
+    public static CoveredValues load(File file, int[] columns) {
+        // The file is smaller than the values it holds once in memory
+        if (!file.exists() || file.length() > MAX_BYTES)
+            return null;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readShort() != FORMAT_VERSION)
+                return null;
+            long nextRowId = input.readLong();
+            long recordCount = input.readLong();
+            long liveCount = input.readLong();
+            if (input.readInt() != columns.length)
+                return null;
+            CoveredValues values = new CoveredValues(file, columns);
+            values.nextRowId = nextRowId;
+            values.recordCount = recordCount;
+            values.liveCount = liveCount;
+            int rowCount = input.readInt();
+            for (int rowNumber = 0; rowNumber < rowCount; rowNumber++) {
+                long rowId = input.readLong();
+                String[] rowValues = new String[columns.length];
+                for (int column = 0; column < columns.length; column++)
+                    rowValues[column] = input.readUTF();
+                values.rows.put(rowId, rowValues);
+                values.byteCount += getByteCount(rowValues);
+            }
+            return values;
+        } catch (IOException e) {
+            // Values cut short by a crash are built again
+            return null;
+        }
+    }
+
+    /**
+     * Checks if the values were stored for the current content of the table file
+     * @param header Header of the table file
+     * @return True if the counters of the header match, False otherwise
+     */
+    @Override
+    public synchronized boolean isValidFor(TableFile.Header header) {
+        return nextRowId == header.nextRowId() && recordCount == header.recordCount()
+                && liveCount == header.liveCount();
+    }
+
+    /**
+     * Record the counters of the table file header the values now describe
+     * @param nextRowId Next row id of the table file
+     * @param recordCount Number of records of the table file
+     * @param liveCount Number of visible rows of the table file
+     */
+    @Override
+    public synchronized void setCounters(long nextRowId, long recordCount, long liveCount) {
+        this.nextRowId = nextRowId;
+        this.recordCount = recordCount;
+        this.liveCount = liveCount;
+        isDirty = true;
+    }
+
+    @Override
+    public void addRow(long rowId, Row row, long pageOffset) {
+        String[] values = new String[columns.length];
+        for (int index = 0; index < columns.length; index++)
+            values[index] = row.getValue(columns[index]);
+        put(rowId, values);
+    }
+
+    @Override
+    public void removeRow(long rowId, Row row, PageLookup pages) {
+        remove(rowId);
+    }
+
+    /**
+     * Checks if the values exceed {@code tinydb.index.coveringMaxBytes}
+     * @return True if the values must be dropped, False otherwise
+     */
+    @Override
+    public synchronized boolean isOversized() {
+        return byteCount > MAX_BYTES;
+    }
+
+    /**
+     * Store the covered values of a row, replacing those previously stored for its row id
+     * @param rowId Row id of the row
+     * @param values Text of the values, the indexed column first
+     */
+    public synchronized void put(long rowId, String[] values) {
+        String[] replacedValues = rows.put(rowId, values);
+        if (replacedValues != null)
+            byteCount -= getByteCount(replacedValues);
+        byteCount += getByteCount(values);
+        isDirty = true;
+    }
+
+    /**
+     * Forget the values of a row
+     * @param rowId Row id of the row
+     */
+    public synchronized void remove(long rowId) {
+        String[] removedValues = rows.remove(rowId);
+        if (removedValues != null) {
+            byteCount -= getByteCount(removedValues);
+            isDirty = true;
+        }
+    }
+
+    /**
+     * Provides the covered values of a row
+     * @param rowId Row id of the row
+     * @return Text of the values, the indexed column first, null if the row is not stored
+     */
+    public synchronized String[] get(long rowId) {
+        return rows.get(rowId);
+    }
+
+    /**
+     * Provides the estimated heap used by the values
+     * @return Number of bytes
+     */
+    @Override
+    public synchronized long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * Write the values to their file if they changed since they were last written. The values are written to a
+     * temporary file first, so the file is never left incomplete.
+     */
+    @Override
+    public synchronized void save() {
+        if (!isDirty)
+            return;
+        File temporaryFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+            output.writeInt(MAGIC);
+            output.writeShort(FORMAT_VERSION);
+            output.writeLong(nextRowId);
+            output.writeLong(recordCount);
+            output.writeLong(liveCount);
+            output.writeInt(columns.length);
+            output.writeInt(rows.size());
+            for (Map.Entry<Long, String[]> entry : rows.entrySet()) {
+                output.writeLong(entry.getKey());
+                for (String value : entry.getValue())
+                    output.writeUTF(value);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write index file for path: " + file + " " + e.getMessage());
+        }
+        try {
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write index file for path: " + file + " " + e.getMessage());
+        }
+        isDirty = false;
+    }
+
+    /**
+     * Move the values, e.g. when the table file they belong to replaces another one. The file at the new location
+     * is deleted as it describes the replaced table file, the values are written there by the next {@link #save()}.
+     * @param target New location of the values file
+     */
+    @Override
+    public synchronized void moveTo(File target) {
+        file.delete();
+        target.delete();
+        file = target;
+        isDirty = true;
+    }
+
+    private static long getByteCount(String[] values) {
+        long bytes = ROW_OVERHEAD_BYTES;
+        for (String value : values)
+            bytes += VALUE_OVERHEAD_BYTES + (value == null ? 0 : value.length());
+        return bytes;
+    }
+}
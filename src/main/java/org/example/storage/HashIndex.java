@@ -0,0 +1,314 @@
+package org.example.storage;
+
+import org.example.database.Row;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Persistent hash index of a primary_key or unique column, kept next to the table file and updated by every write.
+ * <p>
+ * The file is {@code magic (4) | version (2) | capacity (8) | entry count (8) | deleted count (8) | next row id (8) |
+ * record count (8) | live row count (8)} padded to {@value #HEADER_SIZE} bytes, followed by an open addressing table
+ * of {@code capacity} slots {@code value hash (8) | page offset (8)} probed linearly. An entry only locates the page
+ * of the table file holding the row, readers check the value of the rows of that page so hash collisions are
+ * harmless. A slot with offset 0 is empty, one with offset -1 held an entry that was removed. Once three quarters
+ * of the slots are used the table is rebuilt twice as large into a new file which then replaces the index.
+ * <p>
+ * The file is memory mapped. Like {@link TableStatistics} the index stores the counters of the table file header it
+ * describes, an index not matching the header (e.g. after a crash) is rebuilt by a scan.
+ */
+public class HashIndex implements TableIndex {
+    public static final String EXTENSION = ".hidx";
+
+    private static final int MAGIC = 0x54444248; // "TDBH"
+    private static final short FORMAT_VERSION = 1;
+    private static final int CAPACITY_OFFSET = 6;
+    private static final int ENTRY_COUNT_OFFSET = 14;
+    private static final int DELETED_COUNT_OFFSET = 22;
+    private static final int NEXT_ROW_ID_OFFSET = 30;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 16;
+    private static final int INITIAL_CAPACITY = 1024;
+    // Largest power of two keeping the whole file in a single mapping
+    private static final int MAX_CAPACITY = 1 << 26;
+    private static final long DELETED = -1;
+
+    private File file;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private long entryCount;
+    private long deletedCount;
+    private final int column;
+
+    private HashIndex(File file, MappedByteBuffer buffer, int column) {
+        this.file = file;
+        this.buffer = buffer;
+        this.column = column;
+        this.capacity = (int) buffer.getLong(CAPACITY_OFFSET);
+        this.entryCount = buffer.getLong(ENTRY_COUNT_OFFSET);
+        this.deletedCount = buffer.getLong(DELETED_COUNT_OFFSET);
+    }
+
+    /**
+     * Create an empty index, replacing the file if it exists
+     * @param file Index file
+     * @param column Index of the column of the index
+     * @return HashIndex instance
+     */
+    public static HashIndex create(File file, int column) {
+        return create(file, INITIAL_CAPACITY, column);
+    }
+
+    /**
+     * Load an index written by {@link #create(File, int)}
+     * @param file Index file
+     * @param column Index of the column of the index
+     * @return HashIndex instance, null if file is missing or can not be read
+     */
+    public static HashIndex load(File file, int column) {
+        if (!file.exists())
+            return null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > HEADER_SIZE + (long) MAX_CAPACITY * SLOT_SIZE)
+                return null;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            long capacity = buffer.getLong(CAPACITY_OFFSET);
+            if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != FORMAT_VERSION
+                    || size != HEADER_SIZE + capacity * SLOT_SIZE)
+                return null;
+            return new HashIndex(file, buffer, column);
+        } catch (IOException e) {
+            // Index cut short by a crash is built again
+            return null;
+        }
+    }
+
+    /**
+     * Provides the hash of a value as stored in the index
+     * @param value Text of the value
+     * @return Hash of the value
+     */
+    public static long hash(String value) {
+        return TableStatistics.hash(value);
+    }
+
+    /**
+     * Checks if the index was built for the current content of the table file
+     * @param header Header of the table file
+     * @return True if the counters of the header match, False otherwise
+     */
+    @Override
+    public synchronized boolean isValidFor(TableFile.Header header) {
+        return buffer.getLong(NEXT_ROW_ID_OFFSET) == header.nextRowId()
+                && buffer.getLong(NEXT_ROW_ID_OFFSET + Long.BYTES) == header.recordCount()
+                && buffer.getLong(NEXT_ROW_ID_OFFSET + Long.BYTES * 2) == header.liveCount();
+    }
+
+    /**
+     * Record the counters of the table file header the index now describes
+     * @param nextRowId Next row id of the table file
+     * @param recordCount Number of records of the table file
+     * @param liveCount Number of visible rows of the table file
+     */
+    @Override
+    public synchronized void setCounters(long nextRowId, long recordCount, long liveCount) {
+        buffer.putLong(NEXT_ROW_ID_OFFSET, nextRowId)
+                .putLong(NEXT_ROW_ID_OFFSET + Long.BYTES, recordCount)
+                .putLong(NEXT_ROW_ID_OFFSET + Long.BYTES * 2, liveCount);
+    }
+
+    @Override
+    public void addRow(long rowId, Row row, long pageOffset) {
+        add(hash(row.getValue(column)), pageOffset);
+    }
+
+    /**
+     * Remove the entry of the row, found among the entries having the hash of its value by checking their page
+     * @param rowId Row id of the row
+     * @param row Row
+     * @param pages Lookup of the values held by the pages of the table file
+     */
+    @Override
+    public synchronized void removeRow(long rowId, Row row, PageLookup pages) {
+        String value = row.getValue(column);
+        long hash = hash(value);
+        long pageOffset = find(hash, offset -> pages.holdsValue(offset, column, value));
+        if (pageOffset >= 0)
+            remove(hash, pageOffset);
+    }
+
+    /**
+     * Add an entry for a value stored in a page of the table file
+     * @param hash Hash of the value
+     * @param pageOffset Offset of the page in the table file
+     */
+    public synchronized void add(long hash, long pageOffset) {
+        if ((entryCount + deletedCount + 1) * 4 > capacity * 3L)
+            rebuild(deletedCount > entryCount ? capacity : capacity * 2);
+        int slot = findFreeSlot(buffer, capacity, hash);
+        if (getPageOffset(slot) == DELETED)
+            deletedCount--;
+        putSlot(buffer, slot, hash, pageOffset);
+        entryCount++;
+        writeEntryCounts();
+    }
+
+    /**
+     * Remove the entry of a value stored in a page of the table file
+     * @param hash Hash of the value
+     * @param pageOffset Offset of the page in the table file
+     * @return True if the entry is removed, False if there is no such entry
+     */
+    public synchronized boolean remove(long hash, long pageOffset) {
+        for (int slot = getSlot(hash, capacity), probes = 0; probes < capacity; slot = (slot + 1) & (capacity - 1), probes++) {
+            long slotPageOffset = getPageOffset(slot);
+            if (slotPageOffset == 0)
+                return false;
+            if (slotPageOffset == pageOffset && getHash(slot) == hash) {
+                buffer.putLong(getSlotPosition(slot) + Long.BYTES, DELETED);
+                entryCount--;
+                deletedCount++;
+                writeEntryCounts();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find the page holding a value among the entries having the hash of the value
+     * @param hash Hash of the value
+     * @param isMatch Checks if the page at the provided offset holds the value
+     * @return Offset of the page, -1 if no page holds the value
+     */
+    public synchronized long find(long hash, LongPredicate isMatch) {
+        for (int slot = getSlot(hash, capacity), probes = 0; probes < capacity; slot = (slot + 1) & (capacity - 1), probes++) {
+            long pageOffset = getPageOffset(slot);
+            if (pageOffset == 0)
+                return -1;
+            if (pageOffset != DELETED && getHash(slot) == hash && isMatch.test(pageOffset))
+                return pageOffset;
+        }
+        return -1;
+    }
+
+    public synchronized long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Provide the hash of every entry, e.g. to build a {@link BloomFilter} of the column
+     * @param consumer Consumer receiving the hashes
+     */
+    public synchronized void forEachHash(LongConsumer consumer) {
+        for (int slot = 0; slot < capacity; slot++) {
+            long pageOffset = getPageOffset(slot);
+            if (pageOffset != 0 && pageOffset != DELETED)
+                consumer.accept(getHash(slot));
+        }
+    }
+
+    /**
+     * Force the index to the storage device
+     */
+    @Override
+    public synchronized void save() {
+        buffer.force();
+    }
+
+    /**
+     * Move the index file, e.g. when the table file it belongs to replaces another one
+     * @param target New location of the index file
+     */
+    @Override
+    public synchronized void moveTo(File target) {
+        try {
+            Files.move(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to move index file for path: " + file + " " + e.getMessage());
+        }
+        file = target;
+    }
+
+    // Region: private methods
+    private static HashIndex create(File file, int capacity, int column) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + (long) capacity * SLOT_SIZE);
+            buffer.putInt(0, MAGIC)
+                    .putShort(4, FORMAT_VERSION)
+                    .putLong(CAPACITY_OFFSET, capacity);
+            return new HashIndex(file, buffer, column);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create index file for path: " + file + " " + e.getMessage());
+        }
+    }
+
+    /**
+     * Move the entries to a new table of the provided capacity, dropping the slots of removed entries
+     * @param newCapacity Number of slots of the new table
+     */
+    private void rebuild(int newCapacity) {
+        if (newCapacity > MAX_CAPACITY)
+            throw new RuntimeException("Index is full: " + file);
+        File temporaryFile = new File(file.getPath() + ".tmp");
+        HashIndex index = create(temporaryFile, newCapacity, column);
+        for (int slot = 0; slot < capacity; slot++) {
+            long pageOffset = getPageOffset(slot);
+            if (pageOffset != 0 && pageOffset != DELETED)
+                putSlot(index.buffer, findFreeSlot(index.buffer, newCapacity, getHash(slot)), getHash(slot), pageOffset);
+        }
+        index.buffer.put(NEXT_ROW_ID_OFFSET, buffer, NEXT_ROW_ID_OFFSET, Long.BYTES * 3);
+        index.moveTo(file);
+        buffer = index.buffer;
+        capacity = newCapacity;
+        deletedCount = 0;
+        writeEntryCounts();
+    }
+
+    private static int findFreeSlot(MappedByteBuffer buffer, int capacity, long hash) {
+        int slot = getSlot(hash, capacity);
+        while (true) {
+            long pageOffset = buffer.getLong(getSlotPosition(slot) + Long.BYTES);
+            if (pageOffset == 0 || pageOffset == DELETED)
+                return slot;
+            slot = (slot + 1) & (capacity - 1);
+        }
+    }
+
+    private static void putSlot(MappedByteBuffer buffer, int slot, long hash, long pageOffset) {
+        int position = getSlotPosition(slot);
+        buffer.putLong(position, hash).putLong(position + Long.BYTES, pageOffset);
+    }
+
+    private void writeEntryCounts() {
+        buffer.putLong(ENTRY_COUNT_OFFSET, entryCount).putLong(DELETED_COUNT_OFFSET, deletedCount);
+    }
+
+    private long getHash(int slot) {
+        return buffer.getLong(getSlotPosition(slot));
+    }
+
+    private long getPageOffset(int slot) {
+        return buffer.getLong(getSlotPosition(slot) + Long.BYTES);
+    }
+
+    private static int getSlot(long hash, int capacity) {
+        return (int) hash & (capacity - 1);
+    }
+
+    private static int getSlotPosition(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+    // End region
+}
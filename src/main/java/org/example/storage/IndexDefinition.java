@@ -0,0 +1,43 @@
+package org.example.storage;
+
+import org.example.enums.IndexType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Index created by {@code CREATE [BITMAP] INDEX}, as stored in the catalog
+ * @param name Name of the index, unique in its table
+ * @param columnName Name of the indexed column
+ * @param type Type of the index
+ * @param includedColumns Names of the columns stored in the index by {@code INCLUDE}, empty if none
+ */
+public record IndexDefinition(String name, String columnName, IndexType type, List<String> includedColumns) {
+    public IndexDefinition {
+        includedColumns = List.copyOf(includedColumns);
+    }
+
+    public IndexDefinition(String name, String columnName, IndexType type) {
+        this(name, columnName, type, List.of());
+    }
+
+    /**
+     * Checks if the index stores the values of its column and of its included columns, so queries reading only
+     * those columns are answered without reading the table file
+     * @return True if the index has included columns, False otherwise
+     */
+    public boolean isCovering() {
+        return !includedColumns.isEmpty();
+    }
+
+    /**
+     * Provides the columns whose values a covering index stores, the indexed column first
+     * @return List of column names
+     */
+    public List<String> getCoveredColumns() {
+        List<String> columns = new ArrayList<>(includedColumns.size() + 1);
+        columns.add(columnName);
+        columns.addAll(includedColumns);
+        return columns;
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.storage;
+
+import org.example.enums.StorageEngine;
+import org.example.util.Config;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Background compaction of tables using {@link StorageEngine#LOG}.
+ * Once the share of dead records (old row versions and tombstones) of a table passes
+ * {@code tinydb.compaction.deadRatio} the table is queued and merged by a single daemon thread.
+ */
+public class LogCompactor {
+    private static final double DEAD_RATIO_THRESHOLD = Config.getDouble("tinydb.compaction.deadRatio", 0.5);
+    private static final long MIN_RECORD_COUNT = Config.getLong("tinydb.compaction.minRecords", 1000);
+
+    private static final Set<String> PENDING_TABLES = ConcurrentHashMap.newKeySet();
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tinydb-log-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private LogCompactor() { }
+
+    /**
+     * Queue the table for compaction if enough of its log is dead
+     * @param tableFile Table file that has been written
+     * @param header Header of the table file after the write
+     */
+    public static void compactIfRequired(TableFile tableFile, TableFile.Header header) {
+        if (header.engine() != StorageEngine.LOG || header.recordCount() < MIN_RECORD_COUNT)
+            return;
+        if (header.getDeadRatio() < DEAD_RATIO_THRESHOLD)
+            return;
+        String path = tableFile.getFile().getAbsolutePath();
+        if (!PENDING_TABLES.add(path))
+            return;
+        EXECUTOR.execute(() -> {
+            try {
+                tableFile.compact();
+            } catch (RuntimeException e) {
+                System.out.println("Failed to compact table file for path: " + path + " " + e.getMessage());
+            } finally {
+                PENDING_TABLES.remove(path);
+            }
+        });
+    }
+}
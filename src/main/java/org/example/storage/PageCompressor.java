@@ -0,0 +1,65 @@
+package org.example.storage;
+
+import org.example.util.Config;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses and decompresses whole pages with {@link Deflater}. The level is {@code tinydb.compression.level}
+ * (1 by default, the fastest level) as pages are decompressed on every scan of the table.
+ * Deflater and Inflater hold native memory, so an instance must be closed once it is not used anymore.
+ */
+class PageCompressor implements AutoCloseable {
+    private static final int LEVEL = Config.getInt("tinydb.compression.level", Deflater.BEST_SPEED);
+
+    private final Deflater deflater = new Deflater(LEVEL);
+    private final Inflater inflater = new Inflater();
+    private byte[] output = new byte[TableFile.PAGE_SIZE];
+
+    /**
+     * Compress the page
+     * @param page Buffer holding the whole page
+     * @return Compressed page data
+     */
+    byte[] compress(ByteBuffer page) {
+        deflater.reset();
+        deflater.setInput(page.duplicate().clear());
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == output.length)
+                output = Arrays.copyOf(output, output.length * 2);
+            length += deflater.deflate(output, length, output.length - length);
+        }
+        return Arrays.copyOf(output, length);
+    }
+
+    /**
+     * Decompress a page
+     * @param data Buffer holding the compressed page data
+     * @param length Length of the compressed page data
+     * @param page Buffer receiving the whole page
+     */
+    void decompress(byte[] data, int length, ByteBuffer page) {
+        inflater.reset();
+        inflater.setInput(data, 0, length);
+        try {
+            int pageLength = inflater.inflate(page.clear());
+            page.clear();
+            if (pageLength != page.capacity() || !inflater.finished())
+                throw new IllegalStateException("Corrupted compressed page of " + pageLength + " bytes");
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted compressed page: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        deflater.end();
+        inflater.end();
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.storage;
+
+import org.example.database.Column;
+import org.example.database.Row;
+import org.example.database.RowSchema;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes rows into the binary record format and decodes them back.
+ * Every value is written in column order as a one byte tag followed by its payload. Values are encoded
+ * according to {@link Column.Type}, values that do not round trip exactly (e.g. "007" in an int column)
+ * are stored as strings so the table data never changes while being stored.
+ * Values of string columns found in the {@link ColumnDictionary} of the table are stored as their two byte code.
+ */
+public class RecordCodec {
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_INT = 1;
+    private static final byte TAG_DOUBLE = 2;
+    private static final byte TAG_STRING = 3;
+    private static final byte TAG_DICTIONARY = 4;
+
+    private RecordCodec() { }
+
+    /**
+     * Encode a row into a record
+     * @param row Row to encode
+     * @param dictionary Dictionary of the table, null to store all strings inline
+     * @return Byte array representing the record
+     */
+    public static byte[] encode(Row row, ColumnDictionary dictionary) {
+        RowSchema schema = row.getSchema();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(schema.size() * 8);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            for (int index = 0; index < schema.size(); index++) {
+                if (row.isNull(index)) {
+                    output.writeByte(TAG_NULL);
+                } else if (!row.isNumeric(index)) {
+                    int code = dictionary != null && schema.getType(index) == Column.Type.STRING
+                            ? dictionary.getOrAddCode(index, row.getString(index))
+                            : -1;
+                    if (code >= 0) {
+                        output.writeByte(TAG_DICTIONARY);
+                        output.writeShort(code);
+                    } else {
+                        writeString(output, row.getString(index));
+                    }
+                } else if (schema.getType(index) == Column.Type.INT) {
+                    output.writeByte(TAG_INT);
+                    output.writeInt(row.getInt(index));
+                } else {
+                    output.writeByte(TAG_DOUBLE);
+                    output.writeDouble(row.getDouble(index));
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to encode row: " + e.getMessage());
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode the record present at provided position
+     * @param schema Schema of the table
+     * @param buffer Buffer containing the record
+     * @param position Position of the first byte of record
+     * @param dictionary Dictionary of the table
+     * @return Decoded Row
+     */
+    public static Row decode(RowSchema schema, ByteBuffer buffer, int position, ColumnDictionary dictionary) {
+        Row.Builder row = Row.builder(schema);
+        int offset = position;
+        for (int index = 0; index < schema.size(); index++) {
+            byte tag = buffer.get(offset++);
+            switch (tag) {
+                case TAG_NULL -> row.setString(index, Row.NULL_VALUE);
+                case TAG_INT -> {
+                    row.setInt(index, buffer.getInt(offset));
+                    offset += Integer.BYTES;
+                }
+                case TAG_DOUBLE -> {
+                    row.setDouble(index, buffer.getDouble(offset));
+                    offset += Double.BYTES;
+                }
+                case TAG_STRING -> {
+                    int length = Short.toUnsignedInt(buffer.getShort(offset));
+                    offset += Short.BYTES;
+                    byte[] stringBytes = new byte[length];
+                    buffer.get(offset, stringBytes);
+                    row.setString(index, new String(stringBytes, StandardCharsets.UTF_8));
+                    offset += length;
+                }
+                case TAG_DICTIONARY -> {
+                    row.setString(index, dictionary.getValue(index, Short.toUnsignedInt(buffer.getShort(offset))));
+                    offset += Short.BYTES;
+                }
+                default -> throw new IllegalStateException("Corrupted record, unknown tag: " + tag);
+            }
+        }
+        return row.build();
+    }
+
+    /**
+     * Provides the dictionary code of a value without decoding the record
+     * @param buffer Buffer containing the record
+     * @param position Position of the first byte of record
+     * @param column Index of the column
+     * @return Code of the value, -1 if value is not stored as dictionary code
+     */
+    public static int readDictionaryCode(ByteBuffer buffer, int position, int column) {
+        int offset = position;
+        for (int index = 0; index < column; index++) {
+            byte tag = buffer.get(offset++);
+            offset += switch (tag) {
+                case TAG_NULL -> 0;
+                case TAG_INT -> Integer.BYTES;
+                case TAG_DOUBLE -> Double.BYTES;
+                case TAG_STRING -> Short.BYTES + Short.toUnsignedInt(buffer.getShort(offset));
+                case TAG_DICTIONARY -> Short.BYTES;
+                default -> throw new IllegalStateException("Corrupted record, unknown tag: " + tag);
+            };
+        }
+        return buffer.get(offset) == TAG_DICTIONARY ? Short.toUnsignedInt(buffer.getShort(offset + 1)) : -1;
+    }
+
+    // Region: private methods
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] stringBytes = value.getBytes(StandardCharsets.UTF_8);
+        if (stringBytes.length > 0xFFFF)
+            throw new RuntimeException("Value too large to store: " + stringBytes.length + " bytes");
+        output.writeByte(TAG_STRING);
+        output.writeShort(stringBytes.length);
+        output.write(stringBytes);
+    }
+    // End region
+}
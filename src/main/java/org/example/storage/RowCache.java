@@ -0,0 +1,183 @@
+package org.example.storage;
+
+import org.example.database.Row;
+import org.example.util.Config;
+
+import java.util.*;
+
+/**
+ * Process-wide cache of decoded table rows keyed by database and table name.
+ * <p>
+ * Tables are evicted in least recently used order once the estimated size of all cached rows passes the byte
+ * budget ({@code tinydb.rowCache.maxBytes}, 64 MiB by default). Rows are immutable so they are shared with
+ * readers, every reader gets its own list holding them.
+ */
+public class RowCache {
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    private static final int ROW_REFERENCE_BYTES = 8;
+
+    private static final LinkedHashMap<String, CachedTable> TABLES = new LinkedHashMap<>(16, 0.75f, true);
+    private static long maxBytes = Config.getLong("tinydb.rowCache.maxBytes", DEFAULT_MAX_BYTES);
+    private static long usedBytes = 0;
+    private static long hits = 0;
+    private static long misses = 0;
+    private static long evictions = 0;
+
+    private static class CachedTable {
+        private final List<Row> rows = new ArrayList<>();
+        private long bytes = 0;
+    }
+
+    private RowCache() { }
+
+    /**
+     * Provides the cached rows of the table
+     * @param dbName Name of the database
+     * @param tableName Name of the table
+     * @return New list holding the cached rows, null if table is not cached
+     */
+    public static synchronized List<Row> get(String dbName, String tableName) {
+        CachedTable cachedTable = TABLES.get(getKey(dbName, tableName));
+        if (cachedTable == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return new ArrayList<>(cachedTable.rows);
+    }
+
+    /**
+     * Cache all rows of the table, replacing rows cached before.
+     * Tables larger than the whole byte budget are not cached.
+     * @param dbName Name of the database
+     * @param tableName Name of the table
+     * @param rows All rows of the table
+     * @return New list holding the cached rows
+     */
+    public static synchronized List<Row> put(String dbName, String tableName, List<Row> rows) {
+        invalidate(dbName, tableName);
+        CachedTable cachedTable = new CachedTable();
+        for (Row row : rows)
+            addRow(cachedTable, row);
+        if (cachedTable.bytes <= maxBytes) {
+            TABLES.put(getKey(dbName, tableName), cachedTable);
+            usedBytes += cachedTable.bytes;
+            evictIfRequired();
+        }
+        return new ArrayList<>(cachedTable.rows);
+    }
+
+    /**
+     * Provides a cursor caching the rows read from the table file once all of them are read.
+     * Rows are only collected while their estimated size fits the byte budget, so a scan of a table larger than
+     * the budget holds no more rows than the cache would.
+     * @param dbName Name of the database
+     * @param tableName Name of the table
+     * @param rows Cursor over all rows of the table file
+     * @return RowCursor providing the same rows
+     */
+    public static RowCursor putWhileReading(String dbName, String tableName, RowCursor rows) {
+        return new RowCursor() {
+            private CachedTable cachedTable = new CachedTable();
+
+            @Override
+            protected Row fetch() {
+                if (!rows.hasNext()) {
+                    if (cachedTable != null)
+                        put(dbName, tableName, cachedTable.rows);
+                    cachedTable = null;
+                    return null;
+                }
+                Row row = rows.next();
+                if (cachedTable != null) {
+                    addRow(cachedTable, row);
+                    if (cachedTable.bytes > getMaxBytes())
+                        cachedTable = null;
+                }
+                return row;
+            }
+
+            @Override
+            public void close() {
+                cachedTable = null;
+                rows.close();
+            }
+        };
+    }
+
+    /**
+     * Add appended rows to the cached table, does nothing if table is not cached
+     * @param dbName Name of the database
+     * @param tableName Name of the table
+     * @param rows Rows appended to the table
+     */
+    public static synchronized void append(String dbName, String tableName, List<Row> rows) {
+        CachedTable cachedTable = TABLES.get(getKey(dbName, tableName));
+        if (cachedTable == null)
+            return;
+        long bytesBefore = cachedTable.bytes;
+        for (Row row : rows)
+            addRow(cachedTable, row);
+        usedBytes += cachedTable.bytes - bytesBefore;
+        evictIfRequired();
+    }
+
+    /**
+     * Remove the table from cache
+     * @param dbName Name of the database
+     * @param tableName Name of the table
+     */
+    public static synchronized void invalidate(String dbName, String tableName) {
+        CachedTable cachedTable = TABLES.remove(getKey(dbName, tableName));
+        if (cachedTable != null)
+            usedBytes -= cachedTable.bytes;
+    }
+
+    public static synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Change the byte budget of the cache, tables are evicted right away if required
+     * @param maxBytes Maximum estimated size of all cached rows
+     */
+    public static synchronized void setMaxBytes(long maxBytes) {
+        RowCache.maxBytes = maxBytes;
+        evictIfRequired();
+    }
+
+    /**
+     * Provides counters of the cache
+     * @return Map of counter name to its value
+     */
+    public static synchronized Map<String, Long> getStatus() {
+        Map<String, Long> status = new LinkedHashMap<>();
+        status.put("row_cache_hits", hits);
+        status.put("row_cache_misses", misses);
+        status.put("row_cache_evictions", evictions);
+        status.put("row_cache_tables", (long) TABLES.size());
+        status.put("row_cache_used_bytes", usedBytes);
+        status.put("row_cache_max_bytes", maxBytes);
+        return status;
+    }
+
+    // Region: private methods
+    private static String getKey(String dbName, String tableName) {
+        return dbName + "/" + tableName;
+    }
+
+    private static void addRow(CachedTable cachedTable, Row row) {
+        cachedTable.rows.add(row);
+        cachedTable.bytes += ROW_REFERENCE_BYTES + row.estimateBytes();
+    }
+
+    private static void evictIfRequired() {
+        Iterator<CachedTable> iterator = TABLES.values().iterator();
+        while (usedBytes > maxBytes && iterator.hasNext()) {
+            usedBytes -= iterator.next().bytes;
+            iterator.remove();
+            evictions++;
+        }
+    }
+    // End region
+}
@@ -0,0 +1,104 @@
+package org.example.storage;
+
+import org.example.database.Row;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Pull-based iterator over the rows of a table. Rows are produced only as they are requested, so a scan holds
+ * the rows of a single page at most whatever the size of the table. Cursors reading a file must be closed.
+ */
+public abstract class RowCursor implements Iterator<Row>, AutoCloseable {
+    private Row nextRow;
+    private boolean isExhausted = false;
+
+    /**
+     * Provides a cursor over rows already held in memory
+     * @param rows Rows to iterate
+     * @param predicate Condition rows must satisfy, null to provide all rows
+     * @return RowCursor instance
+     */
+    public static RowCursor of(Iterator<Row> rows, Predicate<Row> predicate) {
+        return new RowCursor() {
+            @Override
+            protected Row fetch() {
+                while (rows.hasNext()) {
+                    Row row = rows.next();
+                    if (predicate == null || predicate.test(row))
+                        return row;
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Provides a cursor over the rows of a cursor followed by the rows of another one
+     * @param first Cursor read first
+     * @param second Cursor read once the first one is exhausted
+     * @return RowCursor instance closing both cursors
+     */
+    public static RowCursor concat(RowCursor first, RowCursor second) {
+        return new RowCursor() {
+            @Override
+            protected Row fetch() {
+                if (first.hasNext())
+                    return first.next();
+                return second.hasNext() ? second.next() : null;
+            }
+
+            @Override
+            public void close() {
+                try {
+                    first.close();
+                } finally {
+                    second.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Provides a cursor without any row
+     * @return RowCursor instance
+     */
+    public static RowCursor empty() {
+        return of(Collections.emptyIterator(), null);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextRow == null && !isExhausted) {
+            nextRow = fetch();
+            if (nextRow == null) {
+                isExhausted = true;
+                close();
+            }
+        }
+        return nextRow != null;
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        Row row = nextRow;
+        nextRow = null;
+        return row;
+    }
+
+    /**
+     * Release the resources held by the cursor, called once the last row is read as well
+     */
+    @Override
+    public void close() { }
+
+    /**
+     * Read the next row from the source of the cursor
+     * @return Next Row, null if there is no row left
+     */
+    protected abstract Row fetch();
+}
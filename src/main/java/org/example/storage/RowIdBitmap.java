@@ -0,0 +1,258 @@
+package org.example.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Compressed set of row ids in the manner of a roaring bitmap. Row ids are grouped by their high bits into chunks of
+ * {@value #CHUNK_SIZE} ids, every chunk is stored as a sorted array of the low 16 bits of its ids while it holds at
+ * most {@value #MAX_ARRAY_CARDINALITY} of them, and as a bitmap of the whole chunk once it holds more. Sparse sets
+ * take 2 bytes per id, dense ones 1 bit per id. Not thread safe.
+ */
+public class RowIdBitmap {
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int MAX_ARRAY_CARDINALITY = 4096;
+    private static final int BITMAP_WORDS = CHUNK_SIZE / Long.SIZE;
+
+    private final TreeMap<Long, Chunk> chunks = new TreeMap<>();
+    private long cardinality = 0;
+
+    /**
+     * Row ids of a chunk, either a sorted array of their low bits or a bitmap
+     */
+    private static class Chunk {
+        private char[] values = new char[4];
+        private long[] words;
+        private int cardinality = 0;
+
+        private boolean contains(char value) {
+            if (words != null)
+                return (words[value >>> 6] & 1L << value) != 0;
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        private boolean add(char value) {
+            if (words != null) {
+                long word = words[value >>> 6];
+                if ((word & 1L << value) != 0)
+                    return false;
+                words[value >>> 6] = word | 1L << value;
+                cardinality++;
+                return true;
+            }
+            int position = Arrays.binarySearch(values, 0, cardinality, value);
+            if (position >= 0)
+                return false;
+            if (cardinality == MAX_ARRAY_CARDINALITY) {
+                toBitmap();
+                return add(value);
+            }
+            position = -position - 1;
+            if (cardinality == values.length)
+                values = Arrays.copyOf(values, Math.min(values.length * 2, MAX_ARRAY_CARDINALITY));
+            System.arraycopy(values, position, values, position + 1, cardinality - position);
+            values[position] = value;
+            cardinality++;
+            return true;
+        }
+
+        private boolean remove(char value) {
+            if (words != null) {
+                long word = words[value >>> 6];
+                if ((word & 1L << value) == 0)
+                    return false;
+                words[value >>> 6] = word & ~(1L << value);
+                cardinality--;
+                if (cardinality <= MAX_ARRAY_CARDINALITY / 2)
+                    toArray();
+                return true;
+            }
+            int position = Arrays.binarySearch(values, 0, cardinality, value);
+            if (position < 0)
+                return false;
+            System.arraycopy(values, position + 1, values, position, cardinality - position - 1);
+            cardinality--;
+            return true;
+        }
+
+        private void or(Chunk other) {
+            if (other.words == null) {
+                for (int index = 0; index < other.cardinality; index++)
+                    add(other.values[index]);
+                return;
+            }
+            if (words == null)
+                toBitmap();
+            cardinality = 0;
+            for (int index = 0; index < BITMAP_WORDS; index++) {
+                words[index] |= other.words[index];
+                cardinality += Long.bitCount(words[index]);
+            }
+        }
+
+        private void forEach(long base, LongConsumer consumer) {
+            if (words == null) {
+                for (int index = 0; index < cardinality; index++)
+                    consumer.accept(base | values[index]);
+                return;
+            }
+            for (int index = 0; index < BITMAP_WORDS; index++) {
+                long word = words[index];
+                while (word != 0) {
+                    consumer.accept(base | (long) index << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        private void toBitmap() {
+            words = new long[BITMAP_WORDS];
+            for (int index = 0; index < cardinality; index++)
+                words[values[index] >>> 6] |= 1L << values[index];
+            values = null;
+        }
+
+        private void toArray() {
+            values = new char[cardinality];
+            int position = 0;
+            for (int index = 0; index < BITMAP_WORDS; index++) {
+                long word = words[index];
+                while (word != 0) {
+                    values[position++] = (char) (index << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            words = null;
+        }
+
+        private Chunk copy() {
+            Chunk chunk = new Chunk();
+            chunk.values = values == null ? null : values.clone();
+            chunk.words = words == null ? null : words.clone();
+            chunk.cardinality = cardinality;
+            return chunk;
+        }
+    }
+
+    /**
+     * Read a bitmap written by {@link #write(DataOutput)}
+     * @param input Input positioned at the bitmap
+     * @return RowIdBitmap instance
+     */
+    public static RowIdBitmap read(DataInput input) throws IOException {
+        RowIdBitmap bitmap = new RowIdBitmap();
+        int chunkCount = input.readInt();
+        for (int chunkNumber = 0; chunkNumber < chunkCount; chunkNumber++) {
+            long key = input.readLong();
+            Chunk chunk = new Chunk();
+            chunk.cardinality = input.readInt();
+            if (input.readBoolean()) {
+                chunk.words = new long[BITMAP_WORDS];
+                for (int index = 0; index < BITMAP_WORDS; index++)
+                    chunk.words[index] = input.readLong();
+                chunk.values = null;
+            } else {
+                chunk.values = new char[chunk.cardinality];
+                for (int index = 0; index < chunk.cardinality; index++)
+                    chunk.values[index] = input.readChar();
+            }
+            bitmap.chunks.put(key, chunk);
+            bitmap.cardinality += chunk.cardinality;
+        }
+        return bitmap;
+    }
+
+    /**
+     * Write the bitmap as {@code chunk count (4)} followed by
+     * {@code key (8) | cardinality (4) | is bitmap (1) | low bits (2 each) or words (8192)} for every chunk
+     * @param output Output receiving the bitmap
+     */
+    public void write(DataOutput output) throws IOException {
+        output.writeInt(chunks.size());
+        for (Map.Entry<Long, Chunk> entry : chunks.entrySet()) {
+            Chunk chunk = entry.getValue();
+            output.writeLong(entry.getKey());
+            output.writeInt(chunk.cardinality);
+            output.writeBoolean(chunk.words != null);
+            if (chunk.words != null) {
+                for (long word : chunk.words)
+                    output.writeLong(word);
+            } else {
+                for (int index = 0; index < chunk.cardinality; index++)
+                    output.writeChar(chunk.values[index]);
+            }
+        }
+    }
+
+    public boolean contains(long rowId) {
+        Chunk chunk = chunks.get(rowId >>> CHUNK_BITS);
+        return chunk != null && chunk.contains((char) rowId);
+    }
+
+    /**
+     * Add a row id
+     * @param rowId Row id to add
+     * @return True if the row id was added, False if it was already present
+     */
+    public boolean add(long rowId) {
+        boolean isAdded = chunks.computeIfAbsent(rowId >>> CHUNK_BITS, key -> new Chunk()).add((char) rowId);
+        if (isAdded)
+            cardinality++;
+        return isAdded;
+    }
+
+    /**
+     * Remove a row id
+     * @param rowId Row id to remove
+     * @return True if the row id was removed, False if it was not present
+     */
+    public boolean remove(long rowId) {
+        Chunk chunk = chunks.get(rowId >>> CHUNK_BITS);
+        if (chunk == null || !chunk.remove((char) rowId))
+            return false;
+        if (chunk.cardinality == 0)
+            chunks.remove(rowId >>> CHUNK_BITS);
+        cardinality--;
+        return true;
+    }
+
+    /**
+     * Add all row ids of another bitmap, chunks are merged word by word once either of them is a bitmap
+     * @param other Bitmap to merge into this one
+     */
+    public void or(RowIdBitmap other) {
+        for (Map.Entry<Long, Chunk> entry : other.chunks.entrySet()) {
+            Chunk chunk = chunks.get(entry.getKey());
+            if (chunk == null) {
+                chunks.put(entry.getKey(), entry.getValue().copy());
+                cardinality += entry.getValue().cardinality;
+            } else {
+                cardinality -= chunk.cardinality;
+                chunk.or(entry.getValue());
+                cardinality += chunk.cardinality;
+            }
+        }
+    }
+
+    /**
+     * Provide every row id in increasing order
+     * @param consumer Consumer receiving the row ids
+     */
+    public void forEach(LongConsumer consumer) {
+        chunks.forEach((key, chunk) -> chunk.forEach(key << CHUNK_BITS, consumer));
+    }
+
+    public long getCardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+}
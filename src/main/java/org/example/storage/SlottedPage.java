@@ -0,0 +1,138 @@
+package org.example.storage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-size page holding variable length records.
+ * <pre>
+ * | slotCount (2) | freeStart (2) | freeEnd (2) | slot 0 | slot 1 | ... free space ... | record 1 | record 0 |
+ * </pre>
+ * Every slot is an (offset, length) pair pointing to a record. Slots grow from the start of the page
+ * and records grow from the end, the space between {@code freeStart} and {@code freeEnd} is free.
+ */
+public class SlottedPage {
+    public static final int HEADER_SIZE = 6;
+    public static final int SLOT_SIZE = 4;
+
+    private static final int SLOT_COUNT_OFFSET = 0;
+    private static final int FREE_START_OFFSET = 2;
+    private static final int FREE_END_OFFSET = 4;
+
+    private final ByteBuffer buffer;
+    private final int base;
+    private final int pageSize;
+
+    /**
+     * Wraps an existing page
+     * @param buffer Buffer containing the page
+     * @param base Position of the page inside the buffer
+     * @param pageSize Size of the page in bytes
+     */
+    public SlottedPage(ByteBuffer buffer, int base, int pageSize) {
+        this.buffer = buffer;
+        this.base = base;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Initialises an empty page inside the provided buffer
+     * @param buffer Buffer to hold the page
+     * @param base Position of the page inside the buffer
+     * @param pageSize Size of the page in bytes
+     * @return SlottedPage instance for the empty page
+     */
+    public static SlottedPage format(ByteBuffer buffer, int base, int pageSize) {
+        SlottedPage page = new SlottedPage(buffer, base, pageSize);
+        page.setSlotCount(0);
+        page.setFreeStart(HEADER_SIZE);
+        page.setFreeEnd(pageSize);
+        return page;
+    }
+
+    /**
+     * Provides the largest record that can be stored in an empty page
+     * @param pageSize Size of the page in bytes
+     * @return Maximum record length in bytes
+     */
+    public static int maxRecordLength(int pageSize) {
+        return pageSize - HEADER_SIZE - SLOT_SIZE;
+    }
+
+    public int getSlotCount() {
+        return Short.toUnsignedInt(buffer.getShort(base + SLOT_COUNT_OFFSET));
+    }
+
+    /**
+     * Provides the free space left in this page
+     * @return Number of bytes between the slot directory and the record area
+     */
+    public int getFreeSpace() {
+        return getFreeEnd() - getFreeStart();
+    }
+
+    /**
+     * Adds a record to this page
+     * @param record Encoded record
+     * @return True if record was added, False if page does not have enough free space
+     */
+    public boolean insert(byte[] record) {
+        if (getFreeSpace() < record.length + SLOT_SIZE)
+            return false;
+        int slot = getSlotCount();
+        int recordOffset = getFreeEnd() - record.length;
+        buffer.put(base + recordOffset, record);
+
+        int slotPosition = base + HEADER_SIZE + slot * SLOT_SIZE;
+        buffer.putShort(slotPosition, (short) recordOffset);
+        buffer.putShort(slotPosition + 2, (short) record.length);
+
+        setSlotCount(slot + 1);
+        setFreeStart(getFreeStart() + SLOT_SIZE);
+        setFreeEnd(recordOffset);
+        return true;
+    }
+
+    /**
+     * Provides absolute position of the record inside the underlying buffer
+     * @param slot Slot number of the record
+     * @return Position of the first byte of the record
+     */
+    public int getRecordPosition(int slot) {
+        return base + Short.toUnsignedInt(buffer.getShort(base + HEADER_SIZE + slot * SLOT_SIZE));
+    }
+
+    /**
+     * Provides the length of the record
+     * @param slot Slot number of the record
+     * @return Length of the record in bytes
+     */
+    public int getRecordLength(int slot) {
+        return Short.toUnsignedInt(buffer.getShort(base + HEADER_SIZE + slot * SLOT_SIZE + 2));
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    // Region: private methods
+    private int getFreeStart() {
+        return Short.toUnsignedInt(buffer.getShort(base + FREE_START_OFFSET));
+    }
+
+    private int getFreeEnd() {
+        return Short.toUnsignedInt(buffer.getShort(base + FREE_END_OFFSET));
+    }
+
+    private void setSlotCount(int slotCount) {
+        buffer.putShort(base + SLOT_COUNT_OFFSET, (short) slotCount);
+    }
+
+    private void setFreeStart(int freeStart) {
+        buffer.putShort(base + FREE_START_OFFSET, (short) freeStart);
+    }
+
+    private void setFreeEnd(int freeEnd) {
+        buffer.putShort(base + FREE_END_OFFSET, (short) freeEnd);
+    }
+    // End region
+}
@@ -0,0 +1,1644 @@
+package org.example.storage;
+
+import org.example.database.Column;
+import org.example.database.Condition;
+import org.example.database.Row;
+import org.example.database.RowSchema;
+import org.example.enums.Compression;
+import org.example.enums.StorageEngine;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Binary table file made of fixed-size pages.
+ * <p>
+ * Page 0 is the file header:
+ * {@code magic (4) | format version (2) | page size (4) | engine (1) | compression (1) | next row id (8) |
+ * record count (8) | live row count (8) | schema length (4) | schema}.
+ * The schema is the column definition line used by the text format. Every other page is a {@link SlottedPage}
+ * holding records made of {@code flags (1) | row id (8)} followed by the row encoded by {@link RecordCodec}.
+ * Since format version 3 string values may be stored as codes of the {@link ColumnDictionary} kept next to the
+ * table file, version 2 files only differ in not using such codes. Version 4 adds the compression to the header,
+ * version 2 and 3 headers have no compression byte.
+ * <p>
+ * When the table uses {@link Compression#DEFLATE} the pages following the header are stored as
+ * {@code compressed length (4) | compressed page}, except for the last page which stays uncompressed so appended
+ * rows can fill it in place. Such files are read sequentially instead of through the memory mapping.
+ * <p>
+ * Tables using {@link StorageEngine#LOG} never modify a record in place: updates append a new version of the row
+ * with the same row id and deletes append a tombstone. Readers keep only the newest version of every row and
+ * {@link LogCompactor} merges the log once too much of it is dead.
+ * <p>
+ * Reads and writes go through the channel {@link TableFileRegistry} keeps open for the file, it is closed before
+ * the file is replaced or deleted. Compressed files are still scanned through a channel of their own, as the scan
+ * reads the file as a stream.
+ * <p>
+ * Every primary_key or unique column has a {@link HashIndex} kept next to the table file, locating the page holding
+ * a value. Appends and LOG writes update the indexes, rewrites build the indexes of the new file as its rows are
+ * appended, and a missing or outdated index is built by a scan the first time it is needed. Equality conditions on
+ * such columns read only the page the index points to. A {@link BloomFilter} of every such column, built from its
+ * index, answers most lookups of values never stored without reading the index or the table file.
+ * <p>
+ * Indexes created by {@code CREATE INDEX} are {@link BTreeIndex} files maintained the same way. Equality, IN and
+ * range conditions on their column read only the pages holding the rows of the matching keys, unless the keys hold
+ * more than {@code tinydb.index.maxFraction} of the rows and a scan is cheaper. Indexes created with an
+ * {@code INCLUDE} clause also cache the values of their columns as {@link CoveredValues}, so queries reading only
+ * those columns with a condition on the indexed column never read the table file. The B+tree does not store those
+ * values, the cache is bounded by {@code tinydb.index.coveringMaxBytes}: a larger one is dropped, reported by
+ * {@link #getStatus()}, and such queries read the table file like any other.
+ * <p>
+ * Indexes created by {@code CREATE BITMAP INDEX} are {@link BitmapIndex} instances held in memory and written next
+ * to the table file when it is synced. A condition of any operator on their column is checked once per distinct
+ * value, the union of the bitmaps of the matching values selects the records decoded by the scan, and counting the
+ * matching rows only reads the bitmaps. Indexes changed since the last sync are also written on exit.
+ * <p>
+ * Every table file having INT or DOUBLE columns has a {@link ZoneMap} maintained the same way, scans for a range
+ * condition on such a column skip the blocks of pages whose bounds can not satisfy it.
+ * <p>
+ * All those indexes are owned by the {@link TableIndexes} of the table file, this class only provides the rows they
+ * are updated with and built from and reads the pages they point to.
+ * <p>
+ * The values of auto increment columns are allocated from the {@link TableSequences} kept next to the table file.
+ */
+public class TableFile {
+    public static final String EXTENSION = ".tdb";
+    public static final int PAGE_SIZE = 4096;
+    public static final short FORMAT_VERSION = 4;
+
+    private static final int MAGIC = 0x54444254; // "TDBT"
+    private static final int VERSION_OFFSET = 4;
+    private static final int ENGINE_OFFSET = 10;
+    private static final int COMPRESSION_OFFSET = 11;
+    private static final int NEXT_ROW_ID_OFFSET = 12;
+    private static final int SCHEMA_LENGTH_OFFSET = 36;
+    private static final int SCHEMA_OFFSET = 40;
+    private static final int V1_SCHEMA_LENGTH_OFFSET = 10;
+    private static final int V1_SCHEMA_OFFSET = 14;
+    private static final short V2_FORMAT_VERSION = 2;
+    private static final short V3_FORMAT_VERSION = 3;
+    private static final int V3_NEXT_ROW_ID_OFFSET = 11;
+    private static final int V3_SCHEMA_LENGTH_OFFSET = 35;
+    private static final int V3_SCHEMA_OFFSET = 39;
+    private static final int SCAN_BUFFER_SIZE = 1 << 16;
+    private static final int REWRITE_BATCH_ROWS = 4096;
+
+    private static final int RECORD_HEADER_SIZE = 9;
+    private static final byte FLAG_TOMBSTONE = 1;
+
+    private static final Map<String, TableFileMapping> MAPPINGS = new ConcurrentHashMap<>();
+    private static final Map<String, Object> LOCKS = new ConcurrentHashMap<>();
+    private static final Map<String, ColumnDictionary> DICTIONARIES = new ConcurrentHashMap<>();
+    private static final Map<String, TableStatistics> STATISTICS = new ConcurrentHashMap<>();
+    private static final Map<String, TableSequences> SEQUENCES = new ConcurrentHashMap<>();
+    // Header of every table file read so far, dropped whenever the header page is written
+    private static final Map<String, Header> HEADERS = new ConcurrentHashMap<>();
+    // Schema of the rows of every table file along with the header text it was parsed from
+    private static final Map<String, ParsedSchema> ROW_SCHEMAS = new ConcurrentHashMap<>();
+
+    private final File file;
+    private final String key;
+    private final ColumnDictionary dictionary;
+
+    /**
+     * Information stored in the header page of the table file
+     * @param version Format version of the file
+     * @param engine Storage engine of the table
+     * @param compression Compression of the data pages
+     * @param nextRowId Row id assigned to the next appended row
+     * @param recordCount Number of records stored, including old versions and tombstones
+     * @param liveCount Number of rows visible to readers
+     * @param schema Column definition of the table
+     */
+    public record Header(short version, StorageEngine engine, Compression compression, long nextRowId,
+                         long recordCount, long liveCount, String schema) {
+
+        /**
+         * Provides the share of records that are not visible anymore
+         * @return Value between 0 and 1
+         */
+        public double getDeadRatio() {
+            return recordCount == 0 ? 0 : (double) (recordCount - liveCount) / recordCount;
+        }
+    }
+
+    public TableFile(File file) {
+        this(file, null);
+    }
+
+    /**
+     * @param file Table file
+     * @param dictionary Dictionary to use instead of the one stored next to the file, used by temporary files
+     */
+    private TableFile(File file, ColumnDictionary dictionary) {
+        this.file = file;
+        this.key = file.getAbsolutePath();
+        this.dictionary = dictionary;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public boolean exists() {
+        return file.exists();
+    }
+
+    /**
+     * Provides the size of the table file along with its dictionary
+     * @return Size in bytes, 0 if file does not exist
+     */
+    public long getSizeBytes() {
+        return file.length() + new File(file.getPath() + ColumnDictionary.EXTENSION).length();
+    }
+
+    /**
+     * Create an empty table file having only the header page
+     * @param schema Column definition of the table
+     * @param engine Storage engine of the table
+     * @param compression Compression of the data pages
+     */
+    public void create(String schema, StorageEngine engine, Compression compression) {
+        if (engine.isAppendOnly() && compression != Compression.NONE)
+            throw new RuntimeException("Compression is not supported by storage engine: " + engine);
+        synchronized (getLock()) {
+            HEADERS.remove(getKey());
+            try (TableFileRegistry.Handle handle = TableFileRegistry.acquire(file, true)) {
+                FileChannel channel = handle.getChannel();
+                channel.truncate(0);
+                writeFully(channel, createHeaderPage(schema, engine, compression), 0);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to create table file for path: " + file + " " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Read the header page of the table file, the header is only read from the file once after every write of it
+     * @return Header instance
+     */
+    public Header readHeader() {
+        synchronized (getLock()) {
+            Header cachedHeader = HEADERS.get(getKey());
+            if (cachedHeader != null)
+                return cachedHeader;
+            try (TableFileRegistry.Handle handle = TableFileRegistry.acquire(file, false)) {
+                Header header = readHeader(handle.getChannel());
+                HEADERS.put(getKey(), header);
+                return header;
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read table file header for path: " + file + " " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Read the column definition stored in the header page
+     * @return String representing schema of the table
+     */
+    public String readSchema() {
+        return readHeader().schema();
+    }
+
+    /**
+     * Provides the schema of the rows stored in the table file, parsed once until the column definition stored in
+     * the header page changes
+     * @param parser Parses the column definition stored in the header page
+     * @return RowSchema instance
+     */
+    public RowSchema readRowSchema(Function<String, RowSchema> parser) {
+        String schemaText = readSchema();
+        ParsedSchema parsedSchema = ROW_SCHEMAS.get(getKey());
+        if (parsedSchema == null || !parsedSchema.text().equals(schemaText)) {
+            parsedSchema = new ParsedSchema(schemaText, parser.apply(schemaText));
+            ROW_SCHEMAS.put(getKey(), parsedSchema);
+        }
+        return parsedSchema.schema();
+    }
+
+    /**
+     * Read all rows stored in the table file
+     * @param schema Schema of the table
+     * @return List of Rows
+     */
+    public List<Row> readRows(RowSchema schema) {
+        List<Row> rows = new ArrayList<>();
+        forEachRow(schema, rows::add);
+        return rows;
+    }
+
+    /**
+     * Scan all rows of the table file. Records are decoded directly from the memory mapped file,
+     * the mapping is shared between scans and is only remapped when the file changes in size or is replaced.
+     * Compressed pages are inflated one at a time while the file is read.
+     * @param schema Schema of the table
+     * @param consumer Consumer receiving every visible row in storage order
+     */
+    public void forEachRow(RowSchema schema, Consumer<Row> consumer) {
+        synchronized (getLock()) {
+            forEachVisibleRecord(readHeader(), (buffer, position, flags, rowId) ->
+                    consumer.accept(RecordCodec.decode(schema, buffer, position, getDictionary())));
+        }
+    }
+
+    /**
+     * Open a cursor over the rows satisfying the predicate. Rows are decoded one page at a time as the cursor is
+     * advanced, so memory use does not depend on the size of the table. When the predicate is a {@link Condition} on
+     * a string column, values stored as dictionary codes are checked once per code and only matching records are
+     * decoded. An equality {@link Condition} on a primary_key or unique column is answered by its {@link HashIndex},
+     * a condition on a column having a {@link BTreeIndex} by that index. A range condition on a numeric column skips
+     * the pages its {@link ZoneMap} rules out.
+     * @param schema Schema of the table
+     * @param predicate Condition rows must satisfy, null to provide all rows
+     * @return RowCursor over the visible rows in storage order, must be closed if not read until the end
+     */
+    public RowCursor openCursor(RowSchema schema, Predicate<Row> predicate) {
+        synchronized (getLock()) {
+            RowCursor indexCursor = openIndexCursor(schema, predicate);
+            if (indexCursor != null)
+                return indexCursor;
+            Header header = readHeader();
+            RowMatcher matcher = new RowMatcher(schema, predicate == null ? row -> true : predicate, null);
+            return new PageCursor(openVisibleRecordReader(header, getPageFilter(header, schema, predicate)), matcher);
+        }
+    }
+
+    /**
+     * Open a cursor over the rows satisfying the predicate only if an index of the table file answers it
+     * @param schema Schema of the table
+     * @param predicate Condition rows must satisfy
+     * @return RowCursor over the matching rows in storage order, null if the table file must be scanned
+     */
+    public RowCursor openIndexCursor(RowSchema schema, Predicate<Row> predicate) {
+        synchronized (getLock()) {
+            Header header = readHeader();
+            List<Row> rows = new ArrayList<>();
+            if (isIndexLookup(header, schema, predicate)) {
+                Condition condition = (Condition) predicate;
+                findRow(header, schema, condition.getColumnIndex(), condition.getValue(), (rowId, row) -> rows.add(row));
+                return RowCursor.of(rows.iterator(), null);
+            }
+            List<StoredRow> indexedRows = findIndexedRows(header, schema, predicate);
+            if (indexedRows != null) {
+                indexedRows.forEach(storedRow -> rows.add(storedRow.row()));
+                return RowCursor.of(rows.iterator(), null);
+            }
+            RowIdBitmap rowIds = findBitmapRowIds(header, schema, predicate);
+            if (rowIds == null)
+                return null;
+            if (rowIds.isEmpty())
+                return RowCursor.of(rows.iterator(), null);
+            return new PageCursor(openVisibleRecordReader(header, getPageFilter(header, schema, predicate)),
+                    new RowMatcher(schema, predicate, rowIds));
+        }
+    }
+
+    /**
+     * Open a cursor over the rows satisfying the condition only if an index created with
+     * {@code CREATE INDEX ... INCLUDE (columns)} on the column of the condition caches every requested column. The
+     * row ids are found through the {@link BTreeIndex} of the index and rows are built from its
+     * {@link CoveredValues}, without reading the table file. Columns the index does not cache are null in the rows
+     * provided.
+     * @param schema Schema of the table
+     * @param condition Condition rows must satisfy
+     * @param columnNames Names of the columns to read
+     * @return RowCursor over the matching rows in row id order, null if no index caches those columns or its cache
+     *         was dropped for exceeding {@code tinydb.index.coveringMaxBytes}
+     */
+    public RowCursor openCoveringCursor(RowSchema schema, Condition condition, Collection<String> columnNames) {
+        synchronized (getLock()) {
+            Header header = readHeader();
+            if (header.version() != FORMAT_VERSION)
+                return null;
+            List<Row> rows = getIndexes().findCoveredRows(header, schema, condition, columnNames,
+                    getRowScanner(header, schema));
+            return rows == null ? null : RowCursor.of(rows.iterator(), null);
+        }
+    }
+
+    /**
+     * Count the rows satisfying the predicate only if a bitmap index of the table file answers it, without reading
+     * the rows
+     * @param schema Schema of the table
+     * @param predicate Condition rows must satisfy
+     * @return Number of matching rows, -1 if the rows must be read to count them
+     */
+    public long countRows(RowSchema schema, Predicate<Row> predicate) {
+        synchronized (getLock()) {
+            RowIdBitmap rowIds = findBitmapRowIds(readHeader(), schema, predicate);
+            return rowIds == null ? -1 : rowIds.getCardinality();
+        }
+    }
+
+    /**
+     * Checks if a row holds the value in a primary_key or unique column, through the index of the column
+     * @param schema Schema of the table
+     * @param column Index of the column
+     * @param value Text of the value, as provided by {@link Row#getValue(int)}
+     * @return True if a row holds the value, False otherwise
+     */
+    public boolean containsValue(RowSchema schema, int column, String value) {
+        synchronized (getLock()) {
+            boolean[] isFound = { false };
+            findRow(readHeader(), schema, column, value, (rowId, row) -> isFound[0] = true);
+            return isFound[0];
+        }
+    }
+
+    /**
+     * Append rows at the end of the table. Last page is filled first, new pages are added when required.
+     * @param rows Rows to append
+     */
+    public void appendRows(List<Row> rows) {
+        synchronized (getLock()) {
+            try (TableFileRegistry.Handle handle = TableFileRegistry.acquire(file, false)) {
+                FileChannel channel = handle.getChannel();
+                Header header = readHeader(channel);
+                if (header.version() != FORMAT_VERSION)
+                    throw new RuntimeException("Table file must be upgraded before writing: " + file);
+                long rowId = header.nextRowId();
+                List<byte[]> records = new ArrayList<>(rows.size());
+                for (Row row : rows)
+                    records.add(encodeRecord((byte) 0, rowId++, row));
+                // Statistics of an empty file start from scratch, so rewritten tables get exact statistics
+                TableStatistics statistics = rows.isEmpty() ? null : header.recordCount() == 0
+                        ? new TableStatistics(rows.get(0).getSchema().size()) : getValidStatistics(header);
+                long[] pageOffsets = header.compression() == Compression.NONE
+                        ? appendRecords(channel, records) : appendCompressedRecords(channel, records);
+                writeCounters(channel, rowId, header.recordCount() + rows.size(), header.liveCount() + rows.size());
+                if (statistics != null) {
+                    statistics.addRows(rows);
+                    saveStatistics(statistics, rowId, header.recordCount() + rows.size(), header.liveCount() + rows.size());
+                }
+                if (!rows.isEmpty())
+                    updateIndexes(header, rows.get(0).getSchema(), getRowIds(records), List.of(), rows, pageOffsets,
+                            rowId, header.recordCount() + rows.size(), header.liveCount() + rows.size());
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to append rows to table file for path: " + file + " " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Update all rows matching the predicate
+     * @param schema Schema of the table
+     * @param predicate Condition rows must satisfy to be updated
+     * @param updater Function providing the updated row from the current row
+     * @return Number of rows updated
+     */
+    public int updateRows(RowSchema schema, Predicate<Row> predicate, UnaryOperator<Row> updater) {
+        synchronized (getLock()) {
+            Header header = readHeader();
+            if (!header.engine().isAppendOnly())
+                return rewriteRows(header, schema, predicate, updater);
+
+            List<byte[]> records = new ArrayList<>();
+            List<Row> oldRows = new ArrayList<>();
+            List<Row> newRows = new ArrayList<>();
+            forEachMatchingRow(header, schema, predicate, (rowId, row) -> {
+                Row updatedRow = updater.apply(row);
+                records.add(encodeRecord((byte) 0, rowId, updatedRow));
+                oldRows.add(row);
+                newRows.add(updatedRow);
+            });
+            appendLogRecords(header, records, oldRows, newRows);
+            return records.size();
+        }
+    }
+
+    /**
+     * Delete all rows matching the predicate
+     * @param schema Schema of the table
+     * @param predicate Condition rows must satisfy to be deleted
+     * @return Number of rows deleted
+     */
+    public int deleteRows(RowSchema schema, Predicate<Row> predicate) {
+        synchronized (getLock()) {
+            Header header = readHeader();
+            if (!header.engine().isAppendOnly())
+                return rewriteRows(header, schema, predicate, row -> null);
+
+            List<byte[]> records = new ArrayList<>();
+            List<Row> deletedRows = new ArrayList<>();
+            forEachMatchingRow(header, schema, predicate, (rowId, row) -> {
+                records.add(ByteBuffer.allocate(RECORD_HEADER_SIZE).put(FLAG_TOMBSTONE).putLong(rowId).array());
+                deletedRows.add(row);
+            });
+            appendLogRecords(header, records, deletedRows, List.of());
+            return records.size();
+        }
+    }
+
+    /**
+     * Replace the content of the table file with provided rows.
+     * Data is written to a temporary file first which then replaces the table file.
+     * @param schema Column definition of the table
+     * @param engine Storage engine of the table
+     * @param compression Compression of the data pages
+     * @param rows Rows to write
+     */
+    public void rewrite(String schema, StorageEngine engine, Compression compression, List<Row> rows) {
+        synchronized (getLock()) {
+            TableFile temporaryTableFile = createTemporaryFile();
+            temporaryTableFile.create(schema, engine, compression);
+            temporaryTableFile.appendRows(rows);
+            temporaryTableFile.replace(this);
+        }
+    }
+
+    /**
+     * Merge the log into a new file holding only the newest version of every live row.
+     * Records are copied as they are, so row ids and storage order are kept.
+     */
+    public void compact() {
+        synchronized (getLock()) {
+            Header header = readHeader();
+            if (!header.engine().isAppendOnly() || header.recordCount() == header.liveCount())
+                return;
+
+            TableFileMapping mapping = getMapping();
+            List<byte[]> records = new ArrayList<>();
+            for (long location : getLiveRecordLocations().values()) {
+                long pageNumber = location >>> 16;
+                ByteBuffer region = mapping.getRegion(pageNumber);
+                SlottedPage page = new SlottedPage(region, mapping.getPageOffset(pageNumber), PAGE_SIZE);
+                int slot = (int) (location & 0xFFFF);
+                byte[] record = new byte[page.getRecordLength(slot)];
+                region.get(page.getRecordPosition(slot), record);
+                records.add(record);
+            }
+
+            TableFile temporaryTableFile = createTemporaryFile();
+            temporaryTableFile.create(header.schema(), header.engine(), header.compression());
+            try (TableFileRegistry.Handle handle = TableFileRegistry.acquire(temporaryTableFile.file, false)) {
+                FileChannel channel = handle.getChannel();
+                temporaryTableFile.appendRecords(channel, records);
+                temporaryTableFile.writeCounters(channel, header.nextRowId(), records.size(), records.size());
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to compact table file for path: " + file + " " + e.getMessage());
+            }
+            // Compaction keeps the live rows, so their statistics stay valid
+            TableStatistics statistics = getValidStatistics(header);
+            if (statistics != null)
+                temporaryTableFile.saveStatistics(statistics, header.nextRowId(), records.size(), records.size());
+            temporaryTableFile.replace(this);
+        }
+    }
+
+    /**
+     * Convert a table file written with an older format version to the current version
+     * @param schema Schema of the table
+     */
+    public void upgrade(RowSchema schema) {
+        synchronized (getLock()) {
+            Header header = readHeader();
+            if (header.version() == FORMAT_VERSION)
+                return;
+            if (header.version() == V2_FORMAT_VERSION || header.version() == V3_FORMAT_VERSION) {
+                // Version 2 and 3 records are valid version 4 records, only the header page changes
+                writeHeader(header);
+                return;
+            }
+            List<Row> rows = new ArrayList<>();
+            forEachRecord(header, (buffer, position, flags, rowId) ->
+                    rows.add(RecordCodec.decode(schema, buffer, position, getDictionary())));
+            rewrite(header.schema(), header.engine(), header.compression(), rows);
+        }
+    }
+
+    /**
+     * Provides the statistics of the rows stored in the table file. Statistics are maintained by every write,
+     * they are only computed by a scan when they are missing or do not match the table file.
+     * @param schema Schema of the table
+     * @return TableStatistics instance
+     */
+    public TableStatistics getStatistics(RowSchema schema) {
+        synchronized (getLock()) {
+            Header header = readHeader();
+            TableStatistics statistics = getValidStatistics(header);
+            if (statistics != null)
+                return statistics;
+            TableStatistics scannedStatistics = new TableStatistics(schema.size());
+            forEachVisibleRecord(header, (buffer, position, flags, rowId) ->
+                    scannedStatistics.addRow(RecordCodec.decode(schema, buffer, position, getDictionary())));
+            saveStatistics(scannedStatistics, header.nextRowId(), header.recordCount(), header.liveCount());
+            return scannedStatistics;
+        }
+    }
+
+    /**
+     * Provides the sequences of the auto increment columns of the table file, opened on first use
+     * @return TableSequences instance
+     */
+    public TableSequences getSequences() {
+        return SEQUENCES.computeIfAbsent(getKey(), key -> TableSequences.open(getSequencesFile(),
+                getColumnNames(readHeader().schema()).size()));
+    }
+
+    /**
+     * Provides counters of all table files
+     * @return Map of counter name to its value
+     */
+    public static Map<String, Long> getStatus() {
+        return TableIndexes.getStatus();
+    }
+
+    /**
+     * Force the written pages of the table file, its dictionary, its indexes, its zone map and its sequences to the
+     * storage device
+     */
+    public void sync() {
+        synchronized (getLock()) {
+            getDictionary().sync();
+            TableSequences sequences = SEQUENCES.get(getKey());
+            if (sequences != null)
+                sequences.force();
+            getIndexes().save();
+            try (TableFileRegistry.Handle handle = TableFileRegistry.acquire(file, false)) {
+                handle.getChannel().force(true);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to sync table file for path: " + file + " " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Delete the table file along with its dictionary, indexes, zone map and sequences and release its memory
+     * mapping
+     * @return True if file is deleted, False otherwise
+     */
+    public boolean delete() {
+        synchronized (getLock()) {
+            getIndexes().delete(file.exists() ? getColumnNames(readHeader().schema()) : List.of());
+            MAPPINGS.remove(getKey());
+            HEADERS.remove(getKey());
+            ROW_SCHEMAS.remove(getKey());
+            getDictionary().delete();
+            DICTIONARIES.remove(getKey());
+            STATISTICS.remove(getKey());
+            getStatisticsFile().delete();
+            SEQUENCES.remove(getKey());
+            getSequencesFile().delete();
+            TableFileRegistry.closeHandle(file);
+            return file.delete();
+        }
+    }
+
+    /**
+     * Provides the indexes created on the table file by {@code CREATE INDEX}
+     * @return List of index definitions
+     */
+    public List<IndexDefinition> getIndexDefinitions() {
+        return getIndexes().getDefinitions();
+    }
+
+    /**
+     * Set the indexes created on the table file, as stored in the catalog. Indexes are only read once a condition
+     * on their column needs them.
+     * @param definitions Definitions of the indexes
+     */
+    public void setIndexDefinitions(List<IndexDefinition> definitions) {
+        getIndexes().setDefinitions(definitions);
+    }
+
+    /**
+     * Create an index on a column, built by a scan of the table file
+     * @param schema Schema of the table
+     * @param definition Definition of the index
+     */
+    public void createIndex(RowSchema schema, IndexDefinition definition) {
+        synchronized (getLock()) {
+            getIndexes().createIndex(definition);
+            Header header = readHeader();
+            if (header.version() == FORMAT_VERSION)
+                getIndexes().buildIndex(header, schema, definition, getRowScanner(header, schema));
+        }
+    }
+
+    /**
+     * Drop an index created on the table file and delete its file
+     * @param indexName Name of the index
+     */
+    public void dropIndex(String indexName) {
+        synchronized (getLock()) {
+            getIndexes().dropIndex(indexName);
+        }
+    }
+
+    // Region: private methods
+
+    /**
+     * Receives every stored record of the table file
+     */
+    private interface RecordVisitor {
+        /**
+         * @param buffer Buffer containing the record
+         * @param position Position of the row data, i.e. just after the record header
+         * @param flags Flags of the record
+         * @param rowId Row id of the record
+         */
+        void visit(ByteBuffer buffer, int position, byte flags, long rowId);
+    }
+
+    /**
+     * Receives every visible row of the table file along with its row id
+     */
+    private interface RowVisitor {
+        void visit(long rowId, Row row);
+    }
+
+    private String getKey() {
+        return key;
+    }
+
+    private Object getLock() {
+        return LOCKS.computeIfAbsent(getKey(), key -> new Object());
+    }
+
+    private TableFileMapping getMapping() {
+        return MAPPINGS.computeIfAbsent(getKey(), key -> new TableFileMapping(file.toPath(), PAGE_SIZE));
+    }
+
+    private ColumnDictionary getDictionary() {
+        if (dictionary != null)
+            return dictionary;
+        return DICTIONARIES.computeIfAbsent(getKey(),
+                key -> ColumnDictionary.load(new File(file.getPath() + ColumnDictionary.EXTENSION)));
+    }
+
+    private File getStatisticsFile() {
+        return new File(file.getPath() + TableStatistics.EXTENSION);
+    }
+
+    private File getSequencesFile() {
+        return new File(file.getPath() + TableSequences.EXTENSION);
+    }
+
+    /**
+     * Provides the statistics of the table file if they match its header
+     * @param header Header of the table file
+     * @return TableStatistics instance, null if statistics are missing or outdated
+     */
+    private TableStatistics getValidStatistics(Header header) {
+        TableStatistics statistics = STATISTICS.computeIfAbsent(getKey(), key -> TableStatistics.load(getStatisticsFile()));
+        return statistics != null && statistics.isValidFor(header) ? statistics : null;
+    }
+
+    /**
+     * Record the statistics for the table file having the provided counters and write them next to it
+     * @param statistics Statistics of the rows of the table file
+     * @param nextRowId Next row id of the table file
+     * @param recordCount Number of records of the table file
+     * @param liveCount Number of visible rows of the table file
+     */
+    private void saveStatistics(TableStatistics statistics, long nextRowId, long recordCount, long liveCount) {
+        statistics.setCounters(nextRowId, recordCount, liveCount);
+        STATISTICS.put(getKey(), statistics);
+        statistics.save(getStatisticsFile());
+    }
+
+    private TableIndexes getIndexes() {
+        return TableIndexes.of(file);
+    }
+
+    /**
+     * Provides the scanner of the visible rows the indexes of the table file are built from
+     * @param header Header of the table file
+     * @param schema Schema of the table
+     * @return RowScanner instance
+     */
+    private TableIndexes.RowScanner getRowScanner(Header header, RowSchema schema) {
+        return visitor -> {
+            try (RecordReader reader = openVisibleRecordReader(header)) {
+                boolean[] isStopped = { false };
+                RecordVisitor recordVisitor = (buffer, position, flags, rowId) -> {
+                    if (!isStopped[0])
+                        isStopped[0] = !visitor.visit(rowId, RecordCodec.decode(schema, buffer, position, getDictionary()),
+                                reader.getPageOffset());
+                };
+                while (!isStopped[0] && reader.visitNext(recordVisitor));
+            }
+        };
+    }
+
+    /**
+     * Provides the pages a scan for the predicate must read, according to the zone map of the table file
+     * @param header Header of the table file
+     * @param schema Schema of the table
+     * @param predicate Condition rows must satisfy
+     * @return Predicate accepting the offsets of the pages that may hold matching rows, null if every page must be
+     *         read
+     */
+    private LongPredicate getPageFilter(Header header, RowSchema schema, Predicate<Row> predicate) {
+        if (header.version() != FORMAT_VERSION || !(predicate instanceof Condition condition))
+            return null;
+        return getIndexes().getPageFilter(header, schema, condition, getRowScanner(header, schema));
+    }
+
+    /**
+     * Provides the row id of every record
+     * @param records Encoded records
+     * @return Array of row ids in the order of the records
+     */
+    private static long[] getRowIds(List<byte[]> records) {
+        long[] rowIds = new long[records.size()];
+        for (int index = 0; index < records.size(); index++)
+            rowIds[index] = ByteBuffer.wrap(records.get(index)).getLong(1);
+        return rowIds;
+    }
+
+    /**
+     * Update the indexes of the primary_key and unique columns, those created by {@code CREATE INDEX} and the zone
+     * map after records are appended
+     * @param header Header of the table file before the append
+     * @param schema Schema of the table
+     * @param rowIds Row id of every appended record, removed and added rows belong to the records in order
+     * @param removedRows Rows the appended records replace or delete
+     * @param addedRows Rows the appended records hold
+     * @param pageOffsets Offset of the page holding every added row
+     * @param nextRowId Next row id of the table file after the append
+     * @param recordCount Number of records of the table file after the append
+     * @param liveCount Number of visible rows of the table file after the append
+     */
+    private void updateIndexes(Header header, RowSchema schema, long[] rowIds, List<Row> removedRows,
+                               List<Row> addedRows, long[] pageOffsets, long nextRowId, long recordCount,
+                               long liveCount) {
+        TableIndex.PageLookup pages = (pageOffset, column, value) ->
+                findInPage(header, schema, column, value, pageOffset) != null;
+        getIndexes().update(header, schema, new TableIndexes.Changes(rowIds, removedRows, addedRows, pageOffsets, pages),
+                nextRowId, recordCount, liveCount);
+    }
+
+    /**
+     * Checks if the predicate is answered by an index, i.e. it is an equality on a primary_key or unique column
+     * @param header Header of the table file
+     * @param schema Schema of the table
+     * @param predicate Condition rows must satisfy
+     * @return True if the index of the column is used, False otherwise
+     */
+    private static boolean isIndexLookup(Header header, RowSchema schema, Predicate<Row> predicate) {
+        return header.version() == FORMAT_VERSION && predicate instanceof Condition condition
+                && condition.isEquality() && schema.getColumn(condition.getColumnIndex()).isUnique();
+    }
+
+    /**
+     * Find the row holding a value in a primary_key or unique column through the index of the column, unless the
+     * bloom filter of the column tells no row holds it
+     * @param header Header of the table file
+     * @param schema Schema of the table
+     * @param column Index of the column
+     * @param value Text of the value
+     * @param visitor Visitor receiving the row, not called if no row holds the value
+     */
+    private void findRow(Header header, RowSchema schema, int column, String value, RowVisitor visitor) {
+        StoredRow[] storedRow = { null };
+        boolean isFound = getIndexes().findValue(header, schema, column, value, getRowScanner(header, schema),
+                pageOffset -> {
+                    storedRow[0] = findInPage(header, schema, column, value, pageOffset);
+                    return storedRow[0] != null;
+                });
+        if (isFound)
+            visitor.visit(storedRow[0].rowId(), storedRow[0].row());
+    }
+
+    /**
+     * Row along with its row id
+     */
+    private record StoredRow(long rowId, Row row) { }
+
+    /**
+     * Schema of the rows along with the column definition of the header page it was parsed from
+     */
+    private record ParsedSchema(String text, RowSchema schema) { }
+
+    /**
+     * Find the newest record of a page holding a value in the column. As values of unique columns are only
+     * reused once the row holding them changed, the newest such record is the live one.
+     * @param header Header of the table file
+     * @param schema Schema of the table
+     * @param column Index of the column
+     * @param value Text of the value
+     * @param pageOffset Offset of the page in the table file
+     * @return StoredRow instance, null if no record of the page holds the value
+     */
+    private StoredRow findInPage(Header header, RowSchema schema, int column, String value, long pageOffset) {
+        StoredRow[] storedRow = { null };
+        RecordVisitor visitor = (buffer, position, flags, rowId) -> {
+            if ((flags & FLAG_TOMBSTONE) != 0)
+                return;
+            Row row = RecordCodec.decode(schema, buffer, position, getDictionary());
+            if (row.getValue(column).equals(value))
+                storedRow[0] = new StoredRow(rowId, row);
+        };
+        visitPageAt(header, pageOffset, visitor);
+        return storedRow[0];
+    }
+
+    /**
+     * Find the rows satisfying a condition through the {@link BTreeIndex} of its column. The records of the
+     * entries found are read page by page, only the newest version of a row on its page is kept.
+     * @param header Header of the table file
+     * @param schema Schema of the table
+     * @param predicate Condition rows must satisfy
+     * @return Rows satisfying the condition in row id order, null if no index answers the condition or the
+     *         table file should rather be scanned
+     */
+    private List<StoredRow> findIndexedRows(Header header, RowSchema schema, Predicate<Row> predicate) {
+        if (header.version() != FORMAT_VERSION || !(predicate instanceof Condition condition))
+            return null;
+        List<TableIndexes.IndexEntry> entries = getIndexes().findIndexEntries(header, schema, condition,
+                getRowScanner(header, schema));
+        if (entries == null)
+            return null;
+
+        entries.sort(Comparator.comparingLong(TableIndexes.IndexEntry::pageOffset)
+                .thenComparingLong(TableIndexes.IndexEntry::rowId));
+        List<StoredRow> rows = new ArrayList<>();
+        int start = 0;
+        while (start < entries.size()) {
+            long pageOffset = entries.get(start).pageOffset();
+            Set<Long> rowIds = new HashSet<>();
+            for (; start < entries.size() && entries.get(start).pageOffset() == pageOffset; start++)
+                rowIds.add(entries.get(start).rowId());
+            Map<Long, Row> pageRows = new LinkedHashMap<>();
+            visitPageAt(header, pageOffset, (buffer, position, flags, rowId) -> {
+                if (!rowIds.contains(rowId))
+                    return;
+                if ((flags & FLAG_TOMBSTONE) != 0)
+                    pageRows.remove(rowId);
+                else
+                    pageRows.put(rowId, RecordCodec.decode(schema, buffer, position, getDictionary()));
+            });
+            pageRows.forEach((rowId, row) -> {
+                if (condition.test(row))
+                    rows.add(new StoredRow(rowId, row));
+            });
+        }
+        rows.sort(Comparator.comparingLong(StoredRow::rowId));
+        return rows;
+    }
+
+    /**
+     * Find the row ids of the rows satisfying a condition through the {@link BitmapIndex} of its column. The
+     * condition is tested once against every distinct value of the column, so any operator is answered exactly.
+     * @param header Header of the table file
+     * @param schema Schema of the table
+     * @param predicate Condition rows must satisfy
+     * @return Row ids of the matching rows, null if no bitmap index answers the condition
+     */
+    private RowIdBitmap findBitmapRowIds(Header header, RowSchema schema, Predicate<Row> predicate) {
+        if (header.version() != FORMAT_VERSION || !(predicate instanceof Condition condition))
+            return null;
+        return getIndexes().findRowIds(header, schema, condition, getRowScanner(header, schema));
+    }
+
+    /**
+     * Visit the records of the page stored at an offset of the table file
+     * @param header Header of the table file
+     * @param pageOffset Offset of the page in the table file
+     * @param visitor Visitor receiving the records
+     */
+    private void visitPageAt(Header header, long pageOffset, RecordVisitor visitor) {
+        if (header.compression() == Compression.NONE) {
+            TableFileMapping mapping = getMapping();
+            long pageNumber = pageOffset / PAGE_SIZE;
+            if (pageNumber < mapping.refresh())
+                visitPage(mapping.getRegion(pageNumber), mapping.getPageOffset(pageNumber), visitor);
+            return;
+        }
+        try (TableFileRegistry.Handle handle = TableFileRegistry.acquire(file, false);
+             PageCompressor compressor = new PageCompressor()) {
+            FileChannel channel = handle.getChannel();
+            ByteBuffer pageBuffer = ByteBuffer.allocate(PAGE_SIZE);
+            if (pageOffset == channel.size() - PAGE_SIZE) {
+                readFully(channel, pageBuffer, pageOffset);
+            } else {
+                ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+                readFully(channel, length, pageOffset);
+                ByteBuffer data = ByteBuffer.allocate(length.getInt(0));
+                readFully(channel, data, pageOffset + Integer.BYTES);
+                compressor.decompress(data.array(), data.capacity(), pageBuffer);
+            }
+            visitPage(pageBuffer, 0, visitor);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read table file for path: " + file + " " + e.getMessage());
+        }
+    }
+
+    /**
+     * Provides the names of the columns of a column definition line, indexes are named after their column
+     * @param schema Column definition of the table
+     * @return List of column names
+     */
+    private static List<String> getColumnNames(String schema) {
+        List<String> columnNames = new ArrayList<>();
+        if (schema.isBlank())
+            return columnNames;
+        for (String columnDefinition : schema.split(" \\| "))
+            columnNames.add(columnDefinition.split(": ", 2)[0]);
+        return columnNames;
+    }
+
+    /**
+     * Provides the temporary file used to replace this table file, sharing the dictionary and the index definitions
+     * of this table
+     * @return TableFile instance
+     */
+    private TableFile createTemporaryFile() {
+        TableFile temporaryFile = new TableFile(new File(file.getPath() + ".tmp"), getDictionary());
+        temporaryFile.setIndexDefinitions(getIndexDefinitions());
+        return temporaryFile;
+    }
+
+    /**
+     * Visit every record in storage order, including old row versions and tombstones
+     * @param header Header of the table file
+     * @param visitor Visitor receiving the records
+     */
+    private void forEachRecord(Header header, RecordVisitor visitor) {
+        try (RecordReader reader = header.compression() == Compression.NONE
+                ? new MappedPageReader(header.version() >= 2, null) : new CompressedPageReader(null)) {
+            while (reader.visitNext(visitor));
+        }
+    }
+
+    private static void visitPage(ByteBuffer buffer, int offset, RecordVisitor visitor) {
+        SlottedPage page = new SlottedPage(buffer, offset, PAGE_SIZE);
+        for (int slot = 0; slot < page.getSlotCount(); slot++) {
+            int position = page.getRecordPosition(slot);
+            visitor.visit(buffer, position + RECORD_HEADER_SIZE, buffer.get(position), buffer.getLong(position + 1));
+        }
+    }
+
+    /**
+     * Provides the location of the newest version of every live row
+     * @return Map of row id to {@code pageNumber << 16 | slot}, in the order rows were first inserted
+     */
+    private Map<Long, Long> getLiveRecordLocations() {
+        Map<Long, Long> locations = new LinkedHashMap<>();
+        TableFileMapping mapping = getMapping();
+        long pageCount = mapping.refresh();
+        for (long pageNumber = 1; pageNumber < pageCount; pageNumber++) {
+            ByteBuffer region = mapping.getRegion(pageNumber);
+            SlottedPage page = new SlottedPage(region, mapping.getPageOffset(pageNumber), PAGE_SIZE);
+            for (int slot = 0; slot < page.getSlotCount(); slot++) {
+                int position = page.getRecordPosition(slot);
+                long rowId = region.getLong(position + 1);
+                if ((region.get(position) & FLAG_TOMBSTONE) != 0)
+                    locations.remove(rowId);
+                else
+                    locations.put(rowId, pageNumber << 16 | slot);
+            }
+        }
+        return locations;
+    }
+
+    /**
+     * Visit the newest version of every live row in the order rows were first inserted
+     * @param pageFilter Accepts the offsets of the pages to read, null to read every page
+     * @param visitor Visitor receiving the records
+     */
+    private void forEachLiveRecord(LongPredicate pageFilter, RecordVisitor visitor) {
+        try (RecordReader reader = new LiveRecordReader(pageFilter)) {
+            while (reader.visitNext(visitor));
+        }
+    }
+
+    /**
+     * Visit every record holding a visible row
+     * @param header Header of the table file
+     * @param visitor Visitor receiving the records
+     */
+    private void forEachVisibleRecord(Header header, RecordVisitor visitor) {
+        try (RecordReader reader = openVisibleRecordReader(header)) {
+            while (reader.visitNext(visitor));
+        }
+    }
+
+    /**
+     * Provides the reader of the records holding a visible row
+     * @param header Header of the table file
+     * @return RecordReader instance, must be closed
+     */
+    private RecordReader openVisibleRecordReader(Header header) {
+        return openVisibleRecordReader(header, null);
+    }
+
+    /**
+     * Provides the reader of the records holding a visible row on the pages accepted by a filter
+     * @param header Header of the table file
+     * @param pageFilter Accepts the offsets of the pages to read, null to read every page
+     * @return RecordReader instance, must be closed
+     */
+    private RecordReader openVisibleRecordReader(Header header, LongPredicate pageFilter) {
+        if (header.engine().isAppendOnly())
+            return new LiveRecordReader(pageFilter);
+        if (header.compression() != Compression.NONE)
+            return new CompressedPageReader(pageFilter);
+        return new MappedPageReader(header.version() >= 2, pageFilter);
+    }
+
+    private void forEachMatchingRow(Header header, RowSchema schema, Predicate<Row> predicate, RowVisitor visitor) {
+        if (isIndexLookup(header, schema, predicate)) {
+            Condition condition = (Condition) predicate;
+            findRow(header, schema, condition.getColumnIndex(), condition.getValue(), visitor);
+            return;
+        }
+        List<StoredRow> indexedRows = findIndexedRows(header, schema, predicate);
+        if (indexedRows != null) {
+            indexedRows.forEach(storedRow -> visitor.visit(storedRow.rowId(), storedRow.row()));
+            return;
+        }
+        RowIdBitmap rowIds = findBitmapRowIds(header, schema, predicate);
+        if (rowIds != null && rowIds.isEmpty())
+            return;
+        RowMatcher matcher = new RowMatcher(schema, predicate, rowIds);
+        forEachLiveRecord(getPageFilter(header, schema, predicate), (buffer, position, flags, rowId) -> {
+            Row row = matcher.match(buffer, position, rowId);
+            if (row != null)
+                visitor.visit(rowId, row);
+        });
+    }
+
+    /**
+     * Tests records against a predicate, using dictionary codes instead of decoding the record when possible
+     */
+    private class RowMatcher {
+        private final RowSchema schema;
+        private final Predicate<Row> predicate;
+        private final RowIdBitmap rowIds;
+        private final Condition condition;
+        private final BitSet testedCodes = new BitSet();
+        private final BitSet matchingCodes = new BitSet();
+
+        /**
+         * @param schema Schema of the table
+         * @param predicate Condition rows must satisfy
+         * @param rowIds Row ids of the only rows that may satisfy the predicate, null if any row may
+         */
+        private RowMatcher(RowSchema schema, Predicate<Row> predicate, RowIdBitmap rowIds) {
+            this.schema = schema;
+            this.predicate = predicate;
+            this.rowIds = rowIds;
+            this.condition = predicate instanceof Condition condition
+                    && schema.getType(condition.getColumnIndex()) == Column.Type.STRING ? condition : null;
+        }
+
+        /**
+         * @param buffer Buffer containing the record
+         * @param position Position of the row data
+         * @param rowId Row id of the record
+         * @return Decoded Row if it satisfies the predicate, otherwise null
+         */
+        private Row match(ByteBuffer buffer, int position, long rowId) {
+            if (rowIds != null) {
+                // The bitmap only selects the records worth decoding, the predicate still decides
+                if (!rowIds.contains(rowId))
+                    return null;
+                Row row = RecordCodec.decode(schema, buffer, position, getDictionary());
+                return predicate.test(row) ? row : null;
+            }
+            if (condition != null) {
+                int column = condition.getColumnIndex();
+                int code = RecordCodec.readDictionaryCode(buffer, position, column);
+                if (code >= 0) {
+                    if (!testedCodes.get(code)) {
+                        testedCodes.set(code);
+                        if (condition.testString(getDictionary().getValue(column, code)))
+                            matchingCodes.set(code);
+                    }
+                    return matchingCodes.get(code) ? RecordCodec.decode(schema, buffer, position, getDictionary()) : null;
+                }
+            }
+            Row row = RecordCodec.decode(schema, buffer, position, getDictionary());
+            return predicate.test(row) ? row : null;
+        }
+    }
+
+    /**
+     * Rewrite the table file with the matching rows updated. Rows are streamed from the table file to the new file
+     * {@value #REWRITE_BATCH_ROWS} at a time, nothing is written if no row matches.
+     * @param header Header of the table file
+     * @param schema Schema of the table
+     * @param predicate Condition rows must satisfy to be updated
+     * @param updater Function providing the updated row, null to delete the row
+     * @return Number of rows matching the predicate
+     */
+    private int rewriteRows(Header header, RowSchema schema, Predicate<Row> predicate, UnaryOperator<Row> updater) {
+        try (RowCursor matchingRows = openCursor(schema, predicate)) {
+            if (!matchingRows.hasNext())
+                return 0;
+        }
+
+        int rowsAffected = 0;
+        TableFile temporaryTableFile = createTemporaryFile();
+        temporaryTableFile.create(header.schema(), header.engine(), header.compression());
+        try (RowCursor rows = openCursor(schema, null)) {
+            List<Row> batch = new ArrayList<>(REWRITE_BATCH_ROWS);
+            while (rows.hasNext()) {
+                Row row = rows.next();
+                if (predicate.test(row)) {
+                    row = updater.apply(row);
+                    rowsAffected++;
+                }
+                if (row != null)
+                    batch.add(row);
+                if (batch.size() == REWRITE_BATCH_ROWS) {
+                    temporaryTableFile.appendRows(batch);
+                    batch.clear();
+                }
+            }
+            temporaryTableFile.appendRows(batch);
+        }
+        temporaryTableFile.replace(this);
+        return rowsAffected;
+    }
+
+    /**
+     * Reads the records of the table file one page at a time
+     */
+    private interface RecordReader extends AutoCloseable {
+        /**
+         * Visit the records of the next page
+         * @param visitor Visitor receiving the records
+         * @return False if there is no page left
+         */
+        boolean visitNext(RecordVisitor visitor);
+
+        /**
+         * Provides the offset in the table file of the page holding the records visited last
+         * @return Offset of the page
+         */
+        long getPageOffset();
+
+        @Override
+        default void close() { }
+    }
+
+    /**
+     * Reads the pages of an uncompressed table file in place from its memory mapping
+     */
+    private class MappedPageReader implements RecordReader {
+        private final TableFileMapping mapping = getMapping();
+        private final long pageCount = mapping.refresh();
+        private final boolean hasRecordHeader;
+        private final LongPredicate pageFilter;
+        private long pageNumber = 1;
+        private long implicitRowId = 0;
+
+        /**
+         * @param hasRecordHeader True if records start with their flags and row id, False for version 1 files
+         * @param pageFilter Accepts the offsets of the pages to read, null to read every page. Only valid for files
+         *                   having record headers, as row ids of version 1 files are counted as records are read.
+         */
+        private MappedPageReader(boolean hasRecordHeader, LongPredicate pageFilter) {
+            this.hasRecordHeader = hasRecordHeader;
+            this.pageFilter = pageFilter;
+        }
+
+        @Override
+        public long getPageOffset() {
+            return (pageNumber - 1) * PAGE_SIZE;
+        }
+
+        @Override
+        public boolean visitNext(RecordVisitor visitor) {
+            while (pageFilter != null && pageNumber < pageCount && !pageFilter.test(pageNumber * PAGE_SIZE))
+                pageNumber++;
+            if (pageNumber >= pageCount)
+                return false;
+            ByteBuffer region = mapping.getRegion(pageNumber);
+            int offset = mapping.getPageOffset(pageNumber++);
+            if (hasRecordHeader) {
+                visitPage(region, offset, visitor);
+                return true;
+            }
+            SlottedPage page = new SlottedPage(region, offset, PAGE_SIZE);
+            for (int slot = 0; slot < page.getSlotCount(); slot++)
+                visitor.visit(region, page.getRecordPosition(slot), (byte) 0, implicitRowId++);
+            return true;
+        }
+    }
+
+    /**
+     * Reads a compressed table file sequentially, every page is inflated into the same buffer so a scan holds
+     * a single page in memory whatever the size of the table
+     */
+    private class CompressedPageReader implements RecordReader {
+        private final FileChannel channel;
+        private final DataInputStream input;
+        private final PageCompressor compressor = new PageCompressor();
+        private final ByteBuffer pageBuffer = ByteBuffer.allocate(PAGE_SIZE);
+        private final long lastPageOffset;
+        private final LongPredicate pageFilter;
+        private byte[] data = new byte[PAGE_SIZE];
+        private long offset = PAGE_SIZE;
+        private long pageOffset = PAGE_SIZE;
+
+        /**
+         * @param pageFilter Accepts the offsets of the pages to read, null to read every page. Pages not accepted
+         *                   are skipped without being inflated.
+         */
+        private CompressedPageReader(LongPredicate pageFilter) {
+            this.pageFilter = pageFilter;
+            try {
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                lastPageOffset = channel.size() - PAGE_SIZE;
+                input = new DataInputStream(new BufferedInputStream(
+                        Channels.newInputStream(channel.position(PAGE_SIZE)), SCAN_BUFFER_SIZE));
+            } catch (IOException e) {
+                compressor.close();
+                throw new RuntimeException("Failed to read table file for path: " + file + " " + e.getMessage());
+            }
+        }
+
+        @Override
+        public long getPageOffset() {
+            return pageOffset;
+        }
+
+        @Override
+        public boolean visitNext(RecordVisitor visitor) {
+            try {
+                while (pageFilter != null && offset < lastPageOffset && !pageFilter.test(offset)) {
+                    int length = input.readInt();
+                    input.skipNBytes(length);
+                    offset += Integer.BYTES + length;
+                }
+                if (lastPageOffset < PAGE_SIZE || offset > lastPageOffset
+                        || (pageFilter != null && !pageFilter.test(offset)))
+                    return false;
+                pageOffset = offset;
+                if (offset == lastPageOffset) {
+                    input.readFully(pageBuffer.array());
+                    offset += PAGE_SIZE;
+                } else {
+                    int length = input.readInt();
+                    if (length > data.length)
+                        data = new byte[length];
+                    input.readFully(data, 0, length);
+                    compressor.decompress(data, length, pageBuffer);
+                    offset += Integer.BYTES + length;
+                    if (offset > lastPageOffset)
+                        throw new IllegalStateException("Corrupted compressed page at offset " + offset);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read table file for path: " + file + " " + e.getMessage());
+            }
+            visitPage(pageBuffer, 0, visitor);
+            return true;
+        }
+
+        @Override
+        public void close() {
+            compressor.close();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to close table file for path: " + file + " " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads the newest version of every live row of a LOG table, one record at a time in the order rows were first
+     * inserted. Only the location of every live row is held in memory.
+     */
+    private class LiveRecordReader implements RecordReader {
+        private final TableFileMapping mapping = getMapping();
+        private final Iterator<Map.Entry<Long, Long>> locations = getLiveRecordLocations().entrySet().iterator();
+        private final LongPredicate pageFilter;
+        private final Map<Long, Boolean> acceptedPages = new HashMap<>();
+        private long pageNumber = 0;
+
+        /**
+         * @param pageFilter Accepts the offsets of the pages to read, null to read every page
+         */
+        private LiveRecordReader(LongPredicate pageFilter) {
+            this.pageFilter = pageFilter;
+        }
+
+        @Override
+        public long getPageOffset() {
+            return pageNumber * PAGE_SIZE;
+        }
+
+        @Override
+        public boolean visitNext(RecordVisitor visitor) {
+            Map.Entry<Long, Long> entry;
+            do {
+                if (!locations.hasNext())
+                    return false;
+                entry = locations.next();
+            } while (pageFilter != null && !acceptedPages.computeIfAbsent(entry.getValue() >>> 16,
+                    number -> pageFilter.test(number * PAGE_SIZE)));
+            pageNumber = entry.getValue() >>> 16;
+            ByteBuffer region = mapping.getRegion(pageNumber);
+            SlottedPage page = new SlottedPage(region, mapping.getPageOffset(pageNumber), PAGE_SIZE);
+            int position = page.getRecordPosition((int) (entry.getValue() & 0xFFFF));
+            visitor.visit(region, position + RECORD_HEADER_SIZE, region.get(position), entry.getKey());
+            return true;
+        }
+    }
+
+    /**
+     * Cursor decoding the matching rows of the next page only once the rows of the previous page are consumed
+     */
+    private class PageCursor extends RowCursor {
+        private final RecordReader reader;
+        private final ArrayDeque<Row> pageRows = new ArrayDeque<>();
+        private final RecordVisitor collector;
+
+        private PageCursor(RecordReader reader, RowMatcher matcher) {
+            this.reader = reader;
+            this.collector = (buffer, position, flags, rowId) -> {
+                Row row = matcher.match(buffer, position, rowId);
+                if (row != null)
+                    pageRows.add(row);
+            };
+        }
+
+        @Override
+        protected Row fetch() {
+            while (pageRows.isEmpty()) {
+                synchronized (getLock()) {
+                    if (!reader.visitNext(collector))
+                        return null;
+                }
+            }
+            return pageRows.poll();
+        }
+
+        @Override
+        public void close() {
+            reader.close();
+        }
+    }
+
+    /**
+     * Append row versions or tombstones to a LOG table and request compaction when required
+     * @param header Header of the table file
+     * @param records Records to append
+     * @param removedRows Rows the records replace or delete
+     * @param addedRows New versions of the rows the records hold
+     */
+    private void appendLogRecords(Header header, List<byte[]> records, List<Row> removedRows, List<Row> addedRows) {
+        if (records.isEmpty())
+            return;
+        TableStatistics statistics = getValidStatistics(header);
+        long liveCount = header.liveCount() - removedRows.size() + addedRows.size();
+        long[] pageOffsets;
+        try (TableFileRegistry.Handle handle = TableFileRegistry.acquire(file, false)) {
+            FileChannel channel = handle.getChannel();
+            pageOffsets = appendRecords(channel, records);
+            writeCounters(channel, header.nextRowId(), header.recordCount() + records.size(), liveCount);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to append records to table file for path: " + file + " " + e.getMessage());
+        }
+        if (statistics != null) {
+            statistics.removeRows(removedRows);
+            statistics.addRows(addedRows);
+            saveStatistics(statistics, header.nextRowId(), header.recordCount() + records.size(), liveCount);
+        }
+        updateIndexes(header, removedRows.get(0).getSchema(), getRowIds(records), removedRows, addedRows, pageOffsets,
+                header.nextRowId(), header.recordCount() + records.size(), liveCount);
+        LogCompactor.compactIfRequired(this, readHeader());
+    }
+
+    /**
+     * Append records to an uncompressed table file
+     * @param channel Channel of the table file
+     * @param records Records to append
+     * @return Offset of the page every record is stored in
+     */
+    private long[] appendRecords(FileChannel channel, List<byte[]> records) throws IOException {
+        // Dictionary codes used by the records must be stored before the records
+        getDictionary().flush();
+        long pageNumber = channel.size() / PAGE_SIZE - 1;
+        ByteBuffer pageBuffer = ByteBuffer.allocate(PAGE_SIZE);
+        SlottedPage page;
+        if (pageNumber >= 1) {
+            readFully(channel, pageBuffer, pageNumber * PAGE_SIZE);
+            page = new SlottedPage(pageBuffer, 0, PAGE_SIZE);
+        } else {
+            pageNumber = 1;
+            page = SlottedPage.format(pageBuffer, 0, PAGE_SIZE);
+        }
+
+        long[] pageOffsets = new long[records.size()];
+        for (int index = 0; index < records.size(); index++) {
+            byte[] record = records.get(index);
+            if (!page.insert(record)) {
+                writeFully(channel, pageBuffer, pageNumber * PAGE_SIZE);
+                pageNumber++;
+                page = SlottedPage.format(pageBuffer, 0, PAGE_SIZE);
+                page.insert(record);
+            }
+            pageOffsets[index] = pageNumber * PAGE_SIZE;
+        }
+        writeFully(channel, pageBuffer, pageNumber * PAGE_SIZE);
+        return pageOffsets;
+    }
+
+    /**
+     * Append records to a compressed table file. Records fill the uncompressed last page, once it is full it is
+     * overwritten by its compressed form and a new last page is started right after it, so a page keeps its offset.
+     * @param channel Channel of the table file
+     * @param records Records to append
+     * @return Offset of the page every record is stored in
+     */
+    private long[] appendCompressedRecords(FileChannel channel, List<byte[]> records) throws IOException {
+        getDictionary().flush();
+        ByteBuffer pageBuffer = ByteBuffer.allocate(PAGE_SIZE);
+        long pageOffset = channel.size() - PAGE_SIZE;
+        SlottedPage page;
+        if (pageOffset >= PAGE_SIZE) {
+            readFully(channel, pageBuffer, pageOffset);
+            page = new SlottedPage(pageBuffer, 0, PAGE_SIZE);
+        } else {
+            pageOffset = PAGE_SIZE;
+            page = SlottedPage.format(pageBuffer, 0, PAGE_SIZE);
+        }
+
+        long[] pageOffsets = new long[records.size()];
+        try (PageCompressor compressor = new PageCompressor()) {
+            for (int index = 0; index < records.size(); index++) {
+                byte[] record = records.get(index);
+                if (!page.insert(record)) {
+                    byte[] data = compressor.compress(pageBuffer);
+                    ByteBuffer compressedPage = ByteBuffer.allocate(Integer.BYTES + data.length)
+                            .putInt(data.length)
+                            .put(data);
+                    writeFully(channel, compressedPage, pageOffset);
+                    pageOffset += compressedPage.capacity();
+                    page = SlottedPage.format(pageBuffer, 0, PAGE_SIZE);
+                    page.insert(record);
+                }
+                pageOffsets[index] = pageOffset;
+            }
+        }
+        writeFully(channel, pageBuffer, pageOffset);
+        return pageOffsets;
+    }
+
+    /**
+     * Write the header page in the current format, keeping the content of the provided header
+     * @param header Header of the table file
+     */
+    private void writeHeader(Header header) {
+        try (TableFileRegistry.Handle handle = TableFileRegistry.acquire(file, false)) {
+            FileChannel channel = handle.getChannel();
+            writeFully(channel, createHeaderPage(header.schema(), header.engine(), header.compression()), 0);
+            writeCounters(channel, header.nextRowId(), header.recordCount(), header.liveCount());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to upgrade table file for path: " + file + " " + e.getMessage());
+        }
+    }
+
+    private void writeCounters(FileChannel channel, long nextRowId, long recordCount, long liveCount) throws IOException {
+        HEADERS.remove(getKey());
+        ByteBuffer counters = ByteBuffer.allocate(Long.BYTES * 3)
+                .putLong(nextRowId)
+                .putLong(recordCount)
+                .putLong(liveCount);
+        counters.flip();
+        while (counters.hasRemaining())
+            channel.write(counters, NEXT_ROW_ID_OFFSET + counters.position());
+    }
+
+    /**
+     * Atomically move this file over the target table file, the statistics and indexes of this file replace those of
+     * the target
+     * @param target Table file to replace
+     */
+    private void replace(TableFile target) {
+        Set<String> columnNames = new LinkedHashSet<>(getColumnNames(readHeader().schema()));
+        if (target.exists())
+            columnNames.addAll(getColumnNames(target.readHeader().schema()));
+        // Channels kept open would still point to the files being replaced
+        TableFileRegistry.closeHandle(file);
+        HEADERS.remove(getKey());
+        HEADERS.remove(target.getKey());
+        ROW_SCHEMAS.remove(getKey());
+        ROW_SCHEMAS.remove(target.getKey());
+        TableFileRegistry.closeHandle(target.file);
+        try {
+            Files.move(file.toPath(), target.file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            target.getStatisticsFile().delete();
+            if (getStatisticsFile().exists())
+                Files.move(getStatisticsFile().toPath(), target.getStatisticsFile().toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to replace table file for path: " + target.file + " " + e.getMessage());
+        } finally {
+            TableStatistics statistics = STATISTICS.remove(getKey());
+            if (statistics != null)
+                STATISTICS.put(target.getKey(), statistics);
+            else
+                STATISTICS.remove(target.getKey());
+            getIndexes().moveTo(target.getIndexes(), columnNames);
+        }
+    }
+
+    private ByteBuffer createHeaderPage(String schema, StorageEngine engine, Compression compression) {
+        byte[] schemaBytes = schema.getBytes(StandardCharsets.UTF_8);
+        if (SCHEMA_OFFSET + schemaBytes.length > PAGE_SIZE)
+            throw new RuntimeException("Table definition is too large to store: " + schemaBytes.length + " bytes");
+        ByteBuffer header = ByteBuffer.allocate(PAGE_SIZE);
+        header.putInt(MAGIC)
+                .putShort(FORMAT_VERSION)
+                .putInt(PAGE_SIZE)
+                .put((byte) engine.ordinal())
+                .put((byte) compression.ordinal())
+                .putLong(0)
+                .putLong(0)
+                .putLong(0)
+                .putInt(schemaBytes.length)
+                .put(schemaBytes);
+        return header.clear();
+    }
+
+    private Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(PAGE_SIZE);
+        readFully(channel, header, 0);
+        if (header.getInt(0) != MAGIC)
+            throw new RuntimeException("Not a TinyDb table file: " + file);
+        short version = header.getShort(VERSION_OFFSET);
+        if (version == 1)
+            return new Header(version, StorageEngine.ROW, Compression.NONE, 0, 0, 0,
+                    readString(header, V1_SCHEMA_LENGTH_OFFSET, V1_SCHEMA_OFFSET));
+        if (version == V2_FORMAT_VERSION || version == V3_FORMAT_VERSION)
+            return new Header(
+                    version,
+                    StorageEngine.fromOrdinal(header.get(ENGINE_OFFSET)),
+                    Compression.NONE,
+                    header.getLong(V3_NEXT_ROW_ID_OFFSET),
+                    header.getLong(V3_NEXT_ROW_ID_OFFSET + Long.BYTES),
+                    header.getLong(V3_NEXT_ROW_ID_OFFSET + Long.BYTES * 2),
+                    readString(header, V3_SCHEMA_LENGTH_OFFSET, V3_SCHEMA_OFFSET)
+            );
+        if (version != FORMAT_VERSION)
+            throw new RuntimeException("Unsupported table file version " + version + " for path: " + file);
+        return new Header(
+                version,
+                StorageEngine.fromOrdinal(header.get(ENGINE_OFFSET)),
+                Compression.fromOrdinal(header.get(COMPRESSION_OFFSET)),
+                header.getLong(NEXT_ROW_ID_OFFSET),
+                header.getLong(NEXT_ROW_ID_OFFSET + Long.BYTES),
+                header.getLong(NEXT_ROW_ID_OFFSET + Long.BYTES * 2),
+                readString(header, SCHEMA_LENGTH_OFFSET, SCHEMA_OFFSET)
+        );
+    }
+
+    private static String readString(ByteBuffer buffer, int lengthOffset, int offset) {
+        byte[] bytes = new byte[buffer.getInt(lengthOffset)];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private byte[] encodeRecord(byte flags, long rowId, Row row) {
+        byte[] data = RecordCodec.encode(row, getDictionary());
+        byte[] record = ByteBuffer.allocate(RECORD_HEADER_SIZE + data.length)
+                .put(flags)
+                .putLong(rowId)
+                .put(data)
+                .array();
+        if (record.length > SlottedPage.maxRecordLength(PAGE_SIZE))
+            throw new RuntimeException("Row is too large to store: " + record.length + " bytes");
+        return record;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                break;
+        }
+        buffer.clear();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining())
+            channel.write(buffer, position + buffer.position());
+        buffer.clear();
+    }
+    // End region
+}
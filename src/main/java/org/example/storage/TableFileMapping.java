@@ -0,0 +1,98 @@
+package org.example.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Read-only memory mapping of a table file.
+ * <p>
+ * The file is mapped in regions of {@link #REGION_SIZE} bytes so files larger than 2 GiB can be mapped as well.
+ * When the file grows because of appends only the last (partial) region and the new regions are remapped.
+ * When the file is replaced (e.g. by a rewrite) or shrinks, every region is remapped.
+ * Writes made through a {@link FileChannel} on the same file are visible through the mapping since both
+ * share the page cache of the operating system.
+ */
+public class TableFileMapping {
+    private static final long REGION_SIZE = 64L * 1024 * 1024;
+
+    private final Path path;
+    private final int pageSize;
+    private final List<MappedByteBuffer> regions = new ArrayList<>();
+    private Object fileKey;
+    private long mappedSize;
+
+    public TableFileMapping(Path path, int pageSize) {
+        this.path = path;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Remap the file if it has grown, shrunk or has been replaced since the last call
+     * @return Number of pages present in the file
+     */
+    public synchronized long refresh() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            long size = attributes.size() - attributes.size() % pageSize;
+            if (!Objects.equals(fileKey, attributes.fileKey()) || size < mappedSize) {
+                regions.clear();
+                mappedSize = 0;
+                fileKey = attributes.fileKey();
+            }
+            if (size > mappedSize)
+                mapFrom(mappedSize, size);
+            return mappedSize / pageSize;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to map table file for path: " + path + " " + e.getMessage());
+        }
+    }
+
+    /**
+     * Provides the mapped region containing the requested page
+     * @param pageNumber Number of the page
+     * @return Buffer of the region, use {@link #getPageOffset(long)} for position of the page
+     */
+    public synchronized ByteBuffer getRegion(long pageNumber) {
+        return regions.get((int) (pageNumber * pageSize / REGION_SIZE));
+    }
+
+    /**
+     * Provides position of the page inside its region
+     * @param pageNumber Number of the page
+     * @return Position of the first byte of the page
+     */
+    public int getPageOffset(long pageNumber) {
+        return (int) (pageNumber * pageSize % REGION_SIZE);
+    }
+
+    // Region: private methods
+
+    /**
+     * Maps the file from the start of the region containing {@code from} until {@code size}
+     * @param from Size mapped so far
+     * @param size Current size of the file, rounded down to whole pages
+     */
+    private void mapFrom(long from, long size) throws IOException {
+        int firstRegion = (int) (from / REGION_SIZE);
+        while (regions.size() > firstRegion)
+            regions.remove(regions.size() - 1);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (long position = firstRegion * REGION_SIZE; position < size; position += REGION_SIZE) {
+                long length = Math.min(REGION_SIZE, size - position);
+                regions.add(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+            }
+        }
+        mappedSize = size;
+    }
+    // End region
+}
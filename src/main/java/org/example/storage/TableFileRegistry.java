@@ -0,0 +1,182 @@
+package org.example.storage;
+
+import org.example.util.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the table files of all databases.
+ * <p>
+ * The path of a table file is resolved once, afterwards the same {@link TableFile} instance is provided without
+ * touching the file system. The registry also keeps a {@link FileChannel} open for every file in use instead of
+ * opening the file for every read or write. At most {@code tinydb.fileHandles.max} channels are kept open and
+ * channels not used for {@code tinydb.fileHandles.idleMillis} are closed, channels still in use are never closed.
+ */
+public class TableFileRegistry {
+    private static final int MAX_OPEN_HANDLES = Math.max(1, Config.getInt("tinydb.fileHandles.max", 256));
+    private static final long IDLE_MILLIS = Config.getLong("tinydb.fileHandles.idleMillis", 60_000);
+
+    private static final Map<String, Map<String, TableFile>> TABLE_FILES = new ConcurrentHashMap<>();
+    // Access ordered, so the least recently used channels come first
+    private static final LinkedHashMap<String, Handle> HANDLES = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Open channel of a file, must be closed once the read or write is done so the channel can be evicted
+     */
+    public static class Handle implements AutoCloseable {
+        private final FileChannel channel;
+        private int userCount = 0;
+        private long lastUsedMillis;
+        private boolean isRemoved = false;
+
+        private Handle(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        public FileChannel getChannel() {
+            return channel;
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+
+    private TableFileRegistry() { }
+
+    /**
+     * Provides the registered table file of the table
+     * @param databaseDirectory Directory of the database
+     * @param tableName Name of the table
+     * @return TableFile instance, null if none is registered
+     */
+    public static TableFile get(File databaseDirectory, String tableName) {
+        Map<String, TableFile> tableFiles = TABLE_FILES.get(databaseDirectory.getPath());
+        return tableFiles == null ? null : tableFiles.get(tableName);
+    }
+
+    /**
+     * Register the table file of the table, it must exist and be in the current format
+     * @param databaseDirectory Directory of the database
+     * @param tableName Name of the table
+     * @param tableFile Table file of the table
+     */
+    public static void register(File databaseDirectory, String tableName, TableFile tableFile) {
+        TABLE_FILES.computeIfAbsent(databaseDirectory.getPath(), path -> new ConcurrentHashMap<>())
+                .put(tableName, tableFile);
+    }
+
+    /**
+     * Forget the table file of the table, e.g. when the table is dropped
+     * @param databaseDirectory Directory of the database
+     * @param tableName Name of the table
+     */
+    public static void remove(File databaseDirectory, String tableName) {
+        Map<String, TableFile> tableFiles = TABLE_FILES.get(databaseDirectory.getPath());
+        if (tableFiles != null)
+            tableFiles.remove(tableName);
+    }
+
+    /**
+     * Provides the open channel of the file, the file is opened when no channel is kept open for it
+     * @param file File to read or write
+     * @param create True to create the file if it does not exist, False to fail instead
+     * @return Handle of the channel, must be closed after use
+     */
+    public static Handle acquire(File file, boolean create) throws IOException {
+        String key = file.getAbsolutePath();
+        synchronized (HANDLES) {
+            Handle handle = HANDLES.get(key);
+            if (handle != null && !handle.channel.isOpen()) {
+                // Channels are closed when a thread using them is interrupted
+                HANDLES.remove(key);
+                handle.isRemoved = true;
+                handle = null;
+            }
+            if (handle == null) {
+                handle = new Handle(create
+                        ? FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                StandardOpenOption.WRITE)
+                        : FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE));
+                HANDLES.put(key, handle);
+            }
+            handle.userCount++;
+            // Handle is in use, so the eviction can not close it
+            evict(System.currentTimeMillis());
+            return handle;
+        }
+    }
+
+    /**
+     * Close the channel kept open for the file, required before the file is deleted or replaced.
+     * A channel still in use is closed once its last user is done with it.
+     * @param file File the channel belongs to
+     */
+    public static void closeHandle(File file) {
+        synchronized (HANDLES) {
+            Handle handle = HANDLES.remove(file.getAbsolutePath());
+            if (handle == null)
+                return;
+            handle.isRemoved = true;
+            if (handle.userCount == 0)
+                closeChannel(handle);
+        }
+    }
+
+    /**
+     * Provides the number of channels kept open
+     * @return Number of open channels
+     */
+    public static int getOpenHandleCount() {
+        synchronized (HANDLES) {
+            return HANDLES.size();
+        }
+    }
+
+    // Region: private methods
+    private static void release(Handle handle) {
+        synchronized (HANDLES) {
+            handle.userCount--;
+            handle.lastUsedMillis = System.currentTimeMillis();
+            if (handle.isRemoved && handle.userCount == 0)
+                closeChannel(handle);
+        }
+    }
+
+    /**
+     * Close the least recently used channels not in use until at most the maximum number of channels is open,
+     * along with the channels that have been idle for too long
+     * @param now Current time in milliseconds
+     */
+    private static void evict(long now) {
+        Iterator<Handle> iterator = HANDLES.values().iterator();
+        while (iterator.hasNext()) {
+            Handle handle = iterator.next();
+            boolean isIdle = now - handle.lastUsedMillis >= IDLE_MILLIS;
+            if (!isIdle && HANDLES.size() <= MAX_OPEN_HANDLES)
+                return;
+            if (handle.userCount > 0)
+                continue;
+            iterator.remove();
+            handle.isRemoved = true;
+            closeChannel(handle);
+        }
+    }
+
+    private static void closeChannel(Handle handle) {
+        try {
+            handle.channel.close();
+        } catch (IOException e) {
+            System.out.println("Failed to close file channel: " + e.getMessage());
+        }
+    }
+    // End region
+}
@@ -0,0 +1,94 @@
+package org.example.storage;
+
+import org.example.database.Row;
+
+import java.io.File;
+
+/**
+ * Index kept next to a table file and maintained by {@link TableIndexes} as rows are written. Every index is bound
+ * to the column(s) it describes when it is created or loaded, so it only receives whole rows. Like
+ * {@link TableStatistics} an index stores the counters of the table file header it describes, an index not matching
+ * the header is built again.
+ */
+interface TableIndex {
+    /**
+     * Checks if a page of the table file holds a value, used to locate the entry of a removed row
+     */
+    interface PageLookup {
+        /**
+         * @param pageOffset Offset of the page in the table file
+         * @param column Index of the column
+         * @param value Text of the value
+         * @return True if a live record of the page holds the value in the column, False otherwise
+         */
+        boolean holdsValue(long pageOffset, int column, String value);
+    }
+
+    /**
+     * Checks if the index was built for the current content of the table file
+     * @param header Header of the table file
+     * @return True if the counters of the header match, False otherwise
+     */
+    boolean isValidFor(TableFile.Header header);
+
+    /**
+     * Record the counters of the table file header the index now describes
+     * @param nextRowId Next row id of the table file
+     * @param recordCount Number of records of the table file
+     * @param liveCount Number of visible rows of the table file
+     */
+    void setCounters(long nextRowId, long recordCount, long liveCount);
+
+    /**
+     * Add a row stored in the table file
+     * @param rowId Row id of the row
+     * @param row Row
+     * @param pageOffset Offset of the page holding the row
+     */
+    void addRow(long rowId, Row row, long pageOffset);
+
+    /**
+     * Remove a row replaced or deleted by a write
+     * @param rowId Row id of the row
+     * @param row Row
+     * @param pages Lookup of the values held by the pages of the table file
+     */
+    void removeRow(long rowId, Row row, PageLookup pages);
+
+    /**
+     * Checks if a number of rows can still be added without making the index less useful, the index is built again
+     * otherwise
+     * @param rowCount Number of rows to add
+     * @return True if the rows can be added, False otherwise
+     */
+    default boolean hasRoomFor(int rowCount) {
+        return true;
+    }
+
+    /**
+     * Checks if the index outgrew the memory it may use, it is then dropped until the table file is rewritten
+     * @return True if the index must be dropped, False otherwise
+     */
+    default boolean isOversized() {
+        return false;
+    }
+
+    /**
+     * Provides the estimated heap used by the index, reported once the index is dropped
+     * @return Number of bytes, 0 for indexes not held in memory
+     */
+    default long getByteCount() {
+        return 0;
+    }
+
+    /**
+     * Write the index to the storage device
+     */
+    void save();
+
+    /**
+     * Move the index file, e.g. when the table file it belongs to replaces another one
+     * @param target New location of the index file
+     */
+    void moveTo(File target);
+}
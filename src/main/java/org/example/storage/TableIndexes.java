@@ -0,0 +1,708 @@
+package org.example.storage;
+
+import org.example.database.Column;
+import org.example.database.Condition;
+import org.example.database.Row;
+import org.example.database.RowSchema;
+import org.example.enums.IndexType;
+import org.example.util.Config;
+import org.example.util.StringUtils;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+
+/**
+ * Owner of the indexes of a table file, every table file has a single instance provided by {@link #of(File)}.
+ * <p>
+ * The indexes are the {@link HashIndex} and the {@link BloomFilter} of every primary_key or unique column, the
+ * {@link BTreeIndex} or {@link BitmapIndex} of every index created by {@code CREATE INDEX}, along with its
+ * {@link CoveredValues} when it has an {@code INCLUDE} clause, and the {@link ZoneMap} of the INT and DOUBLE
+ * columns. They are all kept next to the table file and maintained through {@link TableIndex}: appended records
+ * update them, the appends to an empty table file create them from scratch and a missing or outdated index is built
+ * by a scan of the rows {@link TableFile} provides the first time it is needed. A bloom filter is built from the
+ * hash index of its column instead of a scan. Indexes outgrowing their memory are dropped until the table file is
+ * rewritten. Indexes are written when the table file is synced and on exit.
+ * <p>
+ * Callers hold the lock of the table file.
+ */
+class TableIndexes {
+    private static final double MAX_INDEX_FRACTION = Config.getDouble("tinydb.index.maxFraction", 0.2);
+    // Small tables are read through the index whatever the share of matching rows
+    private static final int MIN_INDEX_ROWS = 1024;
+
+    private static final Map<String, TableIndexes> INSTANCES = new ConcurrentHashMap<>();
+    private static final AtomicLong BLOOM_FILTER_NEGATIVES = new AtomicLong();
+    private static final AtomicLong BLOOM_FILTER_FALSE_POSITIVES = new AtomicLong();
+    private static final AtomicLong ZONE_MAP_SKIPPED_PAGES = new AtomicLong();
+    private static final AtomicLong COVERED_VALUES_DROPPED = new AtomicLong();
+
+    static {
+        // Indexes changed since the last sync are written on exit instead of being rebuilt on next start, those held
+        // in memory would be lost otherwise
+        Runtime.getRuntime().addShutdownHook(new Thread(TableIndexes::saveAll, "tinydb-index-shutdown"));
+    }
+
+    private final File file;
+    // Indexes read so far by the path of their file
+    private final Map<String, TableIndex> indexes = new ConcurrentHashMap<>();
+    // Estimated heap of the indexes dropped for outgrowing their memory by the path of their file, they are not built
+    // again until the table file is rewritten
+    private final Map<String, Long> droppedIndexes = new ConcurrentHashMap<>();
+    // Indexes created by CREATE INDEX, as stored in the catalog
+    private volatile List<IndexDefinition> definitions = List.of();
+
+    /**
+     * Receives the visible rows of the table file
+     */
+    interface RowVisitor {
+        /**
+         * @param rowId Row id of the row
+         * @param row Row
+         * @param pageOffset Offset of the page holding the row
+         * @return False to stop the scan
+         */
+        boolean visit(long rowId, Row row, long pageOffset);
+    }
+
+    /**
+     * Scans the visible rows of the table file in storage order, used to build a missing or outdated index
+     */
+    interface RowScanner {
+        void scan(RowVisitor visitor);
+    }
+
+    /**
+     * Rows written by an append
+     * @param rowIds Row id of every appended record, removed and added rows belong to the records in order
+     * @param removedRows Rows the appended records replace or delete
+     * @param addedRows Rows the appended records hold
+     * @param pageOffsets Offset of the page holding every added row
+     * @param pages Lookup of the values held by the pages of the table file
+     */
+    record Changes(long[] rowIds, List<Row> removedRows, List<Row> addedRows, long[] pageOffsets,
+                   TableIndex.PageLookup pages) { }
+
+    /**
+     * Entry of a {@link BTreeIndex} found by a lookup
+     */
+    record IndexEntry(long rowId, long pageOffset) { }
+
+    /**
+     * Index of the table file along with the way it is read and created
+     * @param file Index file
+     * @param loader Reads the index file, provides null if it is missing, can not be read or describes other columns
+     * @param creator Creates an empty index, or one holding the entries of the source index
+     * @param source Index the index is built from instead of a scan, null if it is built by a scan
+     */
+    private record Slot(File file, Function<File, TableIndex> loader,
+                        BiFunction<File, TableIndex, TableIndex> creator, Slot source) {
+
+        private String key() {
+            return file.getPath();
+        }
+    }
+
+    private TableIndexes(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Provides the owner of the indexes of a table file
+     * @param file Table file
+     * @return TableIndexes instance
+     */
+    static TableIndexes of(File file) {
+        return INSTANCES.computeIfAbsent(file.getAbsolutePath(), path -> new TableIndexes(new File(path)));
+    }
+
+    /**
+     * Write the indexes of every table file held in memory, called on exit
+     */
+    private static void saveAll() {
+        INSTANCES.values().forEach(TableIndexes::save);
+    }
+
+    /**
+     * Provides counters of the indexes of all table files, followed by the estimated heap of every index currently
+     * dropped for outgrowing its memory, named {@code covered_values_dropped.<database>.<table>.<index>}
+     * @return Map of counter name to its value
+     */
+    static Map<String, Long> getStatus() {
+        Map<String, Long> status = new LinkedHashMap<>();
+        status.put("zone_map_skipped_pages", ZONE_MAP_SKIPPED_PAGES.get());
+        long negatives = BLOOM_FILTER_NEGATIVES.get();
+        long falsePositives = BLOOM_FILTER_FALSE_POSITIVES.get();
+        status.put("bloom_filter_negatives", negatives);
+        status.put("bloom_filter_false_positives", falsePositives);
+        // Share of the lookups of values not stored that the filters did not answer, in parts per million
+        status.put("bloom_filter_false_positive_ppm",
+                negatives + falsePositives == 0 ? 0 : falsePositives * 1_000_000 / (negatives + falsePositives));
+        status.put("covered_values_dropped", COVERED_VALUES_DROPPED.get());
+        Map<String, Long> droppedIndexes = new TreeMap<>();
+        for (TableIndexes tableIndexes : INSTANCES.values())
+            tableIndexes.droppedIndexes.forEach((path, byteCount) ->
+                    droppedIndexes.put("covered_values_dropped." + tableIndexes.getIndexName(path), byteCount));
+        status.putAll(droppedIndexes);
+        return status;
+    }
+
+    List<IndexDefinition> getDefinitions() {
+        return definitions;
+    }
+
+    void setDefinitions(List<IndexDefinition> definitions) {
+        this.definitions = List.copyOf(definitions);
+    }
+
+    /**
+     * Update every index after records are appended
+     * @param header Header of the table file before the append
+     * @param schema Schema of the table
+     * @param changes Rows written by the append
+     * @param nextRowId Next row id of the table file after the append
+     * @param recordCount Number of records of the table file after the append
+     * @param liveCount Number of visible rows of the table file after the append
+     */
+    void update(TableFile.Header header, RowSchema schema, Changes changes, long nextRowId, long recordCount,
+                long liveCount) {
+        Map<String, TableIndex> updatedIndexes = new HashMap<>();
+        for (Slot slot : getSlots(schema)) {
+            // Indexes of an empty file start from scratch, so rewritten tables get exact indexes
+            TableIndex index = header.recordCount() == 0 ? null : getValid(header, slot);
+            if (index != null && index.hasRoomFor(changes.addedRows().size())) {
+                apply(index, changes);
+            } else if (slot.source() != null) {
+                // Built again from its updated source, which also drops the values of removed rows
+                TableIndex source = updatedIndexes.get(slot.source().key());
+                if (source == null)
+                    continue;
+                index = create(slot, source);
+            } else if (header.recordCount() == 0) {
+                index = create(slot, null);
+                apply(index, changes);
+            } else {
+                continue;
+            }
+            index.setCounters(nextRowId, recordCount, liveCount);
+            updatedIndexes.put(slot.key(), index);
+            isOversized(slot, index);
+        }
+    }
+
+    /**
+     * Find the page holding a value in a primary_key or unique column through the index of the column, unless the
+     * bloom filter of the column tells no row holds it
+     * @param header Header of the table file
+     * @param schema Schema of the table
+     * @param column Index of the column
+     * @param value Text of the value
+     * @param scanner Scanner of the rows, used if an index must be built
+     * @param isInPage Checks if the page at the provided offset holds the value
+     * @return True if a page holds the value, False otherwise
+     */
+    boolean findValue(TableFile.Header header, RowSchema schema, int column, String value, RowScanner scanner,
+                      LongPredicate isInPage) {
+        String columnName = schema.getColumn(column).name();
+        long hash = HashIndex.hash(value);
+        BloomFilter filter = (BloomFilter) get(header, getBloomFilterSlot(columnName, column), scanner);
+        if (!filter.mightContain(hash)) {
+            BLOOM_FILTER_NEGATIVES.incrementAndGet();
+            return false;
+        }
+        HashIndex index = (HashIndex) get(header, getHashIndexSlot(columnName, column), scanner);
+        if (index.find(hash, isInPage) >= 0)
+            return true;
+        BLOOM_FILTER_FALSE_POSITIVES.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Find the entries of the rows satisfying a condition through the {@link BTreeIndex} of its column
+     * @param header Header of the table file
+     * @param schema Schema of the table
+     * @param condition Condition rows must satisfy
+     * @param scanner Scanner of the rows, used if the index must be built
+     * @return Entries of the keys matching the condition, null if no index answers the condition or the keys hold
+     *         more than {@code tinydb.index.maxFraction} of the rows and the table file should rather be scanned
+     */
+    List<IndexEntry> findIndexEntries(TableFile.Header header, RowSchema schema, Condition condition,
+                                      RowScanner scanner) {
+        IndexDefinition definition = findDefinition(schema, condition, IndexType.BTREE);
+        if (definition == null)
+            return null;
+        List<BTreeIndex.KeyRange> ranges = BTreeIndex.getKeyRanges(schema.getType(condition.getColumnIndex()), condition);
+        if (ranges == null)
+            return null;
+
+        BTreeIndex index = (BTreeIndex) get(header, getDefinitionSlot(schema, definition), scanner);
+        long maxEntries = Math.max((long) (header.liveCount() * MAX_INDEX_FRACTION), MIN_INDEX_ROWS);
+        List<IndexEntry> entries = new ArrayList<>();
+        for (BTreeIndex.KeyRange range : ranges) {
+            boolean isComplete = index.find(range, (rowId, pageOffset) ->
+                    entries.size() < maxEntries && entries.add(new IndexEntry(rowId, pageOffset)));
+            if (!isComplete)
+                return null;
+        }
+        return entries;
+    }
+
+    /**
+     * Find the row ids of the rows satisfying a condition through the {@link BitmapIndex} of its column. The
+     * condition is tested once against every distinct value of the column, so any operator is answered exactly.
+     * @param header Header of the table file
+     * @param schema Schema of the table
+     * @param condition Condition rows must satisfy
+     * @param scanner Scanner of the rows, used if the index must be built
+     * @return Row ids of the matching rows, null if no bitmap index answers the condition
+     */
+    RowIdBitmap findRowIds(TableFile.Header header, RowSchema schema, Condition condition, RowScanner scanner) {
+        IndexDefinition definition = findDefinition(schema, condition, IndexType.BITMAP);
+        if (definition == null)
+            return null;
+        int column = condition.getColumnIndex();
+        return ((BitmapIndex) get(header, getDefinitionSlot(schema, definition), scanner))
+                .find(value -> condition.test(Row.builder(schema).setValue(column, value).build()));
+    }
+
+    /**
+     * Find the rows satisfying a condition through a covering index storing every requested column, rows are built
+     * from the {@link CoveredValues} of the index
+     * @param header Header of the table file
+     * @param schema Schema of the table
+     * @param condition Condition rows must satisfy
+     * @param columnNames Names of the columns to read
+     * @param scanner Scanner of the rows, used if the index must be built
+     * @return Matching rows in row id order, null if no covering index answers the condition with those columns or
+     *         its values exceed {@code tinydb.index.coveringMaxBytes}
+     */
+    List<Row> findCoveredRows(TableFile.Header header, RowSchema schema, Condition condition,
+                              Collection<String> columnNames, RowScanner scanner) {
+        String conditionColumnName = schema.getColumn(condition.getColumnIndex()).name();
+        IndexDefinition definition = definitions.stream()
+                .filter(indexDefinition -> indexDefinition.type() == IndexType.BTREE
+                        && indexDefinition.isCovering()
+                        && indexDefinition.columnName().equals(conditionColumnName)
+                        && indexDefinition.getCoveredColumns().containsAll(columnNames))
+                .findFirst()
+                .orElse(null);
+        int[] columns = definition == null ? null : getCoveredColumnIndexes(schema, definition);
+        List<BTreeIndex.KeyRange> ranges = columns == null ? null
+                : BTreeIndex.getKeyRanges(schema.getType(condition.getColumnIndex()), condition);
+        if (ranges == null)
+            return null;
+        CoveredValues values = (CoveredValues) get(header, getCoveredValuesSlot(definition, columns), scanner);
+        if (values == null)
+            return null;
+
+        List<Map.Entry<Long, Row>> rows = new ArrayList<>();
+        BTreeIndex index = (BTreeIndex) get(header, getDefinitionSlot(schema, definition), scanner);
+        for (BTreeIndex.KeyRange range : ranges) {
+            index.find(range, (rowId, pageOffset) -> {
+                String[] rowValues = values.get(rowId);
+                if (rowValues != null)
+                    addCoveredRow(schema, condition, columns, rowId, rowValues, rows);
+                return true;
+            });
+        }
+        rows.sort(Map.Entry.comparingByKey());
+        return rows.stream().map(Map.Entry::getValue).toList();
+    }
+
+    /**
+     * Provides the pages a scan for a condition must read, according to the zone map of the table file
+     * @param header Header of the table file
+     * @param schema Schema of the table
+     * @param condition Condition rows must satisfy
+     * @param scanner Scanner of the rows, used if the zone map must be built
+     * @return Predicate accepting the offsets of the pages that may hold matching rows, null if every page must be
+     *         read
+     */
+    LongPredicate getPageFilter(TableFile.Header header, RowSchema schema, Condition condition, RowScanner scanner) {
+        Condition.Operator operator = condition.getOperator();
+        if (operator != Condition.Operator.LESS && operator != Condition.Operator.LESS_OR_EQUAL
+                && operator != Condition.Operator.GREATER && operator != Condition.Operator.GREATER_OR_EQUAL)
+            return null;
+        int column = condition.getColumnIndex();
+        Double value = StringUtils.parseDouble(condition.getValue());
+        if (schema.getType(column) == Column.Type.STRING || value == null)
+            return null;
+        ZoneMap zoneMap = (ZoneMap) get(header, getZoneMapSlot(schema), scanner);
+        return pageOffset -> {
+            if (zoneMap.mayMatch(pageOffset, column, operator, value))
+                return true;
+            ZONE_MAP_SKIPPED_PAGES.incrementAndGet();
+            return false;
+        };
+    }
+
+    /**
+     * Add an index created by {@code CREATE INDEX}, deleting the files left by an index of the same name
+     * @param definition Definition of the index
+     */
+    void createIndex(IndexDefinition definition) {
+        List<IndexDefinition> createdDefinitions = new ArrayList<>(definitions);
+        createdDefinitions.add(definition);
+        setDefinitions(createdDefinitions);
+        removeIndexFiles(definition.name());
+    }
+
+    /**
+     * Build the indexes of an index created by {@code CREATE INDEX} by a scan
+     * @param header Header of the table file
+     * @param schema Schema of the table
+     * @param definition Definition of the index
+     * @param scanner Scanner of the rows
+     */
+    void buildIndex(TableFile.Header header, RowSchema schema, IndexDefinition definition, RowScanner scanner) {
+        Slot slot = getDefinitionSlot(schema, definition);
+        if (slot != null)
+            get(header, slot, scanner);
+        Slot valuesSlot = definition.isCovering()
+                ? getCoveredValuesSlot(definition, getCoveredColumnIndexes(schema, definition)) : null;
+        if (valuesSlot != null)
+            get(header, valuesSlot, scanner);
+    }
+
+    /**
+     * Drop an index created by {@code CREATE INDEX} and delete its files
+     * @param indexName Name of the index
+     */
+    void dropIndex(String indexName) {
+        setDefinitions(definitions.stream()
+                .filter(definition -> !definition.name().equals(indexName))
+                .toList());
+        removeIndexFiles(indexName);
+    }
+
+    /**
+     * Write every index held in memory to the storage device
+     */
+    void save() {
+        indexes.values().forEach(TableIndex::save);
+    }
+
+    /**
+     * Delete the files of every index of the table file and forget its indexes
+     * @param columnNames Names of the columns of the table file
+     */
+    void delete(Collection<String> columnNames) {
+        for (String columnName : columnNames) {
+            getIndexFile(columnName, HashIndex.EXTENSION).delete();
+            getIndexFile(columnName, BloomFilter.EXTENSION).delete();
+        }
+        for (IndexDefinition definition : definitions)
+            removeIndexFiles(definition.name());
+        getZoneMapFile().delete();
+        INSTANCES.remove(file.getPath());
+    }
+
+    /**
+     * Move the indexes over those of another table file, when this table file replaces it. Indexes this table file
+     * does not hold in memory are deleted.
+     * @param target Indexes of the table file being replaced
+     * @param columnNames Names of the columns of both table files
+     */
+    void moveTo(TableIndexes target, Collection<String> columnNames) {
+        moveIndex(target, getZoneMapFile(), target.getZoneMapFile());
+        Set<String> indexNames = new LinkedHashSet<>();
+        definitions.forEach(definition -> indexNames.add(definition.name()));
+        target.definitions.forEach(definition -> indexNames.add(definition.name()));
+        for (String indexName : indexNames) {
+            for (String extension : List.of(BitmapIndex.EXTENSION, BTreeIndex.EXTENSION, CoveredValues.EXTENSION))
+                moveIndex(target, getIndexFile(indexName, extension), target.getIndexFile(indexName, extension));
+        }
+        for (String columnName : columnNames) {
+            for (String extension : List.of(HashIndex.EXTENSION, BloomFilter.EXTENSION))
+                moveIndex(target, getIndexFile(columnName, extension), target.getIndexFile(columnName, extension));
+        }
+        definitions = List.of();
+    }
+
+    // Region: private methods
+
+    /**
+     * Provides the file of an index named after a column or an index created by {@code CREATE INDEX}
+     * @param name Name of the column or of the index
+     * @param extension Extension of the index type
+     * @return Index file
+     */
+    private File getIndexFile(String name, String extension) {
+        return new File(file.getPath() + "." + name + extension);
+    }
+
+    /**
+     * Provides the name of an index created by {@code CREATE INDEX} as shown by {@code SHOW STATUS}
+     * @param path Path of the index file
+     * @return Name made of the database, the table and the index
+     */
+    private String getIndexName(String path) {
+        String tableName = file.getName();
+        if (tableName.endsWith(TableFile.EXTENSION))
+            tableName = tableName.substring(0, tableName.length() - TableFile.EXTENSION.length());
+        String indexName = path.substring(file.getPath().length() + 1, path.lastIndexOf('.'));
+        return file.getParentFile().getName() + "." + tableName + "." + indexName;
+    }
+
+    private File getZoneMapFile() {
+        return new File(file.getPath() + ZoneMap.EXTENSION);
+    }
+
+    private Slot getHashIndexSlot(String columnName, int column) {
+        return new Slot(getIndexFile(columnName, HashIndex.EXTENSION), indexFile -> HashIndex.load(indexFile, column),
+                (indexFile, source) -> HashIndex.create(indexFile, column), null);
+    }
+
+    /**
+     * Provides the bloom filter of a column, built from the index of the column and sized for twice as many values
+     * @param columnName Name of the column
+     * @param column Index of the column
+     * @return Slot instance
+     */
+    private Slot getBloomFilterSlot(String columnName, int column) {
+        return new Slot(getIndexFile(columnName, BloomFilter.EXTENSION), filterFile -> BloomFilter.load(filterFile, column),
+                (filterFile, source) -> {
+                    HashIndex index = (HashIndex) source;
+                    BloomFilter filter = BloomFilter.create(filterFile, index.getEntryCount() * 2, column);
+                    index.forEachHash(filter::add);
+                    return filter;
+                }, getHashIndexSlot(columnName, column));
+    }
+
+    /**
+     * Provides the {@link BTreeIndex} or {@link BitmapIndex} of an index created by {@code CREATE INDEX}
+     * @param schema Schema of the table
+     * @param definition Definition of the index
+     * @return Slot instance, null if the column of the index is not part of the schema
+     */
+    private Slot getDefinitionSlot(RowSchema schema, IndexDefinition definition) {
+        int column = schema.indexOf(definition.columnName());
+        if (column < 0)
+            return null;
+        if (definition.type() == IndexType.BITMAP)
+            return new Slot(getIndexFile(definition.name(), BitmapIndex.EXTENSION),
+                    indexFile -> BitmapIndex.load(indexFile, column),
+                    (indexFile, source) -> BitmapIndex.create(indexFile, column), null);
+        return new Slot(getIndexFile(definition.name(), BTreeIndex.EXTENSION),
+                indexFile -> BTreeIndex.load(indexFile, column),
+                (indexFile, source) -> BTreeIndex.create(indexFile, column), null);
+    }
+
+    /**
+     * Provides the values stored by a covering index
+     * @param definition Definition of the index
+     * @param columns Indexes of the columns stored by the index, see {@link #getCoveredColumnIndexes}
+     * @return Slot instance, null if a column is not part of the schema
+     */
+    private Slot getCoveredValuesSlot(IndexDefinition definition, int[] columns) {
+        if (columns == null)
+            return null;
+        return new Slot(getIndexFile(definition.name(), CoveredValues.EXTENSION),
+                valuesFile -> CoveredValues.load(valuesFile, columns),
+                (valuesFile, source) -> CoveredValues.create(valuesFile, columns), null);
+    }
+
+    private Slot getZoneMapSlot(RowSchema schema) {
+        return new Slot(getZoneMapFile(), zoneMapFile -> ZoneMap.load(zoneMapFile, schema.size()),
+                (zoneMapFile, source) -> ZoneMap.create(zoneMapFile, schema.size()), null);
+    }
+
+    /**
+     * Provides every index the table file has, an index always follows the index it is built from
+     * @param schema Schema of the table
+     * @return List of slots
+     */
+    private List<Slot> getSlots(RowSchema schema) {
+        List<Slot> slots = new ArrayList<>();
+        if (schema.hasNumericColumns())
+            slots.add(getZoneMapSlot(schema));
+        for (int column = 0; column < schema.size(); column++) {
+            if (!schema.getColumn(column).isUnique())
+                continue;
+            String columnName = schema.getColumn(column).name();
+            slots.add(getHashIndexSlot(columnName, column));
+            slots.add(getBloomFilterSlot(columnName, column));
+        }
+        for (IndexDefinition definition : definitions) {
+            Slot slot = getDefinitionSlot(schema, definition);
+            if (slot != null)
+                slots.add(slot);
+            Slot valuesSlot = definition.isCovering()
+                    ? getCoveredValuesSlot(definition, getCoveredColumnIndexes(schema, definition)) : null;
+            if (valuesSlot != null)
+                slots.add(valuesSlot);
+        }
+        return slots;
+    }
+
+    /**
+     * Provides an index if it matches the header
+     * @param header Header of the table file
+     * @param slot Slot of the index
+     * @return TableIndex instance, null if index is missing, outdated or dropped
+     */
+    private TableIndex getValid(TableFile.Header header, Slot slot) {
+        if (droppedIndexes.containsKey(slot.key()))
+            return null;
+        TableIndex index = indexes.computeIfAbsent(slot.key(), key -> slot.loader().apply(slot.file()));
+        return index != null && index.isValidFor(header) && !isOversized(slot, index) ? index : null;
+    }
+
+    /**
+     * Provides an index, built from its source or by a scan when it is missing or outdated
+     * @param header Header of the table file
+     * @param slot Slot of the index
+     * @param scanner Scanner of the rows
+     * @return TableIndex instance, null if the index is dropped
+     */
+    private TableIndex get(TableFile.Header header, Slot slot, RowScanner scanner) {
+        TableIndex index = getValid(header, slot);
+        if (index != null || droppedIndexes.containsKey(slot.key()))
+            return index;
+        if (slot.source() != null) {
+            TableIndex source = get(header, slot.source(), scanner);
+            if (source == null)
+                return null;
+            index = create(slot, source);
+        } else {
+            TableIndex scannedIndex = create(slot, null);
+            scanner.scan((rowId, row, pageOffset) -> {
+                scannedIndex.addRow(rowId, row, pageOffset);
+                return !scannedIndex.isOversized();
+            });
+            if (isOversized(slot, scannedIndex))
+                return null;
+            index = scannedIndex;
+        }
+        index.setCounters(header.nextRowId(), header.recordCount(), header.liveCount());
+        return index;
+    }
+
+    /**
+     * Create an index, replacing its file if it exists
+     * @param slot Slot of the index
+     * @param source Index the index is built from, null if it has no source
+     * @return TableIndex instance, its counters must be set by the caller
+     */
+    private TableIndex create(Slot slot, TableIndex source) {
+        TableIndex index = slot.creator().apply(slot.file(), source);
+        droppedIndexes.remove(slot.key());
+        indexes.put(slot.key(), index);
+        return index;
+    }
+
+    /**
+     * Drop an index if it outgrew its memory, queries then read the table file until it is rewritten
+     * @param slot Slot of the index
+     * @param index Index
+     * @return True if the index was dropped, False otherwise
+     */
+    private boolean isOversized(Slot slot, TableIndex index) {
+        if (!index.isOversized())
+            return false;
+        // Covered values are the only indexes held in memory without bound
+        COVERED_VALUES_DROPPED.incrementAndGet();
+        droppedIndexes.put(slot.key(), index.getByteCount());
+        indexes.remove(slot.key());
+        slot.file().delete();
+        return true;
+    }
+
+    /**
+     * Move an index over the index of another table file, or delete both files if the index is not held in memory
+     * @param target Indexes of the table file being replaced
+     * @param indexFile Index file
+     * @param targetFile Index file of the table file being replaced
+     */
+    private void moveIndex(TableIndexes target, File indexFile, File targetFile) {
+        target.indexes.remove(targetFile.getPath());
+        target.droppedIndexes.remove(targetFile.getPath());
+        Long droppedBytes = droppedIndexes.remove(indexFile.getPath());
+        if (droppedBytes != null)
+            target.droppedIndexes.put(targetFile.getPath(), droppedBytes);
+        TableIndex index = indexes.remove(indexFile.getPath());
+        if (index != null) {
+            index.moveTo(targetFile);
+            target.indexes.put(targetFile.getPath(), index);
+        } else {
+            indexFile.delete();
+            targetFile.delete();
+        }
+    }
+
+    /**
+     * Forget an index created by {@code CREATE INDEX} and delete its files, whatever its type
+     * @param indexName Name of the index
+     */
+    private void removeIndexFiles(String indexName) {
+        for (String extension : List.of(BTreeIndex.EXTENSION, BitmapIndex.EXTENSION, CoveredValues.EXTENSION)) {
+            File indexFile = getIndexFile(indexName, extension);
+            indexes.remove(indexFile.getPath());
+            droppedIndexes.remove(indexFile.getPath());
+            indexFile.delete();
+        }
+    }
+
+    private static void apply(TableIndex index, Changes changes) {
+        for (int rowIndex = 0; rowIndex < changes.removedRows().size(); rowIndex++)
+            index.removeRow(changes.rowIds()[rowIndex], changes.removedRows().get(rowIndex), changes.pages());
+        for (int rowIndex = 0; rowIndex < changes.addedRows().size(); rowIndex++)
+            index.addRow(changes.rowIds()[rowIndex], changes.addedRows().get(rowIndex), changes.pageOffsets()[rowIndex]);
+    }
+
+    /**
+     * Provides the index created by {@code CREATE INDEX} of a type on the column of a condition
+     * @param schema Schema of the table
+     * @param condition Condition rows must satisfy
+     * @param type Type of the index
+     * @return IndexDefinition instance, null if the column has no such index
+     */
+    private IndexDefinition findDefinition(RowSchema schema, Condition condition, IndexType type) {
+        String columnName = schema.getColumn(condition.getColumnIndex()).name();
+        return definitions.stream()
+                .filter(definition -> definition.type() == type && definition.columnName().equals(columnName))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Provides the indexes of the columns a covering index stores, the indexed column first
+     * @param schema Schema of the table
+     * @param definition Definition of the index
+     * @return Indexes of the columns, null if a column is not part of the schema
+     */
+    private static int[] getCoveredColumnIndexes(RowSchema schema, IndexDefinition definition) {
+        List<String> columnNames = definition.getCoveredColumns();
+        int[] columns = new int[columnNames.size()];
+        for (int index = 0; index < columns.length; index++) {
+            columns[index] = schema.indexOf(columnNames.get(index));
+            if (columns[index] < 0)
+                return null;
+        }
+        return columns;
+    }
+
+    /**
+     * Build a row from the values stored by a covering index and keep it if it satisfies the condition
+     * @param schema Schema of the table
+     * @param condition Condition the row must satisfy
+     * @param columns Indexes of the columns stored by the index
+     * @param rowId Row id of the row
+     * @param values Values stored for the row
+     * @param rows Rows satisfying the condition by row id
+     */
+    private static void addCoveredRow(RowSchema schema, Condition condition, int[] columns, long rowId,
+                                      String[] values, List<Map.Entry<Long, Row>> rows) {
+        Row.Builder builder = Row.builder(schema);
+        for (int index = 0; index < columns.length; index++)
+            builder.setValue(columns[index], values[index]);
+        Row row = builder.build();
+        if (condition.test(row))
+            rows.add(Map.entry(rowId, row));
+    }
+    // End region
+}
@@ -0,0 +1,144 @@
+package org.example.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Sequences providing the values of the auto increment columns of a table, so the next value is not found by
+ * scanning the table.
+ * <p>
+ * The file is {@code magic (4) | version (2) | column count (4)} padded to {@value #HEADER_SIZE} bytes, followed
+ * by the last value allocated for every column, {@link Long#MIN_VALUE} for columns never allocated from. The last
+ * values are held by an {@link AtomicLong} per column and written to the memory mapped file as they are allocated,
+ * the file is forced to the storage device along with the table file.
+ * <p>
+ * A sequence continues from the larger of its stored value and the largest value of the table, read once when the
+ * sequence is first used, so values written while the stored value was lost (e.g. after a crash) are not allocated
+ * again. Values are not reused once allocated, even if their rows are deleted or rolled back.
+ */
+public class TableSequences {
+    public static final String EXTENSION = ".seq";
+
+    private static final int MAGIC = 0x54444253; // "TDBS"
+    private static final short FORMAT_VERSION = 1;
+    private static final int COLUMN_COUNT_OFFSET = 6;
+    private static final int HEADER_SIZE = 16;
+    private static final long NOT_ALLOCATED = Long.MIN_VALUE;
+
+    private final MappedByteBuffer buffer;
+    private final AtomicLong[] lastValues;
+
+    private TableSequences(MappedByteBuffer buffer, int columnCount) {
+        this.buffer = buffer;
+        this.lastValues = new AtomicLong[columnCount];
+    }
+
+    /**
+     * Open the sequences of a table, the file is created when missing or not matching the columns of the table
+     * @param file Sequences file
+     * @param columnCount Number of columns of the table
+     * @return TableSequences instance
+     */
+    public static TableSequences open(File file, int columnCount) {
+        long size = HEADER_SIZE + (long) columnCount * Long.BYTES;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            boolean isValid = channel.size() == size;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (!isValid || buffer.getInt(0) != MAGIC || buffer.getShort(4) != FORMAT_VERSION
+                    || buffer.getInt(COLUMN_COUNT_OFFSET) != columnCount) {
+                // Sequences cut short by a crash continue from the largest value of the table
+                buffer.putInt(0, MAGIC)
+                        .putShort(4, FORMAT_VERSION)
+                        .putInt(COLUMN_COUNT_OFFSET, columnCount);
+                for (int column = 0; column < columnCount; column++)
+                    buffer.putLong(getValuePosition(column), NOT_ALLOCATED);
+            }
+            return new TableSequences(buffer, columnCount);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open sequences file for path: " + file + " " + e.getMessage());
+        }
+    }
+
+    /**
+     * Allocate consecutive values of the sequence of a column
+     * @param column Index of the column
+     * @param count Number of values to allocate
+     * @param largestValue Provides the largest value stored in the column, only called on first use of the sequence
+     * @return First value allocated
+     */
+    public long allocate(int column, int count, LongSupplier largestValue) {
+        long lastValue = getLastValue(column, largestValue).addAndGet(count);
+        store(column);
+        return lastValue - count + 1;
+    }
+
+    /**
+     * Give back the values of a range left unused, only possible while no later value has been allocated
+     * @param column Index of the column
+     * @param firstUnusedValue First value of the range not used
+     * @param lastValue Last value of the range
+     */
+    public void release(int column, long firstUnusedValue, long lastValue) {
+        AtomicLong value = lastValues[column];
+        if (value != null && firstUnusedValue <= lastValue && value.compareAndSet(lastValue, firstUnusedValue - 1))
+            store(column);
+    }
+
+    /**
+     * Make sure the sequence of a column never allocates a value written to the column by other means, e.g. an
+     * UPDATE or a restored dump
+     * @param column Index of the column
+     * @param value Value written to the column
+     */
+    public void advanceTo(int column, long value) {
+        synchronized (this) {
+            // A sequence not in use only keeps the value, it is compared to the table when the sequence is used
+            if (lastValues[column] == null) {
+                buffer.putLong(getValuePosition(column), Math.max(value, buffer.getLong(getValuePosition(column))));
+                return;
+            }
+        }
+        lastValues[column].accumulateAndGet(value, Math::max);
+        store(column);
+    }
+
+    /**
+     * Force the sequences to the storage device
+     */
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    // Region: private methods
+    private AtomicLong getLastValue(int column, LongSupplier largestValue) {
+        AtomicLong lastValue = lastValues[column];
+        if (lastValue != null)
+            return lastValue;
+        synchronized (this) {
+            if (lastValues[column] == null)
+                lastValues[column] = new AtomicLong(Math.max(buffer.getLong(getValuePosition(column)),
+                        largestValue.getAsLong()));
+            return lastValues[column];
+        }
+    }
+
+    /**
+     * Write the last value of a column. Values allocated concurrently may be stored out of order, so the current
+     * value of the sequence is written instead of the value allocated by the caller.
+     * @param column Index of the column
+     */
+    private synchronized void store(int column) {
+        buffer.putLong(getValuePosition(column), lastValues[column].get());
+    }
+
+    private static int getValuePosition(int column) {
+        return HEADER_SIZE + column * Long.BYTES;
+    }
+    // End region
+}
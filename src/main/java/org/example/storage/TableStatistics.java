@@ -0,0 +1,312 @@
+package org.example.storage;
+
+import org.example.database.Column;
+import org.example.database.Row;
+import org.example.database.RowSchema;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * Statistics of the rows stored in a table file, kept up to date by every write instead of being computed by
+ * scanning the table.
+ * <p>
+ * Every column has its number of null values, its smallest and largest value and a HyperLogLog sketch estimating
+ * its number of distinct values. Deleted rows only lower the null counts, so after deletes the smallest and largest
+ * values are bounds of the values present and the distinct count may overestimate until the table is rewritten.
+ * The counters of the table file header the statistics were computed for are stored along with them, statistics
+ * not matching the header (e.g. after a crash) are computed again by a scan.
+ */
+public class TableStatistics {
+    public static final String EXTENSION = ".stats";
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int SKETCH_BITS = 10;
+    private static final int SKETCH_REGISTERS = 1 << SKETCH_BITS;
+
+    private final ColumnStatistics[] columns;
+    private long nextRowId;
+    private long recordCount;
+    private long liveCount;
+
+    private static class ColumnStatistics {
+        private final byte[] registers = new byte[SKETCH_REGISTERS];
+        private long nullCount = 0;
+        private double minNumber = Double.POSITIVE_INFINITY;
+        private double maxNumber = Double.NEGATIVE_INFINITY;
+        private String minString;
+        private String maxString;
+    }
+
+    /**
+     * @param columnCount Number of columns of the table
+     */
+    public TableStatistics(int columnCount) {
+        columns = new ColumnStatistics[columnCount];
+        for (int column = 0; column < columnCount; column++)
+            columns[column] = new ColumnStatistics();
+    }
+
+    /**
+     * Load statistics written by {@link #save(File)}
+     * @param file Statistics file of the table
+     * @return TableStatistics instance, null if file is missing or can not be read
+     */
+    public static TableStatistics load(File file) {
+        if (!file.exists())
+            return null;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != FORMAT_VERSION)
+                return null;
+            TableStatistics statistics = new TableStatistics(input.readInt());
+            statistics.nextRowId = input.readLong();
+            statistics.recordCount = input.readLong();
+            statistics.liveCount = input.readLong();
+            for (ColumnStatistics column : statistics.columns) {
+                column.nullCount = input.readLong();
+                column.minNumber = input.readDouble();
+                column.maxNumber = input.readDouble();
+                if (input.readBoolean()) {
+                    column.minString = input.readUTF();
+                    column.maxString = input.readUTF();
+                }
+                input.readFully(column.registers);
+            }
+            return statistics;
+        } catch (IOException e) {
+            // Statistics cut short by a crash are computed again
+            return null;
+        }
+    }
+
+    /**
+     * Write the statistics to the file, replacing its content
+     * @param file Statistics file of the table
+     */
+    public synchronized void save(File file) {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            output.writeInt(FORMAT_VERSION);
+            output.writeInt(columns.length);
+            output.writeLong(nextRowId);
+            output.writeLong(recordCount);
+            output.writeLong(liveCount);
+            for (ColumnStatistics column : columns) {
+                output.writeLong(column.nullCount);
+                output.writeDouble(column.minNumber);
+                output.writeDouble(column.maxNumber);
+                output.writeBoolean(column.minString != null);
+                if (column.minString != null) {
+                    output.writeUTF(column.minString);
+                    output.writeUTF(column.maxString);
+                }
+                output.write(column.registers);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write statistics file for path: " + file + " " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks if the statistics were computed for the current content of the table file
+     * @param header Header of the table file
+     * @return True if the counters of the header match, False otherwise
+     */
+    public synchronized boolean isValidFor(TableFile.Header header) {
+        return nextRowId == header.nextRowId() && recordCount == header.recordCount()
+                && liveCount == header.liveCount();
+    }
+
+    /**
+     * Record the counters of the table file header the statistics now describe
+     * @param nextRowId Next row id of the table file
+     * @param recordCount Number of records of the table file
+     * @param liveCount Number of visible rows of the table file
+     */
+    public synchronized void setCounters(long nextRowId, long recordCount, long liveCount) {
+        this.nextRowId = nextRowId;
+        this.recordCount = recordCount;
+        this.liveCount = liveCount;
+    }
+
+    /**
+     * Add the values of rows written to the table
+     * @param rows Rows added
+     */
+    public synchronized void addRows(Collection<Row> rows) {
+        for (Row row : rows)
+            addRow(row);
+    }
+
+    /**
+     * Add the values of a row written to the table
+     * @param row Row added
+     */
+    public synchronized void addRow(Row row) {
+        for (int index = 0; index < columns.length; index++) {
+            ColumnStatistics column = columns[index];
+            if (row.isNull(index)) {
+                column.nullCount++;
+                continue;
+            }
+            if (row.isNumeric(index)) {
+                double value = row.getDouble(index);
+                column.minNumber = Math.min(column.minNumber, value);
+                column.maxNumber = Math.max(column.maxNumber, value);
+            } else {
+                String value = row.getString(index);
+                if (column.minString == null || value.compareTo(column.minString) < 0)
+                    column.minString = value;
+                if (column.maxString == null || value.compareTo(column.maxString) > 0)
+                    column.maxString = value;
+            }
+            long hash = hash(row.getValue(index));
+            int register = (int) (hash >>> (Long.SIZE - SKETCH_BITS));
+            byte rank = (byte) (Long.numberOfLeadingZeros(hash << SKETCH_BITS | 1L << (SKETCH_BITS - 1)) + 1);
+            if (rank > column.registers[register])
+                column.registers[register] = rank;
+        }
+    }
+
+    /**
+     * Provides a copy of the statistics also holding rows not written to the table file yet, e.g. rows held by the
+     * write-ahead log
+     * @param rows Rows to add to the copy
+     * @return TableStatistics instance, the statistics themselves are not changed
+     */
+    public synchronized TableStatistics withRows(Collection<Row> rows) {
+        TableStatistics statistics = new TableStatistics(columns.length);
+        for (int index = 0; index < columns.length; index++) {
+            ColumnStatistics column = columns[index];
+            ColumnStatistics copy = statistics.columns[index];
+            System.arraycopy(column.registers, 0, copy.registers, 0, SKETCH_REGISTERS);
+            copy.nullCount = column.nullCount;
+            copy.minNumber = column.minNumber;
+            copy.maxNumber = column.maxNumber;
+            copy.minString = column.minString;
+            copy.maxString = column.maxString;
+        }
+        statistics.nextRowId = nextRowId;
+        statistics.recordCount = recordCount;
+        statistics.liveCount = liveCount + rows.size();
+        statistics.addRows(rows);
+        return statistics;
+    }
+
+    /**
+     * Remove the values of rows deleted or replaced by a new version, only the null counts are lowered
+     * @param rows Rows removed
+     */
+    public synchronized void removeRows(Collection<Row> rows) {
+        for (Row row : rows) {
+            for (int index = 0; index < columns.length; index++) {
+                if (row.isNull(index))
+                    columns[index].nullCount--;
+            }
+        }
+    }
+
+    public synchronized long getRowCount() {
+        return liveCount;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public synchronized long getNullCount(int column) {
+        return columns[column].nullCount;
+    }
+
+    /**
+     * Provides the smallest value of the column
+     * @param schema Schema of the table
+     * @param column Index of the column
+     * @return Text of the value, null if the column holds no value
+     */
+    public synchronized String getMinValue(RowSchema schema, int column) {
+        ColumnStatistics statistics = columns[column];
+        return formatBound(schema, column, statistics.minNumber, statistics.minString);
+    }
+
+    /**
+     * Provides the largest value of the column
+     * @param schema Schema of the table
+     * @param column Index of the column
+     * @return Text of the value, null if the column holds no value
+     */
+    public synchronized String getMaxValue(RowSchema schema, int column) {
+        ColumnStatistics statistics = columns[column];
+        return formatBound(schema, column, statistics.maxNumber, statistics.maxString);
+    }
+
+    /**
+     * Provides the largest number of the column, values held as text are not compared
+     * @param column Index of the column
+     * @return Largest number, negative infinity if the column holds no number
+     */
+    public synchronized double getMaxNumber(int column) {
+        return columns[column].maxNumber;
+    }
+
+    /**
+     * Provides the estimated number of distinct non null values of the column, about 3% off for large counts
+     * @param column Index of the column
+     * @return Estimated number of distinct values
+     */
+    public synchronized long getDistinctCount(int column) {
+        byte[] registers = columns[column].registers;
+        double sum = 0;
+        int emptyRegisters = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0)
+                emptyRegisters++;
+        }
+        double alpha = 0.7213 / (1 + 1.079 / SKETCH_REGISTERS);
+        double estimate = alpha * SKETCH_REGISTERS * SKETCH_REGISTERS / sum;
+        // Linear counting is more accurate while many registers are still empty
+        if (estimate <= 2.5 * SKETCH_REGISTERS && emptyRegisters > 0)
+            estimate = SKETCH_REGISTERS * Math.log((double) SKETCH_REGISTERS / emptyRegisters);
+        return Math.min(Math.round(estimate), liveCount);
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the value followed by the MurmurHash3 finalizer, so every bit depends on every byte.
+     * Also used by {@link HashIndex}.
+     * @param value Text of the value
+     * @return Hash of the value
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte character : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= character;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb53fa9a62b03L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    // Region: private methods
+    /**
+     * Provides the text of a bound, the numeric bound is used if the column holds numbers
+     * @param schema Schema of the table
+     * @param column Index of the column
+     * @param number Numeric bound, infinite if the column holds no number
+     * @param string Bound of the values held as text, null if there is none
+     * @return Text of the bound, null if the column holds no value
+     */
+    private static String formatBound(RowSchema schema, int column, double number, String string) {
+        if (Double.isInfinite(number))
+            return string;
+        if (schema.getType(column) == Column.Type.INT)
+            return Integer.toString((int) number);
+        return Double.toString(number);
+    }
+
+    // End region
+}
@@ -0,0 +1,455 @@
+package org.example.storage;
+
+import org.example.database.Row;
+import org.example.database.RowSchema;
+import org.example.util.Config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log of a database, stored in {@code Databases/<db>/wal/}.
+ * <p>
+ * Rows inserted with autocommit are appended to the log instead of their table file. A commit thread writes all
+ * records queued at a time with a single write and fsync (group commit), the insert returns once its record is
+ * synced. Rows reach their table files at the next checkpoint, which happens once {@code tinydb.wal.checkpointRows}
+ * rows are held or before a table file of the database is rewritten, and the log is emptied afterwards. Reads do not
+ * checkpoint, they provide the rows of the table file followed by the rows held by the log.
+ * <p>
+ * Options trading latency for throughput:
+ * <li>{@code tinydb.wal.commitIntervalMs}: time the commit thread waits for more records before syncing (0)</li>
+ * <li>{@code tinydb.wal.batchSize}: number of records that ends that wait early (512)</li>
+ * <li>{@code tinydb.wal.synchronousCommit}: if false inserts do not wait for the sync, a crash loses the records
+ * of the last interval (true)</li>
+ * <p>
+ * Every record is {@code length (4) | CRC32 (4) | table name length (2) | table name | row id (8) | row}, the row
+ * being encoded by {@link RecordCodec} without dictionary. On recovery, records whose row id is below the next row
+ * id of the table file were written to the table before the crash and are skipped.
+ */
+public class WriteAheadLog {
+    public static final boolean ENABLED = Config.getBoolean("tinydb.wal.enabled", true);
+
+    private static final String DIRECTORY = "wal";
+    private static final String FILE_NAME = "wal.log";
+    private static final long COMMIT_INTERVAL_MS = Config.getLong("tinydb.wal.commitIntervalMs", 0);
+    private static final int BATCH_SIZE = Math.max(Config.getInt("tinydb.wal.batchSize", 512), 1);
+    private static final boolean SYNCHRONOUS_COMMIT = Config.getBoolean("tinydb.wal.synchronousCommit", true);
+    private static final int CHECKPOINT_ROWS = Config.getInt("tinydb.wal.checkpointRows", 10_000);
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES * 2;
+
+    private static final Map<String, WriteAheadLog> LOGS = new ConcurrentHashMap<>();
+    private static final AtomicLong RECORDS = new AtomicLong();
+    private static final AtomicLong GROUP_COMMITS = new AtomicLong();
+    private static final AtomicLong CHECKPOINTS = new AtomicLong();
+
+    static {
+        if (ENABLED)
+            Runtime.getRuntime().addShutdownHook(new Thread(WriteAheadLog::closeAll, "tinydb-wal-shutdown"));
+    }
+
+    private final File file;
+    private final ByteArrayOutputStream queuedRecords = new ByteArrayOutputStream();
+    private final Map<String, List<Row>> unappliedRows = new LinkedHashMap<>();
+    // Values of the unapplied rows by table and column, only for the columns checked by containsValue
+    private final Map<String, Map<Integer, Set<String>>> unappliedValues = new HashMap<>();
+    private final Map<String, Long> nextRowIds = new HashMap<>();
+    private FileChannel channel;
+    private Thread committer;
+    private int queuedRecordCount = 0;
+    private int unappliedRowCount = 0;
+    private long appendedSequence = 0;
+    private long syncedSequence = 0;
+    private IOException failure;
+    private boolean closed = false;
+
+    /**
+     * Access to the tables of the database the log belongs to
+     */
+    public interface TableResolver {
+        /**
+         * @param tableName Name of the table
+         * @return TableFile of the table, null if the table does not exist anymore
+         */
+        TableFile getTableFile(String tableName);
+
+        /**
+         * @param tableFile Table file
+         * @return Schema of the rows stored in the table file
+         */
+        RowSchema getSchema(TableFile tableFile);
+    }
+
+    private WriteAheadLog(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Provides the log of the database
+     * @param databaseDirectory Directory of the database
+     * @return WriteAheadLog instance
+     */
+    public static WriteAheadLog get(File databaseDirectory) {
+        // Keyed like the table file registry, so the path is not resolved on every call
+        return LOGS.computeIfAbsent(databaseDirectory.getPath(),
+                key -> new WriteAheadLog(new File(new File(databaseDirectory, DIRECTORY), FILE_NAME)));
+    }
+
+    /**
+     * Close the log of a dropped database, so a database created again at the same path starts a new log
+     * @param databaseDirectory Directory of the database
+     */
+    public static void remove(File databaseDirectory) {
+        WriteAheadLog writeAheadLog = LOGS.remove(databaseDirectory.getPath());
+        if (writeAheadLog == null)
+            return;
+        writeAheadLog.close();
+        synchronized (writeAheadLog) {
+            try {
+                if (writeAheadLog.channel != null)
+                    writeAheadLog.channel.close();
+            } catch (IOException e) {
+                System.out.println("Failed to close write-ahead log for path: " + writeAheadLog.file);
+            }
+            writeAheadLog.channel = null;
+        }
+    }
+
+    /**
+     * Provides counters of all logs
+     * @return Map of counter name to its value
+     */
+    public static Map<String, Long> getStatus() {
+        Map<String, Long> status = new LinkedHashMap<>();
+        status.put("wal_records", RECORDS.get());
+        status.put("wal_group_commits", GROUP_COMMITS.get());
+        status.put("wal_checkpoints", CHECKPOINTS.get());
+        status.put("wal_unapplied_rows", LOGS.values().stream().mapToLong(WriteAheadLog::getUnappliedRowCount).sum());
+        return status;
+    }
+
+    /**
+     * Log inserted rows, the records of all rows are synced together.
+     * The rows are written to the table file by the next {@link #checkpoint(TableResolver)}.
+     * @param tableName Name of the table
+     * @param rows Inserted rows
+     * @param tables Tables of the database, used to read the next row id of a table
+     */
+    public void logInserts(String tableName, List<Row> rows, TableResolver tables) {
+        long sequence;
+        synchronized (this) {
+            checkFailure();
+            long rowId = nextRowIds.computeIfAbsent(tableName,
+                    key -> tables.getTableFile(tableName).readHeader().nextRowId());
+            for (Row row : rows)
+                queueRecord(encodeRecord(tableName, rowId++, row));
+            nextRowIds.put(tableName, rowId);
+            unappliedRows.computeIfAbsent(tableName, key -> new ArrayList<>()).addAll(rows);
+            Map<Integer, Set<String>> columnValues = unappliedValues.get(tableName);
+            if (columnValues != null) {
+                columnValues.forEach((column, values) -> {
+                    for (Row row : rows)
+                        values.add(row.getValue(column));
+                });
+            }
+            unappliedRowCount += rows.size();
+            sequence = appendedSequence;
+        }
+        if (SYNCHRONOUS_COMMIT)
+            awaitSync(sequence);
+    }
+
+    /**
+     * Checks if the log holds enough rows to be checkpointed
+     * @return True if checkpoint is required, False otherwise
+     */
+    public synchronized boolean isCheckpointRequired() {
+        return unappliedRowCount >= CHECKPOINT_ROWS;
+    }
+
+    public synchronized int getUnappliedRowCount() {
+        return unappliedRowCount;
+    }
+
+    /**
+     * Provides the number of rows logged for the table that are not written to its table file yet
+     * @param tableName Name of the table
+     * @return Number of rows
+     */
+    public synchronized int getUnappliedRowCount(String tableName) {
+        List<Row> rows = unappliedRows.get(tableName);
+        return rows == null ? 0 : rows.size();
+    }
+
+    /**
+     * Checks if a row logged for the table but not written to its table file yet holds the value. The values of a
+     * column are put in a hash set on its first check, the set is then kept up to date by every logged insert until
+     * the next checkpoint.
+     * @param tableName Name of the table
+     * @param column Index of the column
+     * @param value Text of the value
+     * @return True if a logged row holds the value, False otherwise
+     */
+    public synchronized boolean containsValue(String tableName, int column, String value) {
+        List<Row> rows = unappliedRows.get(tableName);
+        if (rows == null)
+            return false;
+        Set<String> values = unappliedValues.computeIfAbsent(tableName, key -> new HashMap<>())
+                .computeIfAbsent(column, key -> {
+                    Set<String> columnValues = new HashSet<>(rows.size() * 2);
+                    for (Row row : rows)
+                        columnValues.add(row.getValue(column));
+                    return columnValues;
+                });
+        return values.contains(value);
+    }
+
+    /**
+     * Read a table file along with the rows logged for the table that are not written to it yet. No checkpoint runs
+     * while the reader is called, so a row is either read from the table file or provided as logged, never both.
+     * @param tableName Name of the table
+     * @param reader Function reading the table file, receiving a copy of the logged rows in insertion order
+     * @return Result of the reader
+     */
+    public synchronized <T> T readWithUnappliedRows(String tableName, Function<List<Row>, T> reader) {
+        List<Row> rows = unappliedRows.get(tableName);
+        return reader.apply(rows == null ? List.of() : new ArrayList<>(rows));
+    }
+
+    /**
+     * Write the logged rows to their table files, sync the table files and empty the log
+     * @param tables Tables of the database
+     */
+    public synchronized void checkpoint(TableResolver tables) {
+        if (unappliedRowCount == 0)
+            return;
+        awaitSync(appendedSequence);
+        for (Map.Entry<String, List<Row>> entry : unappliedRows.entrySet()) {
+            TableFile tableFile = tables.getTableFile(entry.getKey());
+            if (tableFile == null)
+                continue;
+            tableFile.appendRows(entry.getValue());
+            tableFile.sync();
+        }
+        unappliedRows.clear();
+        unappliedValues.clear();
+        nextRowIds.clear();
+        unappliedRowCount = 0;
+        truncate();
+        CHECKPOINTS.incrementAndGet();
+    }
+
+    /**
+     * Write the rows of the log file that did not reach their table files before the last shutdown or crash.
+     * Must be called before the tables of the database are accessed.
+     * @param tables Tables of the database
+     */
+    public synchronized void recover(TableResolver tables) {
+        if (!file.exists() || file.length() == 0)
+            return;
+        Map<String, List<Map.Entry<Long, ByteBuffer>>> records = readRecords();
+        int recoveredRows = 0;
+        for (Map.Entry<String, List<Map.Entry<Long, ByteBuffer>>> entry : records.entrySet()) {
+            TableFile tableFile = tables.getTableFile(entry.getKey());
+            if (tableFile == null)
+                continue;
+            RowSchema schema = tables.getSchema(tableFile);
+            long nextRowId = tableFile.readHeader().nextRowId();
+            List<Row> rows = new ArrayList<>();
+            for (Map.Entry<Long, ByteBuffer> record : entry.getValue()) {
+                if (record.getKey() >= nextRowId)
+                    rows.add(RecordCodec.decode(schema, record.getValue(), record.getValue().position(), null));
+            }
+            if (rows.isEmpty())
+                continue;
+            tableFile.appendRows(rows);
+            tableFile.sync();
+            recoveredRows += rows.size();
+        }
+        truncate();
+        if (recoveredRows > 0)
+            System.out.println("Recovered " + recoveredRows + " row(s) from write-ahead log: " + file);
+    }
+
+    // Region: private methods
+    private static void closeAll() {
+        LOGS.values().forEach(WriteAheadLog::close);
+    }
+
+    /**
+     * Wait for the queued records to be synced and stop the commit thread
+     */
+    private synchronized void close() {
+        try {
+            awaitSync(appendedSequence);
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+        }
+        closed = true;
+        notifyAll();
+    }
+
+    private void checkFailure() {
+        if (failure != null)
+            throw new RuntimeException("Failed to write write-ahead log for path: " + file + " " + failure.getMessage());
+    }
+
+    private void queueRecord(byte[] record) {
+        if (committer == null) {
+            committer = new Thread(this::runCommitter, "tinydb-wal-committer");
+            committer.setDaemon(true);
+            committer.start();
+        }
+        queuedRecords.writeBytes(record);
+        queuedRecordCount++;
+        appendedSequence++;
+        RECORDS.incrementAndGet();
+        notifyAll();
+    }
+
+    private synchronized void awaitSync(long sequence) {
+        while (syncedSequence < sequence) {
+            checkFailure();
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for write-ahead log sync: " + file);
+            }
+        }
+    }
+
+    /**
+     * Loop of the commit thread: take all queued records, write them with a single write and sync the file
+     */
+    private void runCommitter() {
+        while (true) {
+            byte[] batch;
+            long batchSequence;
+            synchronized (this) {
+                try {
+                    while (queuedRecordCount == 0 && !closed)
+                        wait();
+                    if (queuedRecordCount == 0)
+                        return;
+                    long deadline = System.currentTimeMillis() + COMMIT_INTERVAL_MS;
+                    long remaining = COMMIT_INTERVAL_MS;
+                    while (queuedRecordCount < BATCH_SIZE && remaining > 0 && !closed) {
+                        wait(remaining);
+                        remaining = deadline - System.currentTimeMillis();
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                batch = queuedRecords.toByteArray();
+                batchSequence = appendedSequence;
+                queuedRecords.reset();
+                queuedRecordCount = 0;
+            }
+
+            try {
+                FileChannel fileChannel = getChannel();
+                ByteBuffer buffer = ByteBuffer.wrap(batch);
+                while (buffer.hasRemaining())
+                    fileChannel.write(buffer);
+                fileChannel.force(false);
+                GROUP_COMMITS.incrementAndGet();
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                return;
+            }
+            synchronized (this) {
+                syncedSequence = batchSequence;
+                notifyAll();
+            }
+        }
+    }
+
+    private synchronized FileChannel getChannel() throws IOException {
+        if (channel == null) {
+            file.getParentFile().mkdirs();
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+        return channel;
+    }
+
+    /**
+     * Empty the log file once all its rows are stored in the table files
+     */
+    private void truncate() {
+        try {
+            FileChannel fileChannel = getChannel();
+            fileChannel.truncate(0);
+            fileChannel.position(0);
+            fileChannel.force(false);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to truncate write-ahead log for path: " + file + " " + e.getMessage());
+        }
+    }
+
+    /**
+     * Read the records of the log file. Reading stops at the first incomplete or corrupted record,
+     * which can only be the last record written before a crash as records are synced in order.
+     * @return Map of table name to its records as row id and buffer positioned at the row
+     */
+    private Map<String, List<Map.Entry<Long, ByteBuffer>>> readRecords() {
+        Map<String, List<Map.Entry<Long, ByteBuffer>>> records = new LinkedHashMap<>();
+        ByteBuffer buffer;
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = ByteBuffer.allocate((int) fileChannel.size());
+            while (buffer.hasRemaining() && fileChannel.read(buffer) >= 0) { }
+            buffer.flip();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read write-ahead log for path: " + file + " " + e.getMessage());
+        }
+
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+            int length = buffer.getInt(buffer.position());
+            if (length <= 0 || length > buffer.remaining() - RECORD_HEADER_SIZE)
+                break;
+            ByteBuffer payload = buffer.slice(buffer.position() + RECORD_HEADER_SIZE, length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(buffer.position() + Integer.BYTES))
+                break;
+            byte[] tableName = new byte[payload.getShort() & 0xFFFF];
+            payload.get(tableName);
+            long rowId = payload.getLong();
+            records.computeIfAbsent(new String(tableName, StandardCharsets.UTF_8), key -> new ArrayList<>())
+                    .add(Map.entry(rowId, payload));
+            buffer.position(buffer.position() + RECORD_HEADER_SIZE + length);
+        }
+        return records;
+    }
+
+    private static byte[] encodeRecord(String tableName, long rowId, Row row) {
+        byte[] name = tableName.getBytes(StandardCharsets.UTF_8);
+        byte[] data = RecordCodec.encode(row, null);
+        int length = Short.BYTES + name.length + Long.BYTES + data.length;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + length)
+                .putInt(length)
+                .putInt(0)
+                .putShort((short) name.length)
+                .put(name)
+                .putLong(rowId)
+                .put(data);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), RECORD_HEADER_SIZE, length);
+        return record.putInt(Integer.BYTES, (int) crc.getValue()).array();
+    }
+    // End region
+}
@@ -0,0 +1,248 @@
+package org.example.storage;
+
+import org.example.database.Column;
+import org.example.database.Condition;
+import org.example.database.Row;
+import org.example.database.RowSchema;
+import org.example.util.Config;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Smallest and largest value of every INT and DOUBLE column for every block of {@code tinydb.zoneMap.blockPages}
+ * pages of a table file (16 by default), so scans skip the blocks a range condition can not match.
+ * <p>
+ * Blocks are ranges of page offsets, which makes them work for compressed files too. The bounds of a block only
+ * grow as rows are added, rows replaced or deleted keep their values in the bounds, so a block may be read needlessly
+ * but is never skipped wrongly. A block holding a value stored as text (e.g. null) in a column is never skipped for
+ * conditions on that column, as such values are compared as text.
+ * <p>
+ * The file is {@code magic (4) | version (2) | block size (4) | column count (4) | next row id (8) |
+ * record count (8) | live row count (8) | block count (4)} followed by {@code min (8) | max (8) | has text (1)} for
+ * every column of every block. Like {@link BitmapIndex} the zone map is held in memory, written when the table
+ * file is synced or on exit, and rebuilt by a scan when it does not match the table file header.
+ */
+public class ZoneMap implements TableIndex {
+    public static final String EXTENSION = ".zmap";
+
+    private static final int MAGIC = 0x5444425A; // "TDBZ"
+    private static final short FORMAT_VERSION = 1;
+    private static final int BLOCK_SIZE = Math.max(Config.getInt("tinydb.zoneMap.blockPages", 16), 1) * TableFile.PAGE_SIZE;
+
+    private final int columnCount;
+    private final List<Block> blocks = new ArrayList<>();
+    private File file;
+    private long nextRowId;
+    private long recordCount;
+    private long liveCount;
+    private boolean isDirty;
+
+    /**
+     * Bounds of the values of every column of a block
+     */
+    private static class Block {
+        private final double[] minValues;
+        private final double[] maxValues;
+        private final boolean[] hasText;
+
+        private Block(int columnCount) {
+            minValues = new double[columnCount];
+            maxValues = new double[columnCount];
+            hasText = new boolean[columnCount];
+            Arrays.fill(minValues, Double.POSITIVE_INFINITY);
+            Arrays.fill(maxValues, Double.NEGATIVE_INFINITY);
+        }
+    }
+
+    private ZoneMap(File file, int columnCount) {
+        this.file = file;
+        this.columnCount = columnCount;
+    }
+
+    /**
+     * Create an empty zone map, the file is only written by {@link #save()}
+     * @param file Zone map file
+     * @param columnCount Number of columns of the table
+     * @return ZoneMap instance
+     */
+    public static ZoneMap create(File file, int columnCount) {
+        ZoneMap zoneMap = new ZoneMap(file, columnCount);
+        zoneMap.isDirty = true;
+        return zoneMap;
+    }
+
+    /**
+     * Load a zone map written by {@link #save()}
+     * @param file Zone map file
+     * @param columnCount Number of columns of the table
+     * @return ZoneMap instance, null if file is missing, can not be read or uses another block size or column count
+     */
+    public static ZoneMap load(File file, int columnCount) {
+        if (!file.exists())
+            return null;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readShort() != FORMAT_VERSION || input.readInt() != BLOCK_SIZE)
+                return null;
+            if (input.readInt() != columnCount)
+                return null;
+            ZoneMap zoneMap = new ZoneMap(file, columnCount);
+            zoneMap.nextRowId = input.readLong();
+            zoneMap.recordCount = input.readLong();
+            zoneMap.liveCount = input.readLong();
+            int blockCount = input.readInt();
+            for (int blockNumber = 0; blockNumber < blockCount; blockNumber++) {
+                Block block = new Block(zoneMap.columnCount);
+                for (int column = 0; column < zoneMap.columnCount; column++) {
+                    block.minValues[column] = input.readDouble();
+                    block.maxValues[column] = input.readDouble();
+                    block.hasText[column] = input.readBoolean();
+                }
+                zoneMap.blocks.add(block);
+            }
+            return zoneMap;
+        } catch (IOException e) {
+            // Zone map cut short by a crash is built again
+            return null;
+        }
+    }
+
+    /**
+     * Checks if the zone map was built for the current content of the table file
+     * @param header Header of the table file
+     * @return True if the counters of the header match, False otherwise
+     */
+    @Override
+    public synchronized boolean isValidFor(TableFile.Header header) {
+        return nextRowId == header.nextRowId() && recordCount == header.recordCount()
+                && liveCount == header.liveCount();
+    }
+
+    /**
+     * Record the counters of the table file header the zone map now describes
+     * @param nextRowId Next row id of the table file
+     * @param recordCount Number of records of the table file
+     * @param liveCount Number of visible rows of the table file
+     */
+    @Override
+    public synchronized void setCounters(long nextRowId, long recordCount, long liveCount) {
+        this.nextRowId = nextRowId;
+        this.recordCount = recordCount;
+        this.liveCount = liveCount;
+        isDirty = true;
+    }
+
+    /**
+     * Widen the bounds of the block holding a page with the values of a row written to the page
+     * @param rowId Row id of the row
+     * @param row Row written to the page
+     * @param pageOffset Offset of the page in the table file
+     */
+    @Override
+    public synchronized void addRow(long rowId, Row row, long pageOffset) {
+        int blockNumber = (int) (pageOffset / BLOCK_SIZE);
+        while (blocks.size() <= blockNumber)
+            blocks.add(new Block(columnCount));
+        Block block = blocks.get(blockNumber);
+        RowSchema schema = row.getSchema();
+        for (int column = 0; column < columnCount; column++) {
+            if (schema.getType(column) == Column.Type.STRING)
+                continue;
+            double value = row.isNumeric(column) ? row.getDouble(column) : Double.NaN;
+            if (Double.isNaN(value)) {
+                block.hasText[column] = true;
+                continue;
+            }
+            block.minValues[column] = Math.min(block.minValues[column], value);
+            block.maxValues[column] = Math.max(block.maxValues[column], value);
+        }
+        isDirty = true;
+    }
+
+    /**
+     * Bounds only grow, the values of removed rows stay in the bounds of their block
+     * @param rowId Row id of the row
+     * @param row Row
+     * @param pages Lookup of the values held by the pages of the table file
+     */
+    @Override
+    public void removeRow(long rowId, Row row, PageLookup pages) { }
+
+    /**
+     * Checks if the block holding a page may hold rows satisfying a range condition on a numeric column
+     * @param pageOffset Offset of the page in the table file
+     * @param column Index of the column
+     * @param operator Range operator of the condition
+     * @param value Number the condition compares the column with
+     * @return False if no row of the page satisfies the condition, True if some may
+     */
+    public synchronized boolean mayMatch(long pageOffset, int column, Condition.Operator operator, double value) {
+        long blockNumber = pageOffset / BLOCK_SIZE;
+        if (blockNumber >= blocks.size())
+            return true;
+        Block block = blocks.get((int) blockNumber);
+        if (block.hasText[column])
+            return true;
+        return switch (operator) {
+            case LESS -> Double.compare(block.minValues[column], value) < 0;
+            case LESS_OR_EQUAL -> Double.compare(block.minValues[column], value) <= 0;
+            case GREATER -> Double.compare(block.maxValues[column], value) > 0;
+            case GREATER_OR_EQUAL -> Double.compare(block.maxValues[column], value) >= 0;
+            default -> true;
+        };
+    }
+
+    /**
+     * Write the zone map to its file if it changed since it was last written. The zone map is written to a
+     * temporary file first, so the file is never left incomplete.
+     */
+    @Override
+    public synchronized void save() {
+        if (!isDirty)
+            return;
+        File temporaryFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+            output.writeInt(MAGIC);
+            output.writeShort(FORMAT_VERSION);
+            output.writeInt(BLOCK_SIZE);
+            output.writeInt(columnCount);
+            output.writeLong(nextRowId);
+            output.writeLong(recordCount);
+            output.writeLong(liveCount);
+            output.writeInt(blocks.size());
+            for (Block block : blocks) {
+                for (int column = 0; column < columnCount; column++) {
+                    output.writeDouble(block.minValues[column]);
+                    output.writeDouble(block.maxValues[column]);
+                    output.writeBoolean(block.hasText[column]);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write zone map file for path: " + file + " " + e.getMessage());
+        }
+        try {
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write zone map file for path: " + file + " " + e.getMessage());
+        }
+        isDirty = false;
+    }
+
+    /**
+     * Move the zone map, e.g. when the table file it belongs to replaces another one. The file at the new location
+     * is deleted as it describes the replaced table file, the zone map is written there by the next {@link #save()}.
+     * @param target New location of the zone map file
+     */
+    @Override
+    public synchronized void moveTo(File target) {
+        file.delete();
+        target.delete();
+        file = target;
+        isDirty = true;
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.util;
+
+/**
+ * Provides tuning options of TinyDb. Every option can be overridden with a JVM system property,
+ * e.g. {@code java -Dtinydb.compaction.deadRatio=0.3 ...}
+ */
+public class Config {
+
+    private Config() { }
+
+    /**
+     * Provides the integer option for the key
+     * @param key System property name
+     * @param defaultValue Value used when property is absent or invalid
+     * @return Configured value
+     */
+    public static int getInt(String key, int defaultValue) {
+        return (int) getLong(key, defaultValue);
+    }
+
+    /**
+     * Provides the long option for the key
+     * @param key System property name
+     * @param defaultValue Value used when property is absent or invalid
+     * @return Configured value
+     */
+    public static long getLong(String key, long defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank())
+            return defaultValue;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid value for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Provides the decimal option for the key
+     * @param key System property name
+     * @param defaultValue Value used when property is absent or invalid
+     * @return Configured value
+     */
+    public static double getDouble(String key, double defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank())
+            return defaultValue;
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid value for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Provides the boolean option for the key
+     * @param key System property name
+     * @param defaultValue Value used when property is absent
+     * @return Configured value
+     */
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank())
+            return defaultValue;
+        return Boolean.parseBoolean(value.trim());
+    }
+}
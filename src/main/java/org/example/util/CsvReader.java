@@ -0,0 +1,115 @@
+package org.example.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader of comma separated values, one record at a time.
+ * Fields may be enclosed in double quotes to hold commas, line breaks or doubled quotes ({@code ""}).
+ * An empty unquoted field or {@code \N} is read as a missing value, {@code ""} is read as an empty string.
+ */
+public class CsvReader implements Closeable {
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final String NULL_MARKER = "\\N";
+
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private int lineCount = 0;
+    private int recordLine = 0;
+    private int nextCharacter = -2;
+
+    /**
+     * @param reader Reader of the CSV content, should be buffered
+     */
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Provides the line the last record read starts at
+     * @return Line number starting at 1
+     */
+    public int getLineNumber() {
+        return recordLine;
+    }
+
+    /**
+     * Read the next record, blank lines are skipped
+     * @return List of fields, a missing value is null. Null if the end of the content is reached.
+     */
+    public List<String> readRecord() throws IOException {
+        int character = read();
+        while (character == '\n' || character == '\r') {
+            if (character == '\n')
+                lineCount++;
+            character = read();
+        }
+        if (character < 0)
+            return null;
+        recordLine = ++lineCount;
+        List<String> fields = new ArrayList<>();
+        while (true) {
+            field.setLength(0);
+            boolean isQuoted = character == QUOTE;
+            if (isQuoted) {
+                while (true) {
+                    character = read();
+                    if (character < 0)
+                        throw new IOException("Unterminated quoted field starting at line " + recordLine);
+                    if (character == QUOTE) {
+                        character = read();
+                        if (character != QUOTE)
+                            break;
+                    } else if (character == '\n') {
+                        lineCount++;
+                    }
+                    field.append((char) character);
+                }
+            } else {
+                while (character >= 0 && character != SEPARATOR && character != '\n' && character != '\r') {
+                    field.append((char) character);
+                    character = read();
+                }
+            }
+
+            String value = field.toString();
+            fields.add(!isQuoted && (value.isEmpty() || value.equals(NULL_MARKER)) ? null : value);
+            if (character == SEPARATOR) {
+                character = read();
+                continue;
+            }
+            if (character == '\r') {
+                character = read();
+                if (character != '\n')
+                    unread(character);
+            } else if (character >= 0 && character != '\n') {
+                throw new IOException("Unexpected character after quoted field at line " + lineCount);
+            }
+            return fields;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // Region: private methods
+    private int read() throws IOException {
+        if (nextCharacter != -2) {
+            int character = nextCharacter;
+            nextCharacter = -2;
+            return character;
+        }
+        return reader.read();
+    }
+
+    private void unread(int character) {
+        nextCharacter = character;
+    }
+    // End region
+}
@@ -0,0 +1,140 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes the values of INSERT statements, shared by the queries and the dumps so every dump is valid SQL.
+ * Values may be enclosed in single or double quotes to hold commas, brackets or line breaks. Inside a quoted value
+ * a doubled quote ({@code ''}) stands for the quote and the escapes {@code \n}, {@code \r} and {@code \\} for a line
+ * feed, a carriage return and a backslash. An unquoted {@code null} is read as a missing value.
+ */
+public class SqlValueParser {
+    private static final String NULL_MARKER = "null";
+
+    private SqlValueParser() { }
+
+    /**
+     * Provides the values of every parenthesised tuple of the values part of an INSERT statement. Quoted values are
+     * provided without their quotes and with their doubled quotes and escapes resolved, unquoted values are trimmed.
+     * @param valuesPart String following VALUES in the statement
+     * @return List of the values of each tuple, an empty tuple {@code ()} has no value
+     */
+    public static List<List<String>> parseTuples(String valuesPart) {
+        List<List<String>> tuples = new ArrayList<>();
+        List<String> tuple = null;
+        StringBuilder value = new StringBuilder();
+        boolean isQuoted = false;
+        int index = 0;
+        while (index < valuesPart.length()) {
+            char character = valuesPart.charAt(index++);
+            if (tuple == null) {
+                if (character == '(')
+                    tuple = new ArrayList<>();
+                else if (character != ',' && character != ';' && !Character.isWhitespace(character))
+                    throw new RuntimeException("Invalid values provided");
+                continue;
+            }
+            if ((character == '\'' || character == '"') && !isQuoted && value.length() == 0) {
+                index = readQuotedValue(valuesPart, index, character, value);
+                isQuoted = true;
+            } else if (character == ',' || character == ')') {
+                String text = isQuoted ? value.toString() : value.toString().trim();
+                boolean isEmptyTuple = character == ')' && tuple.isEmpty() && !isQuoted && text.isEmpty();
+                if (!isEmptyTuple)
+                    tuple.add(!isQuoted && text.equalsIgnoreCase(NULL_MARKER) ? null : text);
+                value.setLength(0);
+                isQuoted = false;
+                if (character == ')') {
+                    tuples.add(tuple);
+                    tuple = null;
+                }
+            } else if (isQuoted) {
+                if (!Character.isWhitespace(character))
+                    throw new RuntimeException("Invalid values provided");
+            } else if (value.length() > 0 || !Character.isWhitespace(character)) {
+                value.append(character);
+            }
+        }
+        if (tuple != null)
+            throw new RuntimeException("Invalid values provided");
+        return tuples;
+    }
+
+    /**
+     * Checks if a line break read at the end of a statement belongs to a quoted value
+     * @param statement Statement read so far
+     * @return True if a quoted value of the statement is not terminated, False otherwise
+     */
+    public static boolean isInsideQuotes(CharSequence statement) {
+        char quote = 0;
+        for (int index = 0; index < statement.length(); index++) {
+            char character = statement.charAt(index);
+            if (quote == 0) {
+                if (character == '\'' || character == '"')
+                    quote = character;
+            } else if (character == '\\') {
+                index++;
+            } else if (character == quote) {
+                // A doubled quote closes and opens the value again
+                quote = 0;
+            }
+        }
+        return quote != 0;
+    }
+
+    /**
+     * Write a string value between single quotes, doubling its quotes and escaping its backslashes and line breaks,
+     * so the statement holding it stays on a single line
+     * @param writer Writer receiving the value
+     * @param value Text of the value
+     */
+    public static void writeQuotedValue(Writer writer, String value) throws IOException {
+        writer.write('\'');
+        for (int index = 0; index < value.length(); index++) {
+            char character = value.charAt(index);
+            switch (character) {
+                case '\'' -> writer.write("''");
+                case '\\' -> writer.write("\\\\");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                default -> writer.write(character);
+            }
+        }
+        writer.write('\'');
+    }
+
+    // Region: private methods
+
+    /**
+     * Append a quoted value to the builder, resolving doubled quotes and escapes
+     * @param valuesPart String following VALUES in the statement
+     * @param index Index of the character following the opening quote
+     * @param quote Opening quote
+     * @param value Builder receiving the value
+     * @return Index of the character following the closing quote
+     */
+    private static int readQuotedValue(String valuesPart, int index, char quote, StringBuilder value) {
+        while (index < valuesPart.length()) {
+            char character = valuesPart.charAt(index++);
+            if (character == quote) {
+                if (index < valuesPart.length() && valuesPart.charAt(index) == quote) {
+                    value.append(quote);
+                    index++;
+                    continue;
+                }
+                return index;
+            }
+            if (character == '\\' && index < valuesPart.length()) {
+                char escaped = valuesPart.charAt(index++);
+                value.append(escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped);
+                continue;
+            }
+            value.append(character);
+        }
+        throw new RuntimeException("Unterminated quoted value");
+    }
+    // End region
+}
@@ -16,4 +16,62 @@ public class StringUtils {
         }
         return value;
     }
+
+    /**
+     * Parses the value as int only if it converts back to the exact same string
+     * @param value Value to parse
+     * @return Parsed integer, null if value is not a canonical integer (e.g. "007" or "abc")
+     */
+    public static Integer parseCanonicalInt(String value) {
+        if (!looksNumeric(value))
+            return null;
+        try {
+            int parsed = Integer.parseInt(value);
+            return Integer.toString(parsed).equals(value) ? parsed : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses the value as double only if it converts back to the exact same string
+     * @param value Value to parse
+     * @return Parsed double, null if value is not a canonical double (e.g. "2" or "abc")
+     */
+    public static Double parseCanonicalDouble(String value) {
+        Double parsed = parseDouble(value);
+        return parsed != null && Double.toString(parsed).equals(value) ? parsed : null;
+    }
+
+    /**
+     * Parses the value as double without relying on exceptions for values that are clearly not numbers
+     * @param value Value to parse
+     * @return Parsed double, null if value is not a number
+     */
+    public static Double parseDouble(String value) {
+        if (!looksNumeric(value))
+            return null;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Quick check on the first significant character of the value
+     * @param value Value to check
+     * @return False if value can not be a number, True if it might be one
+     */
+    private static boolean looksNumeric(String value) {
+        if (value == null || value.isEmpty())
+            return false;
+        int index = 0;
+        while (index < value.length() - 1 && Character.isWhitespace(value.charAt(index)))
+            index++;
+        char first = value.charAt(index);
+        if ((first == '-' || first == '+') && index < value.length() - 1)
+            first = value.charAt(index + 1);
+        return Character.isDigit(first) || first == '.' || first == 'I' || first == 'N';
+    }
 }
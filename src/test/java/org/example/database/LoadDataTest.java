@@ -0,0 +1,103 @@
+package org.example.database;
+
+import org.example.manager.DatabaseManager;
+import org.example.manager.FileManager;
+import org.example.service.SQLDumpRestorer;
+import org.example.storage.RowCursor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadDataTest {
+    private static final String DATABASE = "load_multiline";
+    private static final List<String> NOTES = List.of(
+            "first line\nsecond line",
+            "say \"hi\", it's\r\nfine",
+            "single line");
+
+    private static Database database;
+
+    @BeforeAll
+    static void loadQuotedMultiLineFields() throws IOException {
+        FileManager.createDatabaseDirectory();
+        dropIfExists(DATABASE);
+        DatabaseManager.createDatabase(DATABASE);
+        database = getDatabase(DATABASE);
+        database.createTable("CREATE TABLE notes (id int primary_key, note string)");
+        File csvFile = File.createTempFile("notes", ".csv");
+        csvFile.deleteOnExit();
+        Files.writeString(csvFile.toPath(), "id,note\n" +
+                "1,\"first line\nsecond line\"\n" +
+                "2,\"say \"\"hi\"\", it's\r\nfine\"\n" +
+                "3,single line\n", StandardCharsets.UTF_8);
+        database.loadDataIntoTable("LOAD DATA INFILE '" + csvFile.getPath() + "' INTO TABLE notes IGNORE 1 LINES");
+    }
+
+    @Test
+    void storesQuotedFieldsAsLoaded() {
+        assertEquals(NOTES, readNotes(DATABASE));
+    }
+
+    @Test
+    void printsLineBreaksInsideTheirCell() {
+        PrintStream standardOutput = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8));
+        try {
+            database.selectFromTable("SELECT * FROM notes");
+        } finally {
+            System.setOut(standardOutput);
+        }
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        int separatorPosition = lines.get(0).indexOf('|');
+        for (String line : lines) {
+            if (!line.startsWith("-"))
+                assertEquals(separatorPosition, line.indexOf('|'), "Misaligned line: " + line);
+        }
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("   | second line")), String.join("\n", lines));
+    }
+
+    @Test
+    void restoresQuotedFieldsFromDump() {
+        String restoredDatabase = DATABASE + "_restored";
+        dropIfExists(restoredDatabase);
+        File dumpFile = FileManager.generateSQLDump(DATABASE, false);
+
+        new SQLDumpRestorer(dumpFile, restoredDatabase).restore();
+
+        assertEquals(NOTES, readNotes(restoredDatabase));
+    }
+
+    private static List<String> readNotes(String databaseName) {
+        List<String> notes = new ArrayList<>();
+        try (RowCursor cursor = FileManager.openRowCursor(databaseName, "notes", null)) {
+            while (cursor.hasNext())
+                notes.add(cursor.next().getValue(1));
+        }
+        return notes;
+    }
+
+    private static Database getDatabase(String databaseName) {
+        return DatabaseManager.getDatabases().stream()
+                .filter(db -> db.getName().equals(databaseName))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static void dropIfExists(String databaseName) {
+        if (DatabaseManager.getDatabases().stream().anyMatch(db -> db.getName().equals(databaseName)))
+            DatabaseManager.dropDatabase(databaseName);
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.service;
+
+import org.example.database.Database;
+import org.example.database.Row;
+import org.example.database.Table;
+import org.example.manager.DatabaseManager;
+import org.example.manager.FileManager;
+import org.example.storage.RowCursor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SQLDumpRoundTripTest {
+    private static final String SOURCE_DATABASE = "dump_source";
+    private static final List<List<String>> ROWS = List.of(
+            Arrays.asList("1", "O'Brien"),
+            Arrays.asList("2", "multi\nline"),
+            Arrays.asList("3", "it's"),
+            Arrays.asList("4", "back\\slash \\n not a line break"),
+            Arrays.asList("5", "carriage\r\nreturn, \"quoted\" (and parenthesized);"),
+            Arrays.asList("6", ""),
+            Arrays.asList("7", null));
+
+    @BeforeAll
+    static void createSourceDatabase() {
+        FileManager.createDatabaseDirectory();
+        dropIfExists(SOURCE_DATABASE);
+        DatabaseManager.createDatabase(SOURCE_DATABASE);
+        Database database = getDatabase(SOURCE_DATABASE);
+        database.createTable("CREATE TABLE people (id int primary_key, name string)");
+        Table table = database.getTable("people");
+        Table.RowLoader loader = table.newRowLoader(false);
+        int[] fieldIndexes = table.getFieldIndexes(List.of("id", "name"));
+        ROWS.forEach(fields -> loader.add(fieldIndexes, fields));
+        loader.finish();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void restoresValuesHoldingQuotesAndLineBreaks(boolean isCompressed) {
+        String restoredDatabase = "dump_restored_" + (isCompressed ? "gzip" : "plain");
+        dropIfExists(restoredDatabase);
+        File dumpFile = FileManager.generateSQLDump(SOURCE_DATABASE, isCompressed);
+
+        long rowCount = new SQLDumpRestorer(dumpFile, restoredDatabase).restore();
+
+        assertEquals(ROWS.size(), rowCount);
+        assertEquals(ROWS, readRows(SOURCE_DATABASE));
+        assertEquals(ROWS, readRows(restoredDatabase));
+    }
+
+    @Test
+    void replaysDumpThroughInsertQueries() throws IOException {
+        String replayedDatabase = "dump_replayed";
+        dropIfExists(replayedDatabase);
+        DatabaseManager.createDatabase(replayedDatabase);
+        Database database = getDatabase(replayedDatabase);
+        File dumpFile = FileManager.generateSQLDump(SOURCE_DATABASE, false);
+
+        for (String line : Files.readAllLines(dumpFile.toPath(), StandardCharsets.UTF_8)) {
+            String statement = line.endsWith(";") ? line.substring(0, line.length() - 1) : line;
+            if (statement.startsWith("CREATE TABLE "))
+                database.createTable(statement);
+            else if (statement.startsWith("INSERT INTO "))
+                database.insertIntoTable(statement);
+        }
+
+        assertEquals(ROWS, readRows(replayedDatabase));
+    }
+
+    @Test
+    void insertsQuotedValuesHoldingSeparators() {
+        String database = "dump_quoted_insert";
+        dropIfExists(database);
+        DatabaseManager.createDatabase(database);
+        getDatabase(database).createTable("CREATE TABLE people (id int primary_key, name string)");
+
+        getDatabase(database).insertIntoTable("INSERT INTO people (id, name) VALUES (1, 'it''s'), (2, 'a, b'), " +
+                "(3, \"(x)\"), (4, null)");
+
+        assertEquals(List.of(Arrays.asList("1", "it's"), Arrays.asList("2", "a, b"), Arrays.asList("3", "(x)"),
+                Arrays.asList("4", null)), readRows(database));
+    }
+
+    private static List<List<String>> readRows(String databaseName) {
+        List<List<String>> rows = new ArrayList<>();
+        try (RowCursor cursor = FileManager.openRowCursor(databaseName, "people", null)) {
+            while (cursor.hasNext()) {
+                Row row = cursor.next();
+                rows.add(Arrays.asList(row.getValue(0), row.isNull(1) ? null : row.getValue(1)));
+            }
+        }
+        return rows;
+    }
+
+    private static Database getDatabase(String databaseName) {
+        return DatabaseManager.getDatabases().stream()
+                .filter(database -> database.getName().equals(databaseName))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static void dropIfExists(String databaseName) {
+        if (DatabaseManager.getDatabases().stream().anyMatch(database -> database.getName().equals(databaseName)))
+            DatabaseManager.dropDatabase(databaseName);
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.storage;
+
+import org.example.database.Column;
+import org.example.database.Row;
+import org.example.database.RowSchema;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecordCodecTest {
+    private static final int PAGE_SIZE = 256;
+    // Page placed after other bytes of the buffer, so positions must be read relative to its base
+    private static final int BASE = 100;
+    private static final RowSchema SCHEMA = RowSchema.of(List.of(
+            new Column("id", "int", List.of("primary_key"), null, null),
+            new Column("score", "double", List.of(), null, null),
+            new Column("city", "string", List.of(), null, null)));
+
+    @TempDir
+    File directory;
+
+    @Test
+    void decodesEveryValueAsEncoded() {
+        ColumnDictionary dictionary = ColumnDictionary.load(new File(directory, "t" + ColumnDictionary.EXTENSION));
+        List<Row> rows = List.of(
+                row("1", "2.5", "Halifax"),
+                row("-7", "-0.125", "Toronto"),
+                row("007", "1e3", "Halifax"),
+                row("null", "null", "null"),
+                row("2", "3", ""));
+
+        ByteBuffer buffer = ByteBuffer.allocate(BASE + PAGE_SIZE);
+        SlottedPage page = SlottedPage.format(buffer, BASE, PAGE_SIZE);
+        for (Row row : rows)
+            assertTrue(page.insert(RecordCodec.encode(row, dictionary)));
+
+        SlottedPage readPage = new SlottedPage(buffer, BASE, PAGE_SIZE);
+        assertEquals(rows.size(), readPage.getSlotCount());
+        for (int slot = 0; slot < rows.size(); slot++) {
+            Row decodedRow = RecordCodec.decode(SCHEMA, buffer, readPage.getRecordPosition(slot), dictionary);
+            assertEquals(getValues(rows.get(slot)), getValues(decodedRow));
+        }
+    }
+
+    @Test
+    void storesStringsOfTheDictionaryAsCodes() {
+        ColumnDictionary dictionary = ColumnDictionary.load(new File(directory, "t" + ColumnDictionary.EXTENSION));
+        ByteBuffer buffer = ByteBuffer.wrap(RecordCodec.encode(row("1", "2.5", "Halifax"), dictionary));
+        assertEquals(dictionary.getCode(2, "Halifax"), RecordCodec.readDictionaryCode(buffer, 0, 2));
+        assertEquals(-1, RecordCodec.readDictionaryCode(buffer, 0, 0));
+
+        // Without dictionary strings are stored inline
+        ByteBuffer inlineBuffer = ByteBuffer.wrap(RecordCodec.encode(row("1", "2.5", "Halifax"), null));
+        assertEquals(-1, RecordCodec.readDictionaryCode(inlineBuffer, 0, 2));
+        assertEquals("Halifax", RecordCodec.decode(SCHEMA, inlineBuffer, 0, null).getValue(2));
+    }
+
+    @Test
+    void rejectsRecordsOnceThePageIsFull() {
+        ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        SlottedPage page = SlottedPage.format(buffer, 0, PAGE_SIZE);
+        assertEquals(PAGE_SIZE - SlottedPage.HEADER_SIZE, page.getFreeSpace());
+
+        List<Row> rows = new ArrayList<>();
+        while (true) {
+            Row row = row(String.valueOf(rows.size()), "0.5", "city " + rows.size());
+            int freeSpace = page.getFreeSpace();
+            byte[] record = RecordCodec.encode(row, null);
+            if (!page.insert(record)) {
+                assertTrue(freeSpace < record.length + SlottedPage.SLOT_SIZE);
+                assertEquals(freeSpace, page.getFreeSpace());
+                break;
+            }
+            assertEquals(freeSpace - record.length - SlottedPage.SLOT_SIZE, page.getFreeSpace());
+            rows.add(row);
+        }
+        assertFalse(rows.isEmpty());
+        assertEquals(rows.size(), page.getSlotCount());
+        for (int slot = 0; slot < rows.size(); slot++) {
+            assertEquals(RecordCodec.encode(rows.get(slot), null).length, page.getRecordLength(slot));
+            assertEquals(getValues(rows.get(slot)),
+                    getValues(RecordCodec.decode(SCHEMA, buffer, page.getRecordPosition(slot), null)));
+        }
+    }
+
+    private static Row row(String id, String score, String city) {
+        return Row.builder(SCHEMA).setValue(0, id).setValue(1, score).setValue(2, city).build();
+    }
+
+    private static List<String> getValues(Row row) {
+        List<String> values = new ArrayList<>();
+        for (int index = 0; index < SCHEMA.size(); index++)
+            values.add(row.getValue(index));
+        return values;
+    }
+}
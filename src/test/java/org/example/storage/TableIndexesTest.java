@@ -0,0 +1,120 @@
+package org.example.storage;
+
+import org.example.database.Column;
+import org.example.database.Condition;
+import org.example.database.Row;
+import org.example.database.RowSchema;
+import org.example.enums.Compression;
+import org.example.enums.IndexType;
+import org.example.enums.StorageEngine;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class TableIndexesTest {
+    private static final int ROW_COUNT = 300;
+    private static final String[] CITIES = {"Halifax", "Toronto", "Montreal", "Vancouver", "Calgary"};
+    private static final RowSchema SCHEMA = RowSchema.of(List.of(
+            new Column("id", "int", List.of("primary_key"), null, null),
+            new Column("city", "string", List.of(), null, null),
+            new Column("score", "int", List.of(), null, null)));
+
+    @TempDir
+    File directory;
+
+    private TableFile tableFile;
+
+    /**
+     * Create the table with a btree index on score and a bitmap index on city. The indexes of a ROW table are built
+     * again by the rewrite of every write, those of a LOG table have the entries of replaced rows removed.
+     */
+    private void createIndexedTable(StorageEngine engine) {
+        tableFile = new TableFile(new File(directory, "scores" + TableFile.EXTENSION));
+        tableFile.create("id: int [primary_key] | city: string [] | score: int [] | ", engine, Compression.NONE);
+        List<Row> rows = new ArrayList<>();
+        for (int id = 0; id < ROW_COUNT; id++)
+            rows.add(Row.builder(SCHEMA).setInt(0, id).setString(1, CITIES[id % CITIES.length]).setInt(2, id % 20).build());
+        tableFile.appendRows(rows);
+        tableFile.createIndex(SCHEMA, new IndexDefinition("scores_score", "score", IndexType.BTREE));
+        tableFile.createIndex(SCHEMA, new IndexDefinition("scores_city", "city", IndexType.BITMAP));
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageEngine.class)
+    void matchesScanAfterUpdate(StorageEngine engine) {
+        createIndexedTable(engine);
+        tableFile.updateRows(SCHEMA, row -> row.getInt(0) % 3 == 0, row -> Row.builder(SCHEMA)
+                .setInt(0, row.getInt(0))
+                .setString(1, "Moved")
+                .setInt(2, 100 + row.getInt(0) % 7)
+                .build());
+        assertIndexesMatchScan();
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageEngine.class)
+    void matchesScanAfterDelete(StorageEngine engine) {
+        createIndexedTable(engine);
+        tableFile.deleteRows(SCHEMA, row -> row.getInt(0) % 5 == 0);
+        assertIndexesMatchScan();
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageEngine.class)
+    void matchesScanAfterUpdateAndDelete(StorageEngine engine) {
+        createIndexedTable(engine);
+        tableFile.updateRows(SCHEMA, row -> row.getInt(0) % 4 == 1, row -> Row.builder(SCHEMA)
+                .setInt(0, row.getInt(0) + ROW_COUNT)
+                .setString(1, row.getString(1))
+                .setInt(2, row.getInt(2) + 1)
+                .build());
+        tableFile.deleteRows(SCHEMA, row -> row.getInt(2) == 3);
+        assertIndexesMatchScan();
+    }
+
+    private void assertIndexesMatchScan() {
+        List<String> liveIds = scan(row -> true, 0);
+        for (int id = 0; id < ROW_COUNT * 2; id++)
+            assertEquals(liveIds.contains(String.valueOf(id)), tableFile.containsValue(SCHEMA, 0, String.valueOf(id)));
+        for (int score = 0; score < 110; score++) {
+            Condition condition = Condition.parse(SCHEMA, "score = " + score);
+            assertEquals(scan(condition::test, 0), readIds(tableFile.openCursor(SCHEMA, condition)));
+        }
+        for (String city : List.of("Halifax", "Toronto", "Montreal", "Vancouver", "Calgary", "Moved", "Ottawa")) {
+            Condition condition = Condition.parse(SCHEMA, "city = " + city);
+            RowCursor indexCursor = tableFile.openIndexCursor(SCHEMA, condition);
+            assertNotNull(indexCursor);
+            assertEquals(scan(condition::test, 0), readIds(indexCursor));
+            assertEquals(scan(condition::test, 0).size(), tableFile.countRows(SCHEMA, condition));
+        }
+    }
+
+    /**
+     * Read the values of a column from the rows matching the predicate, without any index
+     */
+    private List<String> scan(Predicate<Row> predicate, int column) {
+        List<String> values = new ArrayList<>();
+        tableFile.forEachRow(SCHEMA, row -> {
+            if (predicate.test(row))
+                values.add(row.getValue(column));
+        });
+        return values;
+    }
+
+    private static List<String> readIds(RowCursor cursor) {
+        List<String> ids = new ArrayList<>();
+        try (cursor) {
+            while (cursor.hasNext())
+                ids.add(cursor.next().getValue(0));
+        }
+        return ids;
+    }
+}
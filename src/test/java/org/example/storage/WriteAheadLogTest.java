@@ -0,0 +1,68 @@
+package org.example.storage;
+
+import org.example.database.Column;
+import org.example.database.Row;
+import org.example.database.RowSchema;
+import org.example.enums.Compression;
+import org.example.enums.StorageEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteAheadLogTest {
+    private static final String TABLE = "events";
+    private static final RowSchema SCHEMA = RowSchema.of(List.of(
+            new Column("id", "int", List.of("primary_key"), null, null),
+            new Column("name", "string", List.of(), null, null)));
+
+    @TempDir
+    File directory;
+
+    @Test
+    void recoversOnlyRowsMissingFromTheTableFile() {
+        TableFile tableFile = new TableFile(new File(directory, TABLE + TableFile.EXTENSION));
+        tableFile.create("id: int [primary_key] | name: string [] | ", StorageEngine.ROW, Compression.NONE);
+        WriteAheadLog.TableResolver tables = new WriteAheadLog.TableResolver() {
+            @Override
+            public TableFile getTableFile(String tableName) {
+                return tableName.equals(TABLE) ? tableFile : null;
+            }
+
+            @Override
+            public RowSchema getSchema(TableFile file) {
+                return SCHEMA;
+            }
+        };
+        List<Row> rows = new ArrayList<>();
+        for (int id = 0; id < 5; id++)
+            rows.add(Row.builder(SCHEMA).setInt(0, id).setString(1, "event " + id).build());
+        WriteAheadLog.get(directory).logInserts(TABLE, rows, tables);
+
+        // Crash after the first rows reached the table file but before the log was emptied
+        tableFile.appendRows(rows.subList(0, 2));
+        WriteAheadLog.remove(directory);
+        File logFile = new File(new File(directory, "wal"), "wal.log");
+        assertTrue(logFile.length() > 0);
+
+        WriteAheadLog.get(directory).recover(tables);
+        assertEquals(List.of("0", "1", "2", "3", "4"), getIds(tableFile));
+        assertEquals(0, logFile.length());
+
+        // Recovering an empty log leaves the table file as it is
+        WriteAheadLog.get(directory).recover(tables);
+        assertEquals(5, getIds(tableFile).size());
+        WriteAheadLog.remove(directory);
+    }
+
+    private static List<String> getIds(TableFile tableFile) {
+        List<String> ids = new ArrayList<>();
+        tableFile.forEachRow(SCHEMA, row -> ids.add(row.getValue(0)));
+        return ids;
+    }
+}